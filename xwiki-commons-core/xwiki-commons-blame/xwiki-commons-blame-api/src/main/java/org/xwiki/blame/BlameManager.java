@@ -20,9 +20,12 @@
 
 package org.xwiki.blame;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Function;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Annotate/Blame/Praise tool that allow building annotated content from the content of all revision starting with
@@ -47,4 +50,32 @@
      * @return the updated annotated content.
      */
     <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R revision, List<E> previous);
+
+    /**
+     * Annotate content with a series of revisions, from the most recent to the oldest one. This is the same as calling
+     * {@link #blame(AnnotatedContent, Object, List)} for each revision, but it stops as soon as the content is
+     * entirely annotated and implementations are free to optimize the analysis of the whole series.
+     *
+     * @param <R> type of the revision object that old metadata about the revision.
+     * @param <E> type of the element to annotate (ie: String holding a line).
+     * @param content the annotated content (up to the revision preceding the first given one), use null to start a
+     *            new blame.
+     * @param revisions the revisions to analyse, from the most recent to the oldest one
+     * @param contentProvider provide the content of each revision
+     * @return the updated annotated content.
+     * @since 12.7
+     */
+    @Unstable
+    default <R, E> AnnotatedContent<R, E> blameRevisions(AnnotatedContent<R, E> content, Iterator<R> revisions,
+        Function<R, List<E>> contentProvider)
+    {
+        AnnotatedContent<R, E> result = content;
+
+        while (revisions.hasNext() && (result == null || !result.isEntirelyAnnotated())) {
+            R revision = revisions.next();
+            result = blame(result, revision, contentProvider.apply(revision));
+        }
+
+        return result;
+    }
 }
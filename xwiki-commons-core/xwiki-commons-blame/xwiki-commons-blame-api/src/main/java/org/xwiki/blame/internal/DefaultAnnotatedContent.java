@@ -21,9 +21,11 @@
 package org.xwiki.blame.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 import org.xwiki.blame.AnnotatedContent;
 import org.xwiki.blame.AnnotatedElement;
@@ -48,10 +50,30 @@
     private R currentRevision;
     private final List<Integer> elementList;
     private final int size;
+    private int remaining;
+
+    /**
+     * The differences between two revisions of the content, limited to the part which is not common to both.
+     *
+     * @param <E> type of the element to annotate (ie: String holding a line).
+     */
+    static final class RevisionDiff<E>
+    {
+        private final int offset;
+
+        private final List<Delta<E>> deltas;
+
+        private RevisionDiff(int offset, List<Delta<E>> deltas)
+        {
+            this.offset = offset;
+            this.deltas = deltas;
+        }
+    }
 
     DefaultAnnotatedContent(R revision, List<E> initialContent)
     {
         this.size = initialContent.size();
+        this.remaining = this.size;
         this.sourceRevisions = new ArrayList<>(this.size);
         this.initialContent = initialContent;
         this.currentRevisionContent = new ArrayList<>(initialContent);
@@ -106,12 +128,52 @@ public R getOldestRevision()
     @Override
     public boolean isEntirelyAnnotated()
     {
-        for (int i = 0; i < this.size; i++) {
-            if (this.sourceRevisions.get(i) == null) {
-                return false;
-            }
+        return this.remaining == 0;
+    }
+
+    /**
+     * @return the content of the oldest revision provided to this annotated content
+     */
+    List<E> getCurrentRevisionContent()
+    {
+        return this.currentRevisionContent;
+    }
+
+    /**
+     * Compute the differences between two revisions of the content. The common beginning and end of the contents are
+     * skipped, which keeps the diff minimal while avoiding to diff the (usually big) unchanged part of the content.
+     *
+     * @param <E> type of the element to annotate (ie: String holding a line).
+     * @param content the content of a revision
+     * @param previous the content of the previous revision
+     * @return the differences between the two contents
+     */
+    static <E> RevisionDiff<E> diff(List<E> content, List<E> previous)
+    {
+        int end = Math.min(content.size(), previous.size());
+
+        int start = 0;
+        while (start < end && Objects.equals(content.get(start), previous.get(start))) {
+            start++;
+        }
+
+        int contentEnd = content.size();
+        int previousEnd = previous.size();
+        while (contentEnd > start && previousEnd > start
+            && Objects.equals(content.get(contentEnd - 1), previous.get(previousEnd - 1))) {
+            contentEnd--;
+            previousEnd--;
+        }
+
+        List<Delta<E>> deltas;
+        if (start == contentEnd && start == previousEnd) {
+            deltas = Collections.emptyList();
+        } else {
+            deltas = DiffUtils.diff(content.subList(start, contentEnd), previous.subList(start, previousEnd))
+                .getDeltas();
         }
-        return true;
+
+        return new RevisionDiff<>(start, deltas);
     }
 
     /**
@@ -121,6 +183,19 @@ public boolean isEntirelyAnnotated()
      * @param previous the content in a previous revision.
      */
     void analyseRevision(R revision, List<E> previous)
+    {
+        analyseRevision(revision, previous, null);
+    }
+
+    /**
+     * Resolve revision of line to current revision based on given previous content and the differences between the
+     * current content and the previous one, and prepare for next analysis.
+     *
+     * @param revision the revision of the content provided.
+     * @param previous the content in a previous revision.
+     * @param diff the differences between the current content and the given previous content, null to compute them
+     */
+    void analyseRevision(R revision, List<E> previous, RevisionDiff<E> diff)
     {
         if (currentRevision == null) {
             return;
@@ -129,7 +204,8 @@ void analyseRevision(R revision, List<E> previous)
         if (previous == null || previous.isEmpty()) {
             resolveRemainingToCurrent();
         } else {
-            resolveToCurrent(DiffUtils.diff(currentRevisionContent, previous).getDeltas());
+            RevisionDiff<E> revisionDiff = diff != null ? diff : diff(currentRevisionContent, previous);
+            resolveToCurrent(revisionDiff.deltas, revisionDiff.offset);
             assert currentRevisionContent.equals(previous) : "Patch application failed";
         }
 
@@ -142,10 +218,11 @@ void analyseRevision(R revision, List<E> previous)
      * Thanks to Michael Schierl <schierlm%40gmx.de> for sharing this code on StackOverflow.
      *
      * @param deltas the delta to apply to current content to move to previous revision.
+     * @param offset the position in the current content of the first element covered by the deltas.
      */
-    private void resolveToCurrent(List<Delta<E>> deltas)
+    private void resolveToCurrent(List<Delta<E>> deltas, int offset)
     {
-        int lineOffset = 0;
+        int lineOffset = offset;
 
         for (Delta<E> d : deltas) {
             Chunk<E> original = d.getOriginal();
@@ -156,8 +233,8 @@ private void resolveToCurrent(List<Delta<E>> deltas)
             for (int i = 0; i < original.size(); i++) {
                 int origLine = elementList.remove(pos);
                 currentRevisionContent.remove(pos);
-                if (origLine != -1) {
-                    sourceRevisions.set(origLine, currentRevision);
+                if (origLine != -1 && sourceRevisions.set(origLine, currentRevision) == null) {
+                    remaining--;
                 }
             }
 
@@ -180,5 +257,6 @@ private void resolveRemainingToCurrent()
                 sourceRevisions.set(i, currentRevision);
             }
         }
+        remaining = 0;
     }
 }
@@ -17,16 +17,27 @@
  * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
-
 package org.xwiki.blame.internal;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.xwiki.blame.AnnotatedContent;
 import org.xwiki.blame.BlameManager;
+import org.xwiki.blame.internal.DefaultAnnotatedContent.RevisionDiff;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
 
 /**
  * Default implementation of {@link org.xwiki.blame.BlameManager}.
@@ -36,8 +47,37 @@
  */
 @Component
 @Singleton
-public class DefaultBlameManager implements BlameManager
+public class DefaultBlameManager implements BlameManager, Disposable
 {
+    /**
+     * The maximum number of revisions fetched and diffed in advance.
+     */
+    private static final int PREFETCH = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private ExecutorService executor;
+
+    /**
+     * A revision fetched in advance and the pending diff between its content and the content of the next revision.
+     *
+     * @param <R> type of the revision object that old metadata about the revision.
+     * @param <E> type of the element to annotate (ie: String holding a line).
+     */
+    private static final class PendingRevision<R, E>
+    {
+        private final R revision;
+
+        private final List<E> content;
+
+        private final Future<RevisionDiff<E>> diff;
+
+        PendingRevision(R revision, List<E> content, Future<RevisionDiff<E>> diff)
+        {
+            this.revision = revision;
+            this.content = content;
+            this.diff = diff;
+        }
+    }
+
     @Override
     public <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R revision, List<E> previous)
     {
@@ -48,11 +88,120 @@ public <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R rev
             return new DefaultAnnotatedContent<>(revision, previous);
         }
 
+        ((DefaultAnnotatedContent<R, E>) checkContent(content)).analyseRevision(revision, previous);
+        return content;
+    }
+
+    @Override
+    public <R, E> AnnotatedContent<R, E> blameRevisions(AnnotatedContent<R, E> content, Iterator<R> revisions,
+        Function<R, List<E>> contentProvider)
+    {
+        AnnotatedContent<R, E> result = content;
+
+        // Start a new blame with the first valid revision
+        while (result == null && revisions.hasNext()) {
+            R revision = revisions.next();
+            result = blame(null, revision, contentProvider.apply(revision));
+        }
+
+        if (result == null || result.isEntirelyAnnotated() || !revisions.hasNext()) {
+            return result;
+        }
+
+        DefaultAnnotatedContent<R, E> annotatedContent = (DefaultAnnotatedContent<R, E>) checkContent(result);
+
+        analyseRevisions(annotatedContent, revisions, contentProvider);
+
+        return annotatedContent;
+    }
+
+    private <R, E> void analyseRevisions(DefaultAnnotatedContent<R, E> annotatedContent, Iterator<R> revisions,
+        Function<R, List<E>> contentProvider)
+    {
+        // The content of each revision is fetched in the current thread (in advance) while the diffs between
+        // consecutive revisions, which don't depend on the annotations, are computed in parallel
+        ExecutorService currentExecutor = getExecutor();
+        Deque<PendingRevision<R, E>> pendingRevisions = new ArrayDeque<>(PREFETCH);
+        List<E> newerContent = annotatedContent.getCurrentRevisionContent();
+        try {
+            while (!annotatedContent.isEntirelyAnnotated()
+                && (revisions.hasNext() || !pendingRevisions.isEmpty())) {
+                while (pendingRevisions.size() < PREFETCH && revisions.hasNext()) {
+                    R revision = revisions.next();
+                    List<E> previous = contentProvider.apply(revision);
+                    Future<RevisionDiff<E>> diff = submitDiff(currentExecutor, newerContent, previous);
+                    pendingRevisions.add(new PendingRevision<>(revision, previous, diff));
+
+                    if (diff != null) {
+                        newerContent = previous;
+                    }
+                }
+
+                PendingRevision<R, E> pendingRevision = pendingRevisions.poll();
+                annotatedContent.analyseRevision(pendingRevision.revision, pendingRevision.content,
+                    getDiff(pendingRevision));
+            }
+        } finally {
+            // Cancel the diffs which are not needed anymore
+            pendingRevisions.stream().filter(p -> p.diff != null).forEach(p -> p.diff.cancel(true));
+        }
+    }
+
+    private <R, E> AnnotatedContent<R, E> checkContent(AnnotatedContent<R, E> content)
+    {
         if (!(content instanceof DefaultAnnotatedContent)) {
             throw new IllegalArgumentException("Incompatible annotated content type provided");
         }
 
-        ((DefaultAnnotatedContent<R, E>) content).analyseRevision(revision, previous);
         return content;
     }
+
+    private <E> Future<RevisionDiff<E>> submitDiff(ExecutorService currentExecutor, List<E> content,
+        List<E> previous)
+    {
+        if (previous == null || previous.isEmpty()) {
+            // Nothing to diff
+            return null;
+        }
+
+        return currentExecutor.submit(() -> DefaultAnnotatedContent.diff(content, previous));
+    }
+
+    private <R, E> RevisionDiff<E> getDiff(PendingRevision<R, E> pendingRevision)
+    {
+        if (pendingRevision.diff == null) {
+            return null;
+        }
+
+        try {
+            return pendingRevision.diff.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for the diff of a revision", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to diff revision [" + pendingRevision.revision + "]",
+                e.getCause());
+        }
+    }
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null) {
+            BasicThreadFactory threadFactory =
+                new BasicThreadFactory.Builder().namingPattern("Blame diff %d").daemon(true).build();
+            this.executor = Executors.newFixedThreadPool(PREFETCH, threadFactory);
+        }
+
+        return this.executor;
+    }
+
+    @Override
+    public synchronized void dispose() throws ComponentLifecycleException
+    {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
 }
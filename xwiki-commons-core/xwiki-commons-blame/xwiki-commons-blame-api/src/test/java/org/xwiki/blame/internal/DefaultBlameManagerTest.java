@@ -20,14 +20,22 @@
 
 package org.xwiki.blame.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.blame.AnnotatedContent;
 import org.xwiki.blame.AnnotatedElement;
+import org.xwiki.blame.BlameManager;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 
@@ -36,6 +44,10 @@
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ComponentTest
@@ -62,6 +74,12 @@ public String toString()
     @InjectMockComponents
     private DefaultBlameManager blameManager;
 
+    @AfterEach
+    void afterEach() throws ComponentLifecycleException
+    {
+        this.blameManager.dispose();
+    }
+
     @Test
     void blameNullRevision()
     {
@@ -143,4 +161,128 @@ void blame()
         });
         assertEquals("No more annotated content", exception.getMessage());
     }
+
+    @Test
+    void blameWithRevisions() throws Exception
+    {
+        Revision rev1 = new Revision("rev1");
+        Revision rev2 = new Revision("rev2");
+        Revision rev3 = new Revision("rev3");
+        Revision rev4 = new Revision("rev4");
+
+        Map<Revision, List<String>> contents = new HashMap<>();
+        contents.put(rev4, Arrays.asList("a", "b", "c", "d"));
+        contents.put(rev3, Arrays.asList("a", "c", "d"));
+        contents.put(rev2, Arrays.asList("a", "d"));
+        contents.put(rev1, Arrays.asList("d"));
+
+        AnnotatedContent<Revision, String> annotatedContent =
+            this.blameManager.blameRevisions(null, Arrays.asList(rev4, rev3, rev2, rev1).iterator(), contents::get);
+
+        assertFalse(annotatedContent.isEntirelyAnnotated());
+        assertSame(rev1, annotatedContent.getOldestRevision());
+        assertEquals(Arrays.asList(rev2, rev4, rev3, null), getRevisions(annotatedContent));
+
+        // Continue with an empty oldest revision
+        contents.put(null, Collections.emptyList());
+        annotatedContent =
+            this.blameManager.blameRevisions(annotatedContent, Arrays.asList(null, rev1).iterator(), contents::get);
+
+        assertTrue(annotatedContent.isEntirelyAnnotated());
+        assertEquals(Arrays.asList(rev2, rev4, rev3, rev1), getRevisions(annotatedContent));
+        assertNull(annotatedContent.getOldestRevision());
+
+        // Nothing left to annotate
+        Iterator<Revision> revisions = Arrays.asList(rev1).iterator();
+        assertSame(annotatedContent, this.blameManager.blameRevisions(annotatedContent, revisions, contents::get));
+        assertTrue(revisions.hasNext());
+    }
+
+    @Test
+    void blameWithRevisionsWithoutContent()
+    {
+        assertNull(this.blameManager.blameRevisions(null, Collections.<Revision>emptyIterator(), r -> null));
+        assertNull(this.blameManager.blameRevisions(null, Arrays.asList(new Revision("rev1")).iterator(), r -> null));
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> this.blameManager
+            .blameRevisions(new AnnotatedContent<Revision, String>()
+            {
+                @Override
+                public Iterator<AnnotatedElement<Revision, String>> iterator()
+                {
+                    return null;
+                }
+
+                @Override
+                public Revision getOldestRevision()
+                {
+                    return null;
+                }
+
+                @Override
+                public boolean isEntirelyAnnotated()
+                {
+                    return false;
+                }
+            }, Arrays.asList(new Revision("rev1")).iterator(), r -> Arrays.asList("a")));
+        assertEquals("Incompatible annotated content type provided", exception.getMessage());
+    }
+
+    @Test
+    void blameWithRevisionsIsSameAsSequentialBlame()
+    {
+        // The default implementation calls the sequential blame for each revision
+        BlameManager sequentialBlameManager = new BlameManager()
+        {
+            @Override
+            public <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R revision, List<E> previous)
+            {
+                return blameManager.blame(content, revision, previous);
+            }
+        };
+
+        Random random = new Random(42);
+        List<String> content = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            content.add("line " + random.nextInt(50));
+        }
+
+        List<Revision> revisions = new ArrayList<>();
+        Map<Revision, List<String>> contents = new HashMap<>();
+        for (int i = 100; i > 0; --i) {
+            Revision revision = new Revision("rev" + i);
+            revisions.add(revision);
+            contents.put(revision, content);
+
+            // Modify a few lines for the previous revision
+            content = new ArrayList<>(content);
+            for (int j = random.nextInt(4); j >= 0 && !content.isEmpty(); --j) {
+                int index = random.nextInt(content.size());
+                if (random.nextBoolean()) {
+                    content.remove(index);
+                } else {
+                    content.set(index, "line " + random.nextInt(50));
+                }
+            }
+        }
+
+        AnnotatedContent<Revision, String> expected =
+            sequentialBlameManager.blameRevisions(null, revisions.iterator(), contents::get);
+        AnnotatedContent<Revision, String> actual =
+            this.blameManager.blameRevisions(null, revisions.iterator(), contents::get);
+
+        assertEquals(getRevisions(expected), getRevisions(actual));
+        assertEquals(expected.isEntirelyAnnotated(), actual.isEntirelyAnnotated());
+        assertSame(expected.getOldestRevision(), actual.getOldestRevision());
+    }
+
+    private <R, E> List<R> getRevisions(AnnotatedContent<R, E> annotatedContent)
+    {
+        List<R> revisions = new ArrayList<>();
+        for (AnnotatedElement<R, E> element : annotatedContent) {
+            revisions.add(element.getRevision());
+        }
+
+        return revisions;
+    }
 }
@@ -0,0 +1,490 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.classloader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * A {@link NamespaceURLClassLoader} which indexes the packages of the JARs it contains to go straight to the JARs
+ * which might contain a class or a resource instead of probing each JAR in order.
+ * <p>
+ * The index is updated each time a URL is added. URLs which cannot be indexed (folders, remote JARs, etc.) disable the
+ * index and make the class loader behave like a standard {@link java.net.URLClassLoader}. Classes and resources which
+ * could not be found are remembered until a new URL is added.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Unstable
+public class IndexedNamespaceURLClassLoader extends NamespaceURLClassLoader
+{
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final String JAR_PREFIX = "jar:";
+
+    private static final String JAR_SEPARATOR = "!/";
+
+    private static final char PATH_SEPARATOR = '/';
+
+    private static final int MAX_MISSES = 10000;
+
+    /**
+     * {@code ClassLoader#getDefinedPackage(String)} when running on Java 9 or more,
+     * {@code ClassLoader#getPackage(String)} (deprecated since Java 9) otherwise.
+     */
+    private static final MethodHandle GET_DEFINED_PACKAGE = getDefinedPackageHandle();
+
+    /**
+     * The statistics of an {@link IndexedNamespaceURLClassLoader}.
+     *
+     * @version $Id$
+     */
+    public static final class Statistics
+    {
+        private final LongAdder lookups = new LongAdder();
+
+        private final LongAdder indexMisses = new LongAdder();
+
+        private final LongAdder cachedMisses = new LongAdder();
+
+        private final LongAdder probes = new LongAdder();
+
+        private final LongAdder fallbacks = new LongAdder();
+
+        /**
+         * @return the number of class and resource lookups done in the class loader URLs
+         */
+        public long getLookups()
+        {
+            return this.lookups.sum();
+        }
+
+        /**
+         * @return the number of lookups resolved as not found directly from the package index
+         */
+        public long getIndexMisses()
+        {
+            return this.indexMisses.sum();
+        }
+
+        /**
+         * @return the number of lookups resolved as not found from the cache of missing classes and resources
+         */
+        public long getCachedMisses()
+        {
+            return this.cachedMisses.sum();
+        }
+
+        /**
+         * @return the number of JARs checked by the lookups which went through the index
+         */
+        public long getProbes()
+        {
+            return this.probes.sum();
+        }
+
+        /**
+         * @return the number of lookups delegated to the standard {@link java.net.URLClassLoader} behavior because
+         *         some URLs could not be indexed
+         */
+        public long getFallbacks()
+        {
+            return this.fallbacks.sum();
+        }
+    }
+
+    private static final class IndexedJAR
+    {
+        private final URL url;
+
+        private final JarFile file;
+
+        private IndexedJAR(URL url, JarFile file)
+        {
+            this.url = url;
+            this.file = file;
+        }
+    }
+
+    private final Map<String, List<IndexedJAR>> packages = new ConcurrentHashMap<>();
+
+    private final List<IndexedJAR> jars = new CopyOnWriteArrayList<>();
+
+    private final Set<String> misses = ConcurrentHashMap.newKeySet();
+
+    private final Statistics statistics = new Statistics();
+
+    /**
+     * Incremented each time the index changes, to not remember as missing something found in a new URL.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile boolean indexed = true;
+
+    /**
+     * @param urls the search path.
+     * @param parent the parent class loader
+     * @param namespace see {@link #getNamespace()}
+     */
+    public IndexedNamespaceURLClassLoader(URL[] urls, ClassLoader parent, String namespace)
+    {
+        super(urls, parent, namespace);
+
+        for (URL url : urls) {
+            index(url);
+        }
+    }
+
+    /**
+     * @param parent the parent class loader
+     * @param namespace see {@link #getNamespace()}
+     */
+    public IndexedNamespaceURLClassLoader(ClassLoader parent, String namespace)
+    {
+        this(new URL[] {}, parent, namespace);
+    }
+
+    /**
+     * @return the statistics of the lookups done in this class loader
+     */
+    public Statistics getStatistics()
+    {
+        return this.statistics;
+    }
+
+    /**
+     * @return true if all the URLs of the class loader are indexed
+     */
+    public boolean isIndexed()
+    {
+        return this.indexed;
+    }
+
+    @Override
+    public synchronized void addURL(URL url)
+    {
+        super.addURL(url);
+
+        index(url);
+    }
+
+    private void index(URL url)
+    {
+        if (this.indexed) {
+            indexJAR(url);
+        }
+
+        // Classes or resources which were missing might be provided by the new URL
+        this.generation.incrementAndGet();
+        this.misses.clear();
+    }
+
+    private void indexJAR(URL url)
+    {
+        JarFile jar = openJAR(url);
+
+        if (jar == null) {
+            this.indexed = false;
+            this.packages.clear();
+        } else {
+            IndexedJAR indexedJAR = new IndexedJAR(url, jar);
+
+            Set<String> jarPackages = new HashSet<>();
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                jarPackages.add(getPackagePath(entries.nextElement().getName()));
+            }
+
+            for (String jarPackage : jarPackages) {
+                this.packages.computeIfAbsent(jarPackage, k -> new CopyOnWriteArrayList<>()).add(indexedJAR);
+            }
+
+            this.jars.add(indexedJAR);
+        }
+    }
+
+    private JarFile openJAR(URL url)
+    {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            File file = new File(url.toURI());
+
+            return file.isFile() ? new JarFile(file) : null;
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle getDefinedPackageHandle()
+    {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType type = MethodType.methodType(Package.class, String.class);
+
+        try {
+            return lookup.findVirtual(ClassLoader.class, "getDefinedPackage", type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            try {
+                return lookup.findVirtual(ClassLoader.class, "getPackage", type);
+            } catch (NoSuchMethodException | IllegalAccessException e2) {
+                throw new IllegalStateException("Failed to find a method to get the packages of a class loader", e2);
+            }
+        }
+    }
+
+    private static String getPackagePath(String path)
+    {
+        int end = path.length();
+        if (end > 0 && path.charAt(end - 1) == PATH_SEPARATOR) {
+            --end;
+        }
+
+        int index = path.lastIndexOf(PATH_SEPARATOR, end - 1);
+
+        return index > 0 ? path.substring(0, index) : "";
+    }
+
+    /**
+     * @param path the path of the class or resource
+     * @return the JARs which might contain the passed path or null if the index should not be used
+     */
+    private List<IndexedJAR> getCandidates(String path)
+    {
+        this.statistics.lookups.increment();
+
+        if (!this.indexed) {
+            this.statistics.fallbacks.increment();
+
+            return null;
+        }
+
+        if (this.misses.contains(path)) {
+            this.statistics.cachedMisses.increment();
+
+            return Collections.emptyList();
+        }
+
+        List<IndexedJAR> candidates = this.packages.get(getPackagePath(path));
+        if (candidates == null) {
+            this.statistics.indexMisses.increment();
+
+            return Collections.emptyList();
+        }
+
+        return candidates;
+    }
+
+    /**
+     * @param path the path of the class or resource which could not be found
+     * @param lookupGeneration the generation of the index when the lookup started
+     */
+    private void addMiss(String path, long lookupGeneration)
+    {
+        if (this.misses.size() >= MAX_MISSES) {
+            this.misses.clear();
+        }
+
+        this.misses.add(path);
+
+        // A URL was added during the lookup, it might provide what was looked for
+        if (this.generation.get() != lookupGeneration) {
+            this.misses.remove(path);
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException
+    {
+        String path = name.replace('.', PATH_SEPARATOR).concat(CLASS_SUFFIX);
+
+        long lookupGeneration = this.generation.get();
+        List<IndexedJAR> candidates = getCandidates(path);
+        if (candidates == null) {
+            return super.findClass(name);
+        }
+
+        for (IndexedJAR jar : candidates) {
+            this.statistics.probes.increment();
+
+            JarEntry entry = jar.file.getJarEntry(path);
+            if (entry != null) {
+                try {
+                    return defineClass(name, jar, entry);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+
+        addMiss(path, lookupGeneration);
+
+        throw new ClassNotFoundException(name);
+    }
+
+    private Class<?> defineClass(String name, IndexedJAR jar, JarEntry entry) throws IOException
+    {
+        int index = name.lastIndexOf('.');
+        if (index != -1) {
+            definePackage(name.substring(0, index), jar);
+        }
+
+        byte[] bytes;
+        try (InputStream stream = jar.file.getInputStream(entry)) {
+            ByteArrayOutputStream buffer =
+                new ByteArrayOutputStream(entry.getSize() > 0 ? (int) entry.getSize() : 4096);
+            byte[] chunk = new byte[4096];
+            for (int read = stream.read(chunk); read != -1; read = stream.read(chunk)) {
+                buffer.write(chunk, 0, read);
+            }
+            bytes = buffer.toByteArray();
+        }
+
+        // The signers are known only after the entry has been fully read
+        CodeSource codeSource = new CodeSource(jar.url, entry.getCodeSigners());
+
+        return defineClass(name, bytes, 0, bytes.length, codeSource);
+    }
+
+    private void definePackage(String packageName, IndexedJAR jar) throws IOException
+    {
+        if (getDefinedPackage(this, packageName) == null) {
+            try {
+                Manifest manifest = jar.file.getManifest();
+                if (manifest != null) {
+                    definePackage(packageName, manifest, jar.url);
+                } else {
+                    definePackage(packageName, null, null, null, null, null, null, null);
+                }
+            } catch (IllegalArgumentException e) {
+                // The package was defined in the meantime
+            }
+        }
+    }
+
+    private static Package getDefinedPackage(ClassLoader classLoader, String packageName)
+    {
+        try {
+            return (Package) GET_DEFINED_PACKAGE.invoke(classLoader, packageName);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to get the package [" + packageName + "]", e);
+        }
+    }
+
+    @Override
+    public URL findResource(String name)
+    {
+        long lookupGeneration = this.generation.get();
+        List<IndexedJAR> candidates = getCandidates(name);
+        if (candidates == null) {
+            return super.findResource(name);
+        }
+
+        for (IndexedJAR jar : candidates) {
+            this.statistics.probes.increment();
+
+            if (jar.file.getEntry(name) != null) {
+                return toURL(jar, name);
+            }
+        }
+
+        addMiss(name, lookupGeneration);
+
+        return null;
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException
+    {
+        long lookupGeneration = this.generation.get();
+        List<IndexedJAR> candidates = getCandidates(name);
+        if (candidates == null) {
+            return super.findResources(name);
+        }
+
+        List<URL> urls = new ArrayList<>();
+        for (IndexedJAR jar : candidates) {
+            this.statistics.probes.increment();
+
+            if (jar.file.getEntry(name) != null) {
+                URL url = toURL(jar, name);
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+        }
+
+        if (urls.isEmpty()) {
+            addMiss(name, lookupGeneration);
+        }
+
+        return Collections.enumeration(urls);
+    }
+
+    private URL toURL(IndexedJAR jar, String name)
+    {
+        try {
+            return new URL(JAR_PREFIX + jar.url.toExternalForm() + JAR_SEPARATOR + name);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+
+        for (IndexedJAR jar : this.jars) {
+            jar.file.close();
+        }
+        this.jars.clear();
+        this.packages.clear();
+        this.misses.clear();
+    }
+}
@@ -24,16 +24,19 @@
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.slf4j.Logger;
 import org.xwiki.classloader.ClassLoaderManager;
+import org.xwiki.classloader.IndexedNamespaceURLClassLoader;
 import org.xwiki.classloader.NamespaceURLClassLoader;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
 
 /**
  * Default implementation of {@link ClassLoaderManager}.
@@ -45,6 +48,11 @@
 @Singleton
 public class DefaultClassLoaderManager implements ClassLoaderManager, Initializable, Disposable
 {
+    /**
+     * The name of the configuration property indicating if the class loaders should index the packages of their JARs.
+     */
+    private static final String CONFIGURATION_INDEXED = "classloader.indexed";
+
     /**
      * The readonly container loader that should be used as parent of all the namespace classloader.
      */
@@ -58,6 +66,9 @@ public class DefaultClassLoaderManager implements ClassLoaderManager, Initializa
     @Inject
     private Logger logger;
 
+    @Inject
+    private Provider<ConfigurationSource> configuration;
+
     /**
      * The classloaders stored by namespace.
      */
@@ -80,6 +91,15 @@ protected ClassLoader getContainerClassLoader()
         return this.containerClassLoader;
     }
 
+    private NamespaceURLClassLoader createURLClassLoader(ClassLoader parent, String namespace)
+    {
+        if (this.configuration.get().getProperty(CONFIGURATION_INDEXED, false)) {
+            return new IndexedNamespaceURLClassLoader(parent, namespace);
+        }
+
+        return new NamespaceURLClassLoader(parent, namespace);
+    }
+
     @Override
     public NamespaceURLClassLoader getURLClassLoader(String namespace, boolean create)
     {
@@ -87,7 +107,7 @@ public NamespaceURLClassLoader getURLClassLoader(String namespace, boolean creat
         if (this.rootClassLoader == null) {
             synchronized (this) {
                 if (this.rootClassLoader == null) {
-                    this.rootClassLoader = new NamespaceURLClassLoader(getContainerClassLoader(), null);
+                    this.rootClassLoader = createURLClassLoader(getContainerClassLoader(), null);
                 }
             }
         }
@@ -102,7 +122,7 @@ public NamespaceURLClassLoader getURLClassLoader(String namespace, boolean creat
             if (wikiClassLoader == null) {
                 if (create) {
                     // Create classloader
-                    wikiClassLoader = new NamespaceURLClassLoader(this.rootClassLoader, namespace);
+                    wikiClassLoader = createURLClassLoader(this.rootClassLoader, namespace);
 
                     // Store new classloader
                     this.wikiClassLoaderMap.put(namespace, wikiClassLoader);
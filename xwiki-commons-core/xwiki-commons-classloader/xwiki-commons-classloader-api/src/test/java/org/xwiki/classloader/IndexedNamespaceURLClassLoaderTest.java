@@ -0,0 +1,166 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.classloader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.XWikiTempDirUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link IndexedNamespaceURLClassLoader}.
+ *
+ * @version $Id$
+ */
+class IndexedNamespaceURLClassLoaderTest
+{
+    private static final String CLASS_NAME = ExtendedURLStreamHandler.class.getName();
+
+    private static final String CLASS_PATH = CLASS_NAME.replace('.', '/') + ".class";
+
+    private static final String RESOURCE = "org/xwiki/classloader/resource.txt";
+
+    private static final String ROOT_RESOURCE = "META-INF/test.txt";
+
+    private File tmpDir;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.tmpDir = XWikiTempDirUtil.createTemporaryDirectory();
+    }
+
+    private URL createJAR(String name, String... entries) throws IOException
+    {
+        File file = new File(this.tmpDir, name);
+
+        try (JarOutputStream stream = new JarOutputStream(new FileOutputStream(file))) {
+            for (String entry : entries) {
+                stream.putNextEntry(new ZipEntry(entry));
+                if (entry.equals(CLASS_PATH)) {
+                    try (InputStream classStream =
+                        ExtendedURLStreamHandler.class.getClassLoader().getResourceAsStream(CLASS_PATH)) {
+                        IOUtils.copy(classStream, stream);
+                    }
+                } else {
+                    stream.write(name.getBytes(StandardCharsets.UTF_8));
+                }
+                stream.closeEntry();
+            }
+        }
+
+        return file.toURI().toURL();
+    }
+
+    @Test
+    void loadClass() throws Exception
+    {
+        URL jar = createJAR("classes.jar", CLASS_PATH);
+
+        try (IndexedNamespaceURLClassLoader classLoader =
+            new IndexedNamespaceURLClassLoader(new URL[] { jar }, null, "namespace")) {
+            Class<?> clazz = classLoader.loadClass(CLASS_NAME);
+
+            assertSame(classLoader, clazz.getClassLoader());
+            assertNotSame(ExtendedURLStreamHandler.class, clazz);
+            assertSame(clazz, classLoader.loadClass(CLASS_NAME));
+            assertNotNull(clazz.getPackage());
+            assertEquals(jar, clazz.getProtectionDomain().getCodeSource().getLocation());
+
+            // Unknown package
+            assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass("org.xwiki.Missing"));
+            assertEquals(1, classLoader.getStatistics().getIndexMisses());
+
+            // Known package
+            assertThrows(ClassNotFoundException.class,
+                () -> classLoader.loadClass("org.xwiki.classloader.Missing"));
+            assertThrows(ClassNotFoundException.class,
+                () -> classLoader.loadClass("org.xwiki.classloader.Missing"));
+            assertEquals(1, classLoader.getStatistics().getCachedMisses());
+            assertEquals(2, classLoader.getStatistics().getProbes());
+        }
+    }
+
+    @Test
+    void findResources() throws Exception
+    {
+        URL jar1 = createJAR("jar1.jar", RESOURCE);
+        URL jar2 = createJAR("jar2.jar", RESOURCE, ROOT_RESOURCE);
+
+        try (IndexedNamespaceURLClassLoader classLoader = new IndexedNamespaceURLClassLoader(null, null)) {
+            classLoader.addURL(jar1);
+
+            assertNull(classLoader.getResource(ROOT_RESOURCE));
+
+            classLoader.addURL(jar2);
+
+            URL resource = classLoader.getResource(ROOT_RESOURCE);
+            assertNotNull(resource);
+            try (InputStream stream = resource.openStream()) {
+                assertEquals("jar2.jar", IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+
+            assertEquals(2, Collections.list(classLoader.getResources(RESOURCE)).size());
+            try (InputStream stream = classLoader.getResourceAsStream(RESOURCE)) {
+                assertEquals("jar1.jar", IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+
+            assertTrue(classLoader.isIndexed());
+        }
+    }
+
+    @Test
+    void fallbackWithFolder() throws Exception
+    {
+        URL jar = createJAR("jar.jar", RESOURCE);
+
+        File folder = new File(this.tmpDir, "folder");
+        new File(folder, "META-INF").mkdirs();
+        new File(folder, ROOT_RESOURCE).createNewFile();
+
+        try (IndexedNamespaceURLClassLoader classLoader =
+            new IndexedNamespaceURLClassLoader(new URL[] { jar, folder.toURI().toURL() }, null, null)) {
+            assertFalse(classLoader.isIndexed());
+
+            assertNotNull(classLoader.getResource(RESOURCE));
+            assertNotNull(classLoader.getResource(ROOT_RESOURCE));
+            assertEquals(2, classLoader.getStatistics().getFallbacks());
+        }
+    }
+}
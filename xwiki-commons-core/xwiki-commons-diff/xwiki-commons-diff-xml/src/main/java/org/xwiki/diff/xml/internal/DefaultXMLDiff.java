@@ -48,6 +48,7 @@
 import org.xwiki.diff.xml.StringSplitter;
 import org.xwiki.diff.xml.XMLDiff;
 import org.xwiki.diff.xml.XMLDiffConfiguration;
+import org.xwiki.diff.xml.XMLDiffFilter;
 
 import difflib.DiffUtils;
 
@@ -61,6 +62,55 @@
 @Singleton
 public class DefaultXMLDiff implements XMLDiff
 {
+    /**
+     * Wraps the configuration passed to the public diff methods in order to share the {@link NodeSimilarity} cache
+     * between all the (recursive) comparisons of a single diff.
+     */
+    private static final class DiffSession implements XMLDiffConfiguration
+    {
+        private final XMLDiffConfiguration configuration;
+
+        private NodeSimilarity similarity;
+
+        private DiffSession(XMLDiffConfiguration configuration)
+        {
+            this.configuration = configuration;
+        }
+
+        static XMLDiffConfiguration of(XMLDiffConfiguration configuration)
+        {
+            return configuration instanceof DiffSession ? configuration : new DiffSession(configuration);
+        }
+
+        NodeSimilarity getSimilarity()
+        {
+            if (this.similarity == null) {
+                // Use the text node splitter because the difference percentage is computed on the inner text.
+                this.similarity = new NodeSimilarity(getSplitterForNodeType(Node.TEXT_NODE));
+            }
+
+            return this.similarity;
+        }
+
+        @Override
+        public List<XMLDiffFilter> getFilters()
+        {
+            return this.configuration.getFilters();
+        }
+
+        @Override
+        public StringSplitter getSplitterForNodeType(short nodeType)
+        {
+            return this.configuration.getSplitterForNodeType(nodeType);
+        }
+
+        @Override
+        public double getSimilarityThreshold()
+        {
+            return this.configuration.getSimilarityThreshold();
+        }
+    }
+
     @Override public void xxx()
     {
         //ggg
@@ -68,6 +118,11 @@ public class DefaultXMLDiff implements XMLDiff
 
     @Override
     public Map<Node, Patch<?>> diff(Node left, Node right, XMLDiffConfiguration config) throws DiffException
+    {
+        return diffNodes(left, right, DiffSession.of(config));
+    }
+
+    private Map<Node, Patch<?>> diffNodes(Node left, Node right, XMLDiffConfiguration config) throws DiffException
     {
         Map<Node, Patch<?>> patches = new LinkedHashMap<>();
         Patch<Node> rootPatch = new DefaultPatch<>();
@@ -128,14 +183,14 @@ private Map<Node, Patch<?>> diffSimilarNodes(Node left, Node right, XMLDiffConfi
     @Override
     public Map<Node, Patch<?>> diff(NodeList left, NodeList right, XMLDiffConfiguration config) throws DiffException
     {
-        return diff(XMLDiffUtils.asList(left), XMLDiffUtils.asList(right), config);
+        return diff(XMLDiffUtils.asList(left), XMLDiffUtils.asList(right), DiffSession.of(config));
     }
 
     @Override
     public Map<Node, Patch<?>> diff(NamedNodeMap left, NamedNodeMap right, XMLDiffConfiguration config)
         throws DiffException
     {
-        return diff(asMap(left), asMap(right), config);
+        return diff(asMap(left), asMap(right), DiffSession.of(config));
     }
 
     private Map<String, Node> asMap(NamedNodeMap namedNodeMap)
@@ -258,40 +313,18 @@ protected boolean areSimilar(List<Node> left, List<Node> right)
 
     protected boolean areVerySimilar(Node left, Node right, XMLDiffConfiguration config)
     {
-        return areSimilar(left, right) && (left == null || getDiffPercentage(left.getTextContent(),
-            right.getTextContent(), config) < config.getSimilarityThreshold());
+        return areSimilar(left, right) && (left == null
+            || getSimilarity(config).isVerySimilar(left, right, config.getSimilarityThreshold()));
     }
 
-    private double getDiffPercentage(String left, String right, XMLDiffConfiguration config)
+    private NodeSimilarity getSimilarity(XMLDiffConfiguration config)
     {
-        if (left != null && right != null) {
-            // Use the text node splitter because the difference percentage is computed on the inner text.
-            StringSplitter splitter = config.getSplitterForNodeType(Node.TEXT_NODE);
-            List<Object> leftList = splitter.split(left);
-            List<Object> rightList = splitter.split(right);
-            if (leftList.equals(rightList)) {
-                return 0;
-            } else {
-                // Note that the max length can't be zero because leftList and rightList are different.
-                int maxLength = Math.max(leftList.size(), rightList.size());
-                try {
-                    Patch<?> patch = new DefaultPatch<>(DiffUtils.diff(leftList, rightList));
-                    int levenshteinDistance =
-                        patch.stream().map(delta -> Math.max(delta.getPrevious().size(), delta.getNext().size()))
-                            .reduce(0, Integer::sum);
-                    return (double) levenshteinDistance / maxLength;
-                } catch (DiffException e) {
-                    // This shouldn't happen. Let's assume the strings are completely different.
-                    return 1;
-                }
-            }
-        } else if (left == right) {
-            // Both are null.
-            return 0;
-        } else {
-            // One is null and the other is not.
-            return 1;
+        if (config instanceof DiffSession) {
+            return ((DiffSession) config).getSimilarity();
         }
+
+        // Use the text node splitter because the difference percentage is computed on the inner text.
+        return new NodeSimilarity(config.getSplitterForNodeType(Node.TEXT_NODE));
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -0,0 +1,237 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff.xml.internal;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Node;
+import org.xwiki.diff.DiffException;
+import org.xwiki.diff.Patch;
+import org.xwiki.diff.internal.DefaultPatch;
+import org.xwiki.diff.xml.StringSplitter;
+
+import difflib.DiffUtils;
+
+/**
+ * Computes the difference percentage between the text content of two nodes, caching everything that can be reused
+ * during a diff session: the text content and the token list of each node and the score of each compared pair of nodes.
+ * <p>
+ * The difference percentage is the sum, for each delta of the diff between the token lists, of the size of the biggest
+ * side of the delta, divided by the size of the biggest token list. Before running the actual diff
+ * {@link #isVerySimilar(Node, Node, double)} checks cheap lower bounds of this percentage:
+ * <ul>
+ * <li>the token count ratio: each token which exists only on one side counts at least once</li>
+ * <li>the 1-gram (token multiset) filter: tokens which are not shared by both sides can't be part of the longest common
+ * subsequence</li>
+ * </ul>
+ * <p>
+ * Instances are not thread safe and are expected to be used for a single diff, since the DOM nodes are not supposed to
+ * be modified while computing their difference.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class NodeSimilarity
+{
+    private final StringSplitter splitter;
+
+    private final Map<Node, NodeText> texts = new IdentityHashMap<>();
+
+    private final Map<Node, Map<Node, Double>> scores = new IdentityHashMap<>();
+
+    private static final class NodeText
+    {
+        private final List<Object> tokens;
+
+        private final int hash;
+
+        private Map<Object, Integer> profile;
+
+        NodeText(List<Object> tokens)
+        {
+            this.tokens = tokens;
+            this.hash = tokens.hashCode();
+        }
+
+        Map<Object, Integer> getProfile()
+        {
+            if (this.profile == null) {
+                this.profile = new HashMap<>();
+                for (Object token : this.tokens) {
+                    this.profile.merge(token, 1, Integer::sum);
+                }
+            }
+
+            return this.profile;
+        }
+
+        boolean isEqual(NodeText other)
+        {
+            return this.hash == other.hash && this.tokens.equals(other.tokens);
+        }
+    }
+
+    /**
+     * @param splitter the splitter used to split the text content of the nodes
+     */
+    public NodeSimilarity(StringSplitter splitter)
+    {
+        this.splitter = splitter;
+    }
+
+    /**
+     * @param left the left side of the comparison
+     * @param right the right side of the comparison
+     * @param threshold the threshold below which two nodes are considered to be very similar
+     * @return {@code true} if the difference percentage between the text content of the passed nodes is lower than the
+     *         passed threshold
+     */
+    public boolean isVerySimilar(Node left, Node right, double threshold)
+    {
+        if (threshold <= 0) {
+            // The difference percentage can't be negative.
+            return false;
+        }
+
+        Double score = getCachedScore(left, right);
+        if (score != null) {
+            return score < threshold;
+        }
+
+        NodeText leftText = getText(left);
+        NodeText rightText = getText(right);
+        if (leftText != null && rightText != null && !leftText.isEqual(rightText)
+            && getLowerBound(leftText, rightText, threshold) >= threshold) {
+            return false;
+        }
+
+        return getDiffPercentage(left, right) < threshold;
+    }
+
+    private double getLowerBound(NodeText left, NodeText right, double threshold)
+    {
+        double bound = getTokenCountBound(left, right);
+        if (bound < threshold) {
+            // Not enough, try a more expensive bound.
+            bound = getSharedTokensBound(left, right);
+        }
+
+        return bound;
+    }
+
+    /**
+     * @param left the left side of the comparison
+     * @param right the right side of the comparison
+     * @return the difference percentage between the text content of the passed nodes, between 0 (identical) and 1
+     *         (completely different)
+     */
+    public double getDiffPercentage(Node left, Node right)
+    {
+        Double score = getCachedScore(left, right);
+        if (score == null) {
+            score = computeDiffPercentage(getText(left), getText(right));
+            this.scores.computeIfAbsent(left, k -> new IdentityHashMap<>()).put(right, score);
+        }
+
+        return score;
+    }
+
+    private Double getCachedScore(Node left, Node right)
+    {
+        Map<Node, Double> leftScores = this.scores.get(left);
+
+        return leftScores != null ? leftScores.get(right) : null;
+    }
+
+    private NodeText getText(Node node)
+    {
+        if (this.texts.containsKey(node)) {
+            return this.texts.get(node);
+        }
+
+        String text = node.getTextContent();
+        NodeText nodeText = text != null ? new NodeText(this.splitter.split(text)) : null;
+        this.texts.put(node, nodeText);
+
+        return nodeText;
+    }
+
+    private double getTokenCountBound(NodeText left, NodeText right)
+    {
+        int leftSize = left.tokens.size();
+        int rightSize = right.tokens.size();
+
+        return (double) Math.abs(leftSize - rightSize) / Math.max(leftSize, rightSize);
+    }
+
+    private double getSharedTokensBound(NodeText left, NodeText right)
+    {
+        Map<Object, Integer> smallest = left.getProfile();
+        Map<Object, Integer> biggest = right.getProfile();
+        if (smallest.size() > biggest.size()) {
+            smallest = right.getProfile();
+            biggest = left.getProfile();
+        }
+
+        // The longest common subsequence can't be bigger than the number of shared tokens.
+        int shared = 0;
+        for (Map.Entry<Object, Integer> entry : smallest.entrySet()) {
+            Integer count = biggest.get(entry.getKey());
+            if (count != null) {
+                shared += Math.min(count, entry.getValue());
+            }
+        }
+
+        int maxLength = Math.max(left.tokens.size(), right.tokens.size());
+
+        return (double) (maxLength - shared) / maxLength;
+    }
+
+    private double computeDiffPercentage(NodeText left, NodeText right)
+    {
+        if (left != null && right != null) {
+            if (left.isEqual(right)) {
+                return 0;
+            } else {
+                // Note that the max length can't be zero because left and right token lists are different.
+                int maxLength = Math.max(left.tokens.size(), right.tokens.size());
+                try {
+                    Patch<?> patch = new DefaultPatch<>(DiffUtils.diff(left.tokens, right.tokens));
+                    int levenshteinDistance =
+                        patch.stream().map(delta -> Math.max(delta.getPrevious().size(), delta.getNext().size()))
+                            .reduce(0, Integer::sum);
+                    return (double) levenshteinDistance / maxLength;
+                } catch (DiffException e) {
+                    // This shouldn't happen. Let's assume the strings are completely different.
+                    return 1;
+                }
+            }
+        } else if (left == right) {
+            // Both are null.
+            return 0;
+        } else {
+            // One is null and the other is not.
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff.xml.internal;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NodeSimilarity}.
+ *
+ * @version $Id$
+ */
+class NodeSimilarityTest
+{
+    private NodeSimilarity similarity = new NodeSimilarity(new CharacterStringSplitter());
+
+    private Node node(String text)
+    {
+        Node node = mock(Node.class);
+        when(node.getTextContent()).thenReturn(text);
+        return node;
+    }
+
+    @Test
+    void getDiffPercentage()
+    {
+        assertEquals(0, this.similarity.getDiffPercentage(node("abcd"), node("abcd")));
+        assertEquals(.25, this.similarity.getDiffPercentage(node("abcd"), node("abXd")));
+        assertEquals(1, this.similarity.getDiffPercentage(node("abcd"), node("wxyz")));
+        assertEquals(1, this.similarity.getDiffPercentage(node("abcd"), node(null)));
+        assertEquals(0, this.similarity.getDiffPercentage(node(null), node(null)));
+    }
+
+    @Test
+    void isVerySimilar()
+    {
+        assertTrue(this.similarity.isVerySimilar(node("abcd"), node("abcd"), .6));
+        assertTrue(this.similarity.isVerySimilar(node("abcd"), node("abXd"), .6));
+        assertFalse(this.similarity.isVerySimilar(node("abcd"), node("abXd"), 0));
+
+        // Rejected by the token count bound.
+        assertFalse(this.similarity.isVerySimilar(node("a"), node("abcdefgh"), .6));
+        // Rejected by the shared tokens bound.
+        assertFalse(this.similarity.isVerySimilar(node("abcdefgh"), node("stuvwxyz"), .6));
+        // Same tokens in a different order: the bounds are not enough.
+        assertFalse(this.similarity.isVerySimilar(node("abcdefgh"), node("hgfedcba"), .6));
+    }
+
+    @Test
+    void textContentIsCached()
+    {
+        Node left = node("abcd");
+        Node right = node("abXd");
+
+        this.similarity.isVerySimilar(left, right, .6);
+        this.similarity.isVerySimilar(left, right, .6);
+        this.similarity.getDiffPercentage(left, right);
+
+        verify(left, times(1)).getTextContent();
+        verify(right, times(1)).getTextContent();
+    }
+}
@@ -26,6 +26,7 @@
 import org.xwiki.extension.repository.ExtensionRepositoryDescriptor;
 import org.xwiki.extension.repository.ExtensionRepositoryId;
 import org.xwiki.extension.version.VersionConstraint;
+import org.xwiki.stability.Unstable;
 
 /**
  * Provide some general extension manager configuration.
@@ -102,4 +103,35 @@ default boolean isIgnoredDependency(ExtensionDependency dependency)
     {
         return false;
     }
+
+    /**
+     * @return true if the local repository should maintain an index of its descriptors to speed up its loading
+     * @since 12.7
+     */
+    @Unstable
+    default boolean isLocalRepositoryIndexEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * @return true if the extension repositories should be queried concurrently instead of one after another
+     * @since 12.7
+     */
+    @Unstable
+    default boolean isParallelRepositoryQueriesEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * @return the maximum time in milliseconds to wait for each repository when they are queried concurrently, 0 or
+     *         less to wait indefinitely
+     * @since 12.7
+     */
+    @Unstable
+    default long getRepositoryQueryTimeout()
+    {
+        return 60000;
+    }
 }
@@ -279,6 +279,24 @@ private ExtensionRepositoryDescriptor parseRepository(String repositoryString)
                 repositoryString, REPOSITORYIDPATTERN.toString()));
     }
 
+    @Override
+    public boolean isLocalRepositoryIndexEnabled()
+    {
+        return this.configuration.get().getProperty(CK_PREFIX + "localRepository.index", false);
+    }
+
+    @Override
+    public boolean isParallelRepositoryQueriesEnabled()
+    {
+        return this.configuration.get().getProperty(CK_PREFIX + "parallelRepositoryQueries", false);
+    }
+
+    @Override
+    public long getRepositoryQueryTimeout()
+    {
+        return this.configuration.get().getProperty(CK_PREFIX + "repositoryQueryTimeout", 60000L);
+    }
+
     @Override
     public String getUserAgent()
     {
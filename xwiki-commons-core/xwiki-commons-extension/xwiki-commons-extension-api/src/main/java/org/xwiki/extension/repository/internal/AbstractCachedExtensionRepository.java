@@ -20,8 +20,10 @@
 package org.xwiki.extension.repository.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -69,6 +71,11 @@
      */
     private boolean strictId;
 
+    /**
+     * The index used to speed up searches.
+     */
+    private final transient ExtensionSearchIndex<E> searchIndex = new ExtensionSearchIndex<>();
+
     protected AbstractCachedExtensionRepository()
     {
         this(false);
@@ -109,6 +116,9 @@ protected void addCachedExtension(E extension)
                     addCachedExtensionVersion(feature, extension);
                 }
             }
+
+            // search (after the versions since it invalidates the sorted views built from them)
+            this.searchIndex.add(extension);
         }
     }
 
@@ -156,6 +166,9 @@ protected void removeCachedExtension(E extension)
                 removeCachedExtensionVersion(feature, extension);
             }
         }
+
+        // search (after the versions since it invalidates the sorted views built from them)
+        this.searchIndex.remove(extension);
     }
 
     /**
@@ -254,21 +267,78 @@ public IterableResult<Extension> search(ExtensionQuery query)
     {
         Pattern patternMatcher = RepositoryUtils.createPatternMatcher(query.getQuery());
 
-        Set<Extension> set = new HashSet<>();
-        List<Extension> result = new ArrayList<>(this.extensionsVersions.size());
+        List<Extension> result = new ArrayList<>();
 
-        for (List<E> versions : this.extensionsVersions.values()) {
-            E extension = versions.get(0);
-
-            if (RepositoryUtils.matches(patternMatcher, query.getFilters(), extension) && !set.contains(extension)) {
+        for (E extension : getSearchCandidates(query)) {
+            if (isLatestVersion(extension) && RepositoryUtils.matches(patternMatcher, query.getFilters(), extension)) {
                 result.add(extension);
-                set.add(extension);
             }
         }
 
         // Sort
-        RepositoryUtils.sort(result, query.getSortClauses());
+        if (result.size() > 1 && !query.getSortClauses().isEmpty()) {
+            if (result.size() * 4 < this.extensions.size()
+                || !ExtensionSearchIndex.isStable(query.getSortClauses())) {
+                RepositoryUtils.sort(result, query.getSortClauses());
+            } else {
+                // Cheaper to filter the pre-sorted list of extensions than to sort the result
+                Set<Extension> resultSet = new HashSet<>(result);
+                result.clear();
+                for (E extension : this.searchIndex.getSortedView(query.getSortClauses(), this::getLatestVersions)) {
+                    if (resultSet.contains(extension)) {
+                        result.add(extension);
+                    }
+                }
+            }
+        }
 
         return RepositoryUtils.getIterableResult(query.getOffset(), query.getLimit(), result);
     }
+
+    /**
+     * @param query the query
+     * @return the extensions (all versions) which might match the passed query, each candidate still need to be
+     *         validated with {@link RepositoryUtils#matches(Pattern, Collection, Extension)}
+     * @since 12.7
+     */
+    protected List<E> getSearchCandidates(ExtensionQuery query)
+    {
+        return this.searchIndex.getCandidates(query.getQuery(), query.getFilters());
+    }
+
+    private boolean isLatestVersion(E extension)
+    {
+        if (isLatestVersion(extension.getId().getId(), extension)) {
+            return true;
+        }
+
+        if (!this.strictId) {
+            for (String feature : extension.getFeatures()) {
+                if (isLatestVersion(feature, extension)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isLatestVersion(String feature, E extension)
+    {
+        List<E> versions = this.extensionsVersions.get(feature);
+
+        return versions != null && !versions.isEmpty() && versions.get(0) == extension;
+    }
+
+    private List<E> getLatestVersions()
+    {
+        Set<E> latestVersions = new LinkedHashSet<>();
+        for (List<E> versions : this.extensionsVersions.values()) {
+            if (!versions.isEmpty()) {
+                latestVersions.add(versions.get(0));
+            }
+        }
+
+        return new ArrayList<>(latestVersions);
+    }
 }
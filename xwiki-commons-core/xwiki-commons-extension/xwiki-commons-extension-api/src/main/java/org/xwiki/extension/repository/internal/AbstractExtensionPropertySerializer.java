@@ -19,6 +19,9 @@
  */
 package org.xwiki.extension.repository.internal;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -83,9 +86,25 @@ protected Element createRootElement(Document document, String elementName, Strin
         return element;
     }
 
+    /**
+     * @param elementValue the value of the property
+     * @return the serialized value of the property
+     * @since 12.7
+     */
+    protected String toString(T elementValue)
+    {
+        return elementValue.toString();
+    }
+
     @Override
     public Element toElement(Document document, String elementName, T elementValue)
     {
-        return createRootElement(document, elementName, elementValue.toString());
+        return createRootElement(document, elementName, toString(elementValue));
+    }
+
+    @Override
+    public void write(XMLStreamWriter writer, String elementName, T elementValue) throws XMLStreamException
+    {
+        ExtensionXMLStreamUtils.writeTextElement(writer, elementName, getType(), toString(elementValue));
     }
 }
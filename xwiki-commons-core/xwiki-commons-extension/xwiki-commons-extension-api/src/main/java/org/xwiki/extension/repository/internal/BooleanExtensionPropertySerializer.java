@@ -19,6 +19,9 @@
  */
 package org.xwiki.extension.repository.internal;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.w3c.dom.Element;
 
 /**
@@ -39,6 +42,17 @@ public BooleanExtensionPropertySerializer()
     @Override
     public Boolean toValue(Element element)
     {
-        return Boolean.valueOf(element.getTextContent());
+        return fromString(element.getTextContent());
+    }
+
+    @Override
+    public Boolean toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        return fromString(ExtensionXMLStreamUtils.getTextContent(reader));
+    }
+
+    private Boolean fromString(String text)
+    {
+        return Boolean.valueOf(text);
     }
 }
@@ -23,6 +23,10 @@
 import java.util.Collection;
 import java.util.Map;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -88,7 +92,7 @@ protected C createCollection()
     public static <T> T toValue(Element element, Map<String, ExtensionPropertySerializer> serializerById)
     {
         if (element != null) {
-            String type = element.getAttribute("type");
+            String type = element.getAttribute(ExtensionXMLStreamUtils.ATTRIBUTE_TYPE);
 
             ExtensionPropertySerializer<?> serializer = serializerById.get(type);
 
@@ -100,6 +104,30 @@ public static <T> T toValue(Element element, Map<String, ExtensionPropertySerial
         return null;
     }
 
+    /**
+     * @param <T> the type of the expected value
+     * @param reader the reader, positioned on the start of the element to unserialize
+     * @param serializerById the serializers by type id
+     * @return the unserialized property value
+     * @throws XMLStreamException when failing to read the property
+     * @since 12.7
+     */
+    public static <T> T toValue(XMLStreamReader reader, Map<String, ExtensionPropertySerializer> serializerById)
+        throws XMLStreamException
+    {
+        String type = reader.getAttributeValue(null, ExtensionXMLStreamUtils.ATTRIBUTE_TYPE);
+
+        ExtensionPropertySerializer<?> serializer = serializerById.get(type);
+
+        if (serializer != null) {
+            return (T) serializer.toValue(reader);
+        }
+
+        ExtensionXMLStreamUtils.skipElement(reader);
+
+        return null;
+    }
+
     /**
      * @param valueClass the class of the value to serialize
      * @param serializerByClass the serializers by class
@@ -138,6 +166,54 @@ public static Element toElement(Object value, Document document, String elementN
         return null;
     }
 
+    /**
+     * @param value the value to serialize
+     * @param serializerByClass the serializers by class
+     * @return true if the value can be serialized
+     * @since 12.7
+     */
+    public static boolean isSerializable(Object value, Map<Class<?>, ExtensionPropertySerializer> serializerByClass)
+    {
+        if (value == null) {
+            return false;
+        }
+
+        ExtensionPropertySerializer serializer = getSerializerByClass(value.getClass(), serializerByClass);
+
+        if (serializer instanceof CollectionExtensionPropertySerializer) {
+            for (Object subValue : (Collection) value) {
+                if (!isSerializable(subValue, serializerByClass)) {
+                    return false;
+                }
+            }
+        }
+
+        return serializer != null;
+    }
+
+    /**
+     * Write the value if it can be serialized.
+     *
+     * @param writer the writer
+     * @param value the value to serialize
+     * @param elementName the name of the element to create
+     * @param serializerByClass the serializers by class
+     * @return true if the value has been written
+     * @throws XMLStreamException when failing to write the property
+     * @since 12.7
+     */
+    public static boolean write(XMLStreamWriter writer, Object value, String elementName,
+        Map<Class<?>, ExtensionPropertySerializer> serializerByClass) throws XMLStreamException
+    {
+        if (isSerializable(value, serializerByClass)) {
+            getSerializerByClass(value.getClass(), serializerByClass).write(writer, elementName, value);
+
+            return true;
+        }
+
+        return false;
+    }
+
     @Override
     public C toValue(Element element)
     {
@@ -179,4 +255,43 @@ public Element toElement(Document document, String elementName, C elementValue)
 
         return element;
     }
+
+    @Override
+    public C toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        C collection = createCollection();
+
+        while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+            Object value = toValue(reader, this.serializerById);
+
+            if (value == null) {
+                // Consume the rest of the collection element
+                while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+                    ExtensionXMLStreamUtils.skipElement(reader);
+                }
+
+                return null;
+            }
+
+            collection.add(value);
+        }
+
+        return collection;
+    }
+
+    @Override
+    public void write(XMLStreamWriter writer, String elementName, C elementValue) throws XMLStreamException
+    {
+        // Same as toElement: a collection containing an unserializable value is not serialized at all
+        if (isSerializable(elementValue, this.serializerByClass)) {
+            writer.writeStartElement(elementName);
+            writer.writeAttribute(ExtensionXMLStreamUtils.ATTRIBUTE_TYPE, getType());
+
+            for (Object subValue : elementValue) {
+                write(writer, subValue, elementName, this.serializerByClass);
+            }
+
+            writer.writeEndElement();
+        }
+    }
 }
@@ -21,7 +21,9 @@
 
 import java.util.Date;
 
-import org.w3c.dom.Document;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.w3c.dom.Element;
 
 /**
@@ -43,12 +45,23 @@ public DateExtensionPropertySerializer()
     @Override
     public Date toValue(Element element)
     {
-        return new Date(Long.valueOf(element.getTextContent()));
+        return fromString(element.getTextContent());
+    }
+
+    @Override
+    public Date toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        return fromString(ExtensionXMLStreamUtils.getTextContent(reader));
+    }
+
+    private Date fromString(String text)
+    {
+        return new Date(Long.valueOf(text));
     }
 
     @Override
-    public Element toElement(Document document, String elementName, Date elementValue)
+    protected String toString(Date elementValue)
     {
-        return super.createRootElement(document, elementName, String.valueOf(elementValue.getTime()));
+        return String.valueOf(elementValue.getTime());
     }
 }
@@ -20,6 +20,7 @@
 package org.xwiki.extension.repository.internal;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -29,6 +30,7 @@
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -37,15 +39,21 @@
 
 import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.mutable.MutableBoolean;
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.commons.lang3.mutable.MutableObject;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.extension.Extension;
 import org.xwiki.extension.ExtensionDependency;
 import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
 import org.xwiki.extension.ExtensionNotFoundException;
 import org.xwiki.extension.ResolveException;
 import org.xwiki.extension.repository.AbstractAdvancedSearchableExtensionRepository;
@@ -57,6 +65,7 @@
 import org.xwiki.extension.repository.ExtensionRepositoryId;
 import org.xwiki.extension.repository.ExtensionRepositoryManager;
 import org.xwiki.extension.repository.ExtensionRepositorySource;
+import org.xwiki.extension.repository.result.CollectionIterableResult;
 import org.xwiki.extension.repository.result.IterableResult;
 import org.xwiki.extension.repository.search.AdvancedSearchable;
 import org.xwiki.extension.repository.search.ExtensionQuery;
@@ -72,7 +81,7 @@
 @Component
 @Singleton
 public class DefaultExtensionRepositoryManager extends AbstractAdvancedSearchableExtensionRepository
-    implements ExtensionRepositoryManager, Initializable
+    implements ExtensionRepositoryManager, Initializable, Disposable
 {
     /**
      * Used to lookup {@link ExtensionRepositoryFactory}s.
@@ -100,7 +109,12 @@ public class DefaultExtensionRepositoryManager extends AbstractAdvancedSearchabl
 
     private List<ExtensionRepository> repositories = Collections.emptyList();
 
-    private LRUMap<ExtensionRepositoryDescriptor, ExtensionRepository> repositoriesCache = new LRUMap<>(100);
+    private final RepositoryCache repositoriesCache = new RepositoryCache();
+
+    @Inject
+    private ExtensionManagerConfiguration configuration;
+
+    private final ExtensionRepositoryQueryExecutor executor = new ExtensionRepositoryQueryExecutor();
 
     private class ExtensionRepositoryEntry implements Comparable<ExtensionRepositoryEntry>
     {
@@ -132,6 +146,32 @@ public String toString()
         }
     }
 
+    /**
+     * The resolved repositories, the least recently used ones being released when the cache is full.
+     *
+     * @version $Id$
+     */
+    private final class RepositoryCache extends LRUMap<ExtensionRepositoryDescriptor, ExtensionRepository>
+    {
+        private static final long serialVersionUID = 1L;
+
+        RepositoryCache()
+        {
+            super(100);
+        }
+
+        @Override
+        protected boolean removeLRU(LinkEntry<ExtensionRepositoryDescriptor, ExtensionRepository> entry)
+        {
+            // The registered repositories are closed when they are removed
+            if (!isRegistered(entry.getValue())) {
+                close(entry.getValue());
+            }
+
+            return true;
+        }
+    }
+
     // Initializable
 
     @Override
@@ -153,6 +193,31 @@ public void initialize() throws InitializationException
         }
     }
 
+    // Disposable
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.dispose();
+
+        // Release the resources held by the repositories
+        Set<ExtensionRepository> disposedRepositories = new HashSet<>(this.repositoriesCache.values());
+        this.repositoryMap.values().forEach(entry -> disposedRepositories.add(entry.getRepository()));
+        disposedRepositories.forEach(this::close);
+    }
+
+    private void close(ExtensionRepository repository)
+    {
+        if (repository instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) repository).close();
+            } catch (Exception e) {
+                this.logger.warn("Failed to close repository [{}]: {}", repository.getDescriptor(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
     // ExtensionRepositoryManager
 
     private void updateRepositories()
@@ -212,20 +277,45 @@ public void addRepository(ExtensionRepository repository)
     public void addRepository(ExtensionRepository repository, int priority)
     {
         // Update the map
-        this.repositoryMap.put(repository.getDescriptor().getId(), new ExtensionRepositoryEntry(repository, priority));
+        ExtensionRepositoryEntry previousEntry = this.repositoryMap.put(repository.getDescriptor().getId(),
+            new ExtensionRepositoryEntry(repository, priority));
 
         // Update the list
         updateRepositories();
+
+        // Release the replaced repository
+        if (previousEntry != null && previousEntry.getRepository() != repository) {
+            release(previousEntry.getRepository());
+        }
     }
 
     @Override
     public void removeRepository(String repositoryId)
     {
         // Update the map
-        this.repositoryMap.remove(repositoryId);
+        ExtensionRepositoryEntry entry = this.repositoryMap.remove(repositoryId);
 
         // Update the list
         updateRepositories();
+
+        // Release the removed repository
+        if (entry != null) {
+            release(entry.getRepository());
+        }
+    }
+
+    private boolean isRegistered(ExtensionRepository repository)
+    {
+        synchronized (this.repositoryMap) {
+            return this.repositoryMap.values().stream().anyMatch(entry -> entry.getRepository() == repository);
+        }
+    }
+
+    private void release(ExtensionRepository repository)
+    {
+        this.repositoriesCache.remove(repository.getDescriptor());
+
+        close(repository);
     }
 
     @Override
@@ -279,26 +369,53 @@ public Collection<ExtensionRepository> getRepositories()
     @Override
     public Extension resolve(ExtensionId extensionId) throws ResolveException
     {
-        ResolveException lastException = null;
+        return resolve(this.repositories, repository -> repository.resolve(extensionId), "extension", extensionId,
+            null);
+    }
 
-        for (ExtensionRepository repository : this.repositories) {
-            try {
-                return repository.resolve(extensionId);
-            } catch (ExtensionNotFoundException e1) {
-                this.logger.debug("Could not find extension [{}] in repository [{}]", extensionId,
-                    repository.getDescriptor(), e1);
-            } catch (ResolveException e2) {
-                this.logger.error("Unexpected error when trying to find extension [{}] in repository [{}]", extensionId,
-                    repository.getDescriptor(), e2);
+    private Extension resolve(Collection<ExtensionRepository> queriedRepositories,
+        ExtensionRepositoryQueryExecutor.Query<Extension> query, String type, Object element,
+        Exception previousException) throws ResolveException
+    {
+        MutableObject<Extension> extension = new MutableObject<>();
+        MutableObject<Exception> lastException = new MutableObject<>(previousException);
 
-                lastException = e2;
+        execute(queriedRepositories, query, (repository, result, failure) -> {
+            if (failure == null) {
+                extension.setValue(result);
+
+                return true;
+            }
+
+            if (failure instanceof ExtensionNotFoundException) {
+                this.logger.debug("Could not find {} [{}] in repository [{}]", type, element,
+                    repository.getDescriptor(), failure);
+            } else if (failure instanceof TimeoutException) {
+                this.logger.warn("Timeout when trying to find {} [{}] in repository [{}]", type, element,
+                    repository.getDescriptor());
+
+                lastException.setValue(failure);
+            } else if (failure instanceof ResolveException || failure instanceof InterruptedException) {
+                this.logger.error("Unexpected error when trying to find {} [{}] in repository [{}]", type, element,
+                    repository.getDescriptor(), failure);
+
+                lastException.setValue(failure);
+            } else {
+                throw propagate(failure);
             }
+
+            return false;
+        });
+
+        if (extension.getValue() != null) {
+            return extension.getValue();
         }
 
-        if (lastException != null) {
-            throw new ResolveException(String.format("Failed to resolve extension [%s]", extensionId), lastException);
+        if (lastException.getValue() != null) {
+            throw new ResolveException(String.format("Failed to resolve %s [%s]", type, element),
+                lastException.getValue());
         } else {
-            throw new ExtensionNotFoundException(String.format("Could not find extension [%s]", extensionId));
+            throw new ExtensionNotFoundException(String.format("Could not find %s [%s]", type, element));
         }
     }
 
@@ -343,34 +460,16 @@ public Extension resolve(ExtensionDependency extensionDependency) throws Resolve
         }
 
         // Try configured repositories
+        List<ExtensionRepository> configuredRepositories = new ArrayList<>(this.repositories.size());
         for (ExtensionRepository repository : this.repositories) {
-            if (checkedRepositories.contains(repository.getDescriptor())) {
-                continue;
-            }
-
             // Remember we tried that repository
-            checkedRepositories.add(repository.getDescriptor());
-
-            try {
-                return repository.resolve(extensionDependency);
-            } catch (ExtensionNotFoundException e1) {
-                this.logger.debug("Could not find extension dependency [{}] in repository [{}]", extensionDependency,
-                    repository.getDescriptor(), e1);
-            } catch (ResolveException e2) {
-                this.logger.error("Unexpected error when trying to find extension dependency [{}] in repository [{}]",
-                    extensionDependency, repository.getDescriptor(), e2);
-
-                lastException = e2;
+            if (checkedRepositories.add(repository.getDescriptor())) {
+                configuredRepositories.add(repository);
             }
         }
 
-        if (lastException != null) {
-            throw new ResolveException(
-                String.format("Failed to resolve extension dependency [%s]", extensionDependency), lastException);
-        } else {
-            throw new ExtensionNotFoundException(
-                String.format("Could not find extension dependency [%s]", extensionDependency));
-        }
+        return resolve(configuredRepositories, repository -> repository.resolve(extensionDependency),
+            "extension dependency", extensionDependency, lastException);
     }
 
     @Override
@@ -378,20 +477,24 @@ public IterableResult<Version> resolveVersions(String id, int offset, int nb) th
     {
         SortedSet<Version> versionSet = new TreeSet<>();
 
-        for (ExtensionRepository repository : this.repositories) {
-            try {
-                IterableResult<Version> versions = repository.resolveVersions(id, 0, -1);
-
-                for (Version version : versions) {
-                    versionSet.add(version);
+        execute(this.repositories, repository -> repository.resolveVersions(id, 0, -1),
+            (repository, versions, failure) -> {
+                if (failure == null) {
+                    for (Version version : versions) {
+                        versionSet.add(version);
+                    }
+                } else if (failure instanceof ExtensionNotFoundException) {
+                    this.logger.debug("Could not find extension with id [{}] in repository [{}]", id,
+                        repository.getDescriptor(), failure);
+                } else if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                } else {
+                    this.logger.error("Unexpected error when trying to find versions for extension with id [{}]", id,
+                        failure);
                 }
-            } catch (ExtensionNotFoundException e1) {
-                this.logger.debug("Could not find extension with id [{}] in repository [{}]", id,
-                    repository.getDescriptor(), e1);
-            } catch (ResolveException e2) {
-                this.logger.error("Unexpected error when trying to find versions for extension with id [{}]", id, e2);
-            }
-        }
+
+                return false;
+            });
 
         if (versionSet.isEmpty()) {
             throw new ExtensionNotFoundException(
@@ -404,13 +507,24 @@ public IterableResult<Version> resolveVersions(String id, int offset, int nb) th
     @Override
     public boolean exists(ExtensionId extensionId)
     {
-        for (ExtensionRepository repository : this.repositories) {
-            if (repository.exists(extensionId)) {
-                return true;
+        MutableBoolean exists = new MutableBoolean();
+
+        execute(this.repositories, repository -> repository.exists(extensionId), (repository, result, failure) -> {
+            if (failure != null) {
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+
+                this.logger.debug("Failed to check if extension [{}] exists in repository [{}]", extensionId,
+                    repository.getDescriptor(), failure);
+            } else if (Boolean.TRUE.equals(result)) {
+                exists.setTrue();
             }
-        }
 
-        return false;
+            return exists.booleanValue();
+        });
+
+        return exists.booleanValue();
     }
 
     // AdvancedSearchable
@@ -418,7 +532,80 @@ public boolean exists(ExtensionId extensionId)
     @Override
     public IterableResult<Extension> search(ExtensionQuery query) throws SearchException
     {
-        return RepositoryUtils.search(query, this.repositories);
+        if (!isParallel(this.repositories)) {
+            return RepositoryUtils.search(query, this.repositories);
+        }
+
+        int offset = Math.max(query.getOffset(), 0);
+        int limit = query.getLimit();
+
+        // Each repository has to provide enough results to fill the requested page on its own
+        ExtensionQuery repositoryQuery = new ExtensionQuery(query);
+        repositoryQuery.setOffset(0);
+        repositoryQuery.setLimit(limit >= 0 ? offset + limit : -1);
+
+        List<Extension> extensions = new ArrayList<>(limit >= 0 ? limit : 10);
+        MutableInt totalHits = new MutableInt();
+        MutableInt remainingOffset = new MutableInt(offset);
+
+        execute(this.repositories, repository -> RepositoryUtils.search(repository, repositoryQuery, null),
+            (repository, result, failure) -> {
+                if (failure != null) {
+                    this.logger.error(
+                        "Failed to search on repository [{}] with query [{}]. Ignore and go to next repository.",
+                        repository.getDescriptor(), query, failure);
+                } else if (result != null) {
+                    // Merge the results the same way they are merged when the repositories are searched one after
+                    // another
+                    int skip = remainingOffset.intValue();
+                    remainingOffset.setValue(Math.max(0, skip - result.getTotalHits()));
+                    totalHits.add(result.getTotalHits());
+
+                    for (Extension extension : result) {
+                        if (skip > 0) {
+                            --skip;
+                        } else if (limit < 0 || extensions.size() < limit) {
+                            extensions.add(extension);
+                        }
+                    }
+                }
+
+                return false;
+            });
+
+        return new CollectionIterableResult<>(totalHits.intValue(), query.getOffset(), extensions);
+    }
+
+    private boolean isParallel(Collection<ExtensionRepository> queriedRepositories)
+    {
+        return queriedRepositories.size() > 1 && this.configuration.isParallelRepositoryQueriesEnabled();
+    }
+
+    private <T> void execute(Collection<ExtensionRepository> queriedRepositories,
+        ExtensionRepositoryQueryExecutor.Query<T> query, ExtensionRepositoryQueryExecutor.ResultHandler<T> handler)
+    {
+        boolean parallel = isParallel(queriedRepositories);
+
+        this.executor.execute(queriedRepositories, query, parallel,
+            parallel ? this.configuration.getRepositoryQueryTimeout() : 0, handler);
+    }
+
+    private static RuntimeException propagate(Exception failure)
+    {
+        if (failure instanceof RuntimeException) {
+            return (RuntimeException) failure;
+        }
+
+        return new RuntimeException(failure);
+    }
+
+    /**
+     * @return the statistics of the queries executed on each repository, indexed by repository identifier
+     * @since 12.7
+     */
+    public Map<String, ExtensionRepositoryQueryExecutor.Statistics> getRepositoryStatistics()
+    {
+        return this.executor.getStatistics();
     }
 
     @Override
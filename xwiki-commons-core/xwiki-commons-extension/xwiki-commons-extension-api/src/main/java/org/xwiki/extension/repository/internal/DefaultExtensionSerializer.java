@@ -26,13 +26,13 @@
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,22 +40,13 @@
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Result;
-import javax.xml.transform.Transformer;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.apache.commons.io.IOUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.extension.DefaultExtensionScm;
 import org.xwiki.extension.DefaultExtensionScmConnection;
@@ -194,11 +185,6 @@ public class DefaultExtensionSerializer implements ExtensionSerializer
     @Inject
     private ExtensionFactory factory;
 
-    /**
-     * Used to parse XML descriptor file.
-     */
-    private DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-
     protected Map<String, ExtensionPropertySerializer> serializerById;
 
     protected Map<Class<?>, ExtensionPropertySerializer> serializerByClass;
@@ -241,11 +227,12 @@ public class DefaultExtensionSerializer implements ExtensionSerializer
         }
     }
 
+
     @Override
     public DefaultCoreExtension loadCoreExtensionDescriptor(DefaultCoreExtensionRepository repository, URL url,
         InputStream descriptor) throws InvalidExtensionException
     {
-        Element extensionElement = getExtensionElement(descriptor);
+        Map<String, Object> extensionElement = getExtensionElement(descriptor);
 
         DefaultCoreExtension coreExtension = new DefaultCoreExtension(repository, url, getExtensionId(extensionElement),
             getExtensionType(extensionElement));
@@ -261,7 +248,7 @@ public DefaultCoreExtension loadCoreExtensionDescriptor(DefaultCoreExtensionRepo
     public DefaultLocalExtension loadLocalExtensionDescriptor(DefaultLocalExtensionRepository repository,
         InputStream descriptor) throws InvalidExtensionException
     {
-        Element extensionElement = getExtensionElement(descriptor);
+        Map<String, Object> extensionElement = getExtensionElement(descriptor);
 
         DefaultLocalExtension localExtension =
             new DefaultLocalExtension(repository, getExtensionId(extensionElement), getExtensionType(extensionElement));
@@ -271,202 +258,272 @@ public DefaultLocalExtension loadLocalExtensionDescriptor(DefaultLocalExtensionR
         return localExtension;
     }
 
-    private Element getExtensionElement(InputStream descriptor) throws InvalidExtensionException
+    /**
+     * Read the descriptor in a single pass. Each element is converted to a {@link String} (simple field), a
+     * {@link List} (list of values or of structures), a {@link Map} (structure) or to the unserialized properties
+     * depending on its name.
+     */
+    private Map<String, Object> getExtensionElement(InputStream descriptor) throws InvalidExtensionException
     {
-        DocumentBuilder documentBuilder;
         try {
-            documentBuilder = this.documentBuilderFactory.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            throw new InvalidExtensionException("Failed to create new DocumentBuilder", e);
-        }
+            XMLStreamReader reader = ExtensionXMLStreamUtils.createReader(descriptor);
 
-        Document document;
-        try {
-            document = documentBuilder.parse(descriptor);
+            try {
+                return readStructure(reader);
+            } finally {
+                reader.close();
+            }
         } catch (Exception e) {
             throw new InvalidExtensionException("Failed to parse descriptor", e);
         }
+    }
+
+    private Object readElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        switch (reader.getLocalName()) {
+            case ELEMENT_LICENSES:
+                return readStructures(reader, ELEMENT_LLICENSE);
+            case ELEMENT_AUTHORS:
+                return readStructures(reader, ELEMENT_AAUTHOR);
+            case ELEMENT_EXTENSIONFEATURES:
+                return readStructures(reader, ELEMENT_EFFEATURE);
+            case ELEMENT_DEPENDENCIES:
+            case ELEMENT_MANAGEDDEPENDENCIES:
+                return readStructures(reader, ELEMENT_DDEPENDENCY);
+            case ELEMENT_DEXCLUSIONS:
+                return readStructures(reader, ELEMENT_EXTENIONPATTERN);
+            case ELEMENT_REPOSITORIES:
+                return readStructures(reader, ELEMENT_REPOSITORY);
+            case ELEMENT_FEATURES:
+                return readList(reader, ELEMENT_FFEATURE);
+            case ELEMENT_ALLOWEDNAMESPACES:
+                return readList(reader, ELEMENT_ANNAMESPACE);
+            case ELEMENT_NAMESPACES:
+                return readList(reader, ELEMENT_NNAMESPACE);
+            case ELEMENT_SCM:
+            case ELEMENT_SCONNECTION:
+            case ELEMENT_SDEVELOPERCONNECTION:
+            case ELEMENT_ISSUEMANAGEMENT:
+                return readStructure(reader);
+            case ELEMENT_PROPERTIES:
+                return readProperties(reader);
+            default:
+                return ExtensionXMLStreamUtils.getTextContent(reader);
+        }
+    }
+
+    private Map<String, Object> readStructure(XMLStreamReader reader) throws XMLStreamException
+    {
+        Map<String, Object> structure = new HashMap<>();
+
+        while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+            String elementName = reader.getLocalName();
+
+            // Only the first element with a given name is taken into account
+            if (structure.containsKey(elementName)) {
+                ExtensionXMLStreamUtils.skipElement(reader);
+            } else {
+                structure.put(elementName, readElement(reader));
+            }
+        }
 
-        return document.getDocumentElement();
+        return structure;
     }
 
-    private ExtensionId getExtensionId(Element extensionElement)
+    private List<Map<String, Object>> readStructures(XMLStreamReader reader, String childElement)
+        throws XMLStreamException
     {
-        Node idNode = extensionElement.getElementsByTagName(ELEMENT_ID).item(0);
-        Node versionNode = extensionElement.getElementsByTagName(ELEMENT_VERSION).item(0);
+        List<Map<String, Object>> list = new ArrayList<>();
 
-        return new ExtensionId(idNode.getTextContent(), this.factory.getVersion(versionNode.getTextContent()));
+        while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+            if (reader.getLocalName().equals(childElement)) {
+                list.add(readStructure(reader));
+            } else {
+                ExtensionXMLStreamUtils.skipElement(reader);
+            }
+        }
+
+        return list;
     }
 
-    private String getExtensionType(Element extensionElement)
+    private List<String> readList(XMLStreamReader reader, String childElement) throws XMLStreamException
     {
-        NodeList nodeList = extensionElement.getElementsByTagName(ELEMENT_TYPE);
+        List<String> list = new ArrayList<>();
 
-        return nodeList.getLength() > 0 ? nodeList.item(0).getTextContent() : null;
+        while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+            if (reader.getLocalName().equals(childElement)) {
+                list.add(ExtensionXMLStreamUtils.getTextContent(reader));
+            } else {
+                ExtensionXMLStreamUtils.skipElement(reader);
+            }
+        }
+
+        return list;
+    }
+
+    private Map<String, Object> readProperties(XMLStreamReader reader) throws XMLStreamException
+    {
+        Map<String, Object> properties = new HashMap<>();
+
+        while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+            String propertyName = reader.getLocalName();
+            Object value = CollectionExtensionPropertySerializer.toValue(reader, this.serializerById);
+
+            if (value != null) {
+                properties.put(propertyName, value);
+            }
+        }
+
+        return properties;
+    }
+
+    private <T> T get(Map<String, Object> structure, String elementName)
+    {
+        return structure != null ? (T) structure.get(elementName) : null;
     }
 
-    private void loadExtensionDescriptor(MutableExtension extension, Element extensionElement)
+    private ExtensionId getExtensionId(Map<String, Object> extensionElement)
+    {
+        String id = get(extensionElement, ELEMENT_ID);
+        String version = get(extensionElement, ELEMENT_VERSION);
+
+        return new ExtensionId(id, this.factory.getVersion(version));
+    }
+
+    private String getExtensionType(Map<String, Object> extensionElement)
+    {
+        return get(extensionElement, ELEMENT_TYPE);
+    }
+
+    private void loadExtensionDescriptor(MutableExtension extension, Map<String, Object> extensionElement)
         throws InvalidExtensionException
     {
-        Node nameNode = getNode(extensionElement, ELEMENT_NAME);
-        if (nameNode != null) {
-            extension.setName(nameNode.getTextContent());
+        String name = get(extensionElement, ELEMENT_NAME);
+        if (name != null) {
+            extension.setName(name);
         }
-        Node categoryNode = getNode(extensionElement, ELEMENT_CATEGORY);
-        if (categoryNode != null) {
-            extension.setCategory(categoryNode.getTextContent());
+        String category = get(extensionElement, ELEMENT_CATEGORY);
+        if (category != null) {
+            extension.setCategory(category);
         }
-        Node summaryNode = getNode(extensionElement, ELEMENT_SUMMARY);
-        if (summaryNode != null) {
-            extension.setSummary(summaryNode.getTextContent());
+        String summary = get(extensionElement, ELEMENT_SUMMARY);
+        if (summary != null) {
+            extension.setSummary(summary);
         }
-        Node descriptionNode = getNode(extensionElement, ELEMENT_DESCRIPTION);
-        if (descriptionNode != null) {
-            extension.setDescription(descriptionNode.getTextContent());
+        String description = get(extensionElement, ELEMENT_DESCRIPTION);
+        if (description != null) {
+            extension.setDescription(description);
         }
-        Node websiteNode = getNode(extensionElement, ELEMENT_WEBSITE);
-        if (websiteNode != null) {
-            extension.setWebsite(websiteNode.getTextContent());
+        String website = get(extensionElement, ELEMENT_WEBSITE);
+        if (website != null) {
+            extension.setWebsite(website);
         }
 
         // Licenses
-        Node licensesNode = getNode(extensionElement, ELEMENT_LICENSES);
-        if (licensesNode != null) {
-            NodeList licenseNodeList = licensesNode.getChildNodes();
-            for (int i = 0; i < licenseNodeList.getLength(); ++i) {
-                Node licenseNode = licenseNodeList.item(i);
-
-                if (licenseNode.getNodeName().equals(ELEMENT_LLICENSE)) {
-                    Node licenseNameNode = getNode(licenseNode, ELEMENT_LLNAME);
-                    Node licenceContentNode = getNode(licenseNode, ELEMENT_LLCONTENT);
-
-                    String licenseName = licenseNameNode.getTextContent();
-                    ExtensionLicense license = this.licenseManager.getLicense(licenseName);
-                    if (license == null) {
-                        try {
-                            license = new ExtensionLicense(licenseName, licenceContentNode != null
-                                ? IOUtils.readLines(new StringReader(licenceContentNode.getTextContent())) : null);
-                        } catch (IOException e) {
-                            // That should never happen
-                            throw new InvalidExtensionException("Failed to write license content", e);
-                        }
-                    }
-
-                    extension.addLicense(license);
-                }
+        List<Map<String, Object>> licenses = get(extensionElement, ELEMENT_LICENSES);
+        if (licenses != null) {
+            for (Map<String, Object> licenseElement : licenses) {
+                extension.addLicense(loadLicense(licenseElement));
             }
         }
 
         // Authors
-        Node authorsNode = getNode(extensionElement, ELEMENT_AUTHORS);
-        if (authorsNode != null) {
-            NodeList authors = authorsNode.getChildNodes();
-            for (int i = 0; i < authors.getLength(); ++i) {
-                Node authorNode = authors.item(i);
-
-                if (authorNode.getNodeName().equals(ELEMENT_AAUTHOR)) {
-                    Node authorNameNode = getNode(authorNode, ELEMENT_AANAME);
-                    Node authorURLNode = getNode(authorNode, ELEMENT_AAURL);
-
-                    String authorName = authorNameNode != null ? authorNameNode.getTextContent() : null;
-                    String authorURL;
-                    if (authorURLNode != null) {
-                        authorURL = authorURLNode.getTextContent();
-                    } else {
-                        authorURL = null;
-                    }
-
-                    extension.addAuthor(this.factory.getExtensionAuthor(authorName, authorURL));
-                }
+        List<Map<String, Object>> authors = get(extensionElement, ELEMENT_AUTHORS);
+        if (authors != null) {
+            for (Map<String, Object> authorElement : authors) {
+                extension.addAuthor(this.factory.getExtensionAuthor(get(authorElement, ELEMENT_AANAME),
+                    get(authorElement, ELEMENT_AAURL)));
             }
         }
 
         // Extension features
-        Node featuresNode = getNode(extensionElement, ELEMENT_EXTENSIONFEATURES);
-        if (featuresNode != null) {
-            NodeList extensionFeatures = featuresNode.getChildNodes();
-            for (int i = 0; i < extensionFeatures.getLength(); ++i) {
-                Node featureNode = extensionFeatures.item(i);
-
-                if (featureNode.getNodeName().equals(ELEMENT_EFFEATURE)) {
-                    Node idNode = getNode(featureNode, ELEMENT_EFFID);
-                    Node versionNode = getNode(featureNode, ELEMENT_EFFVERSION);
-
-                    String id = idNode != null ? idNode.getTextContent() : null;
-                    String version = versionNode != null ? versionNode.getTextContent() : null;
-
-                    if (version != null) {
-                        extension.addExtensionFeature(new ExtensionId(id, this.factory.getVersion(version)));
-                    } else {
-                        extension.addExtensionFeature(new ExtensionId(id, extension.getId().getVersion()));
-                    }
+        List<Map<String, Object>> features = get(extensionElement, ELEMENT_EXTENSIONFEATURES);
+        if (features != null) {
+            for (Map<String, Object> featureElement : features) {
+                String id = get(featureElement, ELEMENT_EFFID);
+                String version = get(featureElement, ELEMENT_EFFVERSION);
+
+                if (version != null) {
+                    extension.addExtensionFeature(new ExtensionId(id, this.factory.getVersion(version)));
+                } else {
+                    extension.addExtensionFeature(new ExtensionId(id, extension.getId().getVersion()));
                 }
             }
-        }
-        if (featuresNode == null) {
+        } else {
             // @Deprecated Features
-            List<String> legacyFeatures = parseList(extensionElement, ELEMENT_FEATURES, ELEMENT_FFEATURE);
+            List<String> legacyFeatures = get(extensionElement, ELEMENT_FEATURES);
             if (legacyFeatures != null) {
                 extension.setFeatures(legacyFeatures);
             }
         }
 
         // Allowed namespaces
-        List<String> allowedNamespaces = parseList(extensionElement, ELEMENT_ALLOWEDNAMESPACES, ELEMENT_ANNAMESPACE);
+        List<String> allowedNamespaces = get(extensionElement, ELEMENT_ALLOWEDNAMESPACES);
         if (allowedNamespaces != null) {
             extension.setAllowedNamespaces(allowedNamespaces);
         }
 
         // Scm
-        extension.setScm(loadlScm(extensionElement));
+        extension.setScm(loadlScm(get(extensionElement, ELEMENT_SCM)));
 
         // Issue Management
-        extension.setIssueManagement(loadIssueManagement(extensionElement));
+        extension.setIssueManagement(loadIssueManagement(get(extensionElement, ELEMENT_ISSUEMANAGEMENT)));
 
         // Dependencies
-        extension.setDependencies(loadDependencies(extensionElement, ELEMENT_DEPENDENCIES));
+        extension.setDependencies(loadDependencies(get(extensionElement, ELEMENT_DEPENDENCIES)));
 
         // Managed dependencies
-        extension.setManagedDependencies(loadDependencies(extensionElement, ELEMENT_MANAGEDDEPENDENCIES));
+        extension.setManagedDependencies(loadDependencies(get(extensionElement, ELEMENT_MANAGEDDEPENDENCIES)));
 
         // Properties
-        Map<String, Object> properties = parseProperties(extensionElement);
+        Map<String, Object> properties = get(extensionElement, ELEMENT_PROPERTIES);
         if (properties != null) {
             extension.setProperties(properties);
         }
 
         // @Deprecated Install fields
 
-        Node enabledNode = getNode(extensionElement, ELEMENT_INSTALLED);
-        if (enabledNode != null) {
-            extension.putProperty(InstalledExtension.PKEY_INSTALLED, Boolean.valueOf(enabledNode.getTextContent()));
+        String enabled = get(extensionElement, ELEMENT_INSTALLED);
+        if (enabled != null) {
+            extension.putProperty(InstalledExtension.PKEY_INSTALLED, Boolean.valueOf(enabled));
         }
 
         // @Deprecated Namespaces
-        List<String> namespaces = parseList(extensionElement, ELEMENT_NAMESPACES, ELEMENT_NNAMESPACE);
+        List<String> namespaces = get(extensionElement, ELEMENT_NAMESPACES);
         if (namespaces != null) {
             extension.putProperty(InstalledExtension.PKEY_NAMESPACES, namespaces);
         }
     }
 
-    private Collection<ExtensionDependency> loadDependencies(Element extensionElement, String dependenciesFiel)
-        throws InvalidExtensionException
+    private ExtensionLicense loadLicense(Map<String, Object> licenseElement) throws InvalidExtensionException
     {
-        Node dependenciesNode = getNode(extensionElement, dependenciesFiel);
-        if (dependenciesNode != null) {
-            NodeList dependenciesNodeList = dependenciesNode.getChildNodes();
+        String licenseName = get(licenseElement, ELEMENT_LLNAME);
+        ExtensionLicense license = this.licenseManager.getLicense(licenseName);
+        if (license == null) {
+            String licenseContent = get(licenseElement, ELEMENT_LLCONTENT);
+            try {
+                license = new ExtensionLicense(licenseName,
+                    licenseContent != null ? IOUtils.readLines(new StringReader(licenseContent)) : null);
+            } catch (IOException e) {
+                // That should never happen
+                throw new InvalidExtensionException("Failed to write license content", e);
+            }
+        }
 
-            List<ExtensionDependency> dependencies = new ArrayList<>(dependenciesNodeList.getLength());
+        return license;
+    }
 
-            for (int i = 0; i < dependenciesNodeList.getLength(); ++i) {
-                Node dependencyNode = dependenciesNodeList.item(i);
+    private Collection<ExtensionDependency> loadDependencies(List<Map<String, Object>> dependenciesElement)
+        throws InvalidExtensionException
+    {
+        if (dependenciesElement != null) {
+            List<ExtensionDependency> dependencies = new ArrayList<>(dependenciesElement.size());
 
-                if (dependencyNode.getNodeName().equals(ELEMENT_DDEPENDENCY)) {
-                    ExtensionDependency dependency = loadDependency(dependencyNode);
+            for (Map<String, Object> dependencyElement : dependenciesElement) {
+                ExtensionDependency dependency = loadDependency(dependencyElement);
 
-                    if (dependency != null) {
-                        dependencies.add(dependency);
-                    }
+                if (dependency != null) {
+                    dependencies.add(dependency);
                 }
             }
 
@@ -476,53 +533,42 @@ private Collection<ExtensionDependency> loadDependencies(Element extensionElemen
         return Collections.emptyList();
     }
 
-    private ExtensionDependency loadDependency(Node dependencyNode) throws InvalidExtensionException
+    private ExtensionDependency loadDependency(Map<String, Object> dependencyElement)
+        throws InvalidExtensionException
     {
-        Node dependencyIdNode = getNode(dependencyNode, ELEMENT_ID);
+        String dependencyId = get(dependencyElement, ELEMENT_ID);
 
-        if (dependencyIdNode != null) {
-            Node dependencyVersionNode = getNode(dependencyNode, ELEMENT_VERSION);
-            Node dependencyOptionalNode = getNode(dependencyNode, ELEMENT_DDOPTIONAL);
-            Map<String, Object> properties = parseProperties((Element) dependencyNode);
+        if (dependencyId != null) {
+            String dependencyVersion = get(dependencyElement, ELEMENT_VERSION);
+            String dependencyOptional = get(dependencyElement, ELEMENT_DDOPTIONAL);
+            Map<String, Object> properties = get(dependencyElement, ELEMENT_PROPERTIES);
 
-            Collection<ExtensionRepositoryDescriptor> repositories = loadRepositories(dependencyNode);
-            Collection<ExtensionPattern> exclusions = loadExclusions(dependencyNode);
+            Collection<ExtensionRepositoryDescriptor> repositories =
+                loadRepositories(get(dependencyElement, ELEMENT_REPOSITORIES));
+            Collection<ExtensionPattern> exclusions = loadExclusions(get(dependencyElement, ELEMENT_DEXCLUSIONS));
 
-            return this.factory.getExtensionDependency(dependencyIdNode.getTextContent(),
-                dependencyVersionNode != null
-                    ? this.factory.getVersionConstraint(dependencyVersionNode.getTextContent()) : null,
-                dependencyOptionalNode != null && Boolean.parseBoolean(dependencyOptionalNode.getTextContent()),
-                exclusions, repositories, properties);
+            return this.factory.getExtensionDependency(dependencyId,
+                dependencyVersion != null ? this.factory.getVersionConstraint(dependencyVersion) : null,
+                Boolean.parseBoolean(dependencyOptional), exclusions, repositories, properties);
         }
 
         return null;
     }
 
-    private Collection<ExtensionRepositoryDescriptor> loadRepositories(Node parentElement)
-        throws InvalidExtensionException
+    private Collection<ExtensionRepositoryDescriptor> loadRepositories(
+        List<Map<String, Object>> repositoriesElement) throws InvalidExtensionException
     {
-        Node repositoriesNode = getNode(parentElement, ELEMENT_REPOSITORIES);
-        if (repositoriesNode != null) {
-            NodeList repositoriesNodeList = repositoriesNode.getChildNodes();
-
-            List<ExtensionRepositoryDescriptor> repositories = new ArrayList<>(repositoriesNodeList.getLength());
+        if (repositoriesElement != null) {
+            List<ExtensionRepositoryDescriptor> repositories = new ArrayList<>(repositoriesElement.size());
 
-            for (int i = 0; i < repositoriesNodeList.getLength(); ++i) {
-                Node repository = repositoriesNodeList.item(i);
+            for (Map<String, Object> repository : repositoriesElement) {
+                Map<String, String> properties = get(repository, ELEMENT_PROPERTIES);
 
-                if (repository.getNodeName().equals(ELEMENT_REPOSITORY)) {
-                    Node repositoryIdNode = getNode(repository, ELEMENT_ID);
-                    Node repositoryTypeNode = getNode(repository, ELEMENT_RTYPE);
-                    Node repositoryURINode = getNode(repository, ELEMENT_URI);
-                    Map<String, String> properties = parseProperties((Element) repository);
-
-                    try {
-                        repositories.add(this.factory.getExtensionRepositoryDescriptor(
-                            repositoryIdNode.getTextContent(), repositoryTypeNode.getTextContent(),
-                            new URI(repositoryURINode.getTextContent()), properties));
-                    } catch (Exception e) {
-                        throw new InvalidExtensionException("Failed to read repository descriptor", e);
-                    }
+                try {
+                    repositories.add(this.factory.getExtensionRepositoryDescriptor(get(repository, ELEMENT_ID),
+                        get(repository, ELEMENT_RTYPE), new URI(get(repository, ELEMENT_URI)), properties));
+                } catch (Exception e) {
+                    throw new InvalidExtensionException("Failed to read repository descriptor", e);
                 }
             }
 
@@ -532,25 +578,17 @@ private Collection<ExtensionRepositoryDescriptor> loadRepositories(Node parentEl
         return Collections.emptyList();
     }
 
-    private Collection<ExtensionPattern> loadExclusions(Node dependencyNode)
+    private Collection<ExtensionPattern> loadExclusions(List<Map<String, Object>> exclusionsElement)
     {
-        Node exclusionsNode = getNode(dependencyNode, ELEMENT_DEXCLUSIONS);
-        if (exclusionsNode != null) {
-            NodeList exclusionsNodeList = exclusionsNode.getChildNodes();
-
-            List<ExtensionPattern> exclusions = new ArrayList<>(exclusionsNodeList.getLength());
+        if (exclusionsElement != null) {
+            List<ExtensionPattern> exclusions = new ArrayList<>(exclusionsElement.size());
 
-            for (int i = 0; i < exclusionsNodeList.getLength(); ++i) {
-                Node exclusion = exclusionsNodeList.item(i);
+            for (Map<String, Object> exclusion : exclusionsElement) {
+                String dependencyId = get(exclusion, ELEMENT_ID);
 
-                if (exclusion.getNodeName().equals(ELEMENT_EXTENIONPATTERN)) {
-                    Node dependencyIdNode = getNode(exclusion, ELEMENT_ID);
+                Pattern patternString = dependencyId != null ? Pattern.compile(dependencyId) : null;
 
-                    Pattern patternString =
-                        dependencyIdNode != null ? Pattern.compile(dependencyIdNode.getTextContent()) : null;
-
-                    exclusions.add(this.factory.getExtensionPattern(patternString));
-                }
+                exclusions.add(this.factory.getExtensionPattern(patternString));
             }
 
             return exclusions;
@@ -559,111 +597,34 @@ private Collection<ExtensionPattern> loadExclusions(Node dependencyNode)
         return Collections.emptyList();
     }
 
-    private ExtensionScm loadlScm(Element extensionElement)
+    private ExtensionScm loadlScm(Map<String, Object> scmElement)
     {
-        Node node = getNode(extensionElement, ELEMENT_SCM);
-
-        if (node != null) {
-            Node connectionNode = getNode(node, ELEMENT_SCONNECTION);
-            Node developerConnectionNode = getNode(node, ELEMENT_SDEVELOPERCONNECTION);
-            Node urlNode = getNode(node, ELEMENT_SURL);
-
-            return new DefaultExtensionScm(urlNode != null ? urlNode.getTextContent() : null,
-                loadlScmConnection(connectionNode), loadlScmConnection(developerConnectionNode));
+        if (scmElement != null) {
+            return new DefaultExtensionScm(get(scmElement, ELEMENT_SURL),
+                loadlScmConnection(get(scmElement, ELEMENT_SCONNECTION)),
+                loadlScmConnection(get(scmElement, ELEMENT_SDEVELOPERCONNECTION)));
         }
 
         return null;
     }
 
-    private ExtensionScmConnection loadlScmConnection(Node scmConnectionElement)
+    private ExtensionScmConnection loadlScmConnection(Map<String, Object> scmConnectionElement)
     {
-        if (scmConnectionElement != null) {
-            Node system = getNode(scmConnectionElement, ELEMENT_SCSYSTEM);
-            Node path = getNode(scmConnectionElement, ELEMENT_SCPATH);
+        String system = get(scmConnectionElement, ELEMENT_SCSYSTEM);
 
-            if (system != null) {
-                return new DefaultExtensionScmConnection(system.getTextContent(),
-                    path != null ? path.getTextContent() : null);
-            }
+        if (system != null) {
+            return new DefaultExtensionScmConnection(system, get(scmConnectionElement, ELEMENT_SCPATH));
         }
 
         return null;
     }
 
-    private ExtensionIssueManagement loadIssueManagement(Element extensionElement)
+    private ExtensionIssueManagement loadIssueManagement(Map<String, Object> issueManagementElement)
     {
-        Node node = getNode(extensionElement, ELEMENT_ISSUEMANAGEMENT);
+        String system = get(issueManagementElement, ELEMENT_ISYSTEM);
 
-        if (node != null) {
-            Node systemNode = getNode(node, ELEMENT_ISYSTEM);
-            Node urlNode = getNode(node, ELEMENT_IURL);
-
-            if (systemNode != null) {
-                return this.factory.getExtensionIssueManagement(systemNode.getTextContent(),
-                    urlNode != null ? urlNode.getTextContent() : null);
-            }
-        }
-
-        return null;
-    }
-
-    private List<String> parseList(Element extensionElement, String rootElement, String childElement)
-    {
-        List<String> list;
-
-        Node featuresNode = getNode(extensionElement, rootElement);
-        if (featuresNode != null) {
-            list = new LinkedList<>();
-
-            NodeList features = featuresNode.getChildNodes();
-            for (int i = 0; i < features.getLength(); ++i) {
-                Node featureNode = features.item(i);
-
-                if (featureNode.getNodeName() == childElement) {
-                    list.add(featureNode.getTextContent());
-                }
-            }
-        } else {
-            list = null;
-        }
-
-        return list;
-    }
-
-    private <T> Map<String, T> parseProperties(Node parentElement)
-    {
-        Map<String, T> properties = null;
-
-        Node propertiesNode = getNode(parentElement, ELEMENT_PROPERTIES);
-        if (propertiesNode != null) {
-            properties = new HashMap<>();
-            NodeList propertyNodeList = propertiesNode.getChildNodes();
-            for (int i = 0; i < propertyNodeList.getLength(); ++i) {
-                Node propertyNode = propertyNodeList.item(i);
-
-                if (propertyNode.getNodeType() == Node.ELEMENT_NODE) {
-                    T value =
-                        CollectionExtensionPropertySerializer.toValue((Element) propertyNode, this.serializerById);
-
-                    if (value != null) {
-                        properties.put(propertyNode.getNodeName(), value);
-                    }
-                }
-            }
-        }
-
-        return properties;
-    }
-
-    private Node getNode(Node parentNode, String elementName)
-    {
-        NodeList children = parentNode.getChildNodes();
-        for (int i = 0; i < children.getLength(); ++i) {
-            Node node = children.item(i);
-
-            if (node.getNodeName().equals(elementName)) {
-                return node;
-            }
+        if (system != null) {
+            return this.factory.getExtensionIssueManagement(system, get(issueManagementElement, ELEMENT_IURL));
         }
 
         return null;
@@ -673,63 +634,62 @@ private Node getNode(Node parentNode, String elementName)
     public void saveExtensionDescriptor(Extension extension, OutputStream fos)
         throws ParserConfigurationException, TransformerException
     {
-        DocumentBuilder documentBuilder = this.documentBuilderFactory.newDocumentBuilder();
-        Document document = documentBuilder.newDocument();
+        try {
+            XMLStreamWriter writer = ExtensionXMLStreamUtils.createWriter(fos);
+
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
 
-        Element extensionElement = document.createElement("extension");
-        document.appendChild(extensionElement);
+            writer.writeStartElement("extension");
 
-        addElement(document, extensionElement, ELEMENT_ID, extension.getId().getId());
-        addElement(document, extensionElement, ELEMENT_VERSION, extension.getId().getVersion().getValue());
-        addElement(document, extensionElement, ELEMENT_TYPE, extension.getType());
-        addElement(document, extensionElement, ELEMENT_NAME, extension.getName());
-        addElement(document, extensionElement, ELEMENT_CATEGORY, extension.getCategory());
-        addElement(document, extensionElement, ELEMENT_SUMMARY, extension.getSummary());
-        addElement(document, extensionElement, ELEMENT_DESCRIPTION, extension.getDescription());
-        addElement(document, extensionElement, ELEMENT_WEBSITE, extension.getWebSite());
+            addElement(writer, ELEMENT_ID, extension.getId().getId());
+            addElement(writer, ELEMENT_VERSION, extension.getId().getVersion().getValue());
+            addElement(writer, ELEMENT_TYPE, extension.getType());
+            addElement(writer, ELEMENT_NAME, extension.getName());
+            addElement(writer, ELEMENT_CATEGORY, extension.getCategory());
+            addElement(writer, ELEMENT_SUMMARY, extension.getSummary());
+            addElement(writer, ELEMENT_DESCRIPTION, extension.getDescription());
+            addElement(writer, ELEMENT_WEBSITE, extension.getWebSite());
 
-        addExtensionFeatures(document, extensionElement, extension);
-        addLegacyFeatures(document, extensionElement, extension);
+            addExtensionFeatures(writer, extension);
+            addLegacyFeatures(writer, extension);
 
-        addAuthors(document, extensionElement, extension);
+            addAuthors(writer, extension);
 
-        addAllowedNamespaces(document, extensionElement, extension);
+            addAllowedNamespaces(writer, extension);
 
-        addLicenses(document, extensionElement, extension);
+            addLicenses(writer, extension);
 
-        addScm(document, extensionElement, extension);
+            addScm(writer, extension);
 
-        addIssueManagement(document, extensionElement, extension);
+            addIssueManagement(writer, extension);
 
-        addDependencies(document, extensionElement, extension);
-        addManagedDependencies(document, extensionElement, extension);
+            addDependencies(writer, ELEMENT_DEPENDENCIES, extension.getDependencies());
+            addDependencies(writer, ELEMENT_MANAGEDDEPENDENCIES, extension.getManagedDependencies());
 
-        addRepositories(document, extensionElement, extension.getRepositories());
+            addRepositories(writer, extension.getRepositories());
 
-        addProperties(document, extensionElement, extension.getProperties());
+            addProperties(writer, extension.getProperties());
 
-        // save
+            writer.writeEndElement();
 
-        TransformerFactory transfac = TransformerFactory.newInstance();
-        Transformer trans = transfac.newTransformer();
-        trans.setOutputProperty(OutputKeys.INDENT, "yes");
+            writer.writeEndDocument();
 
-        DOMSource source = new DOMSource(document);
-        Result result = new StreamResult(fos);
-        trans.transform(source, result);
+            // Does not close the target stream
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new TransformerException("Failed to write extension descriptor", e);
+        }
     }
 
-    private void addLicenses(Document document, Element parentElement, Extension extension)
+    private void addLicenses(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         if (extension.getLicenses() != null && !extension.getLicenses().isEmpty()) {
-            Element licensesElement = document.createElement(ELEMENT_LICENSES);
-            parentElement.appendChild(licensesElement);
+            writer.writeStartElement(ELEMENT_LICENSES);
 
             for (ExtensionLicense license : extension.getLicenses()) {
-                Element licenseElement = document.createElement(ELEMENT_LLICENSE);
-                licensesElement.appendChild(licenseElement);
+                writer.writeStartElement(ELEMENT_LLICENSE);
 
-                addElement(document, licenseElement, ELEMENT_LLNAME, license.getName());
+                addElement(writer, ELEMENT_LLNAME, license.getName());
                 if (this.licenseManager.getLicense(license.getName()) == null && license.getContent() != null) {
                     // Only store content if it's a custom license (license content is pretty big generally)
                     StringWriter content = new StringWriter();
@@ -738,205 +698,211 @@ private void addLicenses(Document document, Element parentElement, Extension ext
                     } catch (IOException e) {
                         // That should never happen
                     }
-                    addElement(document, licenseElement, ELEMENT_LLCONTENT, content.toString());
+                    addElement(writer, ELEMENT_LLCONTENT, content.toString());
                 }
+
+                writer.writeEndElement();
             }
+
+            writer.writeEndElement();
         }
     }
 
     @Deprecated
-    private void addLegacyFeatures(Document document, Element parentElement, Extension extension)
+    private void addLegacyFeatures(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         Collection<String> features = extension.getFeatures();
         if (!features.isEmpty()) {
-            Element featuresElement = document.createElement(ELEMENT_FEATURES);
-            parentElement.appendChild(featuresElement);
+            writer.writeStartElement(ELEMENT_FEATURES);
 
             for (String feature : features) {
-                addElement(document, featuresElement, ELEMENT_FFEATURE, feature);
+                addElement(writer, ELEMENT_FFEATURE, feature);
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addAllowedNamespaces(Document document, Element parentElement, Extension extension)
+    private void addAllowedNamespaces(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         Collection<String> namespaces = extension.getAllowedNamespaces();
         if (namespaces != null) {
-            Element namespacesElement = document.createElement(ELEMENT_ALLOWEDNAMESPACES);
-            parentElement.appendChild(namespacesElement);
+            writer.writeStartElement(ELEMENT_ALLOWEDNAMESPACES);
 
             for (String namespace : namespaces) {
-                addElement(document, namespacesElement, ELEMENT_ANNAMESPACE, namespace);
+                addElement(writer, ELEMENT_ANNAMESPACE, namespace);
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addExtensionFeatures(Document document, Element parentElement, Extension extension)
+    private void addExtensionFeatures(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         Collection<ExtensionId> features = extension.getExtensionFeatures();
         if (!features.isEmpty()) {
-            Element featuresElement = document.createElement(ELEMENT_EXTENSIONFEATURES);
-            parentElement.appendChild(featuresElement);
+            writer.writeStartElement(ELEMENT_EXTENSIONFEATURES);
 
             for (ExtensionId feature : features) {
-                Element authorElement = document.createElement(ELEMENT_EFFEATURE);
-                featuresElement.appendChild(authorElement);
+                writer.writeStartElement(ELEMENT_EFFEATURE);
+
+                addElement(writer, ELEMENT_EFFID, feature.getId());
+                addElement(writer, ELEMENT_EFFVERSION, feature.getVersion().getValue());
 
-                addElement(document, authorElement, ELEMENT_EFFID, feature.getId());
-                addElement(document, authorElement, ELEMENT_EFFVERSION, feature.getVersion().getValue());
+                writer.writeEndElement();
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addAuthors(Document document, Element parentElement, Extension extension)
+    private void addAuthors(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         Collection<ExtensionAuthor> authors = extension.getAuthors();
         if (!authors.isEmpty()) {
-            Element authorsElement = document.createElement(ELEMENT_AUTHORS);
-            parentElement.appendChild(authorsElement);
+            writer.writeStartElement(ELEMENT_AUTHORS);
 
             for (ExtensionAuthor author : authors) {
-                Element authorElement = document.createElement(ELEMENT_AAUTHOR);
-                authorsElement.appendChild(authorElement);
+                writer.writeStartElement(ELEMENT_AAUTHOR);
 
-                addElement(document, authorElement, ELEMENT_AANAME, author.getName());
+                addElement(writer, ELEMENT_AANAME, author.getName());
 
                 String authorURL = author.getURLString();
                 if (authorURL != null) {
-                    addElement(document, authorElement, ELEMENT_AAURL, authorURL);
+                    addElement(writer, ELEMENT_AAURL, authorURL);
                 }
+
+                writer.writeEndElement();
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addScm(Document document, Element extensionElement, Extension extension)
+    private void addScm(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         ExtensionScm scm = extension.getScm();
 
         if (scm != null) {
-            Element scmElement = document.createElement(ELEMENT_SCM);
-            extensionElement.appendChild(scmElement);
+            writer.writeStartElement(ELEMENT_SCM);
+
+            addElement(writer, ELEMENT_SURL, scm.getUrl());
+            addScmConnection(writer, scm.getConnection(), ELEMENT_SCONNECTION);
+            addScmConnection(writer, scm.getDeveloperConnection(), ELEMENT_SDEVELOPERCONNECTION);
 
-            addElement(document, scmElement, ELEMENT_SURL, scm.getUrl());
-            addScmConnection(document, scmElement, scm.getConnection(), ELEMENT_SCONNECTION);
-            addScmConnection(document, scmElement, scm.getDeveloperConnection(), ELEMENT_SDEVELOPERCONNECTION);
+            writer.writeEndElement();
         }
     }
 
-    private void addScmConnection(Document document, Element scmElement, ExtensionScmConnection connection,
-        String elementName)
+    private void addScmConnection(XMLStreamWriter writer, ExtensionScmConnection connection, String elementName)
+        throws XMLStreamException
     {
         if (connection != null) {
-            Element connectionElement = document.createElement(elementName);
-            scmElement.appendChild(connectionElement);
+            writer.writeStartElement(elementName);
 
-            addElement(document, connectionElement, ELEMENT_SCSYSTEM, connection.getSystem());
-            addElement(document, connectionElement, ELEMENT_SCPATH, connection.getPath());
+            addElement(writer, ELEMENT_SCSYSTEM, connection.getSystem());
+            addElement(writer, ELEMENT_SCPATH, connection.getPath());
+
+            writer.writeEndElement();
         }
     }
 
-    private void addIssueManagement(Document document, Element extensionElement, Extension extension)
+    private void addIssueManagement(XMLStreamWriter writer, Extension extension) throws XMLStreamException
     {
         ExtensionIssueManagement issueManagement = extension.getIssueManagement();
 
         if (issueManagement != null) {
-            Element issuemanagementElement = document.createElement(ELEMENT_ISSUEMANAGEMENT);
-            extensionElement.appendChild(issuemanagementElement);
+            writer.writeStartElement(ELEMENT_ISSUEMANAGEMENT);
 
-            addElement(document, issuemanagementElement, ELEMENT_ISYSTEM, issueManagement.getSystem());
-            addElement(document, issuemanagementElement, ELEMENT_IURL, issueManagement.getURL());
-        }
-    }
+            addElement(writer, ELEMENT_ISYSTEM, issueManagement.getSystem());
+            addElement(writer, ELEMENT_IURL, issueManagement.getURL());
 
-    private void addDependencies(Document document, Element parentElement, Extension extension)
-    {
-        addDependencies(document, parentElement, ELEMENT_DEPENDENCIES, extension.getDependencies());
+            writer.writeEndElement();
+        }
     }
 
-    private void addManagedDependencies(Document document, Element parentElement, Extension extension)
+    private void addDependencies(XMLStreamWriter writer, String fieldName,
+        Collection<ExtensionDependency> dependencies) throws XMLStreamException
     {
-        addDependencies(document, parentElement, ELEMENT_MANAGEDDEPENDENCIES, extension.getManagedDependencies());
-    }
+        if (dependencies != null && !dependencies.isEmpty()) {
+            writer.writeStartElement(fieldName);
 
-    private void addDependencies(Document document, Element parentElement, String fieldName,
-        Collection<ExtensionDependency> exclusions)
-    {
-        if (exclusions != null && !exclusions.isEmpty()) {
-            Element dependenciesElement = document.createElement(fieldName);
-            parentElement.appendChild(dependenciesElement);
+            for (ExtensionDependency dependency : dependencies) {
+                writer.writeStartElement(ELEMENT_DDEPENDENCY);
 
-            for (ExtensionDependency dependency : exclusions) {
-                Element dependencyElement = document.createElement(ELEMENT_DDEPENDENCY);
-                dependenciesElement.appendChild(dependencyElement);
+                addElement(writer, ELEMENT_ID, dependency.getId());
+                addElement(writer, ELEMENT_VERSION, dependency.getVersionConstraint().getValue());
+                addElement(writer, ELEMENT_DDOPTIONAL, dependency.isOptional());
+                addProperties(writer, dependency.getProperties());
 
-                addElement(document, dependencyElement, ELEMENT_ID, dependency.getId());
-                addElement(document, dependencyElement, ELEMENT_VERSION, dependency.getVersionConstraint().getValue());
-                addElement(document, dependencyElement, ELEMENT_DDOPTIONAL, dependency.isOptional());
-                addProperties(document, dependencyElement, dependency.getProperties());
+                addDependencyExclusions(writer, dependency.getExclusions());
 
-                addDependencyExclusions(document, dependencyElement, dependency.getExclusions());
+                writer.writeEndElement();
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addRepositories(Document document, Element parentElement,
-        Collection<ExtensionRepositoryDescriptor> repositories)
+    private void addRepositories(XMLStreamWriter writer, Collection<ExtensionRepositoryDescriptor> repositories)
+        throws XMLStreamException
     {
         if (repositories != null && !repositories.isEmpty()) {
-            Element dependenciesElement = document.createElement(ELEMENT_REPOSITORIES);
-            parentElement.appendChild(dependenciesElement);
+            writer.writeStartElement(ELEMENT_REPOSITORIES);
 
             for (ExtensionRepositoryDescriptor repository : repositories) {
-                Element dependencyElement = document.createElement(ELEMENT_REPOSITORY);
-                dependenciesElement.appendChild(dependencyElement);
+                writer.writeStartElement(ELEMENT_REPOSITORY);
+
+                addElement(writer, ELEMENT_ID, repository.getId());
+                addElement(writer, ELEMENT_RTYPE, repository.getType());
+                addElement(writer, ELEMENT_URI, repository.getURI());
+                addProperties(writer, repository.getProperties());
 
-                addElement(document, dependencyElement, ELEMENT_ID, repository.getId());
-                addElement(document, dependencyElement, ELEMENT_RTYPE, repository.getType());
-                addElement(document, dependencyElement, ELEMENT_URI, repository.getURI());
-                addProperties(document, dependencyElement, repository.getProperties());
+                writer.writeEndElement();
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addDependencyExclusions(Document document, Element parentElement,
-        Collection<ExtensionPattern> exclusions)
+    private void addDependencyExclusions(XMLStreamWriter writer, Collection<ExtensionPattern> exclusions)
+        throws XMLStreamException
     {
         if (exclusions != null && !exclusions.isEmpty()) {
-            Element dependenciesElement = document.createElement(ELEMENT_DEXCLUSIONS);
-            parentElement.appendChild(dependenciesElement);
+            writer.writeStartElement(ELEMENT_DEXCLUSIONS);
 
             for (ExtensionPattern exclusion : exclusions) {
-                Element dependencyElement = document.createElement(ELEMENT_EXTENIONPATTERN);
-                dependenciesElement.appendChild(dependencyElement);
+                writer.writeStartElement(ELEMENT_EXTENIONPATTERN);
 
                 if (exclusion.getIdPattern() != null) {
-                    addElement(document, dependencyElement, ELEMENT_ID, exclusion.getIdPattern().pattern());
+                    addElement(writer, ELEMENT_ID, exclusion.getIdPattern().pattern());
                 }
+
+                writer.writeEndElement();
             }
+
+            writer.writeEndElement();
         }
     }
 
-    private void addProperties(Document document, Element parentElement, Map<String, ?> properties)
+    private void addProperties(XMLStreamWriter writer, Map<String, ?> properties) throws XMLStreamException
     {
         if (!properties.isEmpty()) {
-            Element propertiesElement = document.createElement(ELEMENT_PROPERTIES);
-            parentElement.appendChild(propertiesElement);
+            writer.writeStartElement(ELEMENT_PROPERTIES);
 
             for (Map.Entry<String, ?> entry : properties.entrySet()) {
-                addElement(document, propertiesElement, entry.getKey(), entry.getValue());
+                addElement(writer, entry.getKey(), entry.getValue());
             }
+
+            writer.writeEndElement();
         }
     }
 
     // Tools
 
-    private void addElement(Document document, Element parentElement, String elementName, Object elementValue)
+    private void addElement(XMLStreamWriter writer, String elementName, Object elementValue)
+        throws XMLStreamException
     {
-        Element element = CollectionExtensionPropertySerializer.toElement(elementValue, document, elementName,
-            this.serializerByClass);
-
-        if (element != null) {
-            parentElement.appendChild(element);
-        }
+        CollectionExtensionPropertySerializer.write(writer, elementValue, elementName, this.serializerByClass);
     }
 }
@@ -19,6 +19,10 @@
  */
 package org.xwiki.extension.repository.internal;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -43,4 +47,39 @@
      * @return the serialized property {@link Element}
      */
     Element toElement(Document document, String elementName, T elementValue);
+
+    /**
+     * Unserialize the property from a stream.
+     * <p>
+     * The default implementation rely on {@link #toValue(Element)}.
+     *
+     * @param reader the reader, positioned on the start of the property element, to leave on its end
+     * @return the unserialized property value
+     * @throws XMLStreamException when failing to read the property
+     * @since 12.7
+     */
+    default T toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        return toValue(ExtensionXMLStreamUtils.toElement(reader));
+    }
+
+    /**
+     * Serialize the property to a stream.
+     * <p>
+     * The default implementation rely on {@link #toElement(Document, String, Object)}.
+     *
+     * @param writer the writer
+     * @param elementName the name of the property
+     * @param elementValue the value of the property
+     * @throws XMLStreamException when failing to write the property
+     * @since 12.7
+     */
+    default void write(XMLStreamWriter writer, String elementName, T elementValue) throws XMLStreamException
+    {
+        Element element = toElement(ExtensionXMLStreamUtils.createDocument(), elementName, elementValue);
+
+        if (element != null) {
+            ExtensionXMLStreamUtils.write(writer, element);
+        }
+    }
 }
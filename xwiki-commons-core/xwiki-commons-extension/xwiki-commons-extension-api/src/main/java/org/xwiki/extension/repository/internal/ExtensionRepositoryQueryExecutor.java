@@ -0,0 +1,335 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.extension.repository.ExtensionRepository;
+
+/**
+ * Execute queries on extension repositories, sequentially or concurrently, and keep track of each repository latency.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class ExtensionRepositoryQueryExecutor
+{
+    /**
+     * A query to execute on a repository.
+     *
+     * @param <T> the type of the result
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface Query<T>
+    {
+        /**
+         * @param repository the repository to query
+         * @return the result of the query
+         * @throws Exception when failing to query the repository
+         */
+        T query(ExtensionRepository repository) throws Exception;
+    }
+
+    /**
+     * The statistics of the queries executed on a repository.
+     *
+     * @version $Id$
+     */
+    public static final class Statistics
+    {
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder timeouts = new LongAdder();
+
+        private final LongAdder totalTime = new LongAdder();
+
+        private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+        private void add(long time, boolean failed)
+        {
+            this.count.increment();
+            this.totalTime.add(time);
+            this.maxTime.accumulate(time);
+            if (failed) {
+                this.failures.increment();
+            }
+        }
+
+        /**
+         * @return the number of executed queries
+         */
+        public long getCount()
+        {
+            return this.count.sum();
+        }
+
+        /**
+         * @return the number of queries which failed with an exception (including "not found" exceptions)
+         */
+        public long getFailures()
+        {
+            return this.failures.sum();
+        }
+
+        /**
+         * @return the number of queries which did not answer in time
+         */
+        public long getTimeouts()
+        {
+            return this.timeouts.sum();
+        }
+
+        /**
+         * @return the total time spent in queries in milliseconds
+         */
+        public long getTotalTime()
+        {
+            return TimeUnit.NANOSECONDS.toMillis(this.totalTime.sum());
+        }
+
+        /**
+         * @return the average time of a query in milliseconds
+         */
+        public long getAverageTime()
+        {
+            long queries = getCount();
+
+            return queries > 0 ? getTotalTime() / queries : 0;
+        }
+
+        /**
+         * @return the longest time of a query in milliseconds
+         */
+        public long getMaxTime()
+        {
+            return TimeUnit.NANOSECONDS.toMillis(this.maxTime.get());
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("count=%d, failures=%d, timeouts=%d, average=%dms, max=%dms", getCount(),
+                getFailures(), getTimeouts(), getAverageTime(), getMaxTime());
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExtensionRepositoryQueryExecutor.class);
+
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    /**
+     * Receive the result of a query on a repository.
+     *
+     * @param <T> the type of the result
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface ResultHandler<T>
+    {
+        /**
+         * @param repository the queried repository
+         * @param result the result of the query, null when it failed
+         * @param failure the reason why the query failed, null when it succeeded
+         * @return true if the remaining results are not needed
+         */
+        boolean handle(ExtensionRepository repository, T result, Exception failure);
+    }
+
+    /**
+     * Execute the query on each repository and give the results to the handler, in the order of the repositories.
+     * <p>
+     * When executed concurrently all the repositories are queried at the same time and a repository not answering
+     * before the timeout is reported with a {@link TimeoutException}.
+     *
+     * @param <T> the type of the result
+     * @param repositories the repositories to query
+     * @param query the query
+     * @param parallel true if the repositories should be queried concurrently
+     * @param timeout the maximum time in milliseconds to wait for the concurrent queries, 0 or less for no limit
+     * @param handler the handler receiving the results
+     */
+    public <T> void execute(Collection<ExtensionRepository> repositories, Query<T> query, boolean parallel,
+        long timeout, ResultHandler<T> handler)
+    {
+        if (parallel) {
+            executeConcurrently(repositories, query, timeout, handler);
+        } else {
+            for (ExtensionRepository repository : repositories) {
+                T result;
+                try {
+                    result = query(repository, query);
+                } catch (Exception e) {
+                    if (handler.handle(repository, null, e)) {
+                        return;
+                    }
+
+                    continue;
+                }
+
+                if (handler.handle(repository, result, null)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private <T> void executeConcurrently(Collection<ExtensionRepository> repositories, Query<T> query, long timeout,
+        ResultHandler<T> handler)
+    {
+        ExecutorService currentExecutor = getExecutor();
+
+        List<Future<T>> futures = new ArrayList<>(repositories.size());
+        for (ExtensionRepository repository : repositories) {
+            futures.add(currentExecutor.submit(() -> query(repository, query)));
+        }
+
+        long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+
+        try {
+            Iterator<Future<T>> futureIterator = futures.iterator();
+            for (ExtensionRepository repository : repositories) {
+                T result;
+                try {
+                    result = get(repository, futureIterator.next(), timeout > 0, deadline);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    handler.handle(repository, null, e);
+
+                    return;
+                } catch (Exception e) {
+                    if (handler.handle(repository, null, e)) {
+                        return;
+                    }
+
+                    continue;
+                }
+
+                if (handler.handle(repository, result, null)) {
+                    return;
+                }
+            }
+        } finally {
+            // Don't waste resources on results nobody is waiting for anymore
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private <T> T query(ExtensionRepository repository, Query<T> query) throws Exception
+    {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = query.query(repository);
+
+            failed = false;
+
+            return result;
+        } finally {
+            long time = System.nanoTime() - start;
+
+            getStatistics(repository).add(time, failed);
+
+            LOGGER.debug("Query on repository [{}] took [{}] ms", repository.getDescriptor(),
+                TimeUnit.NANOSECONDS.toMillis(time));
+        }
+    }
+
+    private <T> T get(ExtensionRepository repository, Future<T> future, boolean timed, long deadline)
+        throws Exception
+    {
+        try {
+            if (timed) {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        } catch (TimeoutException e) {
+            getStatistics(repository).timeouts.increment();
+
+            throw e;
+        }
+    }
+
+    private Statistics getStatistics(ExtensionRepository repository)
+    {
+        return this.statistics.computeIfAbsent(repository.getDescriptor().getId(), k -> new Statistics());
+    }
+
+    /**
+     * @return the statistics of the queries indexed by repository identifier
+     */
+    public Map<String, Statistics> getStatistics()
+    {
+        return Collections.unmodifiableMap(this.statistics);
+    }
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null) {
+            BasicThreadFactory threadFactory =
+                new BasicThreadFactory.Builder().namingPattern("Extension repository query %d").daemon(true).build();
+            this.executor = Executors.newCachedThreadPool(threadFactory);
+        }
+
+        return this.executor;
+    }
+
+    /**
+     * Stop the threads used to query repositories concurrently.
+     */
+    public synchronized void dispose()
+    {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+}
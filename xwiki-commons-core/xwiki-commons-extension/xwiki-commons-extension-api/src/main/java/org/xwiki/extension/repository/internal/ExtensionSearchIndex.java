@@ -0,0 +1,315 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.internal.converter.ExtensionIdConverter;
+import org.xwiki.extension.repository.search.ExtensionQuery.COMPARISON;
+import org.xwiki.extension.repository.search.ExtensionQuery.Filter;
+import org.xwiki.extension.repository.search.ExtensionQuery.SortClause;
+
+/**
+ * An incrementally maintained in-memory index used to quickly find the extensions which might match a search query.
+ * <p>
+ * The index returns a superset of the matching extensions: the text of the searched fields is split in trigrams and
+ * only the {@link COMPARISON#EQUAL} filters on descriptor fields which never change are indexed. The caller is
+ * expected to validate each candidate with {@link RepositoryUtils#matches(java.util.regex.Pattern, Collection,
+ * Extension)}.
+ *
+ * @param <E> the type of the extension
+ * @version $Id$
+ * @since 12.7
+ */
+public class ExtensionSearchIndex<E extends Extension>
+{
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Beyond this length a field is not indexed and the extension is always a candidate.
+     */
+    private static final int MAX_INDEXED_LENGTH = 512;
+
+    private static final Set<String> VALUE_FIELDS =
+        new HashSet<>(Arrays.asList(Extension.FIELD_ID, Extension.FIELD_TYPE, Extension.FIELD_CATEGORY));
+
+    /**
+     * The descriptor fields which cannot change once the extension is registered (contrary to properties).
+     */
+    private static final Set<String> STABLE_FIELDS = new HashSet<>(Arrays.asList(Extension.FIELD_ID,
+        Extension.FIELD_VERSION, Extension.FIELD_TYPE, Extension.FIELD_CATEGORY, Extension.FIELD_NAME,
+        Extension.FIELD_SUMMARY, Extension.FIELD_DESCRIPTION, Extension.FIELD_WEBSITE));
+
+    private final Set<E> extensions = new LinkedHashSet<>();
+
+    /**
+     * The extensions with at least one searched field too long to be indexed.
+     */
+    private final Set<E> unindexed = new LinkedHashSet<>();
+
+    private final Map<String, Set<E>> grams = new HashMap<>();
+
+    private final Map<String, Map<String, Set<E>>> values = new HashMap<>();
+
+    private final Map<List<String>, List<E>> sortedViews = new HashMap<>();
+
+    /**
+     * @param extension the extension to index
+     */
+    public synchronized void add(E extension)
+    {
+        if (this.extensions.add(extension)) {
+            Set<String> extensionGrams = getGrams(extension);
+            if (extensionGrams != null) {
+                for (String gram : extensionGrams) {
+                    this.grams.computeIfAbsent(gram, k -> new LinkedHashSet<>()).add(extension);
+                }
+            } else {
+                this.unindexed.add(extension);
+            }
+
+            for (String field : VALUE_FIELDS) {
+                Object value = extension.get(field);
+                if (value != null) {
+                    this.values.computeIfAbsent(field, k -> new HashMap<>())
+                        .computeIfAbsent(String.valueOf(value), k -> new LinkedHashSet<>()).add(extension);
+                }
+            }
+
+            this.sortedViews.clear();
+        }
+    }
+
+    /**
+     * @param extension the extension to remove from the index
+     */
+    public synchronized void remove(E extension)
+    {
+        if (this.extensions.remove(extension)) {
+            Set<String> extensionGrams = getGrams(extension);
+            if (extensionGrams != null) {
+                for (String gram : extensionGrams) {
+                    remove(this.grams, gram, extension);
+                }
+            } else {
+                this.unindexed.remove(extension);
+            }
+
+            for (String field : VALUE_FIELDS) {
+                Object value = extension.get(field);
+                Map<String, Set<E>> fieldValues = this.values.get(field);
+                if (value != null && fieldValues != null) {
+                    remove(fieldValues, String.valueOf(value), extension);
+                }
+            }
+
+            this.sortedViews.clear();
+        }
+    }
+
+    private void remove(Map<String, Set<E>> map, String key, E extension)
+    {
+        Set<E> set = map.get(key);
+        if (set != null) {
+            set.remove(extension);
+            if (set.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private Set<String> getGrams(Extension extension)
+    {
+        Set<String> extensionGrams = new HashSet<>();
+
+        for (Object value : getSearchedValues(extension)) {
+            if (value != null) {
+                String text = value.toString();
+                if (text.length() > MAX_INDEXED_LENGTH) {
+                    return null;
+                }
+
+                addGrams(text.toLowerCase(Locale.ROOT), extensionGrams);
+            }
+        }
+
+        return extensionGrams;
+    }
+
+    private static void addGrams(String text, Collection<String> textGrams)
+    {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); ++i) {
+            textGrams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+    }
+
+    /**
+     * @param extension the extension
+     * @return the values matched by the query pattern, see
+     *         {@link RepositoryUtils#matches(java.util.regex.Pattern, Collection, Extension)}
+     */
+    public static Object[] getSearchedValues(Extension extension)
+    {
+        return new Object[] {extension.getId().getId(), extension.getDescription(), extension.getSummary(),
+            extension.getName(), ExtensionIdConverter.toStringList(extension.getExtensionFeatures())};
+    }
+
+    /**
+     * @param query the query text
+     * @param filters the filters
+     * @return the extensions which might match the query, in indexing order
+     */
+    public synchronized List<E> getCandidates(String query, Collection<Filter> filters)
+    {
+        List<Set<E>> sets = new ArrayList<>();
+
+        Set<E> textCandidates = getTextCandidates(query);
+        if (textCandidates != null) {
+            sets.add(textCandidates);
+        }
+
+        if (filters != null) {
+            for (Filter filter : filters) {
+                Set<E> filterCandidates = getFilterCandidates(filter);
+                if (filterCandidates != null) {
+                    sets.add(filterCandidates);
+                }
+            }
+        }
+
+        if (sets.isEmpty()) {
+            return new ArrayList<>(this.extensions);
+        }
+
+        // Iterate over the smallest set
+        Set<E> smallest = Collections.min(sets, (s1, s2) -> Integer.compare(s1.size(), s2.size()));
+        List<E> candidates = new ArrayList<>(smallest.size());
+        for (E extension : smallest) {
+            if (containsAll(sets, extension)) {
+                candidates.add(extension);
+            }
+        }
+
+        return candidates;
+    }
+
+    private boolean containsAll(List<Set<E>> sets, E extension)
+    {
+        for (Set<E> set : sets) {
+            if (!set.contains(extension)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Set<E> getTextCandidates(String query)
+    {
+        if (StringUtils.length(query) < GRAM_LENGTH) {
+            return null;
+        }
+
+        List<String> queryGrams = new ArrayList<>();
+        addGrams(query.toLowerCase(Locale.ROOT), queryGrams);
+
+        Set<E> candidates = null;
+        for (String gram : queryGrams) {
+            Set<E> gramExtensions = this.grams.getOrDefault(gram, Collections.emptySet());
+            if (candidates == null) {
+                candidates = new LinkedHashSet<>(gramExtensions);
+            } else {
+                candidates.retainAll(gramExtensions);
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+
+        candidates.addAll(this.unindexed);
+
+        return candidates;
+    }
+
+    private Set<E> getFilterCandidates(Filter filter)
+    {
+        String field = filter.getField().toLowerCase(Locale.ROOT);
+
+        if (filter.getComparison() == COMPARISON.EQUAL && filter.getValue() != null && VALUE_FIELDS.contains(field)) {
+            Map<String, Set<E>> fieldValues = this.values.getOrDefault(field, Collections.emptyMap());
+
+            return fieldValues.getOrDefault(String.valueOf(filter.getValue()), Collections.emptySet());
+        }
+
+        return null;
+    }
+
+    /**
+     * @param sortClauses the sort clauses
+     * @return true if the sort clauses are only based on fields which cannot change once the extension is registered
+     *         and can be used with {@link #getSortedView(Collection, Supplier)}
+     */
+    public static boolean isStable(Collection<SortClause> sortClauses)
+    {
+        for (SortClause sortClause : sortClauses) {
+            if (!STABLE_FIELDS.contains(sortClause.getField().toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get a sorted copy of the passed extensions, reused until the index is modified.
+     *
+     * @param sortClauses the sort clauses
+     * @param extensionsSupplier provide the extensions to sort
+     * @return the sorted extensions
+     */
+    public synchronized List<E> getSortedView(Collection<SortClause> sortClauses, Supplier<List<E>> extensionsSupplier)
+    {
+        List<String> key = new ArrayList<>(sortClauses.size());
+        for (SortClause sortClause : sortClauses) {
+            key.add(sortClause.getField() + ' ' + sortClause.getOrder());
+        }
+
+        return this.sortedViews.computeIfAbsent(key, k -> {
+            List<E> sorted = new ArrayList<>(extensionsSupplier.get());
+            RepositoryUtils.sort(sorted, sortClauses);
+
+            return Collections.unmodifiableList(sorted);
+        });
+    }
+}
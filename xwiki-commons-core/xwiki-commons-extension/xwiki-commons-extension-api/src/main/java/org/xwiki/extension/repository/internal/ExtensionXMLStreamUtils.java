@@ -0,0 +1,288 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Helpers to read and write extension descriptors with StAX.
+ * <p>
+ * The reading helpers expect the {@link XMLStreamReader} to be positioned on a {@link XMLStreamConstants#START_ELEMENT}
+ * and leave it on the matching {@link XMLStreamConstants#END_ELEMENT}.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public final class ExtensionXMLStreamUtils
+{
+    /**
+     * The name of the attribute containing the type of a property.
+     */
+    public static final String ATTRIBUTE_TYPE = "type";
+
+    private static final XMLInputFactory INPUT_FACTORY;
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY = XMLInputFactory.newInstance();
+        // Same as the DOM parser used before
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private ExtensionXMLStreamUtils()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param stream the stream to read
+     * @return the reader, positioned on the root element
+     * @throws XMLStreamException when failing to create the reader
+     */
+    public static XMLStreamReader createReader(InputStream stream) throws XMLStreamException
+    {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(stream);
+
+        reader.nextTag();
+
+        return reader;
+    }
+
+    /**
+     * @param stream the stream where to write
+     * @return the writer
+     * @throws XMLStreamException when failing to create the writer
+     */
+    public static XMLStreamWriter createWriter(OutputStream stream) throws XMLStreamException
+    {
+        return OUTPUT_FACTORY.createXMLStreamWriter(stream, "UTF-8");
+    }
+
+    /**
+     * Move to the next child element of the current element.
+     *
+     * @param reader the reader, positioned on the parent start element or on the end of the previous child element
+     * @return true if the reader is positioned on the start of the next child element, false if it's positioned on the
+     *         end of the parent element
+     * @throws XMLStreamException when failing to read the XML
+     */
+    public static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Skip the current element and all its descendants.
+     *
+     * @param reader the reader, positioned on the start of the element to skip
+     * @throws XMLStreamException when failing to read the XML
+     */
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ++depth;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            }
+        }
+    }
+
+    /**
+     * The equivalent of {@link Node#getTextContent()}: the concatenation of all the text of the element descendants.
+     *
+     * @param reader the reader, positioned on the start of the element
+     * @return the text content of the element
+     * @throws XMLStreamException when failing to read the XML
+     */
+    public static String getTextContent(XMLStreamReader reader) throws XMLStreamException
+    {
+        StringBuilder builder = null;
+        String text = null;
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ++depth;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            } else if (isText(event)) {
+                // Avoid the StringBuilder in the most common case of a single text event
+                if (text == null) {
+                    text = reader.getText();
+                } else {
+                    if (builder == null) {
+                        builder = new StringBuilder(text);
+                    }
+                    builder.append(reader.getText());
+                }
+            }
+        }
+
+        if (builder != null) {
+            return builder.toString();
+        }
+
+        return text != null ? text : "";
+    }
+
+    private static boolean isText(int event)
+    {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+            || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE;
+    }
+
+    /**
+     * Read the current element as a DOM {@link Element}.
+     *
+     * @param reader the reader, positioned on the start of the element
+     * @return the DOM element
+     * @throws XMLStreamException when failing to read the XML
+     */
+    public static Element toElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        Document document = createDocument();
+
+        Element root = createElement(document, reader);
+        document.appendChild(root);
+
+        Node current = root;
+        while (current != null) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                Element element = createElement(document, reader);
+                current.appendChild(element);
+                current = element;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                current = current == root ? null : current.getParentNode();
+            } else if (isText(event)) {
+                current.appendChild(document.createTextNode(reader.getText()));
+            }
+        }
+
+        return root;
+    }
+
+    private static Element createElement(Document document, XMLStreamReader reader)
+    {
+        Element element = document.createElement(reader.getLocalName());
+
+        for (int i = 0; i < reader.getAttributeCount(); ++i) {
+            element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+
+        return element;
+    }
+
+    /**
+     * @return a new empty DOM document
+     * @throws XMLStreamException when failing to create the document
+     */
+    public static Document createDocument() throws XMLStreamException
+    {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new XMLStreamException("Failed to create a new DOM document", e);
+        }
+    }
+
+    /**
+     * Write a DOM {@link Element}.
+     *
+     * @param writer the writer
+     * @param element the element to write
+     * @throws XMLStreamException when failing to write the XML
+     */
+    public static void write(XMLStreamWriter writer, Element element) throws XMLStreamException
+    {
+        writer.writeStartElement(element.getTagName());
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); ++i) {
+            Attr attribute = (Attr) attributes.item(i);
+            writer.writeAttribute(attribute.getName(), attribute.getValue());
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                write(writer, (Element) child);
+            } else if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                writer.writeCharacters(child.getNodeValue());
+            }
+        }
+
+        writer.writeEndElement();
+    }
+
+    /**
+     * Write an element containing only text.
+     *
+     * @param writer the writer
+     * @param elementName the name of the element
+     * @param type the type of the element, null if none
+     * @param text the text content of the element
+     * @throws XMLStreamException when failing to write the XML
+     */
+    public static void writeTextElement(XMLStreamWriter writer, String elementName, String type, String text)
+        throws XMLStreamException
+    {
+        writer.writeStartElement(elementName);
+        if (type != null) {
+            writer.writeAttribute(ATTRIBUTE_TYPE, type);
+        }
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+}
@@ -19,6 +19,9 @@
  */
 package org.xwiki.extension.repository.internal;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.w3c.dom.Element;
 
 /**
@@ -39,6 +42,17 @@ public IntegerExtensionPropertySerializer()
     @Override
     public Integer toValue(Element element)
     {
-        return Integer.valueOf(element.getTextContent());
+        return fromString(element.getTextContent());
+    }
+
+    @Override
+    public Integer toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        return fromString(ExtensionXMLStreamUtils.getTextContent(reader));
+    }
+
+    private Integer fromString(String text)
+    {
+        return Integer.valueOf(text);
     }
 }
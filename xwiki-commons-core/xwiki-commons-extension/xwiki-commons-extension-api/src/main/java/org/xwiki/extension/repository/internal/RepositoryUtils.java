@@ -30,7 +30,6 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xwiki.extension.Extension;
-import org.xwiki.extension.internal.converter.ExtensionIdConverter;
 import org.xwiki.extension.repository.ExtensionRepository;
 import org.xwiki.extension.repository.result.AggregatedIterableResult;
 import org.xwiki.extension.repository.result.CollectionIterableResult;
@@ -219,8 +218,7 @@ private static <E extends Extension> List<E> filter(String pattern, Collection<F
      */
     public static boolean matches(Pattern patternMatcher, Collection<Filter> filters, Extension extension)
     {
-        if (matches(patternMatcher, extension.getId().getId(), extension.getDescription(), extension.getSummary(),
-            extension.getName(), ExtensionIdConverter.toStringList(extension.getExtensionFeatures()))) {
+        if (matches(patternMatcher, ExtensionSearchIndex.getSearchedValues(extension))) {
             for (Filter filter : filters) {
                 if (!matches(filter, extension)) {
                     return false;
@@ -23,6 +23,10 @@
 import java.util.Map;
 import java.util.Set;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -112,4 +116,36 @@ public Element toElement(Document document, String elementName, M elementValue)
 
         return element;
     }
+
+    @Override
+    public M toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        M map = (M) new HashMap();
+
+        while (ExtensionXMLStreamUtils.nextChildElement(reader)) {
+            String key = reader.getLocalName();
+            Object value = CollectionExtensionPropertySerializer.toValue(reader, this.serializerById);
+
+            map.put(key, value);
+        }
+
+        return map;
+    }
+
+    @Override
+    public void write(XMLStreamWriter writer, String elementName, M elementValue) throws XMLStreamException
+    {
+        writer.writeStartElement(elementName);
+        writer.writeAttribute(ExtensionXMLStreamUtils.ATTRIBUTE_TYPE, getType());
+
+        Set<Map.Entry> set = elementValue.entrySet();
+        for (Map.Entry entry : set) {
+            if (entry.getKey() != null) {
+                CollectionExtensionPropertySerializer.write(writer, entry.getValue(), entry.getKey().toString(),
+                    this.serializerByClass);
+            }
+        }
+
+        writer.writeEndElement();
+    }
 }
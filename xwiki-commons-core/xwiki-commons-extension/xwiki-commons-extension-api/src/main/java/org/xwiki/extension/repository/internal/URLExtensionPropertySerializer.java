@@ -21,6 +21,9 @@
 
 import java.net.URL;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.w3c.dom.Element;
 
 /**
@@ -40,9 +43,20 @@ public URLExtensionPropertySerializer()
 
     @Override
     public URL toValue(Element element)
+    {
+        return fromString(element.getTextContent());
+    }
+
+    @Override
+    public URL toValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        return fromString(ExtensionXMLStreamUtils.getTextContent(reader));
+    }
+
+    private URL fromString(String text)
     {
         try {
-            return new URL(element.getTextContent());
+            return new URL(text);
         } catch (Exception e) {
             // TODO: should maybe log something
             return null;
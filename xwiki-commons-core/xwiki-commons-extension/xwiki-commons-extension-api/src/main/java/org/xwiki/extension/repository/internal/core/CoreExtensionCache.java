@@ -19,16 +19,27 @@
  */
 package org.xwiki.extension.repository.internal.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.phase.Initializable;
@@ -39,6 +50,9 @@
 
 /**
  * Store resolve core extension to not have to resolve it again at next restart.
+ * <p>
+ * All the cached extensions are stored in a single file, indexed by JAR. The information associated to a JAR are
+ * reused only as long as the JAR keeps the same path, size and modification date.
  * 
  * @version $Id$
  * @since 6.4M1
@@ -52,6 +66,14 @@ public class CoreExtensionCache implements Initializable
      */
     private static final String PACKAGE_MARKER = "!/";
 
+    private static final String FILENAME = "core.cache";
+
+    private static final int MAGIC = 0x58434543;
+
+    private static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
     @Inject
     private Environment environment;
 
@@ -63,6 +85,41 @@ public class CoreExtensionCache implements Initializable
 
     private File folder;
 
+    private Map<String, JAREntry> jars;
+
+    private volatile boolean modified;
+
+    /**
+     * What's known about a JAR.
+     */
+    private static final class JAREntry
+    {
+        private final long length;
+
+        private final long lastModified;
+
+        /**
+         * The URLs of the descriptors located in the JAR, null if unknown.
+         */
+        private volatile List<String> descriptors;
+
+        /**
+         * The serialized extensions indexed by descriptor URL.
+         */
+        private final Map<String, byte[]> extensions = new ConcurrentHashMap<>();
+
+        private JAREntry(long length, long lastModified)
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isValid(File file)
+        {
+            return file.length() == this.length && file.lastModified() == this.lastModified;
+        }
+    }
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -72,103 +129,292 @@ public void initialize() throws InitializationException
         }
     }
 
+    private synchronized Map<String, JAREntry> getJARs()
+    {
+        if (this.jars == null) {
+            this.jars = new ConcurrentHashMap<>();
+
+            File file = new File(this.folder, FILENAME);
+            if (file.exists()) {
+                try {
+                    read(file);
+                } catch (Exception e) {
+                    this.logger.warn("Failed to read the core extensions cache [{}]", file, e);
+
+                    this.jars.clear();
+                }
+            }
+        }
+
+        return this.jars;
+    }
+
+    private void read(File file) throws IOException
+    {
+        try (DataInputStream stream = new DataInputStream(
+            new GZIPInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE))) {
+            if (stream.readInt() != MAGIC || stream.readInt() != VERSION) {
+                // Unknown format, start from scratch
+                return;
+            }
+
+            for (int jarCount = stream.readInt(); jarCount > 0; --jarCount) {
+                String jar = stream.readUTF();
+                JAREntry entry = new JAREntry(stream.readLong(), stream.readLong());
+
+                int descriptorCount = stream.readInt();
+                if (descriptorCount >= 0) {
+                    List<String> descriptors = new ArrayList<>(descriptorCount);
+                    for (; descriptorCount > 0; --descriptorCount) {
+                        descriptors.add(stream.readUTF());
+                    }
+                    entry.descriptors = descriptors;
+                }
+
+                for (int extensionCount = stream.readInt(); extensionCount > 0; --extensionCount) {
+                    String descriptor = stream.readUTF();
+                    byte[] bytes = new byte[stream.readInt()];
+                    stream.readFully(bytes);
+                    entry.extensions.put(descriptor, bytes);
+                }
+
+                this.jars.put(jar, entry);
+            }
+        }
+    }
+
     /**
-     * @param extension the extension to store
-     * @throws Exception when failing to store the extension
+     * Save the cache if it was modified since it was loaded.
+     * 
+     * @since 12.7
      */
-    public void store(DefaultCoreExtension extension) throws Exception
+    public synchronized void flush()
     {
-        if (this.folder == null) {
+        if (this.folder == null || !this.modified) {
             return;
         }
 
-        URL descriptorURL = extension.getDescriptorURL();
+        this.modified = false;
 
-        if (!descriptorURL.getPath().contains(PACKAGE_MARKER)) {
-            // Usually mean jars are not kept, don't cache that or it's going to be a nightmare when upgrading
-            return;
+        File file = new File(this.folder, FILENAME);
+        try {
+            this.folder.mkdirs();
+
+            File tmpFile = new File(this.folder, FILENAME + ".tmp");
+            try (DataOutputStream stream = new DataOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmpFile.toPath()), BUFFER_SIZE))) {
+                write(stream);
+            }
+
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            this.logger.warn("Failed to save the core extensions cache [{}]", file, e);
         }
+    }
+
+    private void write(DataOutputStream stream) throws IOException
+    {
+        // Forget JARs which don't exist anymore or changed
+        getJARs().entrySet().removeIf(entry -> {
+            File jarFile = getJARFile(entry.getKey());
+            return jarFile == null || !entry.getValue().isValid(jarFile);
+        });
+
+        stream.writeInt(MAGIC);
+        stream.writeInt(VERSION);
 
-        File file = getFile(descriptorURL);
+        stream.writeInt(this.jars.size());
+        for (Map.Entry<String, JAREntry> jar : this.jars.entrySet()) {
+            JAREntry entry = jar.getValue();
 
-        // Make sure the file parents exist
-        if (!file.exists()) {
-            file.getParentFile().mkdirs();
+            stream.writeUTF(jar.getKey());
+            stream.writeLong(entry.length);
+            stream.writeLong(entry.lastModified);
+
+            List<String> descriptors = entry.descriptors;
+            if (descriptors != null) {
+                stream.writeInt(descriptors.size());
+                for (String descriptor : descriptors) {
+                    stream.writeUTF(descriptor);
+                }
+            } else {
+                stream.writeInt(-1);
+            }
+
+            Map<String, byte[]> extensions = new ConcurrentHashMap<>(entry.extensions);
+            stream.writeInt(extensions.size());
+            for (Map.Entry<String, byte[]> extension : extensions.entrySet()) {
+                stream.writeUTF(extension.getKey());
+                stream.writeInt(extension.getValue().length);
+                stream.write(extension.getValue());
+            }
         }
+    }
 
-        try (FileOutputStream stream = new FileOutputStream(file)) {
-            this.serializer.saveExtensionDescriptor(extension, stream);
+    private File getJARFile(String jar)
+    {
+        try {
+            URL jarURL = new URL(jar);
+
+            if (jarURL.getProtocol().equals("file")) {
+                File file = new File(jarURL.toURI());
+
+                if (file.isFile()) {
+                    return file;
+                }
+            }
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            // Not a standard file
         }
+
+        return null;
     }
 
     /**
-     * @param repository the repository to set in the new extension instance
-     * @param descriptorURL the extension descriptor URL
-     * @return the extension corresponding to the passed descriptor URL, null if none could be found
+     * @param jar the JAR
+     * @param create true if the entry should be created when it does not exist or is not valid anymore
+     * @return the entry associated to the JAR or null if none can be found
      */
-    public DefaultCoreExtension getExtension(DefaultCoreExtensionRepository repository, URL descriptorURL)
+    private JAREntry getJAREntry(String jar, boolean create)
     {
         if (this.folder == null) {
             return null;
         }
 
-        if (!descriptorURL.getPath().contains(PACKAGE_MARKER)) {
-            // Usually mean jars are not kept, make sure to not take into account such a wrongly cached descriptor
+        File jarFile = getJARFile(jar);
+        if (jarFile == null) {
+            // Usually mean jars are not kept, don't cache that or it's going to be a nightmare when upgrading
             return null;
         }
 
-        File file = getFile(descriptorURL);
+        Map<String, JAREntry> entries = getJARs();
 
-        if (file.exists()) {
-            try (FileInputStream stream = new FileInputStream(file)) {
-                return this.serializer.loadCoreExtensionDescriptor(repository, descriptorURL, stream);
-            } catch (Exception e) {
-                this.logger.warn("Failed to parse cached core extension descriptor [{}]", descriptorURL, e);
+        JAREntry entry = entries.get(jar);
+        if (entry == null || !entry.isValid(jarFile)) {
+            if (!create) {
+                return null;
             }
+
+            entry = new JAREntry(jarFile.length(), jarFile.lastModified());
+            entries.put(jar, entry);
         }
 
-        return null;
+        return entry;
     }
 
-    private String getExtensionFileName(URL url)
+    private String getJAR(URL descriptorURL)
     {
-        URL extensionURL;
+        if (!descriptorURL.getPath().contains(PACKAGE_MARKER)) {
+            return null;
+        }
+
         try {
-            extensionURL = PathUtils.getExtensionURL(url);
+            return PathUtils.getExtensionURL(descriptorURL).toExternalForm();
         } catch (IOException e) {
             return null;
         }
+    }
 
-        String extensionPath = extensionURL.toExternalForm();
-        int index = extensionPath.lastIndexOf('/');
-        if (index > 0 && index < extensionPath.length()) {
-            extensionPath = extensionPath.substring(index + 1);
+    /**
+     * @param jarURL the JAR
+     * @return the URLs of the descriptors located in the JAR or null if they are unknown or the JAR changed
+     * @since 12.7
+     */
+    public List<URL> getDescriptors(URL jarURL)
+    {
+        JAREntry entry = getJAREntry(jarURL.toExternalForm(), false);
 
-            index = extensionPath.lastIndexOf('.');
-            if (index > 0 && index < extensionPath.length()) {
-                extensionPath = extensionPath.substring(0, index);
+        if (entry != null && entry.descriptors != null) {
+            List<URL> descriptors = new ArrayList<>(entry.descriptors.size());
+            for (String descriptor : entry.descriptors) {
+                try {
+                    descriptors.add(new URL(descriptor));
+                } catch (IOException e) {
+                    return null;
+                }
             }
 
-            return extensionPath;
+            return descriptors;
         }
 
         return null;
     }
 
-    private File getFile(URL url)
+    /**
+     * @param jarURL the JAR
+     * @param descriptors the URLs of the descriptors located in the JAR
+     * @since 12.7
+     */
+    public void setDescriptors(URL jarURL, Collection<URL> descriptors)
+    {
+        JAREntry entry = getJAREntry(jarURL.toExternalForm(), true);
+
+        if (entry != null) {
+            List<String> descriptorStrings = new ArrayList<>(descriptors.size());
+            for (URL descriptor : descriptors) {
+                descriptorStrings.add(descriptor.toExternalForm());
+            }
+
+            if (!descriptorStrings.equals(entry.descriptors)) {
+                entry.descriptors = descriptorStrings;
+                this.modified = true;
+            }
+        }
+    }
+
+    /**
+     * @param extension the extension to store
+     * @throws Exception when failing to store the extension
+     */
+    public void store(DefaultCoreExtension extension) throws Exception
     {
-        StringBuilder builder = new StringBuilder();
+        URL descriptorURL = extension.getDescriptorURL();
+
+        String jar = getJAR(descriptorURL);
+        if (jar == null) {
+            // Usually mean jars are not kept, don't cache that or it's going to be a nightmare when upgrading
+            return;
+        }
+
+        JAREntry entry = getJAREntry(jar, true);
+
+        if (entry != null) {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            this.serializer.saveExtensionDescriptor(extension, stream);
+
+            entry.extensions.put(descriptorURL.toExternalForm(), stream.toByteArray());
+            this.modified = true;
+        }
+    }
 
-        String fileName = getExtensionFileName(url);
-        if (fileName != null) {
-            builder.append(fileName);
-            builder.append('-');
+    /**
+     * @param repository the repository to set in the new extension instance
+     * @param descriptorURL the extension descriptor URL
+     * @return the extension corresponding to the passed descriptor URL, null if none could be found
+     */
+    public DefaultCoreExtension getExtension(DefaultCoreExtensionRepository repository, URL descriptorURL)
+    {
+        String jar = getJAR(descriptorURL);
+        if (jar == null) {
+            // Usually mean jars are not kept, make sure to not take into account such a wrongly cached descriptor
+            return null;
         }
 
-        builder.append(DigestUtils.md5Hex(url.toExternalForm()));
+        JAREntry entry = getJAREntry(jar, false);
 
-        builder.append(".xed");
+        if (entry != null) {
+            byte[] bytes = entry.extensions.get(descriptorURL.toExternalForm());
 
-        return new File(this.folder, builder.toString());
+            if (bytes != null) {
+                try {
+                    return this.serializer.loadCoreExtensionDescriptor(repository, descriptorURL,
+                        new ByteArrayInputStream(bytes));
+                } catch (Exception e) {
+                    this.logger.warn("Failed to parse cached core extension descriptor [{}]", descriptorURL, e);
+                }
+            }
+        }
+
+        return null;
     }
 }
@@ -31,6 +31,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -130,6 +131,8 @@ public void updateExtensions(Collection<DefaultCoreExtension> extensions)
                 }
             }
         }
+
+        this.cache.flush();
     }
 
     @Override
@@ -139,6 +142,9 @@ public Map<String, DefaultCoreExtension> loadExtensions(DefaultCoreExtensionRepo
 
         loadExtensionsFromClassloaders(extensions, repository);
 
+        // Remember what was found for next restart
+        this.cache.flush();
+
         return extensions;
     }
 
@@ -338,10 +344,15 @@ private void loadExtensionsFromClassloaders(Map<String, DefaultCoreExtension> ex
     private void fromXED(Map<String, DefaultCoreExtension> extensions, Collection<URL> jars,
         DefaultCoreExtensionRepository repository)
     {
+        // Load the XED files in parallel (the order of the result is the same as the order of the JARs)
+        List<DefaultCoreExtension> coreExtensions = jars.parallelStream()
+            .map(jarURL -> loadCoreExtensionFromXED(jarURL, repository)).collect(Collectors.toList());
+
+        Iterator<DefaultCoreExtension> coreExtensionIterator = coreExtensions.iterator();
         for (Iterator<URL> it = jars.iterator(); it.hasNext();) {
-            URL jarURL = it.next();
+            it.next();
 
-            DefaultCoreExtension coreExtension = loadCoreExtensionFromXED(jarURL, repository);
+            DefaultCoreExtension coreExtension = coreExtensionIterator.next();
 
             if (coreExtension != null) {
                 // Add the core extension
@@ -117,21 +117,21 @@ public IterableResult<InstalledExtension> searchInstalledExtensions(String patte
     @Override
     public IterableResult<InstalledExtension> searchInstalledExtensions(ExtensionQuery query)
     {
-        return searchInstalledExtensions((List<String>) null, query, this.extensions.values());
+        return searchInstalledExtensions((List<String>) null, query, getSearchCandidates(query));
     }
 
     @Override
     public IterableResult<InstalledExtension> searchInstalledExtensions(Collection<String> namespaces,
         ExtensionQuery query)
     {
-        return searchInstalledExtensions(namespaces, query, this.extensions.values());
+        return searchInstalledExtensions(namespaces, query, getSearchCandidates(query));
     }
 
     @Override
     public IterableResult<InstalledExtension> searchInstalledExtensions(String namespace, ExtensionQuery query)
         throws SearchException
     {
-        return searchInstalledExtensions(namespace, query, this.extensions.values());
+        return searchInstalledExtensions(namespace, query, getSearchCandidates(query));
     }
 
     protected IterableResult<InstalledExtension> searchInstalledExtensions(String namespace, ExtensionQuery query,
@@ -97,7 +97,8 @@ public void initialize() throws InitializationException
     {
         try {
             this.storage =
-                new LocalExtensionStorage(this, this.configuration.getLocalRepository(), this.componentManager);
+                new LocalExtensionStorage(this, this.configuration.getLocalRepository(),
+                    this.configuration.isLocalRepositoryIndexEnabled(), this.componentManager);
         } catch (ComponentLookupException e) {
             throw new InitializationException("Failed to intialize local extension storage", e);
         }
@@ -0,0 +1,198 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.local;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A binary file storing a copy of all the descriptors of a local extension repository, to avoid opening each
+ * descriptor file when the repository did not change.
+ * <p>
+ * Each entry is validated against the last modified date and the size of the corresponding descriptor file.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class LocalExtensionIndex
+{
+    /**
+     * The index entry of a descriptor.
+     *
+     * @version $Id$
+     */
+    public static final class Entry
+    {
+        private final long lastModified;
+
+        private final long length;
+
+        private final byte[] descriptor;
+
+        /**
+         * @param lastModified the last modified date of the descriptor file
+         * @param length the size of the descriptor file
+         * @param descriptor the content of the descriptor file
+         */
+        public Entry(long lastModified, long length, byte[] descriptor)
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * @param file the descriptor file
+         * @return true if the entry still match the passed file
+         */
+        public boolean isValid(File file)
+        {
+            return this.lastModified == file.lastModified() && this.length == file.length()
+                && this.length == this.descriptor.length;
+        }
+
+        /**
+         * @return the content of the descriptor file
+         */
+        public byte[] getDescriptor()
+        {
+            return this.descriptor;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalExtensionIndex.class);
+
+    private static final String INDEX_NAME = ".descriptors.index";
+
+    /**
+     * "XEDI".
+     */
+    private static final int MAGIC = 0x58454449;
+
+    private static final int VERSION = 1;
+
+    private final File rootFolder;
+
+    private final File file;
+
+    /**
+     * @param rootFolder the repository folder
+     */
+    public LocalExtensionIndex(File rootFolder)
+    {
+        this.rootFolder = rootFolder;
+        this.file = new File(rootFolder, INDEX_NAME);
+    }
+
+    /**
+     * @param descriptor the descriptor file
+     * @return the path of the descriptor relative to the repository folder
+     */
+    public String getPath(File descriptor)
+    {
+        return this.rootFolder.toPath().relativize(descriptor.toPath()).toString();
+    }
+
+    /**
+     * @return the index entries indexed by relative path, empty if the index does not exist or cannot be read
+     */
+    public Map<String, Entry> read()
+    {
+        Map<String, Entry> entries = new HashMap<>();
+
+        if (this.file.exists()) {
+            try (DataInputStream stream =
+                new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+                if (stream.readInt() == MAGIC && stream.readInt() == VERSION) {
+                    int size = stream.readInt();
+                    for (int i = 0; i < size; ++i) {
+                        String path = stream.readUTF();
+                        long lastModified = stream.readLong();
+                        long length = stream.readLong();
+                        byte[] descriptor = new byte[stream.readInt()];
+                        stream.readFully(descriptor);
+
+                        entries.put(path, new Entry(lastModified, length, descriptor));
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Failed to read the local extension repository index [{}], it will be rebuilt: {}",
+                    this.file, e.getMessage());
+
+                entries.clear();
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Replace the index with the passed entries.
+     *
+     * @param entries the index entries indexed by relative path
+     */
+    public void write(Map<String, Entry> entries)
+    {
+        File tmpFile = new File(this.rootFolder, INDEX_NAME + ".tmp");
+
+        try {
+            try (DataOutputStream stream =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                stream.writeInt(MAGIC);
+                stream.writeInt(VERSION);
+                stream.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    stream.writeUTF(entry.getKey());
+                    stream.writeLong(entry.getValue().lastModified);
+                    stream.writeLong(entry.getValue().length);
+                    stream.writeInt(entry.getValue().descriptor.length);
+                    stream.write(entry.getValue().descriptor);
+                }
+            }
+
+            Files.move(tmpFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write the local extension repository index [{}]: {}", this.file, e.getMessage());
+
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Remove the index, it will be rebuilt during next loading of the repository.
+     */
+    public void invalidate()
+    {
+        this.file.delete();
+    }
+}
@@ -19,11 +19,20 @@
  */
 package org.xwiki.extension.repository.internal.local;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -76,6 +85,11 @@
      */
     private File rootFolder;
 
+    /**
+     * The index of the descriptors, null if disabled.
+     */
+    private LocalExtensionIndex index;
+
     /**
      * @param repository the repository
      * @param rootFolder the repository folder
@@ -84,10 +98,28 @@
      */
     public LocalExtensionStorage(DefaultLocalExtensionRepository repository, File rootFolder,
         ComponentManager componentManager) throws ComponentLookupException
+    {
+        this(repository, rootFolder, false, componentManager);
+    }
+
+    /**
+     * @param repository the repository
+     * @param rootFolder the repository folder
+     * @param indexed true if the storage should maintain an index of the descriptors
+     * @param componentManager used to lookup needed components
+     * @throws ComponentLookupException can't find ExtensionSerializer
+     * @since 12.7
+     */
+    public LocalExtensionStorage(DefaultLocalExtensionRepository repository, File rootFolder, boolean indexed,
+        ComponentManager componentManager) throws ComponentLookupException
     {
         this.repository = repository;
         this.rootFolder = rootFolder;
 
+        if (indexed) {
+            this.index = new LocalExtensionIndex(rootFolder);
+        }
+
         this.extensionSerializer = componentManager.getInstance(ExtensionSerializer.class);
     }
 
@@ -129,6 +161,33 @@ protected void loadExtensions(File folder) throws IOException
             throw new IOException("Not a directory: " + this.rootFolder);
         }
 
+        List<File> descriptors = new ArrayList<>();
+        listDescriptors(folder, descriptors);
+
+        Map<String, LocalExtensionIndex.Entry> indexEntries =
+            this.index != null ? this.index.read() : Collections.emptyMap();
+        Map<String, LocalExtensionIndex.Entry> newIndexEntries =
+            this.index != null ? Collections.synchronizedMap(new HashMap<>()) : null;
+
+        // Parse the descriptors in parallel (fork-join common pool) but register them from the current thread in a
+        // stable order
+        List<DefaultLocalExtension> extensions = descriptors.parallelStream()
+            .map(descriptor -> loadDescriptor(descriptor, indexEntries, newIndexEntries)).collect(Collectors.toList());
+
+        for (DefaultLocalExtension localExtension : extensions) {
+            if (localExtension != null) {
+                this.repository.addLocalExtension(localExtension);
+            }
+        }
+
+        // Update the index if anything changed
+        if (newIndexEntries != null && !newIndexEntries.equals(indexEntries)) {
+            this.index.write(newIndexEntries);
+        }
+    }
+
+    private void listDescriptors(File folder, List<File> descriptors) throws IOException
+    {
         File[] files = folder.listFiles();
 
         if (files == null) {
@@ -137,17 +196,37 @@ protected void loadExtensions(File folder) throws IOException
 
         for (File child : files) {
             if (child.isDirectory()) {
-                loadExtensions(child);
+                listDescriptors(child, descriptors);
             } else if (child.getName().endsWith(DESCRIPTOR_SUFFIX)) {
-                try {
-                    DefaultLocalExtension localExtension = loadDescriptor(child);
+                descriptors.add(child);
+            }
+        }
+    }
+
+    private DefaultLocalExtension loadDescriptor(File descriptor, Map<String, LocalExtensionIndex.Entry> indexEntries,
+        Map<String, LocalExtensionIndex.Entry> newIndexEntries)
+    {
+        try {
+            if (newIndexEntries == null) {
+                return loadDescriptor(descriptor);
+            }
+
+            String path = this.index.getPath(descriptor);
 
-                    this.repository.addLocalExtension(localExtension);
-                } catch (Exception e) {
-                    LOGGER.warn("Failed to load extension from file [" + child + "] in local repository", e);
-                }
+            LocalExtensionIndex.Entry entry = indexEntries.get(path);
+            if (entry == null || !entry.isValid(descriptor)) {
+                long lastModified = descriptor.lastModified();
+                long length = descriptor.length();
+                entry = new LocalExtensionIndex.Entry(lastModified, length, Files.readAllBytes(descriptor.toPath()));
             }
+            newIndexEntries.put(path, entry);
+
+            return loadDescriptor(descriptor, new ByteArrayInputStream(entry.getDescriptor()));
+        } catch (Exception e) {
+            LOGGER.warn("Failed to load extension from file [" + descriptor + "] in local repository", e);
         }
+
+        return null;
     }
 
     /**
@@ -167,22 +246,7 @@ private DefaultLocalExtension loadDescriptor(File descriptor) throws InvalidExte
         }
 
         try {
-            DefaultLocalExtension localExtension =
-                this.extensionSerializer.loadLocalExtensionDescriptor(this.repository, fis);
-
-            localExtension.setDescriptorFile(descriptor);
-
-            File extensionFile = getFile(descriptor, DESCRIPTOR_EXT, localExtension.getType());
-            if (extensionFile != null) {
-                localExtension.setFile(extensionFile);
-
-                if (!localExtension.getFile().getFile().exists()) {
-                    throw new InvalidExtensionException("Failed to load local extension [" + descriptor + "]: ["
-                        + localExtension.getFile() + "] file does not exists");
-                }
-            }
-
-            return localExtension;
+            return loadDescriptor(descriptor, fis);
         } finally {
             try {
                 fis.close();
@@ -192,6 +256,34 @@ private DefaultLocalExtension loadDescriptor(File descriptor) throws InvalidExte
         }
     }
 
+    /**
+     * Local extension descriptor from a stream.
+     *
+     * @param descriptor the descriptor file
+     * @param stream the content of the descriptor
+     * @return the extension descriptor
+     * @throws InvalidExtensionException error when trying to load extension descriptor
+     */
+    private DefaultLocalExtension loadDescriptor(File descriptor, InputStream stream) throws InvalidExtensionException
+    {
+        DefaultLocalExtension localExtension =
+            this.extensionSerializer.loadLocalExtensionDescriptor(this.repository, stream);
+
+        localExtension.setDescriptorFile(descriptor);
+
+        File extensionFile = getFile(descriptor, DESCRIPTOR_EXT, localExtension.getType());
+        if (extensionFile != null) {
+            localExtension.setFile(extensionFile);
+
+            if (!localExtension.getFile().getFile().exists()) {
+                throw new InvalidExtensionException("Failed to load local extension [" + descriptor + "]: ["
+                    + localExtension.getFile() + "] file does not exists");
+            }
+        }
+
+        return localExtension;
+    }
+
     /***
      * Update the extension descriptor in the filesystem repository.
      *
@@ -213,6 +305,8 @@ public void saveDescriptor(DefaultLocalExtension extension)
         // Make sure the folder exist
         file.getParentFile().mkdirs();
 
+        invalidateIndex();
+
         FileOutputStream fos = new FileOutputStream(file);
 
         try {
@@ -222,6 +316,15 @@ public void saveDescriptor(DefaultLocalExtension extension)
         }
     }
 
+    private void invalidateIndex()
+    {
+        // The index is rebuilt during next load, this way it can't contain stale descriptors if the filesystem has a
+        // coarse last modified date precision
+        if (this.index != null) {
+            this.index.invalidate();
+        }
+    }
+
     /**
      * @param id the extension identifier
      * @param type the extension type
@@ -299,6 +402,8 @@ public void removeExtension(DefaultLocalExtension extension) throws IOException
             throw new IOException("Exception does not exists");
         }
 
+        invalidateIndex();
+
         descriptorFile.delete();
 
         DefaultLocalExtensionFile extensionFile = extension.getFile();
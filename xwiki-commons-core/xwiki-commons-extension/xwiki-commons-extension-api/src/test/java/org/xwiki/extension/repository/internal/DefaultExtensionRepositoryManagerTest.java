@@ -28,9 +28,15 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
+import org.xwiki.extension.ExtensionNotFoundException;
 import org.xwiki.extension.ResolveException;
 import org.xwiki.extension.repository.DefaultExtensionRepositoryDescriptor;
 import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.repository.ExtensionRepositoryDescriptor;
+import org.xwiki.extension.repository.ExtensionRepositoryFactory;
 import org.xwiki.extension.repository.result.CollectionIterableResult;
 import org.xwiki.extension.repository.result.IterableResult;
 import org.xwiki.extension.repository.search.SearchException;
@@ -39,13 +45,25 @@
 import org.xwiki.extension.version.Version;
 import org.xwiki.extension.version.internal.DefaultVersion;
 import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
 
 import com.google.common.collect.Lists;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -60,6 +78,12 @@
     @InjectMockComponents
     private DefaultExtensionRepositoryManager manager;
 
+    @MockComponent
+    private ExtensionManagerConfiguration configuration;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
     private ExtensionRepository mockRepository1;
 
     private Searchable mockSearchableRepository1;
@@ -186,4 +210,136 @@ void search() throws SearchException
         assertSearch(0, 1, this.extension1);
         assertSearch(1, -1, this.extension2, this.extension3, this.extension4);
     }
+
+    @Test
+    void resolveInParallel() throws ResolveException
+    {
+        when(this.configuration.isParallelRepositoryQueriesEnabled()).thenReturn(true);
+
+        ExtensionId extensionId = new ExtensionId("id1", "version1");
+        when(this.mockRepository1.resolve(extensionId)).thenThrow(new ExtensionNotFoundException("not found"));
+        when(this.mockRepository2.resolve(extensionId)).thenReturn(this.extension1);
+
+        assertSame(this.extension1, this.manager.resolve(extensionId));
+
+        doReturn(this.extension2).when(this.mockRepository1).resolve(extensionId);
+
+        assertSame(this.extension2, this.manager.resolve(extensionId));
+
+        ExtensionId unknownId = new ExtensionId("unknown", "version");
+        when(this.mockRepository1.resolve(unknownId)).thenThrow(new ExtensionNotFoundException("not found"));
+        when(this.mockRepository2.resolve(unknownId)).thenThrow(new ResolveException("error"));
+
+        ResolveException exception = assertThrows(ResolveException.class, () -> this.manager.resolve(unknownId));
+        assertEquals("Failed to resolve extension [unknown/version]", exception.getMessage());
+
+        assertEquals(3, this.manager.getRepositoryStatistics().get("repository1").getCount());
+        assertEquals(2, this.manager.getRepositoryStatistics().get("repository1").getFailures());
+    }
+
+    @Test
+    void resolveInParallelWithTimeout() throws ResolveException
+    {
+        when(this.configuration.isParallelRepositoryQueriesEnabled()).thenReturn(true);
+        when(this.configuration.getRepositoryQueryTimeout()).thenReturn(100L);
+
+        ExtensionId extensionId = new ExtensionId("id1", "version1");
+        when(this.mockRepository1.resolve(extensionId)).then(invocation -> {
+            Thread.sleep(10000);
+
+            return this.extension1;
+        });
+        when(this.mockRepository2.resolve(extensionId)).thenReturn(this.extension2);
+
+        assertSame(this.extension2, this.manager.resolve(extensionId));
+
+        assertEquals(1, this.manager.getRepositoryStatistics().get("repository1").getTimeouts());
+    }
+
+    @Test
+    void resolveVersionsInParallel() throws ResolveException
+    {
+        when(this.configuration.isParallelRepositoryQueriesEnabled()).thenReturn(true);
+
+        resolveVersions();
+    }
+
+    @Test
+    void searchInParallel() throws SearchException
+    {
+        when(this.configuration.isParallelRepositoryQueriesEnabled()).thenReturn(true);
+
+        when(this.mockSearchableRepository1.search(eq("id"), eq(0), anyInt()))
+            .thenReturn(toIterableExtensions(this.extension1, this.extension2));
+        when(this.mockSearchableRepository2.search(eq("id"), eq(0), anyInt()))
+            .thenReturn(toIterableExtensions(this.extension3, this.extension4));
+
+        assertEquals(Arrays.asList(this.extension1, this.extension2, this.extension3, this.extension4),
+            Lists.newArrayList(this.manager.search("id", 0, -1)));
+        assertEquals(Arrays.asList(this.extension1), Lists.newArrayList(this.manager.search("id", 0, 1)));
+        assertEquals(Arrays.asList(this.extension2, this.extension3),
+            Lists.newArrayList(this.manager.search("id", 1, 2)));
+        assertEquals(Arrays.asList(this.extension4), Lists.newArrayList(this.manager.search("id", 3, -1)));
+        assertEquals(4, this.manager.search("id", 3, -1).getTotalHits());
+    }
+
+    @Test
+    void releaseEvictedRepositories() throws Exception
+    {
+        ExtensionRepository registeredRepository = mock(ExtensionRepository.class,
+            withSettings().extraInterfaces(AutoCloseable.class).name("registered"));
+        when(registeredRepository.getDescriptor())
+            .thenReturn(new DefaultExtensionRepositoryDescriptor("registered", "type", new URI("uri:uri")));
+        this.manager.addRepository(registeredRepository);
+        when(registeredRepository.resolve(any(ExtensionDependency.class)))
+            .thenThrow(new ExtensionNotFoundException("not found"));
+
+        List<ExtensionRepository> createdRepositories = new ArrayList<>();
+        ExtensionRepositoryFactory factory =
+            this.componentManager.registerMockComponent(ExtensionRepositoryFactory.class, "created");
+        when(factory.createRepository(any(ExtensionRepositoryDescriptor.class))).then(invocation -> {
+            ExtensionRepository repository = mock(ExtensionRepository.class,
+                withSettings().extraInterfaces(AutoCloseable.class));
+            when(repository.resolve(any(ExtensionDependency.class)))
+                .thenThrow(new ExtensionNotFoundException("not found"));
+            createdRepositories.add(repository);
+
+            return repository;
+        });
+
+        // Fill the cache of repositories, and more
+        List<ExtensionRepositoryDescriptor> descriptors = new ArrayList<>();
+        descriptors.add(registeredRepository.getDescriptor());
+        for (int i = 0; i < 101; ++i) {
+            descriptors.add(new DefaultExtensionRepositoryDescriptor("created" + i, "created", new URI("uri:" + i)));
+        }
+        ExtensionDependency dependency = mock(ExtensionDependency.class);
+        when(dependency.getRepositories()).thenReturn(descriptors);
+
+        assertThrows(ExtensionNotFoundException.class, () -> this.manager.resolve(dependency));
+
+        assertEquals(101, createdRepositories.size());
+
+        // The evicted repositories are closed, except the registered ones
+        verify((AutoCloseable) registeredRepository, never()).close();
+        verify((AutoCloseable) createdRepositories.get(0)).close();
+        verify((AutoCloseable) createdRepositories.get(1), never()).close();
+    }
+
+    @Test
+    void removeRepositoryClosesIt() throws Exception
+    {
+        ExtensionRepository closeableRepository =
+            mock(ExtensionRepository.class, withSettings().extraInterfaces(AutoCloseable.class).name("closeable"));
+        when(closeableRepository.getDescriptor())
+            .thenReturn(new DefaultExtensionRepositoryDescriptor("closeable", "type", new URI("uri:uri")));
+        this.manager.addRepository(closeableRepository);
+
+        verify((AutoCloseable) closeableRepository, never()).close();
+
+        this.manager.removeRepository("closeable");
+
+        verify((AutoCloseable) closeableRepository).close();
+        assertNull(this.manager.getRepository("closeable"));
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.repository.internal.local.DefaultLocalExtension;
+import org.xwiki.extension.repository.search.ExtensionQuery.COMPARISON;
+import org.xwiki.extension.repository.search.ExtensionQuery.Filter;
+import org.xwiki.extension.repository.search.ExtensionQuery.ORDER;
+import org.xwiki.extension.repository.search.ExtensionQuery.SortClause;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link ExtensionSearchIndex}.
+ *
+ * @version $Id$
+ */
+class ExtensionSearchIndexTest
+{
+    private ExtensionSearchIndex<DefaultLocalExtension> index = new ExtensionSearchIndex<>();
+
+    private DefaultLocalExtension extension(String id, String type, String summary)
+    {
+        DefaultLocalExtension extension = new DefaultLocalExtension(null, new ExtensionId(id, "1.0"), type);
+        extension.setSummary(summary);
+
+        return extension;
+    }
+
+    @Test
+    void getCandidates()
+    {
+        DefaultLocalExtension extension1 = extension("org.test:first", "jar", "The first extension");
+        DefaultLocalExtension extension2 = extension("org.test:second", "xar", "The second extension");
+        DefaultLocalExtension extension3 = extension("org.other:third", "jar", null);
+
+        this.index.add(extension1);
+        this.index.add(extension2);
+        this.index.add(extension3);
+
+        assertEquals(Arrays.asList(extension1, extension2, extension3),
+            this.index.getCandidates(null, Collections.emptyList()));
+        assertEquals(Arrays.asList(extension1, extension2, extension3),
+            this.index.getCandidates("st", Collections.emptyList()));
+        assertEquals(Arrays.asList(extension1, extension2), this.index.getCandidates("TEST", Collections.emptyList()));
+        assertEquals(Arrays.asList(extension2), this.index.getCandidates("second", Collections.emptyList()));
+        assertEquals(Collections.emptyList(), this.index.getCandidates("unknown", Collections.emptyList()));
+
+        Filter jarFilter = new Filter(Extension.FIELD_TYPE, "jar", COMPARISON.EQUAL);
+        assertEquals(Arrays.asList(extension1, extension3), this.index.getCandidates(null, Arrays.asList(jarFilter)));
+        assertEquals(Arrays.asList(extension1),
+            this.index.getCandidates("test", Arrays.asList(jarFilter)));
+
+        // Not indexed filters don't reduce the candidates
+        Filter matchFilter = new Filter(Extension.FIELD_TYPE, "xar", COMPARISON.MATCH);
+        assertEquals(Arrays.asList(extension1, extension2),
+            this.index.getCandidates("test", Arrays.asList(matchFilter)));
+
+        this.index.remove(extension1);
+
+        assertEquals(Arrays.asList(extension2), this.index.getCandidates("test", Collections.emptyList()));
+        assertEquals(Arrays.asList(extension3), this.index.getCandidates(null, Arrays.asList(jarFilter)));
+    }
+
+    @Test
+    void getSortedView()
+    {
+        DefaultLocalExtension extension1 = extension("b", "jar", null);
+        DefaultLocalExtension extension2 = extension("a", "jar", null);
+
+        this.index.add(extension1);
+        this.index.add(extension2);
+
+        assertEquals(Arrays.asList(extension2, extension1), this.index.getSortedView(
+            Arrays.asList(new SortClause(Extension.FIELD_ID, ORDER.ASC)), () -> Arrays.asList(extension1, extension2)));
+        assertEquals(Arrays.asList(extension1, extension2),
+            this.index.getSortedView(Arrays.asList(new SortClause(Extension.FIELD_ID, ORDER.DESC)),
+                () -> Arrays.asList(extension1, extension2)));
+
+        assertTrue(ExtensionSearchIndex.isStable(Arrays.asList(new SortClause(Extension.FIELD_NAME, ORDER.ASC))));
+        assertFalse(ExtensionSearchIndex.isStable(Arrays.asList(new SortClause("installed.date", ORDER.ASC))));
+    }
+}
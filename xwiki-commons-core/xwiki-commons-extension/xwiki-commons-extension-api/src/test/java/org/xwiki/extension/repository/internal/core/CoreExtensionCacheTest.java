@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.core;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.environment.Environment;
+import org.xwiki.extension.repository.internal.ExtensionSerializer;
+import org.xwiki.test.XWikiTempDirUtil;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link CoreExtensionCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class CoreExtensionCacheTest
+{
+    private static final byte[] DESCRIPTOR = "<extension/>".getBytes(StandardCharsets.UTF_8);
+
+    @InjectMockComponents
+    private CoreExtensionCache cache;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private ExtensionSerializer serializer;
+
+    private File permanentDirectory;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        this.permanentDirectory = XWikiTempDirUtil.createTemporaryDirectory();
+
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+    }
+
+    private CoreExtensionCache createCache() throws Exception
+    {
+        CoreExtensionCache newCache = new CoreExtensionCache();
+        ReflectionUtils.setFieldValue(newCache, "environment", this.environment);
+        ReflectionUtils.setFieldValue(newCache, "serializer", this.serializer);
+        ReflectionUtils.setFieldValue(newCache, "logger", mock(Logger.class));
+        newCache.initialize();
+
+        return newCache;
+    }
+
+    @Test
+    void storeAndReload() throws Exception
+    {
+        File jarFile = new File(this.permanentDirectory, "lib/extension.jar");
+        jarFile.getParentFile().mkdirs();
+        Files.write(jarFile.toPath(), new byte[] { 1, 2, 3 });
+        URL jarURL = jarFile.toURI().toURL();
+        URL descriptorURL = new URL("jar:" + jarURL + "!/META-INF/extension.xed");
+
+        DefaultCoreExtension extension = mock(DefaultCoreExtension.class);
+        when(extension.getDescriptorURL()).thenReturn(descriptorURL);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(DESCRIPTOR);
+            return null;
+        }).when(this.serializer).saveExtensionDescriptor(eq(extension), any(OutputStream.class));
+        when(this.serializer.loadCoreExtensionDescriptor(isNull(), eq(descriptorURL), any(InputStream.class)))
+            .then(invocation -> {
+                assertEquals(new String(DESCRIPTOR, StandardCharsets.UTF_8),
+                    IOUtils.toString(invocation.<InputStream>getArgument(2), StandardCharsets.UTF_8));
+                return extension;
+            });
+
+        List<URL> descriptors = Arrays.asList(descriptorURL);
+        this.cache.setDescriptors(jarURL, descriptors);
+        this.cache.store(extension);
+        this.cache.flush();
+
+        // Load the cache from the file
+        CoreExtensionCache newCache = createCache();
+
+        assertEquals(descriptors, newCache.getDescriptors(jarURL));
+        assertSame(extension, newCache.getExtension(null, descriptorURL));
+
+        // Modify the JAR
+        Files.write(jarFile.toPath(), new byte[] { 1, 2, 3, 4 });
+
+        assertNull(newCache.getDescriptors(jarURL));
+        assertNull(newCache.getExtension(null, descriptorURL));
+    }
+
+    @Test
+    void storeNotPackaged() throws Exception
+    {
+        URL descriptorURL = new File(this.permanentDirectory, "folder/extension.xed").toURI().toURL();
+
+        DefaultCoreExtension extension = mock(DefaultCoreExtension.class);
+        when(extension.getDescriptorURL()).thenReturn(descriptorURL);
+
+        this.cache.store(extension);
+
+        assertNull(this.cache.getExtension(null, descriptorURL));
+    }
+}
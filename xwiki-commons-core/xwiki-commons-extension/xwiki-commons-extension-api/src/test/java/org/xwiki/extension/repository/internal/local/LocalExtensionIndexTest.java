@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.local;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link LocalExtensionIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class LocalExtensionIndexTest
+{
+    @XWikiTempDir
+    private File tmpDir;
+
+    @Test
+    void writeAndRead() throws Exception
+    {
+        File descriptor = new File(this.tmpDir, "id/version/id-version.xed");
+        descriptor.getParentFile().mkdirs();
+        byte[] content = "<extension/>".getBytes(StandardCharsets.UTF_8);
+        Files.write(descriptor.toPath(), content);
+
+        LocalExtensionIndex index = new LocalExtensionIndex(this.tmpDir);
+
+        assertTrue(index.read().isEmpty());
+
+        String path = index.getPath(descriptor);
+        index.write(Collections.singletonMap(path,
+            new LocalExtensionIndex.Entry(descriptor.lastModified(), descriptor.length(), content)));
+
+        Map<String, LocalExtensionIndex.Entry> entries = index.read();
+
+        assertEquals(1, entries.size());
+        assertArrayEquals(content, entries.get(path).getDescriptor());
+        assertTrue(entries.get(path).isValid(descriptor));
+
+        Files.write(descriptor.toPath(), "<extension></extension>".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(entries.get(path).isValid(descriptor));
+
+        index.invalidate();
+
+        assertTrue(index.read().isEmpty());
+    }
+}
@@ -21,6 +21,7 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -38,6 +39,7 @@
 import org.xwiki.extension.DefaultExtensionScm;
 import org.xwiki.extension.DefaultExtensionScmConnection;
 import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.InstalledExtension;
 import org.xwiki.extension.InvalidExtensionException;
 import org.xwiki.extension.internal.ExtensionFactory;
 import org.xwiki.extension.repository.internal.DefaultExtensionSerializer;
@@ -48,6 +50,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ComponentTest
 @ComponentList(ExtensionFactory.class)
@@ -163,4 +166,55 @@ void testSerializeAndUnserialize()
         // Complete extension
         serializeAndUnserialize(extension);
     }
+
+    @Test
+    void loadIndentedLegacyDescriptor() throws InvalidExtensionException
+    {
+        String descriptor = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<extension>\n"
+            + "  <id>extensionid</id>\n"
+            + "  <version>extensionversion</version>\n"
+            + "  <type>type</type>\n"
+            + "  <name>name</name>\n"
+            + "  <name>ignored duplicated name</name>\n"
+            + "  <features>\n"
+            + "    <feature>feature1</feature>\n"
+            + "  </features>\n"
+            + "  <dependencies>\n"
+            + "    <dependency>\n"
+            + "      <id>dependencyid</id>\n"
+            + "      <version>1.0</version>\n"
+            + "      <optional type=\"boolean\">true</optional>\n"
+            + "    </dependency>\n"
+            + "    <dependency>\n"
+            + "      <version>1.0</version>\n"
+            + "    </dependency>\n"
+            + "  </dependencies>\n"
+            + "  <properties>\n"
+            + "    <key1>value1</key1>\n"
+            + "    <key2 type=\"integer\">42</key2>\n"
+            + "    <key3 type=\"unknown\"><sub>value</sub></key3>\n"
+            + "  </properties>\n"
+            + "  <installed>true</installed>\n"
+            + "  <namespaces>\n"
+            + "    <namespace>namespace1</namespace>\n"
+            + "  </namespaces>\n"
+            + "</extension>\n";
+
+        DefaultLocalExtension extension = this.serializer.loadLocalExtensionDescriptor(null,
+            new ByteArrayInputStream(descriptor.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new ExtensionId("extensionid", "extensionversion"), extension.getId());
+        assertEquals("type", extension.getType());
+        assertEquals("name", extension.getName());
+        assertEquals(Arrays.asList("feature1"), new ArrayList<>(extension.getFeatures()));
+        assertEquals(1, extension.getDependencies().size());
+        assertEquals("dependencyid", extension.getDependencies().get(0).getId());
+        assertTrue(extension.getDependencies().get(0).isOptional());
+        assertEquals("value1", extension.<String>getProperty("key1"));
+        assertEquals(Integer.valueOf(42), extension.<Integer>getProperty("key2"));
+        assertNull(extension.<Object>getProperty("key3"));
+        assertEquals(Boolean.TRUE, extension.<Boolean>getProperty(InstalledExtension.PKEY_INSTALLED));
+        assertEquals(Arrays.asList("namespace1"), extension.<Object>getProperty(InstalledExtension.PKEY_NAMESPACES));
+    }
 }
@@ -19,19 +19,27 @@
  */
 package org.xwiki.extension.maven.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -72,6 +80,12 @@
 @Singleton
 public class MavenExtensionScanner extends AbstractExtensionScanner
 {
+    private static final String PACKAGE_MARKER = "!/";
+
+    private static final String MAVENPACKAGE_PATH = MavenUtils.MAVENPACKAGE.replace('.', '/') + '/';
+
+    private static final String POM_SUFFIX = "/pom.xml";
+
     @Inject
     private CoreExtensionCache cache;
 
@@ -129,18 +143,95 @@ public DefaultCoreExtension scanEnvironment(DefaultCoreExtensionRepository repos
     public void scanJARs(Map<String, DefaultCoreExtension> extensions, Collection<URL> jars,
         DefaultCoreExtensionRepository repository)
     {
+        // Load the JARs in parallel (the order of the result is the same as the order of the JARs)
+        List<List<DefaultCoreExtension>> jarsExtensions =
+            jars.parallelStream().map(jar -> scan(jar, repository)).collect(Collectors.toList());
+
+        Iterator<List<DefaultCoreExtension>> jarExtensionsIterator = jarsExtensions.iterator();
         for (Iterator<URL> it = jars.iterator(); it.hasNext();) {
-            URL jar = it.next();
+            it.next();
+
+            List<DefaultCoreExtension> jarExtensions = jarExtensionsIterator.next();
+
+            if (!jarExtensions.isEmpty()) {
+                // Add the core extensions
+                for (DefaultCoreExtension coreExtension : jarExtensions) {
+                    addCoreExtension(extensions, coreExtension);
+                }
 
-            if (scan(extensions, jar, repository)) {
                 // Remove the jar from the list
                 it.remove();
             }
         }
     }
 
-    private boolean scan(Map<String, DefaultCoreExtension> extensions, URL jarURL,
-        DefaultCoreExtensionRepository repository)
+    private List<DefaultCoreExtension> scan(URL jarURL, DefaultCoreExtensionRepository repository)
+    {
+        // We can get several pom.xml because the jar might embed several extensions
+        Collection<URL> descriptors = this.cache.getDescriptors(jarURL);
+        if (descriptors == null) {
+            descriptors = getDescriptors(jarURL);
+
+            this.cache.setDescriptors(jarURL, descriptors);
+        }
+
+        List<DefaultCoreExtension> coreExtensions = new ArrayList<>(descriptors.size());
+        for (URL descriptorURL : descriptors) {
+            try {
+                // Load Extension from descriptor
+                coreExtensions.add(getCoreExension(jarURL, descriptorURL, repository));
+            } catch (Exception e) {
+                this.logger.warn("Failed to parse extension descriptor [{}]", descriptorURL, e);
+            }
+        }
+
+        return coreExtensions;
+    }
+
+    private Collection<URL> getDescriptors(URL jarURL)
+    {
+        File file = getFile(jarURL);
+
+        if (file != null && file.isFile()) {
+            // Only read the central directory of the JAR
+            List<URL> descriptors = new ArrayList<>();
+            try (ZipFile zipFile = new ZipFile(file)) {
+                for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements();) {
+                    ZipEntry entry = entries.nextElement();
+
+                    if (isDescriptor(entry.getName())) {
+                        descriptors.add(new URL("jar:" + jarURL.toExternalForm() + PACKAGE_MARKER + entry.getName()));
+                    }
+                }
+            } catch (IOException e) {
+                this.logger.warn("Failed to read JAR [{}]", jarURL, e);
+            }
+
+            return descriptors;
+        }
+
+        return getDescriptorsWithReflections(jarURL);
+    }
+
+    private boolean isDescriptor(String path)
+    {
+        return path.startsWith(MAVENPACKAGE_PATH) && path.endsWith(POM_SUFFIX);
+    }
+
+    private File getFile(URL jarURL)
+    {
+        if (jarURL.getProtocol().equals("file")) {
+            try {
+                return new File(jarURL.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // Not a standard file URL
+            }
+        }
+
+        return null;
+    }
+
+    private Collection<URL> getDescriptorsWithReflections(URL jarURL)
     {
         ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
         configurationBuilder.setScanners(new ResourcesScanner());
@@ -149,43 +240,28 @@ private boolean scan(Map<String, DefaultCoreExtension> extensions, URL jarURL,
 
         Reflections reflections = new Reflections(configurationBuilder);
 
-        // We can get several pom.xml because the jar might embed several extensions
-        Set<String> descriptors = reflections.getResources(Predicates.equalTo("pom.xml"));
+        Set<String> resources = reflections.getResources(Predicates.equalTo("pom.xml"));
 
-        boolean found = false;
-        for (String descriptor : descriptors) {
+        List<URL> descriptors = new ArrayList<>(resources.size());
+        for (String descriptor : resources) {
             String path = jarURL.toExternalForm();
 
             // Create descriptor URL
-            URL descriptorURL;
             try {
                 if (path.endsWith("/")) {
                     // It's a folder
-                    descriptorURL = new URL(path + descriptor);
+                    descriptors.add(new URL(path + descriptor));
                 } else {
                     // Probably a jar
-                    descriptorURL = new URL("jar:" + jarURL.toExternalForm() + "!/" + descriptor);
+                    descriptors.add(new URL("jar:" + path + PACKAGE_MARKER + descriptor));
                 }
             } catch (MalformedURLException e) {
                 // Not supposed to happen (would mean there is a bug in Reflections)
                 this.logger.error("Failed to access resource [{}] from jar [{}]", descriptor, jarURL);
-                continue;
-            }
-
-            try {
-                // Load Extension from descriptor
-                DefaultCoreExtension coreExtension = getCoreExension(jarURL, descriptorURL, repository);
-
-                // Add the core extension
-                addCoreExtension(extensions, coreExtension);
-
-                found = true;
-            } catch (Exception e) {
-                this.logger.warn("Failed to parse extension descriptor [{}] ([{}])", descriptorURL, descriptor, e);
             }
         }
 
-        return found;
+        return descriptors;
     }
 
     private DefaultCoreExtension getCoreExension(URL jarURL, URL descriptorURL,
@@ -34,6 +34,7 @@
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.extension.ExtensionManagerConfiguration;
 
@@ -47,6 +48,10 @@
 @Singleton
 public class DefaultHttpClientFactory implements HttpClientFactory
 {
+    private static final String AUTH_USER = "auth.user";
+
+    private static final String AUTH_PASSWORD = "auth.password";
+
     /**
      * Used to get the user agent to use when performing HTTP calls to the remote Extension Repository.
      */
@@ -85,21 +90,55 @@ public CloseableHttpClient createClient(String user, String password)
     public HttpClientBuilder createHttpClientBuilder(Map<String, String> properties)
     {
         HttpClientBuilder httpClientBuilder =
-            createHttpClientBuilder(properties.get("auth.user"), properties.get("auth.password"));
+            createHttpClientBuilder(properties.get(AUTH_USER), properties.get(AUTH_PASSWORD));
 
         // Set socket timeouts
         BasicHttpClientConnectionManager connectionManager = new BasicHttpClientConnectionManager();
-        SocketConfig.Builder socketConfigBuilder = SocketConfig.custom();
-        socketConfigBuilder.setSoTimeout(getIntProperty(properties, SOCKET_TIMEOUT, 30000));
-        connectionManager.setSocketConfig(socketConfigBuilder.build());
+        connectionManager.setSocketConfig(createSocketConfig(properties));
         httpClientBuilder.setConnectionManager(connectionManager);
 
         // Set request timeouts
+        httpClientBuilder.setDefaultRequestConfig(createRequestConfig(properties));
+
+        return httpClientBuilder;
+    }
+
+    @Override
+    public CloseableHttpClient createPooledClient(Map<String, String> properties)
+    {
+        HttpClientBuilder httpClientBuilder =
+            createHttpClientBuilder(properties.get(AUTH_USER), properties.get(AUTH_PASSWORD));
+
+        // Keep connections open between requests
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        int maxPerRoute = getIntProperty(properties, MAX_CONNECTIONS_PER_ROUTE, 5);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setMaxTotal(Math.max(maxPerRoute, 20));
+        connectionManager.setDefaultSocketConfig(createSocketConfig(properties));
+        httpClientBuilder.setConnectionManager(connectionManager);
+
+        // Don't wait forever for a connection to be released when the pool is exhausted
+        RequestConfig.Builder requestBuilder = RequestConfig.copy(createRequestConfig(properties));
+        requestBuilder.setConnectionRequestTimeout(getIntProperty(properties, CONNECTION_REQUEST_TIMEOUT, 30000));
+        httpClientBuilder.setDefaultRequestConfig(requestBuilder.build());
+
+        return httpClientBuilder.build();
+    }
+
+    private SocketConfig createSocketConfig(Map<String, String> properties)
+    {
+        SocketConfig.Builder socketConfigBuilder = SocketConfig.custom();
+        socketConfigBuilder.setSoTimeout(getIntProperty(properties, SOCKET_TIMEOUT, 30000));
+
+        return socketConfigBuilder.build();
+    }
+
+    private RequestConfig createRequestConfig(Map<String, String> properties)
+    {
         RequestConfig.Builder requestBuilder = RequestConfig.custom();
         requestBuilder = requestBuilder.setConnectTimeout(getIntProperty(properties, CONNECTION_TIMEOUT, 30000));
-        httpClientBuilder.setDefaultRequestConfig(requestBuilder.build());
 
-        return httpClientBuilder;
+        return requestBuilder.build();
     }
 
     private int getIntProperty(Map<String, String> properties, String key, int def)
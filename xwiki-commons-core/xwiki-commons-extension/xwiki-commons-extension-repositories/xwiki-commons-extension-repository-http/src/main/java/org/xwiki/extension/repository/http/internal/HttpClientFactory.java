@@ -62,6 +62,29 @@
      */
     String CONNECTION_TIMEOUT = "http.connection.timeout";
 
+    /**
+     * The maximum number of connections kept open by a pooled client for a given host.
+     * <p>
+     * This parameter expects a value of type {@link Integer}.
+     * </p>
+     * 
+     * @see #createPooledClient(Map)
+     * @since 12.7
+     */
+    String MAX_CONNECTIONS_PER_ROUTE = "http.connection.maxPerRoute";
+
+    /**
+     * The timeout in milliseconds to wait for a connection to be available in the pool of a pooled client. A timeout
+     * value of zero is interpreted as an infinite timeout.
+     * <p>
+     * This parameter expects a value of type {@link Integer}.
+     * </p>
+     * 
+     * @see #createPooledClient(Map)
+     * @since 12.7
+     */
+    String CONNECTION_REQUEST_TIMEOUT = "http.connection.requestTimeout";
+
     /**
      * @param user the user if the remote repository requires authentication, or null if no authentication is required
      * @param password the password if the remote repository requires authentication, or null if no authentication is
@@ -88,4 +111,18 @@
      * @since 8.3M1
      */
     HttpClientBuilder createHttpClientBuilder(Map<String, String> properties);
+
+    /**
+     * Create a client reusing its connections (keep-alive) across requests. The client is meant to be kept and shared
+     * by all the requests sent to the same repository.
+     * 
+     * @param properties properties
+     * @return the {@link CloseableHttpClient} object that can be used to perform HTTP calls to an HTTP-based Extension
+     *         Repository
+     * @since 12.7
+     */
+    default CloseableHttpClient createPooledClient(Map<String, String> properties)
+    {
+        return createHttpClientBuilder(properties).build();
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.xwiki.internal;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.collections4.map.LRUMap;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+
+/**
+ * Remember the objects unmarshalled from REST responses along with their validators ({@code ETag} and
+ * {@code Last-Modified} headers) so that the same resource is not downloaded and parsed again as long as the server
+ * reports it did not change.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class RESTObjectCache
+{
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])max-age\\s*=\\s*(\\d+)");
+
+    private static final Pattern NO_CACHE = Pattern.compile("(?:^|[,\\s])(?:no-store|no-cache)(?:$|[,\\s=])");
+
+    /**
+     * A cached object.
+     *
+     * @version $Id$
+     */
+    public static final class Entry
+    {
+        private final Object object;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private final long expires;
+
+        private Entry(Object object, String etag, String lastModified, long expires)
+        {
+            this.object = object;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        /**
+         * @return the cached object
+         */
+        public Object getObject()
+        {
+            return this.object;
+        }
+
+        /**
+         * @return true if the server allowed to reuse the object without asking again
+         */
+        public boolean isFresh()
+        {
+            return System.currentTimeMillis() < this.expires;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param size the maximum number of objects to keep
+     */
+    public RESTObjectCache(int size)
+    {
+        this.entries = Collections.synchronizedMap(new LRUMap<>(size));
+    }
+
+    /**
+     * @param url the URL of the resource
+     * @return the cached object or null if none is available
+     */
+    public Entry get(String url)
+    {
+        return this.entries.get(url);
+    }
+
+    /**
+     * Ask the server to answer with a "not modified" status if the resource did not change since it was cached.
+     *
+     * @param request the request to update
+     * @param entry the cached object
+     */
+    public void setConditionalHeaders(HttpGet request, Entry entry)
+    {
+        if (entry.etag != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, entry.etag);
+        }
+        if (entry.lastModified != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+    }
+
+    /**
+     * Remember the object if the response allows it.
+     *
+     * @param url the URL of the resource
+     * @param response the response from which the object was unmarshalled
+     * @param object the unmarshalled object
+     */
+    public void put(String url, HttpResponse response, Object object)
+    {
+        String cacheControl = getHeader(response, HttpHeaders.CACHE_CONTROL);
+        if (cacheControl != null && NO_CACHE.matcher(cacheControl).find()) {
+            this.entries.remove(url);
+
+            return;
+        }
+
+        String etag = getHeader(response, HttpHeaders.ETAG);
+        String lastModified = getHeader(response, HttpHeaders.LAST_MODIFIED);
+        long expires = getExpires(response, cacheControl);
+
+        if (etag != null || lastModified != null || expires > System.currentTimeMillis()) {
+            this.entries.put(url, new Entry(object, etag, lastModified, expires));
+        } else {
+            this.entries.remove(url);
+        }
+    }
+
+    /**
+     * Update the cached object after the server indicated it did not change.
+     *
+     * @param url the URL of the resource
+     * @param response the "not modified" response
+     * @param entry the cached object
+     * @return the object to use
+     */
+    public Object revalidate(String url, HttpResponse response, Entry entry)
+    {
+        String etag = getHeader(response, HttpHeaders.ETAG);
+        String lastModified = getHeader(response, HttpHeaders.LAST_MODIFIED);
+
+        this.entries.put(url, new Entry(entry.object, etag != null ? etag : entry.etag,
+            lastModified != null ? lastModified : entry.lastModified,
+            getExpires(response, getHeader(response, HttpHeaders.CACHE_CONTROL))));
+
+        return entry.object;
+    }
+
+    private long getExpires(HttpResponse response, String cacheControl)
+    {
+        if (cacheControl != null) {
+            Matcher matcher = MAX_AGE.matcher(cacheControl);
+            if (matcher.find()) {
+                return System.currentTimeMillis() + NumberUtils.toLong(matcher.group(1)) * 1000L;
+            }
+        }
+
+        String expires = getHeader(response, HttpHeaders.EXPIRES);
+        if (expires != null) {
+            Date date = DateUtils.parseDate(expires);
+            if (date != null) {
+                return date.getTime();
+            }
+        }
+
+        return 0;
+    }
+
+    private String getHeader(HttpResponse response, String name)
+    {
+        Header header = response.getFirstHeader(name);
+
+        return header != null ? header.getValue() : null;
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.xwiki.extension.repository.xwiki.internal;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
@@ -36,6 +37,7 @@
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
@@ -84,7 +86,7 @@
  * @since 4.0M1
  */
 public class XWikiExtensionRepository extends AbstractExtensionRepository
-    implements AdvancedSearchable, RatableExtensionRepository
+    implements AdvancedSearchable, RatableExtensionRepository, Closeable
 {
     public static final Version VERSION10 = new DefaultVersion(Resources.VERSION10);
 
@@ -112,6 +114,10 @@ public class XWikiExtensionRepository extends AbstractExtensionRepository
 
     private final transient UriBuilder searchUriBuider;
 
+    private final transient RESTObjectCache objectCache = new RESTObjectCache(500);
+
+    private transient volatile CloseableHttpClient httpClient;
+
     private HttpClientContext localContext;
 
     private Version repositoryVersion;
@@ -222,32 +228,82 @@ protected UriBuilder getExtensionFileUriBuider()
         return this.extensionVersionFileUriBuider;
     }
 
-    protected CloseableHttpResponse getRESTResource(UriBuilder builder, Object... values) throws IOException
+    /**
+     * @return the client shared by all the requests to this repository, to reuse connections
+     */
+    private CloseableHttpClient getHttpClient()
+    {
+        if (this.httpClient == null) {
+            synchronized (this) {
+                if (this.httpClient == null) {
+                    this.httpClient = this.httpClientFactory.createPooledClient(getDescriptor().getProperties());
+                }
+            }
+        }
+
+        return this.httpClient;
+    }
+
+    /**
+     * Release the connections kept open by the shared client.
+     * 
+     * @since 12.7
+     */
+    @Override
+    public void close() throws IOException
+    {
+        CloseableHttpClient client;
+        synchronized (this) {
+            client = this.httpClient;
+            this.httpClient = null;
+        }
+
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private String buildURL(UriBuilder builder, Object... values) throws IOException
     {
-        String url;
         try {
-            url = builder.build(values).toString();
+            return builder.build(values).toString();
         } catch (Exception e) {
             throw new IOException("Failed to build REST URL", e);
         }
+    }
 
-        CloseableHttpClient httpClient = this.httpClientFactory.createClient(getDescriptor().getProperty("auth.user"),
-            getDescriptor().getProperty("auth.password"));
+    private CloseableHttpResponse execute(HttpUriRequest request) throws IOException
+    {
+        request.addHeader("Accept", "application/xml");
 
-        HttpGet getMethod = new HttpGet(url);
-        getMethod.addHeader("Accept", "application/xml");
-        CloseableHttpResponse response;
         try {
             if (this.localContext != null) {
-                response = httpClient.execute(getMethod, this.localContext);
+                return getHttpClient().execute(request, this.localContext);
             } else {
-                response = httpClient.execute(getMethod);
+                return getHttpClient().execute(request);
             }
         } catch (Exception e) {
-            throw new IOException(String.format("Failed to request [%s]", getMethod.getURI()), e);
+            throw new IOException(String.format("Failed to request [%s]", request.getURI()), e);
         }
+    }
+
+    protected CloseableHttpResponse getRESTResource(UriBuilder builder, Object... values) throws IOException
+    {
+        HttpGet getMethod = new HttpGet(buildURL(builder, values));
 
+        CloseableHttpResponse response = execute(getMethod);
+
+        checkStatus(response, getMethod);
+
+        return response;
+    }
+
+    private void checkStatus(CloseableHttpResponse response, HttpGet getMethod) throws IOException
+    {
         if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            // Release the connection
+            response.close();
+
             if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
                 throw new ResourceNotFoundException(
                     String.format("Resource with URI [%s] does not exist", getMethod.getURI()));
@@ -256,42 +312,23 @@ protected CloseableHttpResponse getRESTResource(UriBuilder builder, Object... va
                     response.getStatusLine().getStatusCode(), getMethod.getURI()));
             }
         }
-
-        return response;
     }
 
     protected CloseableHttpResponse postRESTResource(UriBuilder builder, String content, Object... values)
         throws IOException
     {
-        String url;
-        try {
-            url = builder.build(values).toString();
-        } catch (Exception e) {
-            throw new IOException("Failed to build REST URL", e);
-        }
-
-        CloseableHttpClient httpClient = this.httpClientFactory.createClient(getDescriptor().getProperty("auth.user"),
-            getDescriptor().getProperty("auth.password"));
-
-        HttpPost postMethod = new HttpPost(url);
-        postMethod.addHeader("Accept", "application/xml");
+        HttpPost postMethod = new HttpPost(buildURL(builder, values));
 
         StringEntity entity =
             new StringEntity(content, ContentType.create(ContentType.APPLICATION_XML.getMimeType(), Consts.UTF_8));
         postMethod.setEntity(entity);
 
-        CloseableHttpResponse response;
-        try {
-            if (this.localContext != null) {
-                response = httpClient.execute(postMethod, this.localContext);
-            } else {
-                response = httpClient.execute(postMethod);
-            }
-        } catch (Exception e) {
-            throw new IOException(String.format("Failed to request [%s]", postMethod.getURI()), e);
-        }
+        CloseableHttpResponse response = execute(postMethod);
 
         if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            // Release the connection
+            response.close();
+
             throw new IOException(String.format("Invalid answer [%s] from the server when requesting [%s]",
                 response.getStatusLine().getStatusCode(), postMethod.getURI()));
         }
@@ -305,6 +342,44 @@ protected Object getRESTObject(UriBuilder builder, Object... values)
         return getRESTObject(getRESTResource(builder, values));
     }
 
+    /**
+     * Same as {@link #getRESTObject(UriBuilder, Object...)} but reuse the object from a previous request when the
+     * server indicates the resource did not change.
+     */
+    private Object getCachedRESTObject(UriBuilder builder, Object... values)
+        throws IllegalStateException, IOException, JAXBException
+    {
+        String url = buildURL(builder, values);
+
+        RESTObjectCache.Entry entry = this.objectCache.get(url);
+        if (entry != null && entry.isFresh()) {
+            return entry.getObject();
+        }
+
+        HttpGet getMethod = new HttpGet(url);
+        if (entry != null) {
+            this.objectCache.setConditionalHeaders(getMethod, entry);
+        }
+
+        CloseableHttpResponse response = execute(getMethod);
+
+        if (entry != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            try {
+                return this.objectCache.revalidate(url, response, entry);
+            } finally {
+                response.close();
+            }
+        }
+
+        checkStatus(response, getMethod);
+
+        Object object = getRESTObject(response);
+
+        this.objectCache.put(url, response, object);
+
+        return object;
+    }
+
     protected Object postRESTObject(UriBuilder builder, Object restObject, Object... values)
         throws IllegalStateException, IOException, JAXBException
     {
@@ -347,7 +422,8 @@ public Extension resolve(ExtensionId extensionId) throws ResolveException
 
     private Extension resolve(String id, Version version) throws IllegalStateException, IOException, JAXBException
     {
-        return new XWikiExtension(this, (ExtensionVersion) getRESTObject(this.extensionVersionUriBuider, id, version),
+        return new XWikiExtension(this,
+            (ExtensionVersion) getCachedRESTObject(this.extensionVersionUriBuider, id, version),
             this.licenseManager, this.factory);
     }
 
@@ -405,7 +481,7 @@ private ExtensionVersions resolveExtensionVersions(String id, VersionConstraint
         }
 
         try {
-            return (ExtensionVersions) getRESTObject(builder, id);
+            return (ExtensionVersions) getCachedRESTObject(builder, id);
         } catch (ResourceNotFoundException e) {
             throw new ExtensionNotFoundException("Could not find extension with id [" + id + "]", e);
         } catch (Exception e) {
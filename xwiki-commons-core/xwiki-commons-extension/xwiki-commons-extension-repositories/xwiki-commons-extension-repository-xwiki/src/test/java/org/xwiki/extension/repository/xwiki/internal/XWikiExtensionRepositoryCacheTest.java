@@ -0,0 +1,150 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.xwiki.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.extension.repository.DefaultExtensionRepositoryDescriptor;
+import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.repository.ExtensionRepositoryFactory;
+import org.xwiki.extension.version.Version;
+import org.xwiki.extension.version.internal.DefaultVersion;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.RequestPatternBuilder;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Validate the caching of the REST objects returned by {@link XWikiExtensionRepository}.
+ *
+ * @version $Id$
+ */
+@AllComponents
+public class XWikiExtensionRepositoryCacheTest
+{
+    private static final String SCENARIO = "cache";
+
+    private static final String CACHED = "cached";
+
+    private static final String VERSIONS_PATH = "/rest/repository/extensions/id/versions";
+
+    private static final String VERSIONS = "<extensionVersions xmlns=\"http://www.xwiki.org/extension\">"
+        + "<totalHits>2</totalHits><offset>0</offset>"
+        + "<extensionVersionSummary><id>id</id><name>name</name><type>jar</type><version>1.0</version>"
+        + "</extensionVersionSummary>"
+        + "<extensionVersionSummary><id>id</id><name>name</name><type>jar</type><version>2.0</version>"
+        + "</extensionVersionSummary>" + "</extensionVersions>";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    @Rule
+    public MockitoComponentMockingRule<ExtensionRepositoryFactory> repositoryFactory =
+        new MockitoComponentMockingRule<>(XWikiExtensionRepositoryFactory.class);
+
+    private ExtensionRepository repository;
+
+    @Before
+    public void before() throws Exception
+    {
+        this.repository = this.repositoryFactory.getComponentUnderTest().createRepository(
+            new DefaultExtensionRepositoryDescriptor("id", "xwiki",
+                new URI("http://localhost:" + this.wireMockRule.port() + "/rest")));
+    }
+
+    private MappingBuilder getVersions()
+    {
+        return get(urlPathEqualTo(VERSIONS_PATH));
+    }
+
+    private RequestPatternBuilder getVersionsRequested()
+    {
+        return getRequestedFor(urlPathEqualTo(VERSIONS_PATH));
+    }
+
+    private List<Version> resolveVersions() throws Exception
+    {
+        List<Version> versions = new ArrayList<>();
+        this.repository.resolveVersions("id", 0, -1).forEach(versions::add);
+
+        return versions;
+    }
+
+    @Test
+    public void resolveVersionsWithETag() throws Exception
+    {
+        this.wireMockRule.stubFor(getVersions().inScenario(SCENARIO).whenScenarioStateIs(Scenario.STARTED)
+            .willSetStateTo(CACHED)
+            .willReturn(aResponse().withStatus(200).withHeader("ETag", "\"v1\"").withBody(VERSIONS)));
+        this.wireMockRule.stubFor(getVersions().inScenario(SCENARIO).whenScenarioStateIs(CACHED)
+            .willReturn(aResponse().withStatus(304)));
+
+        List<Version> expected = Arrays.asList(new DefaultVersion("1.0"), new DefaultVersion("2.0"));
+
+        assertEquals(expected, resolveVersions());
+        assertEquals(expected, resolveVersions());
+
+        List<LoggedRequest> requests = this.wireMockRule.findAll(getVersionsRequested());
+        assertEquals(2, requests.size());
+        assertFalse(requests.get(0).containsHeader("If-None-Match"));
+        assertEquals("\"v1\"", requests.get(1).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void resolveVersionsWithMaxAge() throws Exception
+    {
+        this.wireMockRule.stubFor(getVersions()
+            .willReturn(aResponse().withStatus(200).withHeader("Cache-Control", "max-age=3600").withBody(VERSIONS)));
+
+        assertEquals(resolveVersions(), resolveVersions());
+
+        assertEquals(1, this.wireMockRule.findAll(getVersionsRequested()).size());
+    }
+
+    @Test
+    public void resolveVersionsWithoutValidator() throws Exception
+    {
+        this.wireMockRule.stubFor(getVersions().willReturn(aResponse().withStatus(200).withBody(VERSIONS)));
+
+        assertEquals(resolveVersions(), resolveVersions());
+
+        List<LoggedRequest> requests = this.wireMockRule.findAll(getVersionsRequested());
+        assertEquals(2, requests.size());
+        assertFalse(requests.get(1).containsHeader("If-None-Match"));
+    }
+}
@@ -87,7 +87,7 @@ public void setUp() throws Exception
         CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
         when(httpClient.execute(any(HttpGet.class))).thenReturn(response);
         HttpClientFactory httpClientFactory = mock(HttpClientFactory.class);
-        when(httpClientFactory.createClient(null, null)).thenReturn(httpClient);
+        when(httpClientFactory.createPooledClient(any())).thenReturn(httpClient);
         ExtensionFactory extensionFactory = new ExtensionFactory();
 
         this.repository = new XWikiExtensionRepository(repositoryDescriptor, repositoryFactory,
@@ -0,0 +1,207 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xwiki.filter.FilterDescriptor;
+import org.xwiki.filter.FilterElementDescriptor;
+import org.xwiki.filter.FilterElementParameterDescriptor;
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.filter.UnknownFilter;
+
+/**
+ * Send the events received through a filter interface method to a target filter.
+ * <p>
+ * How each method should be dispatched is resolved only once: methods implemented by the target filter are called
+ * through a method handle (shared by all the filters of the same class), and methods unknown to the target filter
+ * are converted to {@link UnknownFilter} events with precomputed element informations.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class FilterDispatcher
+{
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private static final MethodType DISPATCH_TYPE =
+        MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private static final Dispatch NOOP = (filter, args) -> { };
+
+    /**
+     * The method handles to use to call filter methods, indexed by target filter class.
+     */
+    private static final ClassValue<Map<Method, MethodHandle>> HANDLES = new ClassValue<Map<Method, MethodHandle>>()
+    {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @FunctionalInterface
+    private interface Dispatch
+    {
+        void dispatch(Object filter, Object[] args) throws Exception;
+    }
+
+    private final Object filter;
+
+    private final FilterDescriptor descriptor;
+
+    private final Map<Method, Dispatch> dispatches = new ConcurrentHashMap<>();
+
+    /**
+     * @param filter the actual filter to send events to
+     * @param descriptor the reference filter descriptor
+     */
+    public FilterDispatcher(Object filter, FilterDescriptor descriptor)
+    {
+        this.filter = filter;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * @param method the event method called
+     * @param args the arguments of the called method
+     * @throws Exception the exception thrown by the target filter
+     */
+    public void dispatch(Method method, Object[] args) throws Exception
+    {
+        Dispatch dispatch = this.dispatches.get(method);
+
+        if (dispatch == null) {
+            dispatch = this.dispatches.computeIfAbsent(method, this::createDispatch);
+        }
+
+        dispatch.dispatch(this.filter, args != null ? args : EMPTY_ARGS);
+    }
+
+    private Dispatch createDispatch(Method method)
+    {
+        if (method.getDeclaringClass().isInstance(this.filter)) {
+            MethodHandle handle = HANDLES.get(this.filter.getClass()).computeIfAbsent(method, m -> unreflect(m));
+
+            if (handle != null) {
+                return (target, args) -> invoke(handle, target, args);
+            }
+
+            return (target, args) -> {
+                try {
+                    method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw toException(e.getCause());
+                }
+            };
+        } else if (this.filter instanceof UnknownFilter) {
+            return createUnknownDispatch(method);
+        }
+
+        return NOOP;
+    }
+
+    private static void invoke(MethodHandle handle, Object target, Object[] args) throws Exception
+    {
+        try {
+            handle.invokeExact(target, args);
+        } catch (Throwable e) {
+            throw toException(e);
+        }
+    }
+
+    private static Exception toException(Throwable e)
+    {
+        if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e instanceof Exception) {
+            return (Exception) e;
+        }
+
+        return new UndeclaredThrowableException(e);
+    }
+
+    private static MethodHandle unreflect(Method method)
+    {
+        try {
+            method.setAccessible(true);
+
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+
+            return handle.asSpreader(Object[].class, method.getParameterCount()).asType(DISPATCH_TYPE);
+        } catch (Exception e) {
+            // Fallback on reflection
+            return null;
+        }
+    }
+
+    private Dispatch createUnknownDispatch(Method method)
+    {
+        String id = DefaultFilterDescriptorManager.getElementName(method);
+
+        if (id != null) {
+            FilterElementDescriptor element = this.descriptor.getElement(id);
+
+            if (element != null) {
+                FilterElementParameterDescriptor<?>[] parameters = element.getParameters();
+                String[] names = new String[parameters.length];
+                int[] indexes = new int[parameters.length];
+                for (int i = 0; i < parameters.length; ++i) {
+                    FilterElementParameterDescriptor<?> parameter = parameters[i];
+                    names[i] =
+                        parameter.getName() != null ? parameter.getName() : String.valueOf(parameter.getIndex());
+                    indexes[i] = parameter.getIndex();
+                }
+
+                if (method.getName().startsWith(DefaultFilterDescriptorManager.PREFIX_BEGIN)) {
+                    return (target, args) -> ((UnknownFilter) target).beginUnknwon(id, toParameters(names, indexes,
+                        args));
+                } else if (method.getName().startsWith(DefaultFilterDescriptorManager.PREFIX_END)) {
+                    return (target, args) -> ((UnknownFilter) target).endUnknwon(id, toParameters(names, indexes,
+                        args));
+                } else if (method.getName().startsWith(DefaultFilterDescriptorManager.PREFIX_ON)) {
+                    return (target, args) -> ((UnknownFilter) target).onUnknwon(id, toParameters(names, indexes,
+                        args));
+                }
+            }
+        }
+
+        return NOOP;
+    }
+
+    private static FilterEventParameters toParameters(String[] names, int[] indexes, Object[] args)
+    {
+        FilterEventParameters metadata = new FilterEventParameters();
+
+        for (int i = 0; i < names.length; ++i) {
+            metadata.put(names[i], args[indexes[i]]);
+        }
+
+        return metadata;
+    }
+}
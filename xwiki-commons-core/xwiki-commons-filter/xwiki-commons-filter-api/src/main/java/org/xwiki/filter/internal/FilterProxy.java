@@ -24,9 +24,6 @@
 import java.lang.reflect.Method;
 
 import org.xwiki.filter.FilterDescriptor;
-import org.xwiki.filter.FilterElementDescriptor;
-import org.xwiki.filter.FilterElementParameterDescriptor;
-import org.xwiki.filter.FilterEventParameters;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.UnknownFilter;
 
@@ -40,11 +37,9 @@
 public final class FilterProxy implements InvocationHandler
 {
     /**
-     * The descriptor of the reference filter.
+     * Used to send the events to the actual filter.
      */
-    private FilterDescriptor descriptor;
-
-    private Object targetFilter;
+    private final FilterDispatcher dispatcher;
 
     /**
      * @param filter the actual filter to send events to
@@ -52,18 +47,13 @@ public final class FilterProxy implements InvocationHandler
      */
     public FilterProxy(Object filter, FilterDescriptor descriptor)
     {
-        this.targetFilter = filter;
-        this.descriptor = descriptor;
+        this.dispatcher = new FilterDispatcher(filter, descriptor);
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
     {
-        try {
-            invoke(this.targetFilter, this.descriptor, method, args);
-        } catch (InvocationTargetException e) {
-            throw e.getCause();
-        }
+        this.dispatcher.dispatch(method, args);
 
         return null;
     }
@@ -82,43 +72,23 @@ public Object invoke(Object proxy, Method method, Object[] args) throws Throwabl
      *                cannot be converted to the corresponding formal parameter type by a method invocation conversion.
      * @exception InvocationTargetException if the underlying method throws an exception.
      * @throws FilterException if the execution of the event failed
+     * @deprecated since 12.7 use {@link FilterDispatcher} which resolves each method only once
      */
+    @Deprecated
     public static void invoke(Object filter, FilterDescriptor descriptor, Method method, Object[] args)
         throws IllegalAccessException, IllegalArgumentException, InvocationTargetException, FilterException
     {
-        if (method.getDeclaringClass().isInstance(filter)) {
-            method.invoke(filter, args);
-        } else if (filter instanceof UnknownFilter) {
-            invokeUnkown(filter, descriptor, method, args);
-        }
-    }
-
-    private static void invokeUnkown(Object filter, FilterDescriptor descriptor, Method method, Object[] args)
-        throws FilterException
-    {
-        String id = DefaultFilterDescriptorManager.getElementName(method);
-
-        if (id != null) {
-            FilterElementDescriptor element = descriptor.getElement(id);
-
-            if (element != null) {
-                FilterEventParameters metadata = new FilterEventParameters();
-
-                for (FilterElementParameterDescriptor<?> parameter : element.getParameters()) {
-                    metadata.put(
-                        parameter.getName() != null ? parameter.getName() : String.valueOf(parameter.getIndex()),
-                        args[parameter.getIndex()]);
-                }
-
-                UnknownFilter unknownFilter = (UnknownFilter) filter;
-                if (method.getName().startsWith(DefaultFilterDescriptorManager.PREFIX_BEGIN)) {
-                    unknownFilter.beginUnknwon(id, metadata);
-                } else if (method.getName().startsWith(DefaultFilterDescriptorManager.PREFIX_END)) {
-                    unknownFilter.endUnknwon(id, metadata);
-                } else if (method.getName().startsWith(DefaultFilterDescriptorManager.PREFIX_ON)) {
-                    unknownFilter.onUnknwon(id, metadata);
-                }
+        try {
+            new FilterDispatcher(filter, descriptor).dispatch(method, args);
+        } catch (FilterException | RuntimeException e) {
+            // Keep reporting the failures of the filter methods as InvocationTargetException
+            if (method.getDeclaringClass().isInstance(filter)) {
+                throw new InvocationTargetException(e);
             }
+
+            throw e;
+        } catch (Exception e) {
+            throw new InvocationTargetException(e);
         }
     }
 }
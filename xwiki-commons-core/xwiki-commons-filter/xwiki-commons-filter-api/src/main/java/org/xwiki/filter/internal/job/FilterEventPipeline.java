@@ -0,0 +1,313 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.internal.job;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.input.InputSource;
+
+/**
+ * Decouple the thread producing events from the thread sending them to the target filter through a bounded queue of
+ * event batches.
+ * <p>
+ * The producer sends events to the filter returned by {@link #getFilter()}, they are queued and sent to the target
+ * filter by the thread executing {@link #run()}. The producer waits when too many batches are waiting (back-pressure).
+ * Events with a stream parameter ({@link InputStream}, {@link Reader} or {@link InputSource}, directly or as a value of
+ * the event parameters) are sent synchronously since the stream is generally only valid during the event. Other kinds
+ * of values have to be fully materialized since they are used after the event returned.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class FilterEventPipeline implements InvocationHandler, Runnable
+{
+    private static final List<Event> END = Collections.emptyList();
+
+    private static final long POLL_TIMEOUT = 100;
+
+    private final Object targetFilter;
+
+    private final int batchSize;
+
+    private final BlockingQueue<List<Event>> queue;
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private final Object filter;
+
+    private List<Event> batch;
+
+    private volatile boolean aborted;
+
+    private volatile Exception error;
+
+    private static final class Event
+    {
+        private final Method method;
+
+        private final Object[] arguments;
+
+        private final CountDownLatch done;
+
+        Event(Method method, Object[] arguments, boolean synchronous)
+        {
+            this.method = method;
+            this.arguments = arguments;
+            this.done = synchronous ? new CountDownLatch(1) : null;
+        }
+    }
+
+    /**
+     * @param targetFilter the filter to send the events to
+     * @param batchSize the number of events sent at once to the target filter thread
+     * @param capacity the maximum number of batches waiting to be sent to the target filter
+     */
+    public FilterEventPipeline(Object targetFilter, int batchSize, int capacity)
+    {
+        this.targetFilter = targetFilter;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batch = new ArrayList<>(this.batchSize);
+
+        // Expose the same filters as the target filter
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (Class<?> filterInterface : ClassUtils.getAllInterfaces(targetFilter.getClass())) {
+            // The target filter is closed by its output stream
+            if (!AutoCloseable.class.isAssignableFrom(filterInterface)) {
+                interfaces.add(filterInterface);
+            }
+        }
+        this.filter = Proxy.newProxyInstance(targetFilter.getClass().getClassLoader(),
+            interfaces.toArray(new Class<?>[0]), this);
+    }
+
+    /**
+     * @return the filter to send the events to
+     */
+    public Object getFilter()
+    {
+        return this.filter;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args);
+        }
+
+        checkError();
+
+        Event event = new Event(method, args, isSynchronous(args));
+        this.batch.add(event);
+
+        if (event.done != null) {
+            flush();
+
+            // Wait for the event to be handled
+            while (!event.done.await(POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                checkError();
+            }
+            checkError();
+        } else if (this.batch.size() >= this.batchSize) {
+            flush();
+        }
+
+        return null;
+    }
+
+    private boolean isSynchronous(Object[] args)
+    {
+        if (args != null) {
+            for (Object arg : args) {
+                if (isStream(arg)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isStream(Object value)
+    {
+        if (value instanceof InputStream || value instanceof Reader || value instanceof InputSource) {
+            return true;
+        }
+
+        // Streams can also be passed in event parameters
+        if (value instanceof Map) {
+            for (Object mapValue : ((Map<?, ?>) value).values()) {
+                if (isStream(mapValue)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void throwIfFailed() throws FilterException
+    {
+        if (this.error != null) {
+            throw new FilterException("Failed to send event to the output filter", this.error);
+        }
+    }
+
+    private void checkError() throws FilterException
+    {
+        throwIfFailed();
+
+        if (this.finished.getCount() == 0) {
+            throw new FilterException("The output filter is not accepting events anymore");
+        }
+    }
+
+    private void flush() throws FilterException, InterruptedException
+    {
+        if (!this.batch.isEmpty()) {
+            put(this.batch);
+
+            this.batch = new ArrayList<>(this.batchSize);
+        }
+    }
+
+    private void put(List<Event> events) throws FilterException, InterruptedException
+    {
+        // Don't wait forever if the consumer died
+        while (!this.queue.offer(events, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            checkError();
+        }
+    }
+
+    /**
+     * Send the remaining events and wait for all of them to be handled by the target filter.
+     *
+     * @throws FilterException when the target filter failed
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void finish() throws FilterException, InterruptedException
+    {
+        checkError();
+
+        flush();
+        put(END);
+
+        this.finished.await();
+
+        throwIfFailed();
+    }
+
+    /**
+     * Stop sending events to the target filter and wait for the target filter thread to stop.
+     * <p>
+     * The wait is not interrupted so that the target filter is not used anymore when this method returns, the
+     * interrupted status of the current thread is restored after that.
+     */
+    public void abort()
+    {
+        this.aborted = true;
+
+        this.queue.clear();
+        this.queue.offer(END);
+
+        boolean interrupted = false;
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                this.finished.await();
+
+                stopped = true;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send the queued events to the target filter until {@link #finish()} or {@link #abort()} is called or the target
+     * filter fails.
+     */
+    @Override
+    public void run()
+    {
+        try {
+            while (!this.aborted) {
+                List<Event> events = this.queue.take();
+
+                if (events == END || !send(events)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            this.error = e;
+
+            Thread.currentThread().interrupt();
+        } finally {
+            this.finished.countDown();
+        }
+    }
+
+    private boolean send(List<Event> events)
+    {
+        for (Event event : events) {
+            try {
+                if (this.aborted) {
+                    return false;
+                }
+
+                event.method.invoke(this.targetFilter, event.arguments);
+            } catch (InvocationTargetException e) {
+                this.error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+
+                return false;
+            } catch (Exception e) {
+                this.error = e;
+
+                return false;
+            } finally {
+                if (event.done != null) {
+                    event.done.countDown();
+                }
+            }
+        }
+
+        return true;
+    }
+}
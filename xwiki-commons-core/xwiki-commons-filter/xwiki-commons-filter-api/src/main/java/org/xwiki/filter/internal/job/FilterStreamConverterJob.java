@@ -29,6 +29,9 @@
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.filter.input.InputFilterStream;
 import org.xwiki.filter.input.InputFilterStreamFactory;
 import org.xwiki.filter.job.FilterConversionFinished;
@@ -41,6 +44,7 @@
 import org.xwiki.job.DefaultJobStatus;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
+import org.xwiki.logging.event.LoggerListener;
 
 /**
  * Perform a Filter conversion.
@@ -70,6 +74,12 @@
     @Named("context")
     private Provider<ComponentManager> componentManagerProvider;
 
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<ExecutionContextManager> executionContextManagerProvider;
+
     @Override
     public String getType()
     {
@@ -94,8 +104,85 @@ protected void runInternal() throws Exception
 
             try (OutputFilterStream outputFilter =
                 outputFactory.createOutputFilterStream(getRequest().getOutputProperties())) {
-                inputFilter.read(outputFilter.getFilter());
+                if (getRequest().isPipelined()) {
+                    readPipelined(inputFilter, outputFilter.getFilter());
+                } else {
+                    inputFilter.read(outputFilter.getFilter());
+                }
+            }
+        }
+    }
+
+    private void readPipelined(InputFilterStream inputFilter, Object outputFilter) throws Exception
+    {
+        FilterEventPipeline pipeline = new FilterEventPipeline(outputFilter, getRequest().getPipelineBatchSize(),
+            getRequest().getPipelineCapacity());
+
+        // Give the output thread its own copy of the job context
+        ExecutionContext context = this.execution.getContext();
+        ExecutionContext outputContext =
+            context != null ? this.executionContextManagerProvider.get().clone(context) : null;
+
+        Thread outputThread = new Thread(() -> runOutput(pipeline, outputContext),
+            "Filter conversion output [" + getRequest().getId() + "]");
+        outputThread.setDaemon(true);
+        outputThread.start();
+
+        // The input is parsed in the job thread so that its progress keeps being reported in the job status
+        boolean finished = false;
+        try {
+            inputFilter.read(pipeline.getFilter());
+
+            pipeline.finish();
+
+            finished = true;
+        } finally {
+            // Make sure the output thread is not using the output filter anymore before it's closed
+            if (!finished) {
+                pipeline.abort();
+            }
+
+            join(outputThread);
+        }
+    }
+
+    private void join(Thread thread)
+    {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runOutput(FilterEventPipeline pipeline, ExecutionContext context)
+    {
+        if (context != null) {
+            this.execution.setContext(context);
+        }
+
+        // Make sure the output log ends up in the job log
+        boolean isolated = getStatus().isIsolated();
+        if (isolated) {
+            this.loggerManager.pushLogListener(
+                new LoggerListener(LoggerListener.class.getName() + '_' + hashCode(), getStatus().getLoggerTail()));
+        }
+
+        try {
+            pipeline.run();
+        } finally {
+            if (isolated) {
+                this.loggerManager.popLogListener();
             }
+
+            this.execution.removeContext();
         }
     }
 
@@ -26,6 +26,7 @@
 import org.xwiki.filter.type.FilterStreamType;
 import org.xwiki.job.AbstractRequest;
 import org.xwiki.job.Request;
+import org.xwiki.stability.Unstable;
 
 /**
  * The request used to configure "filter.converter" job.
@@ -35,6 +36,22 @@
  */
 public class FilterStreamConverterJobRequest extends AbstractRequest implements FilterStreamJobRequest
 {
+    /**
+     * The default number of events sent at once from the input thread to the output thread in pipelined mode.
+     *
+     * @since 12.7
+     */
+    @Unstable
+    public static final int DEFAULT_PIPELINE_BATCH_SIZE = 256;
+
+    /**
+     * The default maximum number of batches waiting to be handled by the output thread in pipelined mode.
+     *
+     * @since 12.7
+     */
+    @Unstable
+    public static final int DEFAULT_PIPELINE_CAPACITY = 16;
+
     /**
      * Serialization identifier.
      */
@@ -65,6 +82,21 @@ public class FilterStreamConverterJobRequest extends AbstractRequest implements
      */
     private Map<String, Object> outputProperties;
 
+    /**
+     * @see #isPipelined()
+     */
+    private boolean pipelined;
+
+    /**
+     * @see #getPipelineBatchSize()
+     */
+    private int pipelineBatchSize = DEFAULT_PIPELINE_BATCH_SIZE;
+
+    /**
+     * @see #getPipelineCapacity()
+     */
+    private int pipelineCapacity = DEFAULT_PIPELINE_CAPACITY;
+
     /**
      * @param inputType the type of the input module
      * @param inputProperties the configuration of the input module
@@ -149,4 +181,74 @@ public Map<String, Object> getOutputProperties()
     {
         return this.outputProperties;
     }
+
+    /**
+     * @return true if the input and the output should be executed in different threads
+     * @since 12.7
+     */
+    @Unstable
+    public boolean isPipelined()
+    {
+        return this.pipelined;
+    }
+
+    /**
+     * Indicate if the input should be parsed while the output is serialized in another thread.
+     * <p>
+     * Events are handed over to the output asynchronously, except the ones with a stream parameter
+     * ({@link java.io.InputStream}, {@link java.io.Reader} or {@link org.xwiki.filter.input.InputSource}, directly or
+     * in the event parameters), so the input must send fully materialized values and not modify them after sending the
+     * event.
+     *
+     * @param pipelined true if the input and the output should be executed in different threads
+     * @since 12.7
+     */
+    @Unstable
+    public void setPipelined(boolean pipelined)
+    {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * @return the number of events sent at once from the input thread to the output thread in pipelined mode
+     * @since 12.7
+     */
+    @Unstable
+    public int getPipelineBatchSize()
+    {
+        return this.pipelineBatchSize;
+    }
+
+    /**
+     * @param pipelineBatchSize the number of events sent at once from the input thread to the output thread in
+     *            pipelined mode
+     * @since 12.7
+     */
+    @Unstable
+    public void setPipelineBatchSize(int pipelineBatchSize)
+    {
+        this.pipelineBatchSize = pipelineBatchSize;
+    }
+
+    /**
+     * @return the maximum number of batches waiting to be handled by the output thread in pipelined mode, the input
+     *         thread waits when it's reached
+     * @since 12.7
+     */
+    @Unstable
+    public int getPipelineCapacity()
+    {
+        return this.pipelineCapacity;
+    }
+
+    /**
+     * @param pipelineCapacity the maximum number of batches waiting to be handled by the output thread in pipelined
+     *            mode, the input thread waits when it's reached
+     * @since 12.7
+     */
+    @Unstable
+    public void setPipelineCapacity(int pipelineCapacity)
+    {
+        this.pipelineCapacity = pipelineCapacity;
+    }
 }
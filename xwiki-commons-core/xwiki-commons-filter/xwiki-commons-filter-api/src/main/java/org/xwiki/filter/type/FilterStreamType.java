@@ -23,6 +23,7 @@
 
 import org.apache.commons.lang3.builder.CompareToBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.xwiki.stability.Unstable;
 
 /**
  * Combination of supported system and their data types.
@@ -56,11 +57,29 @@ public class FilterStreamType implements Comparable<FilterStreamType>
      */
     public static final String DATA_TEXT = "text";
 
+    /**
+     * Data format identifier for binary.
+     * <p>
+     * Main content is a compact binary encoding of the events.
+     *
+     * @since 12.7
+     */
+    @Unstable
+    public static final String DATA_BINARY = "binary";
+
     /**
      * Generic WIKI XML Syntax.
      */
     public static final FilterStreamType FILTER_XML = new FilterStreamType(SystemType.FILTER, DATA_XML);
 
+    /**
+     * Generic binary encoding of the events.
+     *
+     * @since 12.7
+     */
+    @Unstable
+    public static final FilterStreamType FILTER_BINARY = new FilterStreamType(SystemType.FILTER, DATA_BINARY);
+
     /**
      * The XAR format in version 1.1.
      *
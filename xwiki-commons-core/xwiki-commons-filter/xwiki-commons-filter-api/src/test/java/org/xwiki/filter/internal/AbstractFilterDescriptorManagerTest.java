@@ -26,13 +26,16 @@
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.component.util.DefaultParameterizedType;
 import org.xwiki.filter.FilterDescriptor;
 import org.xwiki.filter.FilterDescriptorManager;
 import org.xwiki.filter.FilterElementDescriptor;
 import org.xwiki.filter.FilterElementParameterDescriptor;
+import org.xwiki.filter.FilterEventParameters;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.test.TestFilter;
 import org.xwiki.filter.test.TestFilterImplementation;
 import org.xwiki.properties.ConverterManager;
 import org.xwiki.properties.converter.ConversionException;
@@ -46,8 +49,11 @@
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -194,4 +200,40 @@ void proxyFailing() throws FilterException
 
         assertThrows(FilterException.class, () -> proxyFilter.onUnknwon(null, null));
     }
+
+    @Test
+    void proxyUnknownEvent() throws FilterException
+    {
+        UnknownFilter filter = mock(UnknownFilter.class);
+
+        TestFilter proxyFilter = this.manager.createFilterProxy(filter, TestFilter.class);
+
+        proxyFilter.onChildWithNamedParameter("value", 42);
+        proxyFilter.onChildWithNamedParameter("value2", 43);
+
+        ArgumentCaptor<FilterEventParameters> captor = ArgumentCaptor.forClass(FilterEventParameters.class);
+        verify(filter, times(2)).onUnknwon(eq("childWithNamedParameter"), captor.capture());
+
+        assertEquals("value", captor.getAllValues().get(0).get("namedParam"));
+        assertEquals("value2", captor.getAllValues().get(1).get("namedParam"));
+        assertEquals(43, captor.getAllValues().get(1).values().toArray()[1]);
+    }
+
+    @Test
+    void compositeFilter()
+    {
+        TestFilter filter1 = mock(TestFilter.class);
+        TestFilter filter2 = mock(TestFilter.class);
+
+        TestFilter compositeFilter = this.manager.createCompositeFilter(filter1, filter2);
+
+        compositeFilter.beginContainerWithParameters("value", 42);
+
+        verify(filter1).beginContainerWithParameters("value", 42);
+        verify(filter2).beginContainerWithParameters("value", 42);
+
+        doThrow(IllegalStateException.class).when(filter1).endContainer();
+
+        assertThrows(IllegalStateException.class, () -> compositeFilter.endContainer());
+    }
 }
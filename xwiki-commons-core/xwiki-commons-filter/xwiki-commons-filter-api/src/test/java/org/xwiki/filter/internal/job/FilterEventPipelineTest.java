@@ -0,0 +1,180 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.internal.job;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.filter.FilterException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Validate {@link FilterEventPipeline}.
+ *
+ * @version $Id$
+ */
+class FilterEventPipelineTest
+{
+    public interface TestFilter
+    {
+        void beginElement(int index) throws FilterException;
+
+        void endElement(int index) throws FilterException;
+
+        void onContent(InputStream content) throws FilterException;
+
+        void onParameters(FilterEventParameters parameters) throws FilterException;
+    }
+
+    private Thread start(FilterEventPipeline pipeline)
+    {
+        Thread thread = new Thread(pipeline);
+        thread.start();
+
+        return thread;
+    }
+
+    @Test
+    void sendEvents() throws Exception
+    {
+        TestFilter target = mock(TestFilter.class);
+
+        FilterEventPipeline pipeline = new FilterEventPipeline(target, 3, 2);
+        Thread thread = start(pipeline);
+
+        TestFilter filter = (TestFilter) pipeline.getFilter();
+        for (int i = 0; i < 100; ++i) {
+            filter.beginElement(i);
+            filter.endElement(i);
+        }
+
+        pipeline.finish();
+        thread.join();
+
+        InOrder inOrder = inOrder(target);
+        for (int i = 0; i < 100; ++i) {
+            inOrder.verify(target).beginElement(i);
+            inOrder.verify(target).endElement(i);
+        }
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void sendStreamSynchronously() throws Exception
+    {
+        List<String> contents = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        TestFilter target = new TestFilter()
+        {
+            @Override
+            public void beginElement(int index)
+            {
+                // Not needed
+            }
+
+            @Override
+            public void endElement(int index)
+            {
+                // Not needed
+            }
+
+            @Override
+            public void onContent(InputStream content) throws FilterException
+            {
+                try {
+                    contents.add(IOUtils.toString(content, "UTF-8"));
+                } catch (IOException e) {
+                    throw new FilterException(e);
+                }
+                threads.add(Thread.currentThread());
+            }
+
+            @Override
+            public void onParameters(FilterEventParameters parameters) throws FilterException
+            {
+                onContent((InputStream) parameters.get("content"));
+            }
+        };
+
+        FilterEventPipeline pipeline = new FilterEventPipeline(target, 100, 10);
+        Thread thread = start(pipeline);
+
+        TestFilter filter = (TestFilter) pipeline.getFilter();
+        filter.beginElement(0);
+        filter.onContent(new ByteArrayInputStream("content".getBytes("UTF-8")));
+
+        // The stream was read before the event returned
+        assertEquals(1, contents.size());
+        assertEquals("content", contents.get(0));
+        assertSame(thread, threads.get(0));
+        assertNotSame(Thread.currentThread(), threads.get(0));
+
+        // Same for a stream passed in the event parameters
+        FilterEventParameters parameters = new FilterEventParameters();
+        parameters.put("content", new ByteArrayInputStream("parameter".getBytes("UTF-8")));
+        filter.onParameters(parameters);
+
+        assertEquals(2, contents.size());
+        assertEquals("parameter", contents.get(1));
+
+        pipeline.finish();
+        thread.join();
+    }
+
+    @Test
+    void failingTarget() throws Exception
+    {
+        TestFilter target = mock(TestFilter.class);
+        FilterException error = new FilterException("error");
+        doThrow(error).when(target).beginElement(anyInt());
+
+        FilterEventPipeline pipeline = new FilterEventPipeline(target, 1, 1);
+        Thread thread = start(pipeline);
+
+        TestFilter filter = (TestFilter) pipeline.getFilter();
+
+        FilterException exception = assertThrows(FilterException.class, () -> {
+            // The producer is eventually stopped
+            for (int i = 0; i < 100; ++i) {
+                filter.beginElement(i);
+            }
+            pipeline.finish();
+        });
+
+        assertSame(error, exception.getCause());
+
+        thread.join();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.internal.job;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.input.InputFilterStream;
+import org.xwiki.filter.input.InputFilterStreamFactory;
+import org.xwiki.filter.job.FilterStreamConverterJobRequest;
+import org.xwiki.filter.output.OutputFilterStream;
+import org.xwiki.filter.output.OutputFilterStreamFactory;
+import org.xwiki.filter.type.FilterStreamType;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link FilterStreamConverterJob}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class FilterStreamConverterJobTest
+{
+    public interface TestFilter
+    {
+        void onElement(int index) throws FilterException;
+    }
+
+    @InjectMockComponents
+    private FilterStreamConverterJob job;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> contextComponentManagerProvider;
+
+    @MockComponent
+    private Execution execution;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    private InputFilterStream inputFilterStream;
+
+    private OutputFilterStream outputFilterStream;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.contextComponentManagerProvider.get()).thenReturn(this.componentManager);
+
+        InputFilterStreamFactory inputFactory = this.componentManager
+            .registerMockComponent(InputFilterStreamFactory.class, FilterStreamType.FILTER_XML.serialize());
+        this.inputFilterStream = mock(InputFilterStream.class);
+        when(inputFactory.createInputFilterStream(any())).thenReturn(this.inputFilterStream);
+
+        OutputFilterStreamFactory outputFactory = this.componentManager
+            .registerMockComponent(OutputFilterStreamFactory.class, FilterStreamType.FILTER_BINARY.serialize());
+        this.outputFilterStream = mock(OutputFilterStream.class);
+        when(outputFactory.createOutputFilterStream(any())).thenReturn(this.outputFilterStream);
+
+        FilterStreamConverterJobRequest request = new FilterStreamConverterJobRequest(FilterStreamType.FILTER_XML,
+            Collections.emptyMap(), FilterStreamType.FILTER_BINARY, Collections.emptyMap());
+        request.setPipelined(true);
+        request.setPipelineBatchSize(1);
+        request.setPipelineCapacity(1);
+        this.job.initialize(request);
+    }
+
+    @Test
+    void interruptPipelinedWhileWriting() throws Exception
+    {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean written = new AtomicBoolean();
+        List<Integer> elements = new CopyOnWriteArrayList<>();
+
+        // The output is still writing the first event when the job is interrupted
+        when(this.outputFilterStream.getFilter()).thenReturn((TestFilter) index -> {
+            elements.add(index);
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new FilterException(e);
+            }
+            written.set(true);
+        });
+
+        doAnswer(invocation -> {
+            TestFilter filter = invocation.getArgument(0);
+            filter.onElement(1);
+            filter.onElement(2);
+
+            return null;
+        }).when(this.inputFilterStream).read(any());
+
+        // The output filter must not be closed while it's still used
+        AtomicBoolean closedWhileWriting = new AtomicBoolean();
+        doAnswer(invocation -> {
+            closedWhileWriting.set(!written.get());
+
+            return null;
+        }).when(this.outputFilterStream).close();
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread jobThread = new Thread(() -> {
+            try {
+                this.job.runInternal();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        jobThread.start();
+
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+        jobThread.interrupt();
+
+        // The job waits for the output thread to stop
+        jobThread.join(200);
+        assertTrue(jobThread.isAlive());
+
+        release.countDown();
+        jobThread.join();
+
+        assertTrue(error.get() instanceof InterruptedException);
+        assertFalse(closedWhileWriting.get());
+        verify(this.outputFilterStream).close();
+
+        // The remaining events are not sent after the job was interrupted
+        assertEquals(Collections.singletonList(1), elements);
+
+        // The output thread released its execution context
+        verify(this.execution, timeout(1000)).removeContext();
+    }
+}
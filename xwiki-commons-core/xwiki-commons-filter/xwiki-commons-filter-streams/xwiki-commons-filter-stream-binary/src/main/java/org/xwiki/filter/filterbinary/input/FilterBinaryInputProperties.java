@@ -0,0 +1,60 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.input;
+
+import org.xwiki.filter.input.InputSource;
+import org.xwiki.properties.annotation.PropertyDescription;
+import org.xwiki.properties.annotation.PropertyMandatory;
+import org.xwiki.properties.annotation.PropertyName;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Generic binary parser properties.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Unstable
+public class FilterBinaryInputProperties
+{
+    /**
+     * @see #getSource()
+     */
+    private InputSource source;
+
+    /**
+     * @return The source to load the events from
+     */
+    @PropertyName("Source")
+    @PropertyDescription("The source to load the events from")
+    @PropertyMandatory
+    public InputSource getSource()
+    {
+        return this.source;
+    }
+
+    /**
+     * @param source The source to load the events from
+     */
+    public void setSource(InputSource source)
+    {
+        this.source = source;
+    }
+}
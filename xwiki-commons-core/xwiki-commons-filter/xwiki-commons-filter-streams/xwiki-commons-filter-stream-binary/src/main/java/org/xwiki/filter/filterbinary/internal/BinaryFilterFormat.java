@@ -0,0 +1,360 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.filter.FilterElementParameterDescriptor;
+
+/**
+ * Constants and primitive encoding helpers of the generic binary filter format.
+ * <p>
+ * A stream starts with the {@link #MAGIC} bytes, the format {@link #VERSION} and a flags byte. It's followed by a
+ * sequence of length prefixed blocks (see {@link BlockOutputStream}) containing the events. Each event is an opcode
+ * followed, for begin and on events, by the name of the element and the list of named parameters. Names are written
+ * only once in a string table and then referenced by index.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public final class BinaryFilterFormat
+{
+    /**
+     * The bytes at the beginning of each binary filter stream.
+     */
+    public static final byte[] MAGIC = { 'X', 'W', 'F', 'B' };
+
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Flag indicating that the blocks can be compressed.
+     */
+    public static final int FLAG_COMPRESSED = 0x01;
+
+    /**
+     * Begin event opcode.
+     */
+    public static final int EVENT_BEGIN = 1;
+
+    /**
+     * End event opcode.
+     */
+    public static final int EVENT_END = 2;
+
+    /**
+     * On event opcode.
+     */
+    public static final int EVENT_ON = 3;
+
+    /**
+     * Null value.
+     */
+    public static final int TYPE_NULL = 0;
+
+    /**
+     * {@link String} value.
+     */
+    public static final int TYPE_STRING = 1;
+
+    /**
+     * {@link Boolean#TRUE} value.
+     */
+    public static final int TYPE_TRUE = 2;
+
+    /**
+     * {@link Boolean#FALSE} value.
+     */
+    public static final int TYPE_FALSE = 3;
+
+    /**
+     * {@link Integer} value.
+     */
+    public static final int TYPE_INT = 4;
+
+    /**
+     * {@link Long} value.
+     */
+    public static final int TYPE_LONG = 5;
+
+    /**
+     * {@link Short} value.
+     */
+    public static final int TYPE_SHORT = 6;
+
+    /**
+     * {@link Byte} value.
+     */
+    public static final int TYPE_BYTE = 7;
+
+    /**
+     * {@link Character} value.
+     */
+    public static final int TYPE_CHAR = 8;
+
+    /**
+     * {@link Float} value.
+     */
+    public static final int TYPE_FLOAT = 9;
+
+    /**
+     * {@link Double} value.
+     */
+    public static final int TYPE_DOUBLE = 10;
+
+    /**
+     * {@link java.util.Date} value.
+     */
+    public static final int TYPE_DATE = 11;
+
+    /**
+     * {@link Enum} value.
+     */
+    public static final int TYPE_ENUM = 12;
+
+    /**
+     * byte array value.
+     */
+    public static final int TYPE_BYTES = 13;
+
+    /**
+     * {@link InputStream} value, written as a sequence of length prefixed chunks.
+     */
+    public static final int TYPE_STREAM = 14;
+
+    /**
+     * {@link java.util.List} (or any other {@link java.util.Collection}) value.
+     */
+    public static final int TYPE_LIST = 15;
+
+    /**
+     * {@link java.util.Set} value.
+     */
+    public static final int TYPE_SET = 16;
+
+    /**
+     * {@link java.util.Map} value.
+     */
+    public static final int TYPE_MAP = 17;
+
+    /**
+     * {@link org.xwiki.filter.FilterEventParameters} value.
+     */
+    public static final int TYPE_PARAMETERS = 18;
+
+    /**
+     * Any other value, written as its class name and its {@link String} conversion.
+     */
+    public static final int TYPE_OBJECT = 19;
+
+    private static final int READ_CHUNK_SIZE = 8192;
+
+    private static final String UNEXPECTED_END = "Unexpected end of binary filter stream";
+
+    private BinaryFilterFormat()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param out the stream where to write
+     * @param value the positive value to write with a variable length encoding
+     * @throws IOException when failing to write the value
+     */
+    public static void writeVarLong(OutputStream out, long value) throws IOException
+    {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    /**
+     * @param in the stream where to read
+     * @return the positive value read with a variable length encoding
+     * @throws IOException when failing to read the value
+     */
+    public static long readVarLong(InputStream in) throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length number");
+    }
+
+    /**
+     * @param in the stream where to read
+     * @return the positive value read with a variable length encoding
+     * @throws IOException when failing to read the value or if it's not a valid int
+     */
+    public static int readVarInt(InputStream in) throws IOException
+    {
+        long value = readVarLong(in);
+
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size [" + value + "]");
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * @param value the signed value
+     * @return the value encoded so that small negative numbers are also small positive numbers
+     */
+    public static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * @param value the encoded value
+     * @return the signed value
+     */
+    public static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @param in the stream where to read
+     * @return the read byte
+     * @throws IOException when failing to read or when the end of the stream is reached
+     */
+    public static int readByte(InputStream in) throws IOException
+    {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException(UNEXPECTED_END);
+        }
+
+        return b;
+    }
+
+    /**
+     * @param in the stream where to read
+     * @param buffer the buffer to fill
+     * @param offset the offset in the buffer
+     * @param length the number of bytes to read
+     * @throws IOException when failing to read or when the end of the stream is reached
+     */
+    public static void readFully(InputStream in, byte[] buffer, int offset, int length) throws IOException
+    {
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            int count = in.read(buffer, position, remaining);
+            if (count < 0) {
+                throw new EOFException(UNEXPECTED_END);
+            }
+            position += count;
+            remaining -= count;
+        }
+    }
+
+    /**
+     * @param in the stream where to read
+     * @param length the number of bytes to read
+     * @return the read bytes
+     * @throws IOException when failing to read or when the end of the stream is reached
+     * @see #copy(InputStream, int, OutputStream)
+     */
+    public static byte[] readBytes(InputStream in, int length) throws IOException
+    {
+        if (length <= READ_CHUNK_SIZE) {
+            byte[] bytes = new byte[length];
+            readFully(in, bytes, 0, length);
+
+            return bytes;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(READ_CHUNK_SIZE);
+        copy(in, length, bytes);
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read a sequence of bytes without trusting the length found in the stream for the allocation: the bytes are read
+     * by chunks so that a corrupted length fails with an {@link EOFException} instead of allocating a huge array.
+     * 
+     * @param in the stream where to read
+     * @param length the number of bytes to read
+     * @param out where to write the read bytes
+     * @throws IOException when failing to read or when the end of the stream is reached
+     */
+    public static void copy(InputStream in, int length, OutputStream out) throws IOException
+    {
+        byte[] chunk = new byte[Math.min(length, READ_CHUNK_SIZE)];
+        int remaining = length;
+        while (remaining > 0) {
+            int size = Math.min(remaining, chunk.length);
+            readFully(in, chunk, 0, size);
+            out.write(chunk, 0, size);
+            remaining -= size;
+        }
+    }
+
+    /**
+     * @param parameter the parameter descriptor
+     * @return the name under which the parameter is written
+     */
+    public static String getParameterName(FilterElementParameterDescriptor<?> parameter)
+    {
+        // Same convention as the unknown events parameters
+        return parameter.getName() != null ? parameter.getName() : String.valueOf(parameter.getIndex());
+    }
+
+    /**
+     * @param parameter the parameter descriptor
+     * @return the value used when the parameter is not part of the stream
+     */
+    public static Object getDefaultValue(FilterElementParameterDescriptor<?> parameter)
+    {
+        Object value = parameter.getDefaultValue();
+
+        if (value == null) {
+            Class<?> typeClass = ReflectionUtils.getTypeClass(parameter.getType());
+
+            if (typeClass != null && typeClass.isPrimitive() && typeClass != void.class) {
+                // The default value of the primitive type (0, false, etc.)
+                value = Array.get(Array.newInstance(typeClass, 1), 0);
+            }
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.properties.ConverterManager;
+
+/**
+ * Read names and values written by {@link BinaryFilterWriter}.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryFilterReader implements Closeable
+{
+    /**
+     * The size above which a stream value is stored in a temporary file instead of memory.
+     */
+    public static final int STREAM_MEMORY_THRESHOLD = 1024 * 1024;
+
+    private final BlockInputStream in;
+
+    private final ConverterManager converter;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final Map<String, Class<?>> classes = new HashMap<>();
+
+    private final List<Path> temporaryFiles = new ArrayList<>();
+
+    /**
+     * @param source the stream to read, it's not closed when this reader is closed
+     * @param converter used to convert values which don't have a dedicated binary representation
+     * @throws IOException when failing to read the header or if the stream is not a binary filter stream
+     */
+    public BinaryFilterReader(InputStream source, ConverterManager converter) throws IOException
+    {
+        this.converter = converter;
+
+        byte[] magic = new byte[BinaryFilterFormat.MAGIC.length];
+        BinaryFilterFormat.readFully(source, magic, 0, magic.length);
+        if (!Arrays.equals(magic, BinaryFilterFormat.MAGIC)) {
+            throw new IOException("The stream is not a binary filter stream");
+        }
+
+        int version = BinaryFilterFormat.readByte(source);
+        if (version != BinaryFilterFormat.VERSION) {
+            throw new IOException("Unsupported binary filter stream version [" + version + "]");
+        }
+
+        // Flags: the block header is enough to know if a block is compressed
+        BinaryFilterFormat.readByte(source);
+
+        this.in = new BlockInputStream(source);
+    }
+
+    /**
+     * @return the opcode of the next event or -1 if the end of the stream has been reached
+     * @throws IOException when failing to read
+     */
+    public int readEvent() throws IOException
+    {
+        return this.in.read();
+    }
+
+    /**
+     * @return the read size
+     * @throws IOException when failing to read
+     */
+    public int readSize() throws IOException
+    {
+        return BinaryFilterFormat.readVarInt(this.in);
+    }
+
+    /**
+     * @return the read name
+     * @throws IOException when failing to read
+     */
+    public String readName() throws IOException
+    {
+        int index = BinaryFilterFormat.readVarInt(this.in);
+
+        if (index == 0) {
+            String name = readString();
+            this.names.add(name);
+
+            return name;
+        }
+
+        if (index > this.names.size()) {
+            throw new IOException("Unknown name index [" + index + "]");
+        }
+
+        return this.names.get(index - 1);
+    }
+
+    private String readString() throws IOException
+    {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes() throws IOException
+    {
+        return BinaryFilterFormat.readBytes(this.in, BinaryFilterFormat.readVarInt(this.in));
+    }
+
+    private long readSigned() throws IOException
+    {
+        return BinaryFilterFormat.unZigZag(BinaryFilterFormat.readVarLong(this.in));
+    }
+
+    private long readFixed(int size) throws IOException
+    {
+        long value = 0;
+        for (int i = 0; i < size; ++i) {
+            value = (value << 8) | BinaryFilterFormat.readByte(this.in);
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the read value
+     * @throws IOException when failing to read
+     */
+    public Object readValue() throws IOException
+    {
+        int type = BinaryFilterFormat.readByte(this.in);
+
+        Object value;
+        if (type < BinaryFilterFormat.TYPE_BYTE) {
+            value = readSimpleValue(type);
+        } else if (type < BinaryFilterFormat.TYPE_STREAM) {
+            value = readOtherValue(type);
+        } else {
+            value = readContainerValue(type);
+        }
+
+        return value;
+    }
+
+    private Object readSimpleValue(int type) throws IOException
+    {
+        Object value;
+        switch (type) {
+            case BinaryFilterFormat.TYPE_STRING:
+                value = readString();
+                break;
+            case BinaryFilterFormat.TYPE_TRUE:
+                value = Boolean.TRUE;
+                break;
+            case BinaryFilterFormat.TYPE_FALSE:
+                value = Boolean.FALSE;
+                break;
+            case BinaryFilterFormat.TYPE_INT:
+                value = (int) readSigned();
+                break;
+            case BinaryFilterFormat.TYPE_LONG:
+                value = readSigned();
+                break;
+            case BinaryFilterFormat.TYPE_SHORT:
+                value = (short) readSigned();
+                break;
+            default:
+                value = null;
+                break;
+        }
+
+        return value;
+    }
+
+    private Object readOtherValue(int type) throws IOException
+    {
+        Object value;
+        switch (type) {
+            case BinaryFilterFormat.TYPE_BYTE:
+                value = (byte) BinaryFilterFormat.readByte(this.in);
+                break;
+            case BinaryFilterFormat.TYPE_CHAR:
+                value = (char) BinaryFilterFormat.readVarInt(this.in);
+                break;
+            case BinaryFilterFormat.TYPE_FLOAT:
+                value = Float.intBitsToFloat((int) readFixed(4));
+                break;
+            case BinaryFilterFormat.TYPE_DOUBLE:
+                value = Double.longBitsToDouble(readFixed(8));
+                break;
+            case BinaryFilterFormat.TYPE_DATE:
+                value = new Date(readSigned());
+                break;
+            case BinaryFilterFormat.TYPE_ENUM:
+                value = readEnum();
+                break;
+            default:
+                value = readBytes();
+                break;
+        }
+
+        return value;
+    }
+
+    private Object readContainerValue(int type) throws IOException
+    {
+        Object value;
+        switch (type) {
+            case BinaryFilterFormat.TYPE_STREAM:
+                value = readStream();
+                break;
+            case BinaryFilterFormat.TYPE_LIST:
+                value = readCollection(new ArrayList<>());
+                break;
+            case BinaryFilterFormat.TYPE_SET:
+                value = readCollection(new LinkedHashSet<>());
+                break;
+            case BinaryFilterFormat.TYPE_MAP:
+                value = readMap();
+                break;
+            case BinaryFilterFormat.TYPE_PARAMETERS:
+                value = readParameters(new FilterEventParameters());
+                break;
+            case BinaryFilterFormat.TYPE_OBJECT:
+                value = readObject();
+                break;
+            default:
+                throw new IOException("Unknown value type [" + type + "]");
+        }
+
+        return value;
+    }
+
+    private Collection<Object> readCollection(Collection<Object> collection) throws IOException
+    {
+        int size = readSize();
+        for (int i = 0; i < size; ++i) {
+            collection.add(readValue());
+        }
+
+        return collection;
+    }
+
+    private Map<Object, Object> readMap() throws IOException
+    {
+        int size = readSize();
+
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; ++i) {
+            map.put(readValue(), readValue());
+        }
+
+        return map;
+    }
+
+    /**
+     * @param <M> the type of the map
+     * @param parameters the map to fill with the read named parameters
+     * @return the passed map
+     * @throws IOException when failing to read
+     */
+    public <M extends Map<String, Object>> M readParameters(M parameters) throws IOException
+    {
+        int size = readSize();
+        for (int i = 0; i < size; ++i) {
+            parameters.put(readName(), readValue());
+        }
+
+        return parameters;
+    }
+
+    private InputStream readStream() throws IOException
+    {
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+        int size = readSize();
+        for (; size > 0 && memory.size() + size <= STREAM_MEMORY_THRESHOLD; size = readSize()) {
+            BinaryFilterFormat.copy(this.in, size, memory);
+        }
+
+        if (size == 0) {
+            return new ByteArrayInputStream(memory.toByteArray());
+        }
+
+        // Don't keep big streams (like attachments) in memory
+        Path file = Files.createTempFile("xwiki-filter-binary", ".tmp");
+        this.temporaryFiles.add(file);
+
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            memory.writeTo(stream);
+
+            for (; size > 0; size = readSize()) {
+                BinaryFilterFormat.copy(this.in, size, stream);
+            }
+        }
+
+        return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    private Object readEnum() throws IOException
+    {
+        Class<?> enumClass = getClass(readName());
+        String constant = readName();
+
+        if (enumClass != null && enumClass.isEnum()) {
+            for (Object enumConstant : enumClass.getEnumConstants()) {
+                if (((Enum<?>) enumConstant).name().equals(constant)) {
+                    return enumConstant;
+                }
+            }
+        }
+
+        // Let the caller convert the constant name to the expected type
+        return constant;
+    }
+
+    private Object readObject() throws IOException
+    {
+        Class<?> objectClass = getClass(readName());
+        String stringValue = readString();
+
+        if (objectClass != null) {
+            try {
+                return this.converter.convert(objectClass, stringValue);
+            } catch (Exception e) {
+                // Let the caller convert the value to the expected type
+            }
+        }
+
+        return stringValue;
+    }
+
+    private Class<?> getClass(String className)
+    {
+        if (this.classes.containsKey(className)) {
+            return this.classes.get(className);
+        }
+
+        Class<?> resolvedClass;
+        try {
+            resolvedClass = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+        } catch (Exception | LinkageError e) {
+            // Remember missing classes too
+            resolvedClass = null;
+        }
+        this.classes.put(className, resolvedClass);
+
+        return resolvedClass;
+    }
+
+    /**
+     * Release the resources associated to the reader. The source stream is not closed.
+     * <p>
+     * The temporary files of the stream values are deleted if possible (the streams which are still open can generally
+     * still be read, otherwise the file is deleted when the stream is closed).
+     */
+    @Override
+    public void close()
+    {
+        this.in.close();
+
+        for (Path file : this.temporaryFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // The file is still open, it will be deleted when the stream is closed
+            }
+        }
+        this.temporaryFiles.clear();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.properties.ConverterManager;
+
+/**
+ * Write names and values in the generic binary filter format.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryFilterWriter implements Closeable
+{
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
+    private final BlockOutputStream out;
+
+    private final ConverterManager converter;
+
+    private final Map<String, Integer> names = new HashMap<>();
+
+    private byte[] chunk;
+
+    /**
+     * @param target the stream where to write, it's not closed when this writer is closed
+     * @param converter used to convert values which don't have a dedicated binary representation
+     * @param blockSize the maximum size of a block
+     * @param compress true if the blocks should be compressed
+     * @throws IOException when failing to write the header
+     */
+    public BinaryFilterWriter(OutputStream target, ConverterManager converter, int blockSize, boolean compress)
+        throws IOException
+    {
+        this.converter = converter;
+
+        target.write(BinaryFilterFormat.MAGIC);
+        target.write(BinaryFilterFormat.VERSION);
+        target.write(compress ? BinaryFilterFormat.FLAG_COMPRESSED : 0);
+
+        this.out = new BlockOutputStream(target, blockSize, compress);
+    }
+
+    /**
+     * @param opcode the event opcode
+     * @throws IOException when failing to write
+     */
+    public void writeEvent(int opcode) throws IOException
+    {
+        this.out.write(opcode);
+    }
+
+    /**
+     * @param size the size to write
+     * @throws IOException when failing to write
+     */
+    public void writeSize(int size) throws IOException
+    {
+        BinaryFilterFormat.writeVarLong(this.out, size);
+    }
+
+    /**
+     * Write a name through the string table: the first time it's written inline, the next times only its index.
+     *
+     * @param name the name to write
+     * @throws IOException when failing to write
+     */
+    public void writeName(String name) throws IOException
+    {
+        Integer index = this.names.get(name);
+
+        if (index != null) {
+            BinaryFilterFormat.writeVarLong(this.out, index);
+        } else {
+            BinaryFilterFormat.writeVarLong(this.out, 0);
+            writeString(name);
+
+            this.names.put(name, this.names.size() + 1);
+        }
+    }
+
+    private void writeString(String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeBytes(bytes);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException
+    {
+        BinaryFilterFormat.writeVarLong(this.out, bytes.length);
+        this.out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeSigned(long value) throws IOException
+    {
+        BinaryFilterFormat.writeVarLong(this.out, BinaryFilterFormat.zigZag(value));
+    }
+
+    private void writeFixed(long value, int size) throws IOException
+    {
+        for (int shift = (size - 1) * 8; shift >= 0; shift -= 8) {
+            this.out.write((int) (value >>> shift));
+        }
+    }
+
+    /**
+     * @param value the value to write
+     * @throws IOException when failing to write
+     */
+    public void writeValue(Object value) throws IOException
+    {
+        if (value == null) {
+            this.out.write(BinaryFilterFormat.TYPE_NULL);
+        } else if (!writeSimpleValue(value) && !writeContainerValue(value)) {
+            writeObjectValue(value);
+        }
+    }
+
+    private boolean writeSimpleValue(Object value) throws IOException
+    {
+        if (value instanceof String) {
+            this.out.write(BinaryFilterFormat.TYPE_STRING);
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            this.out.write((Boolean) value ? BinaryFilterFormat.TYPE_TRUE : BinaryFilterFormat.TYPE_FALSE);
+        } else if (value instanceof Number) {
+            return writeNumberValue((Number) value);
+        } else if (value instanceof Character) {
+            this.out.write(BinaryFilterFormat.TYPE_CHAR);
+            BinaryFilterFormat.writeVarLong(this.out, (Character) value);
+        } else if (value instanceof Date) {
+            this.out.write(BinaryFilterFormat.TYPE_DATE);
+            writeSigned(((Date) value).getTime());
+        } else if (value instanceof Enum) {
+            this.out.write(BinaryFilterFormat.TYPE_ENUM);
+            writeName(((Enum<?>) value).getDeclaringClass().getName());
+            writeName(((Enum<?>) value).name());
+        } else if (value instanceof byte[]) {
+            this.out.write(BinaryFilterFormat.TYPE_BYTES);
+            writeBytes((byte[]) value);
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean writeNumberValue(Number value) throws IOException
+    {
+        if (value instanceof Integer) {
+            this.out.write(BinaryFilterFormat.TYPE_INT);
+            writeSigned(value.intValue());
+        } else if (value instanceof Long) {
+            this.out.write(BinaryFilterFormat.TYPE_LONG);
+            writeSigned(value.longValue());
+        } else if (value instanceof Short) {
+            this.out.write(BinaryFilterFormat.TYPE_SHORT);
+            writeSigned(value.shortValue());
+        } else if (value instanceof Byte) {
+            this.out.write(BinaryFilterFormat.TYPE_BYTE);
+            this.out.write(value.byteValue());
+        } else if (value instanceof Float) {
+            this.out.write(BinaryFilterFormat.TYPE_FLOAT);
+            writeFixed(Float.floatToRawIntBits(value.floatValue()), 4);
+        } else if (value instanceof Double) {
+            this.out.write(BinaryFilterFormat.TYPE_DOUBLE);
+            writeFixed(Double.doubleToRawLongBits(value.doubleValue()), 8);
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean writeContainerValue(Object value) throws IOException
+    {
+        if (value instanceof InputStream) {
+            this.out.write(BinaryFilterFormat.TYPE_STREAM);
+            writeStream((InputStream) value);
+        } else if (value instanceof FilterEventParameters) {
+            this.out.write(BinaryFilterFormat.TYPE_PARAMETERS);
+            writeParameters((FilterEventParameters) value);
+        } else if (value instanceof Map) {
+            this.out.write(BinaryFilterFormat.TYPE_MAP);
+            writeSize(((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        } else if (value instanceof Collection) {
+            this.out.write(value instanceof Set ? BinaryFilterFormat.TYPE_SET : BinaryFilterFormat.TYPE_LIST);
+            writeSize(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                writeValue(element);
+            }
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param parameters the named parameters to write
+     * @throws IOException when failing to write
+     */
+    public void writeParameters(Map<String, Object> parameters) throws IOException
+    {
+        writeSize(parameters.size());
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            writeName(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeStream(InputStream stream) throws IOException
+    {
+        if (this.chunk == null) {
+            this.chunk = new byte[STREAM_CHUNK_SIZE];
+        }
+
+        for (int count = stream.read(this.chunk); count != -1; count = stream.read(this.chunk)) {
+            if (count > 0) {
+                BinaryFilterFormat.writeVarLong(this.out, count);
+                this.out.write(this.chunk, 0, count);
+            }
+        }
+
+        BinaryFilterFormat.writeVarLong(this.out, 0);
+    }
+
+    private void writeObjectValue(Object value) throws IOException
+    {
+        String stringValue = this.converter.convert(String.class, value);
+
+        if (stringValue != null) {
+            this.out.write(BinaryFilterFormat.TYPE_OBJECT);
+            writeName(value.getClass().getName());
+            writeString(stringValue);
+        } else {
+            this.out.write(BinaryFilterFormat.TYPE_NULL);
+        }
+    }
+
+    /**
+     * Write the remaining events and the end of stream marker. The target stream is not closed.
+     *
+     * @throws IOException when failing to write
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.out.close();
+    }
+}
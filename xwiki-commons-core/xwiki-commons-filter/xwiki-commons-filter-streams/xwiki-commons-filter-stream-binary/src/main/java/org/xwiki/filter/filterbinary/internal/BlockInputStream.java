@@ -0,0 +1,183 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.xwiki.filter.filterbinary.output.FilterBinaryOutputProperties;
+
+/**
+ * Read the blocks produced by {@link BlockOutputStream}.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BlockInputStream extends InputStream
+{
+    private final InputStream in;
+
+    private Inflater inflater;
+
+    private byte[] buffer = new byte[0];
+
+    private byte[] compressed = new byte[0];
+
+    private int position;
+
+    private int limit;
+
+    private boolean finished;
+
+    /**
+     * @param in the stream containing the blocks
+     */
+    public BlockInputStream(InputStream in)
+    {
+        this.in = in;
+    }
+
+    private boolean ensureAvailable() throws IOException
+    {
+        while (this.position == this.limit) {
+            if (this.finished) {
+                return false;
+            }
+
+            readBlock();
+        }
+
+        return true;
+    }
+
+    private void readBlock() throws IOException
+    {
+        int length = BinaryFilterFormat.readVarInt(this.in);
+
+        if (length == 0) {
+            this.finished = true;
+
+            return;
+        }
+
+        int storedLength = BinaryFilterFormat.readVarInt(this.in);
+
+        // Protect against corrupted streams asking for huge buffers
+        if (length > FilterBinaryOutputProperties.MAX_BLOCK_SIZE || storedLength > length) {
+            throw new IOException(
+                String.format("Invalid block with length [%s] and stored length [%s]", length, storedLength));
+        }
+
+        if (this.buffer.length < length) {
+            this.buffer = new byte[length];
+        }
+
+        if (storedLength == length) {
+            BinaryFilterFormat.readFully(this.in, this.buffer, 0, length);
+        } else {
+            inflate(length, storedLength);
+        }
+
+        this.position = 0;
+        this.limit = length;
+    }
+
+    private void inflate(int length, int storedLength) throws IOException
+    {
+        if (this.compressed.length < storedLength) {
+            this.compressed = new byte[storedLength];
+        }
+
+        BinaryFilterFormat.readFully(this.in, this.compressed, 0, storedLength);
+
+        if (this.inflater == null) {
+            this.inflater = new Inflater();
+        } else {
+            this.inflater.reset();
+        }
+
+        this.inflater.setInput(this.compressed, 0, storedLength);
+
+        try {
+            int inflated = 0;
+            while (inflated < length && !this.inflater.finished()) {
+                int count = this.inflater.inflate(this.buffer, inflated, length - inflated);
+                if (count == 0 && this.inflater.needsInput()) {
+                    break;
+                }
+                inflated += count;
+            }
+
+            if (inflated != length) {
+                throw new IOException("Truncated compressed block");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Failed to decompress block", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+
+        return this.buffer[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!ensureAvailable()) {
+            return -1;
+        }
+
+        int length = Math.min(len, this.limit - this.position);
+        System.arraycopy(this.buffer, this.position, b, off, length);
+        this.position += length;
+
+        return length;
+    }
+
+    @Override
+    public int available()
+    {
+        return this.limit - this.position;
+    }
+
+    /**
+     * Release the decompression resources. The wrapped stream is not closed.
+     */
+    @Override
+    public void close()
+    {
+        if (this.inflater != null) {
+            this.inflater.end();
+            this.inflater = null;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+import org.xwiki.filter.filterbinary.output.FilterBinaryOutputProperties;
+
+/**
+ * Buffer written bytes and write them to the wrapped stream as length prefixed blocks, optionally compressed.
+ * <p>
+ * Each block starts with its uncompressed length and its stored length. When the two are equal the block is stored
+ * as is, otherwise it's deflated. A block with a length of 0 marks the end of the stream.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BlockOutputStream extends OutputStream
+{
+    private final OutputStream out;
+
+    private final byte[] buffer;
+
+    private final Deflater deflater;
+
+    private final byte[] compressed;
+
+    private int count;
+
+    private boolean closed;
+
+    /**
+     * @param out the stream where to write the blocks
+     * @param blockSize the maximum size of a block, between 1 and {@link FilterBinaryOutputProperties#MAX_BLOCK_SIZE}
+     * @param compress true if the blocks should be compressed
+     * @throws IllegalArgumentException when the block size is out of range
+     */
+    public BlockOutputStream(OutputStream out, int blockSize, boolean compress)
+    {
+        if (blockSize < 1 || blockSize > FilterBinaryOutputProperties.MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException(String.format("Invalid block size [%s], it should be between 1 and [%s]",
+                blockSize, FilterBinaryOutputProperties.MAX_BLOCK_SIZE));
+        }
+
+        this.out = out;
+        this.buffer = new byte[blockSize];
+
+        if (compress) {
+            this.deflater = new Deflater(Deflater.BEST_SPEED);
+            this.compressed = new byte[blockSize];
+        } else {
+            this.deflater = null;
+            this.compressed = null;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (this.count == this.buffer.length) {
+            writeBlock();
+        }
+
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.count == this.buffer.length) {
+                writeBlock();
+            }
+
+            int length = Math.min(remaining, this.buffer.length - this.count);
+            System.arraycopy(b, offset, this.buffer, this.count, length);
+            this.count += length;
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    private void writeBlock() throws IOException
+    {
+        if (this.count == 0) {
+            return;
+        }
+
+        BinaryFilterFormat.writeVarLong(this.out, this.count);
+
+        int compressedLength = compress();
+        if (compressedLength > 0) {
+            BinaryFilterFormat.writeVarLong(this.out, compressedLength);
+            this.out.write(this.compressed, 0, compressedLength);
+        } else {
+            BinaryFilterFormat.writeVarLong(this.out, this.count);
+            this.out.write(this.buffer, 0, this.count);
+        }
+
+        this.count = 0;
+    }
+
+    /**
+     * @return the length of the compressed block or -1 if the block should be stored as is
+     */
+    private int compress()
+    {
+        if (this.deflater == null) {
+            return -1;
+        }
+
+        this.deflater.reset();
+        this.deflater.setInput(this.buffer, 0, this.count);
+        this.deflater.finish();
+
+        // Only keep the compressed version if it's actually smaller than the raw block
+        int length = 0;
+        int limit = Math.min(this.count - 1, this.compressed.length);
+        while (!this.deflater.finished() && length < limit) {
+            length += this.deflater.deflate(this.compressed, length, limit - length);
+        }
+
+        return this.deflater.finished() ? length : -1;
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        writeBlock();
+
+        this.out.flush();
+    }
+
+    /**
+     * Write the remaining events and the end of stream marker. The wrapped stream is not closed.
+     *
+     * @throws IOException when failing to write the last block
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!this.closed) {
+            this.closed = true;
+
+            try {
+                writeBlock();
+                BinaryFilterFormat.writeVarLong(this.out, 0);
+                this.out.flush();
+            } finally {
+                if (this.deflater != null) {
+                    this.deflater.end();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal.input;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.filter.FilterDescriptor;
+import org.xwiki.filter.FilterElementDescriptor;
+import org.xwiki.filter.FilterElementParameterDescriptor;
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.filterbinary.internal.BinaryFilterFormat;
+import org.xwiki.filter.filterbinary.internal.BinaryFilterReader;
+import org.xwiki.properties.ConverterManager;
+
+/**
+ * Read binary events and send them to a filter.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryFilterParser
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryFilterParser.class);
+
+    private final BinaryFilterReader reader;
+
+    private final Object filter;
+
+    private final FilterDescriptor filterDescriptor;
+
+    private final ConverterManager converter;
+
+    private final Deque<Event> stack = new ArrayDeque<>();
+
+    private static final class Event
+    {
+        private final String name;
+
+        private final FilterElementDescriptor element;
+
+        private final Object[] parameters;
+
+        private final FilterEventParameters namedParameters;
+
+        Event(String name, FilterElementDescriptor element)
+        {
+            this.name = name;
+            this.element = element;
+
+            if (element != null) {
+                FilterElementParameterDescriptor<?>[] descriptors = element.getParameters();
+                this.parameters = new Object[descriptors.length];
+                for (int i = 0; i < descriptors.length; ++i) {
+                    this.parameters[i] = BinaryFilterFormat.getDefaultValue(descriptors[i]);
+                }
+                this.namedParameters = null;
+            } else {
+                this.parameters = null;
+                this.namedParameters = new FilterEventParameters();
+            }
+        }
+    }
+
+    /**
+     * @param reader the reader in charge of the binary decoding
+     * @param filter the filter to send events to
+     * @param filterDescriptor the descriptor of the filter
+     * @param converter used to convert values to the type expected by the filter
+     */
+    public BinaryFilterParser(BinaryFilterReader reader, Object filter, FilterDescriptor filterDescriptor,
+        ConverterManager converter)
+    {
+        this.reader = reader;
+        this.filter = filter;
+        this.filterDescriptor = filterDescriptor;
+        this.converter = converter;
+    }
+
+    /**
+     * Read all the events and send them to the filter.
+     *
+     * @throws FilterException when failing to read the events or when the filter failed
+     */
+    public void parse() throws FilterException
+    {
+        try {
+            for (int opcode = this.reader.readEvent(); opcode != -1; opcode = this.reader.readEvent()) {
+                switch (opcode) {
+                    case BinaryFilterFormat.EVENT_BEGIN:
+                        Event event = readEvent();
+                        this.stack.push(event);
+                        fireEvent(event, opcode);
+                        break;
+                    case BinaryFilterFormat.EVENT_END:
+                        if (this.stack.isEmpty()) {
+                            throw new FilterException("Unexpected end event");
+                        }
+                        fireEvent(this.stack.pop(), opcode);
+                        break;
+                    case BinaryFilterFormat.EVENT_ON:
+                        fireEvent(readEvent(), opcode);
+                        break;
+                    default:
+                        throw new FilterException("Unknown event opcode [" + opcode + "]");
+                }
+            }
+        } catch (IOException e) {
+            throw new FilterException("Failed to read binary events", e);
+        }
+    }
+
+    private Event readEvent() throws IOException
+    {
+        String name = this.reader.readName();
+
+        Event event = new Event(name, this.filterDescriptor.getElement(name));
+
+        int size = this.reader.readSize();
+        for (int i = 0; i < size; ++i) {
+            String parameterName = this.reader.readName();
+            Object value = this.reader.readValue();
+
+            if (event.element != null) {
+                setParameter(event, parameterName, value);
+            } else {
+                event.namedParameters.put(parameterName, value);
+            }
+        }
+
+        return event;
+    }
+
+    private void setParameter(Event event, String name, Object value)
+    {
+        FilterElementParameterDescriptor<?> parameter = getParameter(event.element, name);
+
+        if (parameter != null) {
+            event.parameters[parameter.getIndex()] = convert(parameter.getType(), value);
+        } else {
+            LOGGER.warn("Unknown element parameter [{}] (=[{}]) in block [{}]", name, value, event.name);
+        }
+    }
+
+    private FilterElementParameterDescriptor<?> getParameter(FilterElementDescriptor element, String name)
+    {
+        FilterElementParameterDescriptor<?> parameter = element.getParameter(name);
+
+        if (parameter == null) {
+            int index = NumberUtils.toInt(name, -1);
+
+            if (index >= 0 && index < element.getParameters().length) {
+                parameter = element.getParameters()[index];
+            }
+        }
+
+        return parameter;
+    }
+
+    private Object convert(Type type, Object value)
+    {
+        if (value == null) {
+            return null;
+        }
+
+        Class<?> typeClass = ReflectionUtils.getTypeClass(type);
+
+        if (typeClass == null || ClassUtils.isAssignable(value.getClass(), typeClass)) {
+            return value;
+        }
+
+        if (value instanceof byte[] && typeClass.isAssignableFrom(ByteArrayInputStream.class)) {
+            return new ByteArrayInputStream((byte[]) value);
+        }
+
+        return this.converter.convert(type, value);
+    }
+
+    private void fireEvent(Event event, int opcode) throws FilterException
+    {
+        if (event.element != null) {
+            Method method;
+            if (opcode == BinaryFilterFormat.EVENT_BEGIN) {
+                method = event.element.getBeginMethod();
+            } else if (opcode == BinaryFilterFormat.EVENT_END) {
+                method = event.element.getEndMethod();
+            } else {
+                method = event.element.getOnMethod();
+            }
+
+            if (method != null) {
+                fireEvent(method, event.parameters);
+            }
+        } else if (this.filter instanceof UnknownFilter) {
+            fireUnknownEvent(event, opcode);
+        }
+    }
+
+    private void fireUnknownEvent(Event event, int opcode) throws FilterException
+    {
+        UnknownFilter unknownFilter = (UnknownFilter) this.filter;
+
+        if (opcode == BinaryFilterFormat.EVENT_BEGIN) {
+            unknownFilter.beginUnknwon(event.name, event.namedParameters);
+        } else if (opcode == BinaryFilterFormat.EVENT_END) {
+            unknownFilter.endUnknwon(event.name, event.namedParameters);
+        } else {
+            unknownFilter.onUnknwon(event.name, event.namedParameters);
+        }
+    }
+
+    private void fireEvent(Method method, Object[] parameters) throws FilterException
+    {
+        try {
+            method.invoke(this.filter, parameters);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof FilterException) {
+                throw (FilterException) e.getCause();
+            }
+
+            throw new FilterException("Event [" + method + "] thrown exception", e.getCause());
+        } catch (Exception e) {
+            throw new FilterException("Failed to invoke event [" + method + "]", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal.input;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.filter.FilterDescriptorManager;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.filterbinary.input.FilterBinaryInputProperties;
+import org.xwiki.filter.input.AbstractBeanInputFilterStreamFactory;
+import org.xwiki.filter.input.BeanInputFilterStream;
+import org.xwiki.filter.output.OutputFilterStreamFactory;
+import org.xwiki.filter.type.FilterStreamType;
+import org.xwiki.filter.type.SystemType;
+import org.xwiki.properties.ConverterManager;
+
+/**
+ * A generic binary input filter implementation, much faster to parse than the generic XML format.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Component
+@Named("filter+binary")
+@Singleton
+public class BinaryInputFilterFactory extends AbstractBeanInputFilterStreamFactory<FilterBinaryInputProperties, Object>
+{
+    @Inject
+    private FilterDescriptorManager descriptorManager;
+
+    @Inject
+    private ConverterManager converter;
+
+    @Inject
+    private Provider<ComponentManager> contextComponentManager;
+
+    /**
+     * Default constructor.
+     */
+    public BinaryInputFilterFactory()
+    {
+        super(FilterStreamType.FILTER_BINARY);
+
+        setName("Generic binary input stream");
+        setDescription("Generates wiki events from generic binary file.");
+    }
+
+    @Override
+    public Collection<Class<?>> getFilterInterfaces() throws FilterException
+    {
+        List<OutputFilterStreamFactory> factories;
+        try {
+            factories = this.contextComponentManager.get().getInstanceList(OutputFilterStreamFactory.class);
+        } catch (ComponentLookupException e) {
+            throw new FilterException("Failed to lookup OutputFilterFactory components instances", e);
+        }
+
+        Set<Class<?>> filters = new HashSet<>();
+
+        filters.add(UnknownFilter.class);
+
+        for (OutputFilterStreamFactory factory : factories) {
+            // Skip generic streams which support any filter
+            if (!SystemType.FILTER.equals(factory.getType().getType())) {
+                filters.addAll(factory.getFilterInterfaces());
+            }
+        }
+
+        return filters;
+    }
+
+    @Override
+    public BeanInputFilterStream<FilterBinaryInputProperties> createInputFilterStream(
+        FilterBinaryInputProperties properties) throws FilterException
+    {
+        return new BinaryInputFilterStream(properties, this.descriptorManager, this.converter);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal.input;
+
+import java.io.IOException;
+
+import org.xwiki.filter.FilterDescriptorManager;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.filterbinary.input.FilterBinaryInputProperties;
+import org.xwiki.filter.filterbinary.internal.BinaryFilterReader;
+import org.xwiki.filter.input.BeanInputFilterStream;
+import org.xwiki.filter.input.InputSource;
+import org.xwiki.filter.input.InputStreamInputSource;
+import org.xwiki.properties.ConverterManager;
+
+/**
+ * Read events from a binary filter stream.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryInputFilterStream implements BeanInputFilterStream<FilterBinaryInputProperties>
+{
+    private FilterBinaryInputProperties properties;
+
+    private final FilterDescriptorManager descriptorManager;
+
+    private final ConverterManager converter;
+
+    /**
+     * @param properties the properties of the stream
+     * @param descriptorManager used to find the events supported by the filter
+     * @param converter used to convert values to the type expected by the filter
+     */
+    public BinaryInputFilterStream(FilterBinaryInputProperties properties, FilterDescriptorManager descriptorManager,
+        ConverterManager converter)
+    {
+        this.properties = properties;
+        this.descriptorManager = descriptorManager;
+        this.converter = converter;
+    }
+
+    @Override
+    public void setProperties(FilterBinaryInputProperties properties) throws FilterException
+    {
+        this.properties = properties;
+    }
+
+    @Override
+    public void read(Object filter) throws FilterException
+    {
+        InputSource source = this.properties.getSource();
+
+        if (!(source instanceof InputStreamInputSource)) {
+            throw new FilterException("Unsupported source type [" + source.getClass() + "]");
+        }
+
+        try (BinaryFilterReader reader =
+            new BinaryFilterReader(((InputStreamInputSource) source).getInputStream(), this.converter)) {
+            new BinaryFilterParser(reader, filter, this.descriptorManager.getFilterDescriptor(filter.getClass()),
+                this.converter).parse();
+        } catch (IOException e) {
+            throw new FilterException("Failed to read binary filter stream", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.properties.getSource().close();
+    }
+}
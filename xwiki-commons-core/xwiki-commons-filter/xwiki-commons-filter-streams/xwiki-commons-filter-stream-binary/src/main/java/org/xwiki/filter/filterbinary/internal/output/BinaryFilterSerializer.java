@@ -0,0 +1,171 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.xwiki.filter.FilterDescriptor;
+import org.xwiki.filter.FilterElementDescriptor;
+import org.xwiki.filter.FilterElementParameterDescriptor;
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.filterbinary.internal.BinaryFilterFormat;
+import org.xwiki.filter.filterbinary.internal.BinaryFilterWriter;
+import org.xwiki.filter.internal.DefaultFilterDescriptorManager;
+
+/**
+ * Proxy called as an event filter to produce binary events.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryFilterSerializer implements InvocationHandler, Closeable
+{
+    private final BinaryFilterWriter writer;
+
+    private final FilterDescriptor descriptor;
+
+    private final Map<Method, FilterElementDescriptor> elements = new HashMap<>();
+
+    /**
+     * @param writer the writer in charge of the binary encoding
+     * @param descriptor the descriptor of the supported events
+     */
+    public BinaryFilterSerializer(BinaryFilterWriter writer, FilterDescriptor descriptor)
+    {
+        this.writer = writer;
+        this.descriptor = descriptor;
+    }
+
+    private FilterElementDescriptor getElement(Method method) throws NoSuchMethodException
+    {
+        FilterElementDescriptor element = this.elements.get(method);
+
+        if (element == null) {
+            element = this.descriptor.getElement(DefaultFilterDescriptorManager.getElementName(method, true));
+
+            if (element == null) {
+                throw new NoSuchMethodException(method.toGenericString());
+            }
+
+            this.elements.put(method, element);
+        }
+
+        return element;
+    }
+
+    private boolean shouldWriteParameter(Object value, FilterElementParameterDescriptor<?> parameter)
+    {
+        return value != null && !Objects.equals(BinaryFilterFormat.getDefaultValue(parameter), value);
+    }
+
+    private void writeEvent(int opcode, Method method, Object[] parameters) throws IOException, NoSuchMethodException
+    {
+        FilterElementDescriptor element = getElement(method);
+        FilterElementParameterDescriptor<?>[] descriptors = element.getParameters();
+
+        this.writer.writeEvent(opcode);
+        this.writer.writeName(element.getName());
+
+        // Skip useless parameters
+        int size = 0;
+        if (parameters != null) {
+            for (int i = 0; i < parameters.length; ++i) {
+                if (shouldWriteParameter(parameters[i], descriptors[i])) {
+                    ++size;
+                }
+            }
+        }
+
+        this.writer.writeSize(size);
+
+        for (int i = 0; size > 0; ++i) {
+            if (shouldWriteParameter(parameters[i], descriptors[i])) {
+                this.writer.writeName(BinaryFilterFormat.getParameterName(descriptors[i]));
+                this.writer.writeValue(parameters[i]);
+                --size;
+            }
+        }
+    }
+
+    private void writeUnknownEvent(int opcode, Object[] parameters) throws IOException
+    {
+        this.writer.writeEvent(opcode);
+
+        if (opcode != BinaryFilterFormat.EVENT_END) {
+            this.writer.writeName((String) parameters[0]);
+
+            FilterEventParameters eventParameters = (FilterEventParameters) parameters[1];
+            this.writer.writeParameters(eventParameters != null ? eventParameters : FilterEventParameters.EMPTY);
+        }
+    }
+
+    private int getOpcode(Method method) throws NoSuchMethodException
+    {
+        String methodName = method.getName();
+
+        int opcode;
+        if (methodName.startsWith(DefaultFilterDescriptorManager.PREFIX_BEGIN)) {
+            opcode = BinaryFilterFormat.EVENT_BEGIN;
+        } else if (methodName.startsWith(DefaultFilterDescriptorManager.PREFIX_END)) {
+            opcode = BinaryFilterFormat.EVENT_END;
+        } else if (methodName.startsWith(DefaultFilterDescriptorManager.PREFIX_ON)) {
+            opcode = BinaryFilterFormat.EVENT_ON;
+        } else {
+            throw new NoSuchMethodException(method.toGenericString());
+        }
+
+        return opcode;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        if (method.getDeclaringClass() == Closeable.class) {
+            close();
+        } else {
+            int opcode = getOpcode(method);
+
+            if (method.getDeclaringClass() == UnknownFilter.class) {
+                // Write unknown events with their real name so that they can be matched again when reading them
+                writeUnknownEvent(opcode, args);
+            } else if (opcode == BinaryFilterFormat.EVENT_END) {
+                // The parameters of the end event are the ones of the begin event
+                this.writer.writeEvent(opcode);
+            } else {
+                writeEvent(opcode, method, args);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.writer.close();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.filter.FilterDescriptorManager;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.filterbinary.internal.BinaryFilterWriter;
+import org.xwiki.filter.filterbinary.output.FilterBinaryOutputProperties;
+import org.xwiki.filter.input.InputFilterStreamFactory;
+import org.xwiki.filter.output.AbstractBeanOutputFilterStreamFactory;
+import org.xwiki.filter.output.BeanOutputFilterStream;
+import org.xwiki.filter.type.FilterStreamType;
+import org.xwiki.filter.type.SystemType;
+import org.xwiki.properties.ConverterManager;
+
+/**
+ * A generic binary output filter implementation, much more compact and faster to produce than the generic XML format.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Component
+@Named("filter+binary")
+@Singleton
+public class BinaryOutputFilterFactory
+    extends AbstractBeanOutputFilterStreamFactory<FilterBinaryOutputProperties, Object>
+{
+    @Inject
+    private FilterDescriptorManager descriptorManager;
+
+    @Inject
+    private ConverterManager converter;
+
+    @Inject
+    private Provider<ComponentManager> contextComponentManager;
+
+    /**
+     * Default constructor.
+     */
+    public BinaryOutputFilterFactory()
+    {
+        super(FilterStreamType.FILTER_BINARY);
+
+        setName("Generic binary output stream");
+        setDescription("Write generic binary from wiki events.");
+    }
+
+    @Override
+    public Collection<Class<?>> getFilterInterfaces() throws FilterException
+    {
+        List<InputFilterStreamFactory> factories;
+        try {
+            factories = this.contextComponentManager.get().getInstanceList(InputFilterStreamFactory.class);
+        } catch (ComponentLookupException e) {
+            throw new FilterException("Failed to lookup InputFilterFactory components instances", e);
+        }
+
+        Set<Class<?>> filters = new HashSet<>();
+
+        filters.add(UnknownFilter.class);
+
+        for (InputFilterStreamFactory factory : factories) {
+            // Skip generic streams which support any filter
+            if (!SystemType.FILTER.equals(factory.getType().getType())) {
+                filters.addAll(factory.getFilterInterfaces());
+            }
+        }
+
+        return filters;
+    }
+
+    @Override
+    public BeanOutputFilterStream<FilterBinaryOutputProperties> createOutputFilterStream(
+        FilterBinaryOutputProperties properties) throws FilterException
+    {
+        return new BinaryOutputFilterStream(this, properties);
+    }
+
+    /**
+     * @param stream the stream where to write the events
+     * @param properties the properties of the stream
+     * @return the filter writing the events
+     * @throws FilterException when failing to get the supported filters or when the properties are invalid
+     * @throws IOException when failing to write the header of the stream
+     */
+    public Object createFilter(OutputStream stream, FilterBinaryOutputProperties properties)
+        throws FilterException, IOException
+    {
+        return createFilter(getFilterInterfaces().toArray(ArrayUtils.EMPTY_CLASS_ARRAY), stream, properties);
+    }
+
+    /**
+     * @param filterInterfaces the filters to support
+     * @param stream the stream where to write the events
+     * @param properties the properties of the stream
+     * @return the filter writing the events
+     * @throws FilterException when the properties are invalid
+     * @throws IOException when failing to write the header of the stream
+     */
+    public Object createFilter(Class<?>[] filterInterfaces, OutputStream stream,
+        FilterBinaryOutputProperties properties) throws FilterException, IOException
+    {
+        int blockSize = properties.getBlockSize();
+        if (blockSize < 1 || blockSize > FilterBinaryOutputProperties.MAX_BLOCK_SIZE) {
+            throw new FilterException(String.format("Invalid block size [%s], it should be between 1 and [%s]",
+                blockSize, FilterBinaryOutputProperties.MAX_BLOCK_SIZE));
+        }
+
+        Class<?>[] interfaces = ArrayUtils.contains(filterInterfaces, Closeable.class) ? filterInterfaces
+            : ArrayUtils.add(filterInterfaces, Closeable.class);
+
+        BinaryFilterWriter writer =
+            new BinaryFilterWriter(stream, this.converter, blockSize, properties.isCompressed());
+        BinaryFilterSerializer handler =
+            new BinaryFilterSerializer(writer, this.descriptorManager.getFilterDescriptor(interfaces));
+
+        return Proxy.newProxyInstance(interfaces[0].getClassLoader(), interfaces, handler);
+    }
+}
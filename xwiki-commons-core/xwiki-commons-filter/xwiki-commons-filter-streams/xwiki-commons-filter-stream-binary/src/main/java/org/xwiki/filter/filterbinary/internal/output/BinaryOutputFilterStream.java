@@ -0,0 +1,91 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.filterbinary.output.FilterBinaryOutputProperties;
+import org.xwiki.filter.output.BeanOutputFilterStream;
+import org.xwiki.filter.output.OutputStreamOutputTarget;
+import org.xwiki.filter.output.OutputTarget;
+
+/**
+ * Write events in a binary filter stream.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryOutputFilterStream implements BeanOutputFilterStream<FilterBinaryOutputProperties>
+{
+    private final BinaryOutputFilterFactory factory;
+
+    private FilterBinaryOutputProperties properties;
+
+    private Object filter;
+
+    /**
+     * @param factory the factory in charge of creating the filter
+     * @param properties the properties of the stream
+     */
+    public BinaryOutputFilterStream(BinaryOutputFilterFactory factory, FilterBinaryOutputProperties properties)
+    {
+        this.factory = factory;
+        this.properties = properties;
+    }
+
+    @Override
+    public void setProperties(FilterBinaryOutputProperties properties) throws FilterException
+    {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object getFilter() throws FilterException
+    {
+        if (this.filter == null) {
+            OutputTarget target = this.properties.getTarget();
+
+            if (!(target instanceof OutputStreamOutputTarget)) {
+                throw new FilterException("Unsupported target type [" + target.getClass() + "]");
+            }
+
+            try {
+                this.filter = this.factory.createFilter(((OutputStreamOutputTarget) target).getOutputStream(),
+                    this.properties);
+            } catch (IOException e) {
+                throw new FilterException("Failed to create filter", e);
+            }
+        }
+
+        return this.filter;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (this.filter instanceof Closeable) {
+            ((Closeable) this.filter).close();
+        }
+
+        this.properties.getTarget().close();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.output;
+
+import org.xwiki.filter.output.OutputTarget;
+import org.xwiki.properties.annotation.PropertyDescription;
+import org.xwiki.properties.annotation.PropertyMandatory;
+import org.xwiki.properties.annotation.PropertyName;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Generic binary serializer properties.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Unstable
+public class FilterBinaryOutputProperties
+{
+    /**
+     * The default size of the blocks in which the events are written.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * The maximum size of the blocks in which the events are written (bigger blocks are rejected when reading).
+     */
+    public static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * @see #getTarget()
+     */
+    private OutputTarget target;
+
+    /**
+     * @see #isCompressed()
+     */
+    private boolean compressed;
+
+    /**
+     * @see #getBlockSize()
+     */
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+
+    /**
+     * @return The target where to save the events
+     */
+    @PropertyName("Target")
+    @PropertyDescription("The target where to save the events")
+    @PropertyMandatory
+    public OutputTarget getTarget()
+    {
+        return this.target;
+    }
+
+    /**
+     * @param target The target where to save the events
+     */
+    public void setTarget(OutputTarget target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * @return true if each block of events should be compressed
+     */
+    @PropertyName("Compressed")
+    @PropertyDescription("Indicate if each block of events should be compressed")
+    public boolean isCompressed()
+    {
+        return this.compressed;
+    }
+
+    /**
+     * @param compressed Indicate if each block of events should be compressed
+     */
+    public void setCompressed(boolean compressed)
+    {
+        this.compressed = compressed;
+    }
+
+    /**
+     * @return the maximum size in bytes of a block of events, between 1 and {@link #MAX_BLOCK_SIZE}
+     */
+    @PropertyName("Block size")
+    @PropertyDescription("The maximum size in bytes of a block of events")
+    public int getBlockSize()
+    {
+        return this.blockSize;
+    }
+
+    /**
+     * @param blockSize the maximum size in bytes of a block of events, between 1 and {@link #MAX_BLOCK_SIZE}
+     */
+    public void setBlockSize(int blockSize)
+    {
+        this.blockSize = blockSize;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.filterbinary.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CharSequenceInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.xwiki.filter.FilterEventParameters;
+import org.xwiki.filter.FilterException;
+import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.annotation.Default;
+import org.xwiki.filter.annotation.Name;
+import org.xwiki.filter.filterbinary.input.FilterBinaryInputProperties;
+import org.xwiki.filter.filterbinary.internal.input.BinaryInputFilterFactory;
+import org.xwiki.filter.filterbinary.internal.output.BinaryOutputFilterFactory;
+import org.xwiki.filter.filterbinary.output.FilterBinaryOutputProperties;
+import org.xwiki.filter.input.DefaultByteArrayInputSource;
+import org.xwiki.filter.input.InputFilterStream;
+import org.xwiki.filter.input.InputFilterStreamFactory;
+import org.xwiki.filter.output.OutputFilterStreamFactory;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Validate the binary filter stream by writing and reading back events.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@AllComponents
+class BinaryFilterStreamTest
+{
+    public interface TestFilter
+    {
+        void beginContainer(@Name("name") String name,
+            @Name(FilterEventParameters.NAME) @Default(FilterEventParameters.DEFAULT) FilterEventParameters parameters)
+            throws FilterException;
+
+        void endContainer(@Name("name") String name,
+            @Name(FilterEventParameters.NAME) @Default(FilterEventParameters.DEFAULT) FilterEventParameters parameters)
+            throws FilterException;
+
+        void onChild(@Name("number") int number, @Name("date") Date date, @Name("content") InputStream content,
+            @Name("values") List<String> values, @Name("locale") Locale locale) throws FilterException;
+    }
+
+    public interface IndexedFilter
+    {
+        void onValue(String value) throws FilterException;
+    }
+
+    @RegisterExtension
+    LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    private byte[] write(Class<?> filterInterface, boolean compressed, int blockSize, FilterWriter writer)
+        throws Exception
+    {
+        BinaryOutputFilterFactory factory =
+            this.componentManager.getInstance(OutputFilterStreamFactory.class, "filter+binary");
+
+        FilterBinaryOutputProperties properties = new FilterBinaryOutputProperties();
+        properties.setCompressed(compressed);
+        properties.setBlockSize(blockSize);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Object filter = factory.createFilter(new Class<?>[] { filterInterface }, stream, properties);
+        writer.write(filter);
+        ((Closeable) filter).close();
+
+        return stream.toByteArray();
+    }
+
+    private void read(byte[] bytes, Object filter) throws Exception
+    {
+        BinaryInputFilterFactory factory =
+            this.componentManager.getInstance(InputFilterStreamFactory.class, "filter+binary");
+
+        FilterBinaryInputProperties properties = new FilterBinaryInputProperties();
+        properties.setSource(new DefaultByteArrayInputSource(bytes));
+
+        try (InputFilterStream stream = factory.createInputFilterStream(properties)) {
+            stream.read(filter);
+        }
+    }
+
+    private interface FilterWriter
+    {
+        void write(Object filter) throws Exception;
+    }
+
+    private void writeEvents(Object filter, FilterEventParameters parameters, String content) throws Exception
+    {
+        TestFilter testFilter = (TestFilter) filter;
+
+        testFilter.beginContainer("container", parameters);
+        testFilter.onChild(-42, new Date(1000), new CharSequenceInputStream(content, StandardCharsets.UTF_8),
+            Arrays.asList("one", "two"), Locale.FRENCH);
+        testFilter.onChild(0, null, null, null, null);
+        testFilter.endContainer("container", parameters);
+    }
+
+    private void assertEvents(byte[] bytes, FilterEventParameters parameters, String content) throws Exception
+    {
+        TestFilter filter = mock(TestFilter.class);
+
+        read(bytes, filter);
+
+        ArgumentCaptor<InputStream> contentCaptor = ArgumentCaptor.forClass(InputStream.class);
+
+        verify(filter).beginContainer("container", parameters);
+        verify(filter).onChild(eq(-42), eq(new Date(1000)), contentCaptor.capture(), eq(Arrays.asList("one", "two")),
+            eq(Locale.FRENCH));
+        verify(filter).onChild(0, null, null, null, null);
+        verify(filter).endContainer("container", parameters);
+
+        assertEquals(content, IOUtils.toString(contentCaptor.getValue(), StandardCharsets.UTF_8));
+    }
+
+    private FilterEventParameters createParameters()
+    {
+        FilterEventParameters parameters = new FilterEventParameters();
+        parameters.put("string", "value");
+        parameters.put("long", Long.MIN_VALUE);
+        parameters.put("double", 1.5D);
+        parameters.put("boolean", true);
+        parameters.put("bytes", new byte[] { 1, 2, 3 });
+
+        return parameters;
+    }
+
+    @Test
+    void writeRead() throws Exception
+    {
+        FilterEventParameters parameters = createParameters();
+        String content = "content";
+
+        byte[] bytes = write(TestFilter.class, false, FilterBinaryOutputProperties.DEFAULT_BLOCK_SIZE,
+            filter -> writeEvents(filter, parameters, content));
+
+        TestFilter filter = mock(TestFilter.class);
+        read(bytes, filter);
+
+        ArgumentCaptor<FilterEventParameters> parametersCaptor = ArgumentCaptor.forClass(FilterEventParameters.class);
+        verify(filter).beginContainer(eq("container"), parametersCaptor.capture());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) parametersCaptor.getValue().get("bytes"));
+        assertEquals(Long.MIN_VALUE, parametersCaptor.getValue().get("long"));
+        assertEquals(1.5D, parametersCaptor.getValue().get("double"));
+        assertEquals(Boolean.TRUE, parametersCaptor.getValue().get("boolean"));
+        assertEquals("value", parametersCaptor.getValue().get("string"));
+    }
+
+    @Test
+    void writeReadCompressedInSeveralBlocks() throws Exception
+    {
+        FilterEventParameters parameters = new FilterEventParameters();
+        parameters.put("string", "value");
+        String content = StringUtils.repeat("compressible content ", 1000);
+
+        byte[] raw = write(TestFilter.class, false, 128, filter -> writeEvents(filter, parameters, content));
+        byte[] compressed = write(TestFilter.class, true, 128, filter -> writeEvents(filter, parameters, content));
+
+        assertTrue(compressed.length < raw.length);
+
+        assertEvents(raw, parameters, content);
+        assertEvents(compressed, parameters, content);
+    }
+
+    @Test
+    void writeReadUnknownEvents() throws Exception
+    {
+        FilterEventParameters parameters = new FilterEventParameters();
+        parameters.put("name", "container");
+
+        FilterEventParameters childParameters = new FilterEventParameters();
+        childParameters.put("number", 42);
+        childParameters.put("other", "value");
+
+        byte[] bytes = write(UnknownFilter.class, true, FilterBinaryOutputProperties.DEFAULT_BLOCK_SIZE, filter -> {
+            UnknownFilter unknownFilter = (UnknownFilter) filter;
+            unknownFilter.beginUnknwon("container", parameters);
+            unknownFilter.onUnknwon("child", childParameters);
+            unknownFilter.endUnknwon("container", parameters);
+        });
+
+        // Events matching a known element are sent to it
+        TestFilter filter = mock(TestFilter.class);
+        read(bytes, filter);
+
+        InOrder inOrder = inOrder(filter);
+        inOrder.verify(filter).beginContainer("container", FilterEventParameters.EMPTY);
+        inOrder.verify(filter).onChild(42, null, null, null, null);
+        inOrder.verify(filter).endContainer("container", FilterEventParameters.EMPTY);
+
+        assertEquals("Unknown element parameter [other] (=[value]) in block [child]", this.logCapture.getMessage(0));
+
+        // Other events are sent as unknown events
+        UnknownFilter unknownFilter = mock(UnknownFilter.class);
+        read(bytes, unknownFilter);
+
+        verify(unknownFilter).beginUnknwon("container", parameters);
+        verify(unknownFilter).onUnknwon("child", childParameters);
+        verify(unknownFilter).endUnknwon("container", parameters);
+    }
+
+    @Test
+    void writeReadIndexedParameters() throws Exception
+    {
+        // Parameters without name are identified by their index, like in any other unknown event
+        FilterEventParameters parameters = new FilterEventParameters();
+        parameters.put("0", "text");
+
+        byte[] bytes = write(UnknownFilter.class, false, FilterBinaryOutputProperties.DEFAULT_BLOCK_SIZE,
+            filter -> ((UnknownFilter) filter).onUnknwon("value", parameters));
+
+        IndexedFilter filter = mock(IndexedFilter.class);
+        read(bytes, filter);
+
+        verify(filter).onValue("text");
+    }
+
+    @Test
+    void writeReadBigStream() throws Exception
+    {
+        FilterEventParameters parameters = new FilterEventParameters();
+        String content = StringUtils.repeat("big content ", BinaryFilterReader.STREAM_MEMORY_THRESHOLD / 10);
+
+        byte[] bytes = write(TestFilter.class, true, FilterBinaryOutputProperties.DEFAULT_BLOCK_SIZE,
+            filter -> writeEvents(filter, parameters, content));
+
+        TestFilter filter = mock(TestFilter.class);
+        read(bytes, filter);
+
+        ArgumentCaptor<InputStream> contentCaptor = ArgumentCaptor.forClass(InputStream.class);
+        verify(filter).onChild(eq(-42), eq(new Date(1000)), contentCaptor.capture(), eq(Arrays.asList("one", "two")),
+            eq(Locale.FRENCH));
+
+        // The stream is not kept in memory
+        assertFalse(contentCaptor.getValue() instanceof ByteArrayInputStream);
+        try (InputStream stream = contentCaptor.getValue()) {
+            assertEquals(content, IOUtils.toString(stream, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void writeWithInvalidBlockSize()
+    {
+        for (int blockSize : new int[] { 0, -1, FilterBinaryOutputProperties.MAX_BLOCK_SIZE + 1 }) {
+            FilterException exception = assertThrows(FilterException.class,
+                () -> write(TestFilter.class, false, blockSize, filter -> { }));
+
+            assertEquals(String.format("Invalid block size [%s], it should be between 1 and [%s]", blockSize,
+                FilterBinaryOutputProperties.MAX_BLOCK_SIZE), exception.getMessage());
+        }
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new BlockOutputStream(new ByteArrayOutputStream(), 0, false));
+    }
+
+    @Test
+    void writeReadWithSmallestBlockSize() throws Exception
+    {
+        FilterEventParameters parameters = new FilterEventParameters();
+        parameters.put("string", "value");
+        String content = "content";
+
+        byte[] bytes = write(TestFilter.class, true, 1, filter -> writeEvents(filter, parameters, content));
+
+        assertEvents(bytes, parameters, content);
+    }
+
+    @Test
+    void readBytesWithInvalidLength()
+    {
+        // Don't allocate more than what is actually available
+        assertThrows(EOFException.class,
+            () -> BinaryFilterFormat.readBytes(new ByteArrayInputStream(new byte[10]), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void readInvalidStream()
+    {
+        FilterException exception = assertThrows(FilterException.class,
+            () -> read("not a binary filter stream".getBytes(StandardCharsets.UTF_8), mock(TestFilter.class)));
+
+        assertEquals(IOException.class, exception.getCause().getClass());
+    }
+}
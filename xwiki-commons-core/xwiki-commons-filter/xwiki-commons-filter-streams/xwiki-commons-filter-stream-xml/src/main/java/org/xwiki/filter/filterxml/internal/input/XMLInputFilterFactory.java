@@ -37,9 +37,9 @@
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.UnknownFilter;
 import org.xwiki.filter.filterxml.input.FilterXMLInputProperties;
-import org.xwiki.filter.filterxml.internal.output.XMLOutputFilterFactory;
 import org.xwiki.filter.output.OutputFilterStreamFactory;
 import org.xwiki.filter.type.FilterStreamType;
+import org.xwiki.filter.type.SystemType;
 import org.xwiki.filter.xml.internal.input.AbstractXMLBeanInputFilterStreamFactory;
 import org.xwiki.filter.xml.parser.XMLParserFactory;
 
@@ -95,7 +95,8 @@ public Collection<Class<?>> getFilterInterfaces() throws FilterException
         filters.add(UnknownFilter.class);
 
         for (OutputFilterStreamFactory factory : factories) {
-            if (factory.getClass() != XMLOutputFilterFactory.class) {
+            // Skip generic streams which support any filter
+            if (!SystemType.FILTER.equals(factory.getType().getType())) {
                 filters.addAll(factory.getFilterInterfaces());
             }
         }
@@ -39,10 +39,10 @@
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.UnknownFilter;
-import org.xwiki.filter.filterxml.internal.input.XMLInputFilterFactory;
 import org.xwiki.filter.filterxml.output.FilterXMLOutputProperties;
 import org.xwiki.filter.input.InputFilterStreamFactory;
 import org.xwiki.filter.type.FilterStreamType;
+import org.xwiki.filter.type.SystemType;
 import org.xwiki.filter.xml.internal.output.AbstractXMLBeanOutputFilterStreamFactory;
 import org.xwiki.filter.xml.serializer.XMLSerializerFactory;
 
@@ -97,7 +97,8 @@ public Collection<Class<?>> getFilterInterfaces() throws FilterException
         filters.add(UnknownFilter.class);
 
         for (InputFilterStreamFactory factory : factories) {
-            if (factory.getClass() != XMLInputFilterFactory.class) {
+            // Skip generic streams which support any filter
+            if (!SystemType.FILTER.equals(factory.getType().getType())) {
                 filters.addAll(factory.getFilterInterfaces());
             }
         }
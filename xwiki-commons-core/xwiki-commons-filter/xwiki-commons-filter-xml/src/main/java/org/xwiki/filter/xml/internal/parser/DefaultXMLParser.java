@@ -25,8 +25,10 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -36,11 +38,10 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xwiki.component.util.ReflectionUtils;
 import org.xwiki.filter.FilterDescriptor;
@@ -69,6 +70,13 @@ public class DefaultXMLParser extends DefaultHandler implements ContentHandler
      */
     protected static final Logger LOGGER = LoggerFactory.getLogger(DefaultXMLParser.class);
 
+    /**
+     * The types of parameters which can be converted directly from the text content of the parameter element.
+     */
+    private static final Set<Class<?>> STREAMABLE_CLASSES = new HashSet<>(Arrays.asList(String.class, Object.class,
+        Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class,
+        Double.class));
+
     private ParameterManager parameterManager;
 
     private ConverterManager stringConverter;
@@ -97,6 +105,19 @@ public class DefaultXMLParser extends DefaultHandler implements ContentHandler
 
         public FilterEventParameters namedParameters = new FilterEventParameters();
 
+        /**
+         * True when inside the parameters element of the block.
+         */
+        public boolean inParameters;
+
+        /**
+         * The parameter currently being decoded directly from the SAX events.
+         */
+        public StreamedParameter streamedParameter;
+
+        /**
+         * The DOM of the parameter currently being parsed when it cannot be decoded directly from the SAX events.
+         */
         public Sax2Dom parametersDOMBuilder;
 
         public int elementDepth;
@@ -236,6 +257,30 @@ private void fireEvent(Method eventMethod, Object listener) throws SAXException
         }
     }
 
+    /**
+     * A simple parameter decoded directly from the SAX events, without building a DOM.
+     */
+    public static class StreamedParameter
+    {
+        private final String uri;
+
+        private final String localName;
+
+        private final String qName;
+
+        private final Attributes attributes;
+
+        private final StringBuilder content = new StringBuilder();
+
+        StreamedParameter(String uri, String localName, String qName, Attributes attributes)
+        {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.attributes = new AttributesImpl(attributes);
+        }
+    }
+
     public DefaultXMLParser(Object listener, FilterDescriptor listenerDescriptor, ConverterManager stringConverter,
         ParameterManager parameterManager, XMLConfiguration configuration)
     {
@@ -373,6 +418,126 @@ private Object unserializeParameter(Type type, Element element) throws ClassNotF
         return this.parameterManager.unSerialize(type, element);
     }
 
+    private boolean isParameterElement(Block block)
+    {
+        return this.elementDepth - block.elementDepth == 2;
+    }
+
+    private FilterElementParameterDescriptor<?> getParameterDescriptor(Block block, String name)
+    {
+        if (XMLUtils.INDEX_PATTERN.matcher(name).matches()) {
+            int parameterIndex = extractParameterIndex(name);
+
+            if (block.filterElement.getParameters().length > parameterIndex) {
+                return block.filterElement.getParameters()[parameterIndex];
+            }
+
+            return null;
+        }
+
+        return block.filterElement.getParameter(name);
+    }
+
+    /**
+     * @return true if the parameter can be decoded directly from the SAX events (its value is a simple text)
+     */
+    private boolean isStreamable(Block block, String qName, Attributes attributes)
+    {
+        if (attributes.getIndex(this.configuration.getAttributeParameterType()) != -1) {
+            return false;
+        }
+
+        FilterElementParameterDescriptor<?> parameter = getParameterDescriptor(block, qName);
+
+        if (parameter == null || !(parameter.getType() instanceof Class)) {
+            return false;
+        }
+
+        Class<?> typeClass = (Class<?>) parameter.getType();
+
+        return STREAMABLE_CLASSES.contains(typeClass) || typeClass.isPrimitive() || typeClass.isEnum();
+    }
+
+    private void startParameterElement(Block block, String uri, String localName, String qName,
+        Attributes attributes) throws SAXException
+    {
+        if (block.parametersDOMBuilder == null) {
+            if (isParameterElement(block)) {
+                // Starting a new parameter
+                if (isStreamable(block, qName, attributes)) {
+                    block.streamedParameter = new StreamedParameter(uri, localName, qName, attributes);
+
+                    return;
+                }
+
+                startParameterDOM(block, uri, localName, qName, attributes);
+
+                return;
+            }
+
+            // The parameter is not a simple text after all, fallback on the DOM
+            startStreamedParameterDOM(block);
+        }
+
+        block.parametersDOMBuilder.startElement(uri, localName, qName, attributes);
+    }
+
+    private void startParameterDOM(Block block, String uri, String localName, String qName, Attributes attributes)
+        throws SAXException
+    {
+        try {
+            block.parametersDOMBuilder = new Sax2Dom();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException("Failed to create new Sax2Dom handler", e);
+        }
+
+        block.parametersDOMBuilder.startDocument();
+        block.parametersDOMBuilder.startElement(uri, localName, qName, attributes);
+    }
+
+    private void startStreamedParameterDOM(Block block) throws SAXException
+    {
+        StreamedParameter parameter = block.streamedParameter;
+        block.streamedParameter = null;
+
+        startParameterDOM(block, parameter.uri, parameter.localName, parameter.qName, parameter.attributes);
+
+        if (parameter.content.length() > 0) {
+            char[] content = parameter.content.toString().toCharArray();
+            block.parametersDOMBuilder.characters(content, 0, content.length);
+        }
+    }
+
+    private void endParameterElement(Block block, String uri, String localName, String qName) throws SAXException
+    {
+        if (block.streamedParameter != null) {
+            if (block.streamedParameter.content.length() > 0) {
+                String value = block.streamedParameter.content.toString();
+                block.streamedParameter = null;
+
+                setParameter(block, qName, value, true);
+
+                return;
+            }
+
+            // Let the DOM based parsing deal with empty values
+            startStreamedParameterDOM(block);
+        }
+
+        if (block.parametersDOMBuilder != null) {
+            block.parametersDOMBuilder.endElement(uri, localName, qName);
+
+            if (isParameterElement(block)) {
+                block.parametersDOMBuilder.endDocument();
+
+                Element parameterElement = block.parametersDOMBuilder.getRootElement();
+                block.parametersDOMBuilder = null;
+
+                setParameter(block, parameterElement.getLocalName(), parameterElement, true);
+            }
+        }
+    }
+
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException
     {
@@ -401,22 +566,11 @@ public void startElement(String uri, String localName, String qName, Attributes
 
                 setParameter(block, attributeName, attributes.getValue(i), true);
             }
-        } else {
-            if (onParametersElement(qName)) {
-                // starting a new block parameter
-                if (currentBlock.filterElement != null) {
-                    try {
-                        currentBlock.parametersDOMBuilder = new Sax2Dom();
-                    } catch (ParserConfigurationException e) {
-                        throw new SAXException("Failed to create new Sax2Dom handler", e);
-                    }
-                    currentBlock.parametersDOMBuilder.startDocument();
-                }
-            }
-
-            if (currentBlock.parametersDOMBuilder != null) {
-                currentBlock.parametersDOMBuilder.startElement(uri, localName, qName, attributes);
-            }
+        } else if (onParametersElement(qName)) {
+            // starting the block parameters
+            currentBlock.inParameters = currentBlock.filterElement != null;
+        } else if (currentBlock.inParameters) {
+            startParameterElement(currentBlock, uri, localName, qName, attributes);
         }
 
         ++this.elementDepth;
@@ -453,25 +607,11 @@ public void endElement(String uri, String localName, String qName) throws SAXExc
 
                 block.fireOnEvent(this.filter);
             }
-        } else if (currentBlock.parametersDOMBuilder != null) {
-            currentBlock.parametersDOMBuilder.endElement(uri, localName, qName);
-
+        } else if (currentBlock.inParameters) {
             if (onParametersElement(qName)) {
-                currentBlock.parametersDOMBuilder.endDocument();
-
-                Element rootElement = currentBlock.parametersDOMBuilder.getRootElement();
-                NodeList parameterNodes = rootElement.getChildNodes();
-                for (int i = 0; i < parameterNodes.getLength(); ++i) {
-                    Node parameterNode = parameterNodes.item(i);
-
-                    if (parameterNode.getNodeType() == Node.ELEMENT_NODE) {
-                        String nodeName = parameterNode.getLocalName();
-
-                        setParameter(currentBlock, nodeName, parameterNode, true);
-                    }
-                }
-
-                currentBlock.parametersDOMBuilder = null;
+                currentBlock.inParameters = false;
+            } else {
+                endParameterElement(currentBlock, uri, localName, qName);
             }
         }
     }
@@ -479,8 +619,14 @@ public void endElement(String uri, String localName, String qName) throws SAXExc
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException
     {
-        if (!this.blockStack.isEmpty() && this.blockStack.peek().parametersDOMBuilder != null) {
-            this.blockStack.peek().parametersDOMBuilder.characters(ch, start, length);
+        Block currentBlock = this.blockStack.peek();
+
+        if (currentBlock != null && currentBlock.inParameters) {
+            if (currentBlock.streamedParameter != null) {
+                currentBlock.streamedParameter.content.append(ch, start, length);
+            } else if (currentBlock.parametersDOMBuilder != null) {
+                currentBlock.parametersDOMBuilder.characters(ch, start, length);
+            }
         } else if (this.content != null) {
             this.content.append(ch, start, length);
         }
@@ -77,6 +77,11 @@ private void assertParseAndSerialize(String inputexpect) throws Exception
     }
 
     private void assertParseAndSerialize(String expect, String input) throws Exception
+    {
+        assertEquals(expect, parseAndSerialize(input));
+    }
+
+    private String parseAndSerialize(String input) throws Exception
     {
         TestFilter testFilter = createFilter();
 
@@ -87,7 +92,7 @@ private void assertParseAndSerialize(String expect, String input) throws Excepti
             ((Closeable) testFilter).close();
         }
 
-        assertSerialized(expect);
+        return this.stringWriter.toString();
     }
 
     private void assertParseAndSerializeFromSAX(String inputexpect) throws Exception
@@ -143,6 +148,37 @@ void containerWithNamedParameters() throws Exception
         assertParseAndSerialize("<containerWithNamedParameters namedParam=\"value0\" param1=\"1\"/>");
     }
 
+    @Test
+    void containerWithParametersElements() throws Exception
+    {
+        assertParseAndSerialize("<containerWithParameters param0=\"value0\" param1=\"1\"/>",
+            "<containerWithParameters><p><param0>value0</param0><param1>1</param1></p></containerWithParameters>");
+        assertParseAndSerialize("<containerWithParameters param0=\"value0\" param1=\"1\"/>",
+            "<containerWithParameters><p>\n  <_0>value0</_0>\n  <_1>1</_1>\n</p></containerWithParameters>");
+        assertParseAndSerialize("<containerWithParameters param0=\"\" param1=\"1\"/>",
+            "<containerWithParameters><p><param0/><param1>1</param1></p></containerWithParameters>");
+    }
+
+    @Test
+    void containerWithParametersElementsFromDOM() throws Exception
+    {
+        String streamed =
+            "<containerWithParameters><p><param0>value0</param0><param1>1</param1></p></containerWithParameters>";
+
+        // Parameters with an explicit type are always unserialized from a DOM
+        String explicitTypes = "<containerWithParameters><p><param0 t=\"java.lang.String\">value0</param0>"
+            + "<param1 t=\"java.lang.Integer\">1</param1></p></containerWithParameters>";
+        // A simple parameter containing elements switches to the DOM
+        String withElements = "<containerWithParameters><p><param0>value0</param0>"
+            + "<param1>1<ignored/></param1></p></containerWithParameters>";
+
+        // Same result as the streamed parameters and as before parameters were streamed
+        String expected = "<containerWithParameters param0=\"value0\" param1=\"1\"/>";
+        assertEquals(expected, parseAndSerialize(streamed));
+        assertEquals(expected, parseAndSerialize(explicitTypes));
+        assertEquals(expected, parseAndSerialize(withElements));
+    }
+
     @Test
     void containerWithMap() throws Exception
     {
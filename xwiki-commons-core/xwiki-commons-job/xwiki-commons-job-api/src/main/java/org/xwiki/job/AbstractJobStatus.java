@@ -32,6 +32,7 @@
 import org.xwiki.job.event.status.QuestionAnsweredEvent;
 import org.xwiki.job.event.status.QuestionAskedEvent;
 import org.xwiki.job.internal.DefaultJobProgress;
+import org.xwiki.job.internal.ThreadJobProgress;
 import org.xwiki.logging.LogLevel;
 import org.xwiki.logging.LogQueue;
 import org.xwiki.logging.LoggerManager;
@@ -195,8 +196,8 @@ public AbstractJobStatus(String jobType, R request, JobStatus parentJobStatus,
      */
     public void startListening()
     {
-        // Register progress listener
-        this.observationManager.addListener(new WrappedThreadEventListener(this.progress));
+        // Bind the progress to the current thread (progress events are sent directly to it by the JobProgressManager)
+        ThreadJobProgress.bind(this.progress);
 
         // Isolate log for the job status
         this.logListener = new LoggerListener(LoggerListener.class.getName() + '_' + hashCode(), getLoggerTail());
@@ -217,7 +218,7 @@ public void stopListening()
         } else {
             this.observationManager.removeListener(this.logListener.getName());
         }
-        this.observationManager.removeListener(this.progress.getName());
+        ThreadJobProgress.unbind(this.progress);
 
         // Make sure the progress is closed
         this.progress.getRootStep().finish();
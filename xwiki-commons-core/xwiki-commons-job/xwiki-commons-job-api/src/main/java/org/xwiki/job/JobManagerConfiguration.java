@@ -75,4 +75,16 @@ default long getGroupedJobThreadKeepAliveTime()
     {
         return 60000L;
     }
+
+    /**
+     * @return the format used to store the job statuses: {@code xml} (the default) or {@code binary} (compressed
+     *         binary form of the XML format, smaller and faster to load). Statuses stored in any format can be read
+     *         whatever the configured format.
+     * @since 12.7
+     */
+    @Unstable
+    default String getJobStatusFormat()
+    {
+        return "xml";
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.job.internal;
+
+import java.util.Arrays;
+
+import org.xwiki.observation.event.Event;
+
+/**
+ * Keep track of the {@link DefaultJobProgress} instances bound to the current thread so that progress events can be
+ * sent directly to them without going through the observation manager.
+ * <p>
+ * Several progress can be bound to the same thread (for example when a job is executed synchronously by another job)
+ * in which case they all receive the events, in the order they were bound.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public final class ThreadJobProgress
+{
+    private static final DefaultJobProgress[] EMPTY = new DefaultJobProgress[0];
+
+    private static final ThreadLocal<DefaultJobProgress[]> PROGRESSES = ThreadLocal.withInitial(() -> EMPTY);
+
+    private ThreadJobProgress()
+    {
+    }
+
+    /**
+     * Bind the passed progress to the current thread.
+     *
+     * @param progress the progress to bind
+     */
+    public static void bind(DefaultJobProgress progress)
+    {
+        DefaultJobProgress[] current = PROGRESSES.get();
+
+        DefaultJobProgress[] progresses = Arrays.copyOf(current, current.length + 1);
+        progresses[current.length] = progress;
+
+        PROGRESSES.set(progresses);
+    }
+
+    /**
+     * Unbind the passed progress from the current thread.
+     *
+     * @param progress the progress to unbind
+     */
+    public static void unbind(DefaultJobProgress progress)
+    {
+        DefaultJobProgress[] current = PROGRESSES.get();
+
+        for (int i = current.length - 1; i >= 0; --i) {
+            if (current[i] == progress) {
+                if (current.length == 1) {
+                    PROGRESSES.remove();
+                } else {
+                    DefaultJobProgress[] progresses = new DefaultJobProgress[current.length - 1];
+                    System.arraycopy(current, 0, progresses, 0, i);
+                    System.arraycopy(current, i + 1, progresses, i, progresses.length - i);
+                    PROGRESSES.set(progresses);
+                }
+
+                break;
+            }
+        }
+    }
+
+    /**
+     * Send the passed progress event to all the progress bound to the current thread.
+     *
+     * @param event the progress event
+     * @param source the source of the event
+     * @param data the data associated to the event
+     */
+    public static void notify(Event event, Object source, Object data)
+    {
+        for (DefaultJobProgress progress : PROGRESSES.get()) {
+            progress.onEvent(event, source, data);
+        }
+    }
+}
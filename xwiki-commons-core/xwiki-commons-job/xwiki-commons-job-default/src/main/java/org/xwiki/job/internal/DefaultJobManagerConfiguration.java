@@ -106,4 +106,10 @@ public long getGroupedJobThreadKeepAliveTime()
     {
         return this.configuration.get().getProperty("job.groupedJobThreadKeepAliveTime", 60000L);
     }
+
+    @Override
+    public String getJobStatusFormat()
+    {
+        return this.configuration.get().getProperty("job.statusFormat", "xml");
+    }
 }
@@ -33,9 +33,13 @@
 import org.xwiki.job.event.status.StepProgressEvent;
 import org.xwiki.logging.Message;
 import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.Event;
 
 /**
  * Default implementation of {@link JobProgressManager}.
+ * <p>
+ * Progress events are sent directly to the progress of the jobs running in the current thread and are only sent
+ * through the {@link ObservationManager} when some listener is interested in them.
  *
  * @version $Id$
  * @since 6.1M1
@@ -50,20 +54,20 @@ public class DefaultJobProgressManager implements JobProgressManager
     @Override
     public void pushLevelProgress(Object source)
     {
-        this.observationManager.notify(new PushLevelProgressEvent(), source);
+        notify(new PushLevelProgressEvent(), source);
     }
 
     @Override
     public void pushLevelProgress(int steps, Object source)
     {
-        this.observationManager.notify(new PushLevelProgressEvent(steps), source);
+        notify(new PushLevelProgressEvent(steps), source);
     }
 
     @Override
     @Deprecated
     public void stepPropress(Object source)
     {
-        this.observationManager.notify(StepProgressEvent.INSTANCE, source);
+        notify(StepProgressEvent.INSTANCE, source);
     }
 
     @Override
@@ -81,7 +85,7 @@ public void startStep(Object source, String name)
     @Override
     public void startStep(Object source, Message message)
     {
-        this.observationManager.notify(StartStepProgressEvent.INSTANCE, source, message);
+        notify(StartStepProgressEvent.INSTANCE, source, message);
     }
 
     @Override
@@ -93,13 +97,13 @@ public void startStep(Object source, String translationKey, String message, Obje
     @Override
     public void endStep(Object source)
     {
-        this.observationManager.notify(EndStepProgressEvent.INSTANCE, source);
+        notify(EndStepProgressEvent.INSTANCE, source);
     }
 
     @Override
     public void popLevelProgress(Object source)
     {
-        this.observationManager.notify(PopLevelProgressEvent.INSTANCE, source);
+        notify(PopLevelProgressEvent.INSTANCE, source);
     }
 
     @Override
@@ -126,6 +130,28 @@ public <T> T call(Callable<T> task, int steps, Object source) throws Exception
         }
     }
 
+    private void notify(Event event, Object source)
+    {
+        // Update the progress of the jobs running in the current thread
+        ThreadJobProgress.notify(event, source, null);
+
+        // Send the event to other listeners, if any
+        if (this.observationManager.hasListener(event)) {
+            this.observationManager.notify(event, source);
+        }
+    }
+
+    private void notify(Event event, Object source, Object data)
+    {
+        // Update the progress of the jobs running in the current thread
+        ThreadJobProgress.notify(event, source, data);
+
+        // Send the event to other listeners, if any
+        if (this.observationManager.hasListener(event)) {
+            this.observationManager.notify(event, source, data);
+        }
+    }
+
     private Message toMessage(String name)
     {
         return name != null ? new Message(name) : null;
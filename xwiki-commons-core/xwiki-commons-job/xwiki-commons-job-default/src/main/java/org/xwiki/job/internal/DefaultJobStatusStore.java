@@ -23,9 +23,14 @@
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -47,6 +52,8 @@
 import org.xwiki.cache.CacheManager;
 import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.job.AbstractJobStatus;
@@ -66,7 +73,7 @@
  */
 @Component
 @Singleton
-public class DefaultJobStatusStore implements JobStatusStore, Initializable
+public class DefaultJobStatusStore implements JobStatusStore, Initializable, Disposable
 {
     /**
      * The current version of the store. Should be upgraded if any change is made.
@@ -78,6 +85,13 @@ public class DefaultJobStatusStore implements JobStatusStore, Initializable
      */
     private static final String FILENAME_STATUS = "status.xml";
 
+    /**
+     * The name of the file where the job status is stored in binary format.
+     */
+    private static final String FILENAME_STATUS_BINARY = "status.bin";
+
+    private static final String FORMAT_BINARY = "binary";
+
     /**
      * The name of the file where various information about the status store are stored (like the version of the store).
      */
@@ -131,26 +145,13 @@ public class DefaultJobStatusStore implements JobStatusStore, Initializable
 
     private ExecutorService executorService;
 
-    private Cache<JobStatus> cache;
-
-    class JobStatusSerializerRunnable implements Runnable
-    {
-        /**
-         * The status to store.
-         */
-        private final JobStatus status;
-
-        JobStatusSerializerRunnable(JobStatus status)
-        {
-            this.status = status;
-        }
+    /**
+     * The statuses waiting to be saved asynchronously, indexed by job id. Storing again a status before it's saved only
+     * replace the status to save.
+     */
+    private final Map<String, JobStatus> pendingStatuses = new LinkedHashMap<>();
 
-        @Override
-        public void run()
-        {
-            saveJobStatus(this.status);
-        }
-    }
+    private Cache<JobStatus> cache;
 
     @Override
     public void initialize() throws InitializationException
@@ -176,10 +177,14 @@ public void initialize() throws InitializationException
             this.logger.error("Failed to load jobs", e);
         }
 
+        // All the saves are done under the write lock anyway so a single thread is enough, the queue is unbounded to
+        // never drop a status
         BasicThreadFactory threadFactory = new BasicThreadFactory.Builder().namingPattern("Job status serializer")
             .daemon(true).priority(Thread.MIN_PRIORITY).build();
-        this.executorService =
-            new ThreadPoolExecutor(0, 10, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+        ThreadPoolExecutor threadPoolExecutor =
+            new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        this.executorService = threadPoolExecutor;
 
         // Initialize cache
         LRUCacheConfiguration cacheConfiguration =
@@ -245,7 +250,7 @@ private void repairFolder(File folder)
         for (File file : folder.listFiles()) {
             if (file.isDirectory()) {
                 repairFolder(file);
-            } else if (file.getName().equals(FILENAME_STATUS)) {
+            } else if (isStatusFile(file)) {
                 try {
                     JobStatus status = loadStatus(folder);
 
@@ -268,6 +273,11 @@ private void repairFolder(File folder)
         }
     }
 
+    private boolean isStatusFile(File file)
+    {
+        return file.getName().equals(FILENAME_STATUS) || file.getName().equals(FILENAME_STATUS_BINARY);
+    }
+
     private JobStatus loadStatus(List<String> id)
     {
         return loadStatus(getJobFolder(id));
@@ -281,7 +291,10 @@ private JobStatus loadStatus(File folder)
         this.readLock.lock();
 
         try {
-            File statusFile = new File(folder, FILENAME_STATUS);
+            File statusFile = new File(folder, FILENAME_STATUS_BINARY);
+            if (!statusFile.exists()) {
+                statusFile = new File(folder, FILENAME_STATUS);
+            }
             if (statusFile.exists()) {
                 JobStatus status = loadJobStatus(statusFile);
 
@@ -347,23 +360,63 @@ private File getJobLogBaseFile(List<String> id)
 
     /**
      * @param status the job status to save
-     * @throws IOException when falling to store the provided status
      */
     private void saveJobStatus(JobStatus status)
     {
+        this.writeLock.lock();
+
         try {
+            writeJobStatus(status);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Save all the statuses waiting to be saved.
+     */
+    private void savePendingJobStatuses()
+    {
+        List<String> ids;
+        synchronized (this.pendingStatuses) {
+            ids = new ArrayList<>(this.pendingStatuses.keySet());
+        }
+
+        if (!ids.isEmpty()) {
             this.writeLock.lock();
 
             try {
-                File statusFile = getJobFolder(status.getRequest().getId());
-                statusFile = new File(statusFile, FILENAME_STATUS);
-
-                this.logger.debug("Serializing status [{}] in [{}]", status.getRequest().getId(), statusFile);
+                for (String id : ids) {
+                    // The status is taken only once the write lock is acquired so that a status removed or stored
+                    // synchronously in the meantime is not written again
+                    JobStatus status;
+                    synchronized (this.pendingStatuses) {
+                        status = this.pendingStatuses.remove(id);
+                    }
 
-                this.serializer.write(status, statusFile);
+                    if (status != null) {
+                        writeJobStatus(status);
+                    }
+                }
             } finally {
                 this.writeLock.unlock();
             }
+        }
+    }
+
+    private void writeJobStatus(JobStatus status)
+    {
+        try {
+            File folder = getJobFolder(status.getRequest().getId());
+            boolean binary = FORMAT_BINARY.equals(this.configuration.getJobStatusFormat());
+            File statusFile = new File(folder, binary ? FILENAME_STATUS_BINARY : FILENAME_STATUS);
+
+            this.logger.debug("Serializing status [{}] in [{}]", status.getRequest().getId(), statusFile);
+
+            this.serializer.write(status, statusFile, binary);
+
+            // Make sure the status is not also stored in a different format
+            Files.deleteIfExists(new File(folder, binary ? FILENAME_STATUS : FILENAME_STATUS_BINARY).toPath());
         } catch (Exception e) {
             this.logger.warn("Failed to save job status [{}]", status, e);
         }
@@ -427,9 +480,24 @@ private void store(JobStatus status, boolean async)
 
             // Only store Serializable job status on file system
             if (JobUtils.isSerializable(status)) {
+                String id = toUniqueString(status.getRequest().getId());
+
                 if (async) {
-                    this.executorService.execute(new JobStatusSerializerRunnable(status));
+                    boolean scheduled;
+                    synchronized (this.pendingStatuses) {
+                        // A save is already planned if a previous status is waiting
+                        scheduled = this.pendingStatuses.put(id, status) != null;
+                    }
+
+                    if (!scheduled) {
+                        this.executorService.execute(this::savePendingJobStatuses);
+                    }
                 } else {
+                    // Make sure an older version of the status won't be saved later
+                    synchronized (this.pendingStatuses) {
+                        this.pendingStatuses.remove(id);
+                    }
+
                     saveJobStatus(status);
                 }
             }
@@ -439,6 +507,10 @@ private void store(JobStatus status, boolean async)
     @Override
     public void remove(List<String> id)
     {
+        synchronized (this.pendingStatuses) {
+            this.pendingStatuses.remove(toUniqueString(id));
+        }
+
         this.writeLock.lock();
 
         try {
@@ -477,6 +549,27 @@ private LoggerTail createLoggerTail(File logBaseFile, boolean readonly) throws I
         return this.loggerManager.createLoggerTail(logBaseFile.toPath(), readonly);
     }
 
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executorService.shutdown();
+
+        // Don't lose the statuses which did not had the chance to be saved yet
+        savePendingJobStatuses();
+    }
+
+    /**
+     * Wait until all the statuses stored asynchronously so far are saved.
+     * 
+     * @throws InterruptedException when interrupted while waiting
+     * @throws ExecutionException when failing to wait for the save
+     * @since 12.7
+     */
+    public void flush() throws InterruptedException, ExecutionException
+    {
+        this.executorService.submit(this::savePendingJobStatuses).get();
+    }
+
     /**
      * Remove all elements from the cache.
      */
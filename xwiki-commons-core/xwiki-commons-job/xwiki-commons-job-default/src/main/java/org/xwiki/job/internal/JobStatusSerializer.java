@@ -19,17 +19,22 @@
  */
 package org.xwiki.job.internal;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -39,6 +44,9 @@
 import org.xwiki.job.event.status.JobStatus;
 import org.xwiki.xstream.internal.SafeXStream;
 
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.binary.BinaryStreamDriver;
+
 /**
  * Serialize/unserialize tool for job statuses.
  *
@@ -54,6 +62,13 @@
      */
     private static final Charset DEFAULT_ENCODING = StandardCharsets.UTF_8;
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Used to serialize and unserialize status in binary format.
+     */
+    private final BinaryStreamDriver binaryDriver = new BinaryStreamDriver();
+
     /**
      * Used to serialize and unserialize status.
      */
@@ -66,11 +81,27 @@
      * @throws IOException when failing to serialize the status
      */
     public void write(JobStatus status, File file) throws IOException
+    {
+        write(status, file, false);
+    }
+
+    /**
+     * @param status the status to serialize
+     * @param file the file to serialize the status to
+     * @param binary true if the status should be serialized in the compressed binary format, false for XML
+     * @throws IOException when failing to serialize the status
+     * @since 12.7
+     */
+    public void write(JobStatus status, File file, boolean binary) throws IOException
     {
         File tempFile = File.createTempFile(file.getName(), ".tmp");
 
         try (FileOutputStream stream = FileUtils.openOutputStream(tempFile)) {
-            write(status, stream);
+            if (binary) {
+                writeBinary(status, stream);
+            } else {
+                write(status, stream);
+            }
         }
 
         // Copy the file to its final destination
@@ -107,20 +138,63 @@ public void write(JobStatus status, OutputStream stream) throws IOException
     }
 
     /**
-     * @param file the file to read
+     * Serialize the status in a compact binary form of the XML format, compressed with GZIP.
+     *
+     * @param status the status to serialize
+     * @param stream the stream to serialize the status to
+     * @throws IOException when failing to serialize the status
+     * @since 12.7
+     */
+    public void writeBinary(JobStatus status, OutputStream stream) throws IOException
+    {
+        GZIPOutputStream gzipStream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        HierarchicalStreamWriter writer = this.binaryDriver.createWriter(gzipStream);
+        this.xstream.marshal(status, writer);
+        writer.flush();
+        gzipStream.finish();
+    }
+
+    /**
+     * @param file the file to read, in XML or binary format
      * @return the status
      */
     public JobStatus read(File file)
     {
-        return (JobStatus) this.xstream.fromXML(file);
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            return read(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
-     * @param stream the stream to read
+     * @param stream the stream to read, in XML or binary format (if the stream support marks)
      * @return the status
      */
     public JobStatus read(InputStream stream)
     {
+        try {
+            if (isBinary(stream)) {
+                return (JobStatus) this.xstream
+                    .unmarshal(this.binaryDriver.createReader(new GZIPInputStream(stream, BUFFER_SIZE)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
         return (JobStatus) this.xstream.fromXML(stream);
     }
+
+    private boolean isBinary(InputStream stream) throws IOException
+    {
+        if (!stream.markSupported()) {
+            return false;
+        }
+
+        stream.mark(2);
+        int magic = stream.read() | (stream.read() << 8);
+        stream.reset();
+
+        return magic == GZIPInputStream.GZIP_MAGIC;
+    }
 }
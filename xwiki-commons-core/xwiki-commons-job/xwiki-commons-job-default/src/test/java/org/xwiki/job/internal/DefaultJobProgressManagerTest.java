@@ -19,6 +19,7 @@
  */
 package org.xwiki.job.internal;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.job.event.status.EndStepProgressEvent;
 import org.xwiki.job.event.status.PopLevelProgressEvent;
@@ -30,8 +31,12 @@
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Validate {@link DefaultJobProgressManager}.
@@ -47,6 +52,12 @@
     @MockComponent
     private ObservationManager observation;
 
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.observation.hasListener(any())).thenReturn(true);
+    }
+
     @Test
     void pushLevelProgress()
     {
@@ -95,4 +106,42 @@ void popLevelProgress()
 
         verify(this.observation).notify(PopLevelProgressEvent.INSTANCE, this);
     }
+
+    @Test
+    void withoutListener()
+    {
+        when(this.observation.hasListener(any())).thenReturn(false);
+
+        this.progress.pushLevelProgress(2, this);
+        this.progress.startStep(this);
+        this.progress.endStep(this);
+        this.progress.popLevelProgress(this);
+
+        verify(this.observation, never()).notify(any(), any());
+        verify(this.observation, never()).notify(any(), any(), any());
+    }
+
+    @Test
+    void boundProgress()
+    {
+        DefaultJobProgress jobProgress = new DefaultJobProgress();
+
+        ThreadJobProgress.bind(jobProgress);
+        try {
+            this.progress.pushLevelProgress(2, this);
+            this.progress.startStep(this, "step1");
+            this.progress.endStep(this);
+
+            assertEquals(0.5D, jobProgress.getOffset());
+            assertEquals(new Message("step1"), jobProgress.getRootStep().getChildren().get(0).getMessage());
+        } finally {
+            ThreadJobProgress.unbind(jobProgress);
+        }
+
+        // Not bound anymore
+        this.progress.startStep(this, "step2");
+        this.progress.endStep(this);
+
+        assertEquals(0.5D, jobProgress.getOffset());
+    }
 }
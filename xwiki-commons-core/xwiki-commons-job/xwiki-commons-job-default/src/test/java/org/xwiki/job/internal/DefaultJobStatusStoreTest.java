@@ -733,4 +733,76 @@ void createLoggerTailWithNullId()
     {
         assertNotNull(this.store.createLoggerTail(null, true));
     }
+
+    @Test
+    void storeAsync() throws Exception
+    {
+        List<String> id = Arrays.asList("newstatus");
+
+        DefaultRequest request = new DefaultRequest();
+        request.setId(id);
+        JobStatus jobStatus = new DefaultJobStatus("type", request, null, null, null);
+
+        for (int i = 0; i < 100; ++i) {
+            this.store.storeAsync(jobStatus);
+        }
+
+        assertSame(jobStatus, this.store.getJobStatus(id));
+
+        this.store.flush();
+
+        assertTrue(new File(this.storeDirectory, "newstatus/status.xml").exists());
+
+        this.store.flushCache();
+
+        assertEquals("type", this.store.getJobStatus(id).getJobType());
+    }
+
+    @Test
+    void removeAfterStoreAsync() throws Exception
+    {
+        List<String> id = Arrays.asList("newstatus");
+
+        DefaultRequest request = new DefaultRequest();
+        request.setId(id);
+        JobStatus jobStatus = new DefaultJobStatus("type", request, null, null, null);
+
+        this.store.storeAsync(jobStatus);
+        this.store.remove(id);
+
+        this.store.flush();
+
+        // The queued status must not be written after the removal
+        assertFalse(new File(this.storeDirectory, "newstatus").exists());
+        assertNull(this.store.getJobStatus(id));
+    }
+
+    @Test
+    void serializeUnserializeWithBinaryFormat() throws Exception
+    {
+        when(this.jobManagerConfiguration.getJobStatusFormat()).thenReturn("binary");
+
+        JobStatus status = createStatus(false);
+
+        status.getLog().error("error message", "arg1", new SerializableCustomObject("value"));
+
+        status = storeGet(status);
+
+        assertTrue(new File(this.storeDirectory, "test/status.bin").exists());
+        assertFalse(new File(this.storeDirectory, "test/status.xml").exists());
+
+        assertEquals("type", status.getJobType());
+        assertEquals("error message", status.getLog().peek().getMessage());
+        assertEquals("arg1", status.getLog().peek().getArgumentArray()[0]);
+        assertEquals(new SerializableCustomObject("value"), status.getLog().peek().getArgumentArray()[1]);
+
+        // Switching back to XML replaces the binary file
+        when(this.jobManagerConfiguration.getJobStatusFormat()).thenReturn("xml");
+
+        status = storeGet(status);
+
+        assertFalse(new File(this.storeDirectory, "test/status.bin").exists());
+        assertTrue(new File(this.storeDirectory, "test/status.xml").exists());
+        assertEquals("error message", status.getLog().peek().getMessage());
+    }
 }
@@ -67,6 +67,20 @@ void serializeUnserialize() throws IOException
         assertEquals("type", status.getJobType());
     }
 
+    @Test
+    void serializeUnserializeBinary() throws IOException
+    {
+        JobStatus status = new DefaultJobStatus<Request>("type", new DefaultRequest(), null, null, null);
+
+        File binaryFile = new File("target/test/status.bin");
+        this.serializer.write(status, binaryFile, true);
+
+        status = this.serializer.read(binaryFile);
+
+        assertEquals("type", status.getJobType());
+        assertNotNull(status.getProgress());
+    }
+
     @Test
     void serializeUnserializeProgress() throws IOException
     {
@@ -0,0 +1,371 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.Logger;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.logging.internal.ListLogTailResult;
+import org.xwiki.logging.tail.LogTailResult;
+import org.xwiki.xstream.internal.SafeXStream;
+
+/**
+ * Read and write the log in a compact binary format.
+ * <p>
+ * Log events are appended to a buffered log file and the position and level of each event is stored in a fixed width
+ * binary index (see {@link BinaryLogIndex}). There is no background flush: the buffer is written to the disk when an
+ * event is logged more than one second after the previous flush, when the log is read and when it's closed.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Component(roles = BinaryFileLoggerTail.class)
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+public class BinaryFileLoggerTail extends AbstractLoggerTail implements Disposable
+{
+    protected static final String FILE_EXTENSION = ".bin";
+
+    protected static final String INDEX_FILE_EXTENSION = ".bindex";
+
+    /**
+     * The minimum time between two writes of the buffered log events to the disk while logging.
+     */
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private static final String FAILED_READ_LOG = "Failed to retrieve log for [{}]";
+
+    @Inject
+    protected org.slf4j.Logger componentLogger;
+
+    protected File logFile;
+
+    protected File indexFile;
+
+    protected BinaryLogIndex index = new BinaryLogIndex();
+
+    @Inject
+    private SafeXStream xstream;
+
+    private BinaryLogEventCodec codec;
+
+    private BinaryLogWriter writer;
+
+    private long logLength;
+
+    private long lastFlush;
+
+    private boolean dirty;
+
+    protected class BinaryFileLoggerTailIterator implements Iterator<LogEvent>
+    {
+        private int current;
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.current < size();
+        }
+
+        @Override
+        public LogEvent next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return getLogEvent(this.current++);
+        }
+    }
+
+    /**
+     * @param path the base path of the log
+     * @return true of a log has been stored at this location
+     */
+    public static boolean exist(Path path)
+    {
+        return AbstractFileLoggerTail.exist(path, FILE_EXTENSION);
+    }
+
+    /**
+     * @param path the base path of the log
+     * @param readonly true of the log is readonly
+     * @throws IOException when failing to create the log files
+     */
+    public void initialize(Path path, boolean readonly) throws IOException
+    {
+        synchronized (this) {
+            this.codec = new BinaryLogEventCodec(this.xstream);
+
+            this.logFile = AbstractFileLoggerTail.getLogFile(path, FILE_EXTENSION);
+            this.logFile.getParentFile().mkdirs();
+            String name = this.logFile.getName();
+            this.indexFile = new File(this.logFile.getParentFile(),
+                name.substring(0, name.length() - FILE_EXTENSION.length()) + INDEX_FILE_EXTENSION);
+
+            if (!readonly) {
+                this.writer = new BinaryLogWriter(this.logFile, this.indexFile, this.codec);
+                this.index = new BinaryLogIndex();
+                this.logLength = 0;
+                this.lastFlush = System.currentTimeMillis();
+            } else {
+                loadIndex();
+            }
+        }
+    }
+
+    private boolean isReadOnly()
+    {
+        return this.writer == null;
+    }
+
+    private void loadIndex()
+    {
+        closeIndex();
+
+        this.logLength = this.logFile.length();
+
+        try {
+            this.index = BinaryLogIndex.load(this.indexFile, this.logLength);
+        } catch (Exception e) {
+            this.componentLogger.warn("Failed to read log index file [{}]: {}", this.indexFile,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            this.index = new BinaryLogIndex();
+        }
+    }
+
+    private void checkChanged()
+    {
+        // Reload the index if it was released or if something else modified the log file
+        if (isReadOnly() && this.logFile != null && (this.index == null || this.logFile.length() != this.logLength)) {
+            loadIndex();
+        }
+    }
+
+    private void closeIndex()
+    {
+        if (this.index != null) {
+            this.index.close();
+            this.index = null;
+        }
+    }
+
+    @Override
+    public void log(LogEvent logEvent)
+    {
+        // We can't store this log since it has a good chance of creating a infinite loop
+        // We don't use #equals for performance reason, it works because it's the exact same String instance
+        if (this.writer != null && AbstractFileLoggerTail.FAILED_STORE_LOG != logEvent.getMessage()) {
+            synchronized (this) {
+                try {
+                    // The index needs a level, events without one are indexed as the least important ones
+                    LogLevel level = logEvent.getLevel() != null ? logEvent.getLevel() : LogLevel.TRACE;
+
+                    long position = this.writer.write(logEvent, level);
+
+                    this.index.add(position, level);
+                    this.logLength = this.writer.getLength();
+                    this.dirty = true;
+
+                    // Make sure what's logged end up on the disk regularly (buffered events are also written when
+                    // reading the log and when closing it)
+                    if (System.currentTimeMillis() - this.lastFlush > FLUSH_INTERVAL) {
+                        flush();
+                    }
+                } catch (Exception e) {
+                    this.componentLogger.error(Logger.ROOT_MARKER, AbstractFileLoggerTail.FAILED_STORE_LOG, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public LogEvent getLogEvent(int index)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            if (index < 0 || index >= this.index.size()) {
+                return null;
+            }
+
+            List<LogEvent> events = readLogEvents(new int[] {index});
+
+            return events.isEmpty() ? null : events.get(0);
+        }
+    }
+
+    @Override
+    public LogEvent getFirstLogEvent(LogLevel from)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            int first = this.index.getFirst(from);
+
+            return first >= 0 ? getLogEvent(first) : null;
+        }
+    }
+
+    @Override
+    public LogEvent getLastLogEvent(LogLevel from)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            int last = this.index.getLast(from);
+
+            return last >= 0 ? getLogEvent(last) : null;
+        }
+    }
+
+    @Override
+    public LogTailResult getLogEvents(LogLevel from, int offset, int limit)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            return new ListLogTailResult(readLogEvents(this.index.find(from, Math.max(offset, 0), limit)));
+        }
+    }
+
+    private List<LogEvent> readLogEvents(int[] indexes)
+    {
+        List<LogEvent> events = new ArrayList<>(indexes.length);
+
+        if (indexes.length > 0) {
+            try {
+                if (this.writer != null) {
+                    // Make sure everything logged so far can be read
+                    flush();
+
+                    readLogEvents(indexes, this.writer.getChannel(), events);
+                } else {
+                    try (FileChannel channel = FileChannel.open(this.logFile.toPath(), StandardOpenOption.READ)) {
+                        readLogEvents(indexes, channel, events);
+                    }
+                }
+            } catch (Exception e) {
+                this.componentLogger.error(FAILED_READ_LOG, this.logFile, e);
+            }
+        }
+
+        return events;
+    }
+
+    private void readLogEvents(int[] indexes, FileChannel channel, List<LogEvent> events) throws IOException
+    {
+        for (int i : indexes) {
+            long end = i + 1 < this.index.size() ? this.index.getPosition(i + 1) : this.logLength;
+
+            events.add(this.codec.read(channel, this.index.getPosition(i), end));
+        }
+    }
+
+    @Override
+    public boolean hasLogLevel(LogLevel from)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            return this.index.getFirst(from) >= 0;
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        synchronized (this) {
+            checkChanged();
+
+            return this.index.size();
+        }
+    }
+
+    @Override
+    public Iterator<LogEvent> iterator()
+    {
+        return new BinaryFileLoggerTailIterator();
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        synchronized (this) {
+            if (this.dirty) {
+                this.writer.flush();
+
+                this.dirty = false;
+            }
+
+            this.lastFlush = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this) {
+            if (this.writer != null) {
+                flush();
+
+                this.writer.close();
+                this.writer = null;
+            } else if (this.logFile != null) {
+                // Release the memory mapped index file, it's loaded again if the log is read after being closed
+                closeIndex();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        try {
+            close();
+        } catch (Exception e) {
+            throw new ComponentLifecycleException("Failed to close the logger", e);
+        }
+
+        synchronized (this) {
+            closeIndex();
+
+            this.index = new BinaryLogIndex();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.event.BeginLogEvent;
+import org.xwiki.logging.event.EndLogEvent;
+import org.xwiki.logging.event.LogEvent;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Compact binary encoding of {@link LogEvent}s.
+ * <p>
+ * The level, date, message and the most common arguments (strings, numbers, booleans) are written directly. Everything
+ * else (custom markers, other arguments, throwables, unknown event types) is embedded as XStream XML so that nothing is
+ * lost.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryLogEventCodec
+{
+    private static final byte EVENT_LOG = 0;
+
+    private static final byte EVENT_BEGIN = 1;
+
+    private static final byte EVENT_END = 2;
+
+    private static final byte EVENT_XSTREAM = 3;
+
+    private static final byte VALUE_NULL = 0;
+
+    private static final byte VALUE_STRING = 1;
+
+    private static final byte VALUE_INTEGER = 2;
+
+    private static final byte VALUE_LONG = 3;
+
+    private static final byte VALUE_BOOLEAN = 4;
+
+    private static final byte VALUE_DOUBLE = 5;
+
+    private static final byte VALUE_MARKER = 6;
+
+    private static final byte VALUE_XSTREAM = 7;
+
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private final XStream xstream;
+
+    /**
+     * @param xstream the XStream instance used to serialize values which don't have a binary representation
+     */
+    public BinaryLogEventCodec(XStream xstream)
+    {
+        this.xstream = xstream;
+    }
+
+    /**
+     * @param logEvent the event to write
+     * @param output where to write the event
+     * @throws IOException when failing to write the event
+     */
+    public void write(LogEvent logEvent, DataOutput output) throws IOException
+    {
+        byte type = getType(logEvent);
+
+        output.writeByte(type);
+
+        if (type == EVENT_XSTREAM) {
+            writeString(this.xstream.toXML(logEvent), output);
+        } else {
+            output.writeByte(logEvent.getLevel().ordinal());
+            output.writeLong(logEvent.getTimeStamp());
+            writeMarker(logEvent.getMarker(), output);
+            writeString(logEvent.getMessage(), output);
+            writeArguments(logEvent.getArgumentArray(), output);
+            writeValue(logEvent.getThrowable(), output);
+        }
+    }
+
+    /**
+     * @param input where to read the event
+     * @return the read event
+     * @throws IOException when failing to read the event
+     */
+    public LogEvent read(DataInput input) throws IOException
+    {
+        byte type = input.readByte();
+
+        if (type == EVENT_XSTREAM) {
+            return (LogEvent) this.xstream.fromXML(readString(input));
+        }
+
+        LogLevel level = LEVELS[input.readByte()];
+        long timeStamp = input.readLong();
+        Marker marker = (Marker) readValue(input);
+        String message = readString(input);
+        Object[] arguments = readArguments(input);
+        Throwable throwable = (Throwable) readValue(input);
+
+        switch (type) {
+            case EVENT_BEGIN:
+                return new BeginLogEvent(marker, level, message, arguments, throwable, timeStamp);
+            case EVENT_END:
+                return new EndLogEvent(marker, level, message, arguments, throwable, timeStamp);
+            default:
+                return new LogEvent(marker, level, message, arguments, throwable, timeStamp);
+        }
+    }
+
+    /**
+     * @param channel the channel to read the event from
+     * @param position the position of the event
+     * @param end the position of the end of the event
+     * @return the read event
+     * @throws IOException when failing to read the event
+     */
+    public LogEvent read(FileChannel channel, long position, long end) throws IOException
+    {
+        // Read the whole event with positional reads (which don't modify the channel position)
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - position));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of log at position [" + (position + buffer.position()) + "]");
+            }
+        }
+
+        return read(new DataInputStream(new ByteArrayInputStream(buffer.array())));
+    }
+
+    private byte getType(LogEvent logEvent)
+    {
+        Class<?> eventClass = logEvent.getClass();
+
+        if (logEvent.getLevel() == null) {
+            return EVENT_XSTREAM;
+        } else if (eventClass == LogEvent.class) {
+            return EVENT_LOG;
+        } else if (eventClass == BeginLogEvent.class) {
+            return EVENT_BEGIN;
+        } else if (eventClass == EndLogEvent.class) {
+            return EVENT_END;
+        }
+
+        return EVENT_XSTREAM;
+    }
+
+    private void writeMarker(Marker marker, DataOutput output) throws IOException
+    {
+        // Simple named markers (like LogEvent#MARKER_BEGIN) are written by name
+        if (marker != null && !marker.hasReferences() && MarkerFactory.getMarker(marker.getName()) == marker) {
+            output.writeByte(VALUE_MARKER);
+            writeString(marker.getName(), output);
+        } else {
+            writeValue(marker, output);
+        }
+    }
+
+    private void writeArguments(Object[] arguments, DataOutput output) throws IOException
+    {
+        if (arguments == null) {
+            output.writeInt(-1);
+        } else {
+            output.writeInt(arguments.length);
+            for (Object argument : arguments) {
+                writeValue(argument, output);
+            }
+        }
+    }
+
+    private Object[] readArguments(DataInput input) throws IOException
+    {
+        int size = input.readInt();
+
+        if (size < 0) {
+            return null;
+        }
+
+        Object[] arguments = new Object[size];
+        for (int i = 0; i < size; ++i) {
+            arguments[i] = readValue(input);
+        }
+
+        return arguments;
+    }
+
+    private void writeValue(Object value, DataOutput output) throws IOException
+    {
+        if (value == null) {
+            output.writeByte(VALUE_NULL);
+        } else if (value instanceof String) {
+            output.writeByte(VALUE_STRING);
+            writeString((String) value, output);
+        } else if (value instanceof Integer) {
+            output.writeByte(VALUE_INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(VALUE_LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(VALUE_BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            output.writeByte(VALUE_DOUBLE);
+            output.writeDouble((Double) value);
+        } else {
+            output.writeByte(VALUE_XSTREAM);
+            writeString(this.xstream.toXML(value), output);
+        }
+    }
+
+    private Object readValue(DataInput input) throws IOException
+    {
+        byte type = input.readByte();
+
+        Object value;
+        switch (type) {
+            case VALUE_NULL:
+                value = null;
+                break;
+            case VALUE_STRING:
+                value = readString(input);
+                break;
+            case VALUE_INTEGER:
+                value = input.readInt();
+                break;
+            case VALUE_LONG:
+                value = input.readLong();
+                break;
+            case VALUE_BOOLEAN:
+                value = input.readBoolean();
+                break;
+            case VALUE_DOUBLE:
+                value = input.readDouble();
+                break;
+            case VALUE_MARKER:
+                value = MarkerFactory.getMarker(readString(input));
+                break;
+            case VALUE_XSTREAM:
+                value = this.xstream.fromXML(readString(input));
+                break;
+            default:
+                throw new IOException("Unknown value type [" + type + "]");
+        }
+
+        return value;
+    }
+
+    private void writeString(String value, DataOutput output) throws IOException
+    {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            // DataOutput#writeUTF is limited to 64K
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private String readString(DataInput input) throws IOException
+    {
+        int length = input.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.xwiki.logging.LogLevel;
+
+/**
+ * The index of a binary log: the position of each log event in the log file and its level.
+ * <p>
+ * The index is stored in a file made of a small header followed by fixed width records (the position on 8 bytes and
+ * the level on 1 byte) which is memory mapped when loading an existing log. For each level the index also keeps the
+ * sorted list of the events with this level so that looking for the events of a given level does not require going
+ * through all the events.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryLogIndex
+{
+    /**
+     * "XWLI".
+     */
+    private static final int MAGIC = 0x58574C49;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final int RECORD_SIZE = 9;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private ByteBuffer records;
+
+    private long[] positions;
+
+    private int size;
+
+    private final int[][] levelIndexes = new int[LEVELS.length][];
+
+    private final int[] levelSizes = new int[LEVELS.length];
+
+    /**
+     * Create an empty index.
+     */
+    public BinaryLogIndex()
+    {
+        this.positions = new long[DEFAULT_CAPACITY];
+
+        for (int i = 0; i < LEVELS.length; ++i) {
+            this.levelIndexes[i] = new int[DEFAULT_CAPACITY];
+        }
+    }
+
+    private BinaryLogIndex(ByteBuffer records, int size)
+    {
+        this.records = records;
+        this.size = size;
+
+        for (int i = 0; i < LEVELS.length; ++i) {
+            this.levelIndexes[i] = new int[DEFAULT_CAPACITY];
+        }
+
+        for (int i = 0; i < size; ++i) {
+            addLevel(i, this.records.get(HEADER_SIZE + i * RECORD_SIZE + Long.BYTES));
+        }
+    }
+
+    /**
+     * Load an index file.
+     *
+     * @param indexFile the file containing the index
+     * @param logLength the size of the log file, entries located after it are ignored
+     * @return the index
+     * @throws IOException when failing to read the index file
+     */
+    public static BinaryLogIndex load(File indexFile, long logLength) throws IOException
+    {
+        if (!indexFile.exists()) {
+            return new BinaryLogIndex();
+        }
+
+        ByteBuffer records;
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (records.limit() < HEADER_SIZE || records.getInt(0) != MAGIC) {
+            throw new IOException("Invalid log index file [" + indexFile + "]");
+        }
+
+        // Ignore incomplete records and entries pointing outside of the log file (when the log is being written by
+        // someone else)
+        int size = (records.limit() - HEADER_SIZE) / RECORD_SIZE;
+        while (size > 0 && records.getLong(HEADER_SIZE + (size - 1) * RECORD_SIZE) >= logLength) {
+            --size;
+        }
+
+        return new BinaryLogIndex(records, size);
+    }
+
+    /**
+     * Release the memory mapped index file (if any) and empty the index.
+     * <p>
+     * There is no public API to explicitly unmap a file in Java 8: the mapping is released when the buffer is garbage
+     * collected, so the index must not keep a reference to it once it's not used anymore. Forcing the unmap would
+     * also be unsafe since another thread might still be reading the buffer.
+     */
+    public void close()
+    {
+        this.records = null;
+        this.positions = new long[DEFAULT_CAPACITY];
+        this.size = 0;
+
+        Arrays.fill(this.levelSizes, 0);
+    }
+
+    /**
+     * @param output where to write the header of the index file
+     * @throws IOException when failing to write the header
+     */
+    public static void writeHeader(DataOutput output) throws IOException
+    {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    /**
+     * @param position the position of the log event in the log file
+     * @param level the level of the log event
+     * @param output where to write the index record
+     * @throws IOException when failing to write the record
+     */
+    public static void writeRecord(long position, LogLevel level, DataOutput output) throws IOException
+    {
+        output.writeLong(position);
+        output.writeByte(level.ordinal());
+    }
+
+    /**
+     * @param position the position of the log event in the log file
+     * @param level the level of the log event
+     */
+    public void add(long position, LogLevel level)
+    {
+        if (this.size == this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, this.size * 2);
+        }
+        this.positions[this.size] = position;
+
+        addLevel(this.size++, level.ordinal());
+    }
+
+    private void addLevel(int index, int level)
+    {
+        int[] indexes = this.levelIndexes[level];
+        int levelSize = this.levelSizes[level];
+
+        if (levelSize == indexes.length) {
+            indexes = Arrays.copyOf(indexes, levelSize * 2);
+            this.levelIndexes[level] = indexes;
+        }
+        indexes[levelSize] = index;
+
+        this.levelSizes[level] = levelSize + 1;
+    }
+
+    /**
+     * @return the number of log events
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @param index the index of the log event
+     * @return the position of the log event in the log file
+     */
+    public long getPosition(int index)
+    {
+        return this.records != null ? this.records.getLong(HEADER_SIZE + index * RECORD_SIZE) : this.positions[index];
+    }
+
+    /**
+     * @param from the log level from which to select log events
+     * @return the index of the first log event with passed level or more, -1 if none could be found
+     */
+    public int getFirst(LogLevel from)
+    {
+        int first = -1;
+
+        for (int level = 0; level < getLevelCount(from); ++level) {
+            if (this.levelSizes[level] > 0 && (first == -1 || this.levelIndexes[level][0] < first)) {
+                first = this.levelIndexes[level][0];
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * @param from the log level from which to select log events
+     * @return the index of the last log event with passed level or more, -1 if none could be found
+     */
+    public int getLast(LogLevel from)
+    {
+        int last = -1;
+
+        for (int level = 0; level < getLevelCount(from); ++level) {
+            if (this.levelSizes[level] > 0) {
+                last = Math.max(last, this.levelIndexes[level][this.levelSizes[level] - 1]);
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * @param from the log level from which to select log events
+     * @param offset the index where to start searching for the log events
+     * @param limit the maximum number of results to return, all if 0 or less
+     * @return the indexes of the log events with passed level or more
+     */
+    public int[] find(LogLevel from, int offset, int limit)
+    {
+        int levelCount = getLevelCount(from);
+
+        // Jump to the first event located after the offset for each level
+        int[] cursors = new int[levelCount];
+        int available = 0;
+        for (int level = 0; level < levelCount; ++level) {
+            cursors[level] = lowerBound(level, offset);
+            available += this.levelSizes[level] - cursors[level];
+        }
+
+        int[] result = new int[limit > 0 ? Math.min(limit, available) : available];
+
+        // Merge the levels
+        for (int i = 0; i < result.length; ++i) {
+            int nextLevel = -1;
+            for (int level = 0; level < levelCount; ++level) {
+                if (cursors[level] < this.levelSizes[level] && (nextLevel == -1
+                    || this.levelIndexes[level][cursors[level]] < this.levelIndexes[nextLevel][cursors[nextLevel]])) {
+                    nextLevel = level;
+                }
+            }
+
+            result[i] = this.levelIndexes[nextLevel][cursors[nextLevel]++];
+        }
+
+        return result;
+    }
+
+    private int getLevelCount(LogLevel from)
+    {
+        return from != null ? from.ordinal() + 1 : LEVELS.length;
+    }
+
+    private int lowerBound(int level, int index)
+    {
+        int position = Arrays.binarySearch(this.levelIndexes[level], 0, this.levelSizes[level], index);
+
+        return position >= 0 ? position : -position - 1;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.event.LogEvent;
+
+/**
+ * Append log events and their index records to buffered binary files.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class BinaryLogWriter implements Closeable
+{
+    private static final int BUFFER_SIZE = 8192;
+
+    private final BinaryLogEventCodec codec;
+
+    private final RandomAccessFile logStore;
+
+    private final CountingOutputStream logCounter;
+
+    private final DataOutputStream logOutput;
+
+    private final DataOutputStream indexOutput;
+
+    /**
+     * @param logFile the file where to write the log events (overwritten if it already exist)
+     * @param indexFile the file where to write the index (overwritten if it already exist)
+     * @param codec the codec used to write the log events
+     * @throws IOException when failing to create the files
+     */
+    public BinaryLogWriter(File logFile, File indexFile, BinaryLogEventCodec codec) throws IOException
+    {
+        this.codec = codec;
+
+        // Overwrite the current one if it exist
+        Files.deleteIfExists(logFile.toPath());
+
+        this.logStore = new RandomAccessFile(logFile, "rw");
+        this.logCounter = new CountingOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(this.logStore.getChannel()), BUFFER_SIZE));
+        this.logOutput = new DataOutputStream(this.logCounter);
+
+        this.indexOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), BUFFER_SIZE));
+        BinaryLogIndex.writeHeader(this.indexOutput);
+    }
+
+    /**
+     * @param logEvent the log event to write
+     * @param level the level under which to index the log event
+     * @return the position of the log event in the log file
+     * @throws IOException when failing to write the log event
+     */
+    public long write(LogEvent logEvent, LogLevel level) throws IOException
+    {
+        long position = this.logCounter.getByteCount();
+
+        this.codec.write(logEvent, this.logOutput);
+
+        BinaryLogIndex.writeRecord(position, level, this.indexOutput);
+
+        return position;
+    }
+
+    /**
+     * @return the size of the log, including what's still in the buffer
+     */
+    public long getLength()
+    {
+        return this.logCounter.getByteCount();
+    }
+
+    /**
+     * @return the channel to use to read the log file
+     */
+    public FileChannel getChannel()
+    {
+        return this.logStore.getChannel();
+    }
+
+    /**
+     * Write the buffered content to the files.
+     *
+     * @throws IOException when failing to write the files
+     */
+    public void flush() throws IOException
+    {
+        this.logOutput.flush();
+        this.indexOutput.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try {
+            this.indexOutput.close();
+            this.logOutput.close();
+        } finally {
+            this.logStore.close();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.event.BeginLogEvent;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.logging.marker.TranslationMarker;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.xstream.internal.SafeXStream;
+import org.xwiki.xstream.internal.XStreamUtils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link BinaryFileLoggerTail}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+// @formatter:off
+@ComponentList({
+    SafeXStream.class,
+    XStreamUtils.class
+})
+// @formatter:off
+class BinaryFileLoggerTailTest
+{
+    @InjectMockComponents
+    private BinaryFileLoggerTail tail;
+
+    @XWikiTempDir
+    private File tmpDir;
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.tail.close();
+    }
+
+    private List<String> getMessages(LogLevel from, int offset, int limit)
+    {
+        return this.tail.getLogEvents(from, offset, limit).stream().map(LogEvent::getMessage)
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void writeread() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        this.tail.error("error0");
+        this.tail.error("error1");
+
+        assertEquals("error0", this.tail.getLogEvent(0).getMessage());
+        assertEquals("error1", this.tail.getLogEvent(1).getMessage());
+        assertNull(this.tail.getLogEvent(2));
+    }
+
+    @Test
+    void logWithoutLevel() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        this.tail.log(new LogEvent(null, null, "nolevel", null, null));
+        this.tail.error("error0");
+
+        assertEquals(2, this.tail.size());
+        assertEquals("nolevel", this.tail.getLogEvent(0).getMessage());
+        assertNull(this.tail.getLogEvent(0).getLevel());
+        assertEquals("error0", this.tail.getLogEvent(1).getMessage());
+        assertEquals(asList("error0"), getMessages(LogLevel.ERROR, 0, -1));
+        assertEquals(asList("nolevel", "error0"), getMessages(LogLevel.TRACE, 0, -1));
+    }
+
+    @Test
+    void readonly() throws IOException, ComponentLifecycleException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        this.tail.error("error0");
+        this.tail.warn("warn0");
+
+        this.tail.dispose();
+
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), true);
+
+        assertEquals(2, this.tail.size());
+        assertEquals("error0", this.tail.getLogEvent(0).getMessage());
+        assertEquals("warn0", this.tail.getLogEvent(1).getMessage());
+        assertEquals(LogLevel.WARN, this.tail.getLogEvent(1).getLevel());
+        assertEquals(asList("warn0"), getMessages(LogLevel.WARN, 1, -1));
+
+        this.tail.error("error1");
+
+        assertNull(this.tail.getLogEvent(2));
+    }
+
+    @Test
+    void readonlyAfterClose() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        this.tail.error("error0");
+
+        this.tail.close();
+
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), true);
+
+        assertEquals("error0", this.tail.getLogEvent(0).getMessage());
+
+        // The memory mapped index is released when closing the log
+        this.tail.close();
+
+        assertNull(this.tail.index);
+
+        // And loaded again when the log is read
+        assertEquals(1, this.tail.size());
+        assertEquals("error0", this.tail.getLogEvent(0).getMessage());
+    }
+
+    @Test
+    void values() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        Exception exception = new Exception("exception");
+        TranslationMarker marker = new TranslationMarker("translation.key");
+        Object[] arguments = new Object[] {"string", 42, 42L, true, 4.2D, null, LogLevel.INFO};
+
+        this.tail.log(new LogEvent(marker, LogLevel.ERROR, "message", arguments, exception, 42));
+        this.tail.log(new BeginLogEvent(LogEvent.MARKER_BEGIN, LogLevel.INFO, "begin", null, null, 43));
+
+        this.tail.close();
+
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), true);
+
+        LogEvent logEvent = this.tail.getLogEvent(0);
+        assertEquals(LogLevel.ERROR, logEvent.getLevel());
+        assertEquals("message", logEvent.getMessage());
+        assertEquals(42, logEvent.getTimeStamp());
+        assertEquals("translation.key", logEvent.getTranslationKey());
+        assertArrayEquals(arguments, logEvent.getArgumentArray());
+        assertEquals("exception", logEvent.getThrowable().getMessage());
+
+        logEvent = this.tail.getLogEvent(1);
+        assertTrue(logEvent instanceof BeginLogEvent);
+        assertEquals(43, logEvent.getTimeStamp());
+        assertEquals(LogEvent.MARKER_BEGIN, logEvent.getMarker());
+        assertNull(logEvent.getArgumentArray());
+    }
+
+    @Test
+    void getFirstLogEvent() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        assertNull(this.tail.getFirstLogEvent());
+        assertNull(this.tail.getFirstLogEvent(LogLevel.ERROR));
+
+        this.tail.info("info0");
+        this.tail.warn("warn0");
+        this.tail.error("error0");
+        this.tail.error("error1");
+
+        assertEquals("info0", this.tail.getFirstLogEvent().getMessage());
+        assertEquals("info0", this.tail.getFirstLogEvent(LogLevel.TRACE).getMessage());
+        assertEquals("warn0", this.tail.getFirstLogEvent(LogLevel.WARN).getMessage());
+        assertEquals("error0", this.tail.getFirstLogEvent(LogLevel.ERROR).getMessage());
+    }
+
+    @Test
+    void getLastLogEvent() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        assertNull(this.tail.getLastLogEvent());
+        assertNull(this.tail.getLastLogEvent(LogLevel.ERROR));
+
+        this.tail.error("error0");
+        this.tail.error("error1");
+        this.tail.warn("warn0");
+        this.tail.info("info0");
+
+        assertEquals("info0", this.tail.getLastLogEvent().getMessage());
+        assertEquals("info0", this.tail.getLastLogEvent(LogLevel.TRACE).getMessage());
+        assertEquals("warn0", this.tail.getLastLogEvent(LogLevel.WARN).getMessage());
+        assertEquals("error1", this.tail.getLastLogEvent(LogLevel.ERROR).getMessage());
+    }
+
+    @Test
+    void getLogEvents() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        assertEquals(0, this.tail.getLogEvents(null).stream().count());
+        assertFalse(this.tail.hasLogLevel(LogLevel.ERROR));
+
+        this.tail.info("info0");
+        this.tail.warn("warn0");
+        this.tail.error("error0");
+        this.tail.info("info1");
+        this.tail.warn("warn1");
+        this.tail.error("error1");
+        this.tail.info("info2");
+        this.tail.warn("warn2");
+        this.tail.error("error2");
+
+        assertTrue(this.tail.hasLogLevel(LogLevel.ERROR));
+
+        assertEquals(9, this.tail.getLogEvents(null).stream().count());
+        assertEquals(9, this.tail.getLogEvents(LogLevel.DEBUG).stream().count());
+        assertEquals(6, this.tail.getLogEvents(LogLevel.WARN).stream().count());
+        assertEquals(3, this.tail.getLogEvents(LogLevel.ERROR).stream().count());
+
+        assertEquals(6, this.tail.getLogEvents(3, -1).stream().count());
+        assertEquals(asList("info1", "warn1", "error1"), getMessages(null, 3, 3));
+        assertEquals(asList("info0", "warn0", "error0", "info1"), getMessages(null, -1, 4));
+        assertEquals(asList("error1", "warn2"), getMessages(LogLevel.WARN, 5, 2));
+        assertEquals(asList("error1", "error2"), getMessages(LogLevel.ERROR, 3, -1));
+        assertEquals(asList(), getMessages(LogLevel.ERROR, 9, -1));
+    }
+
+    @Test
+    void getDeleteLog() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        this.tail.info("info");
+
+        this.tail.close();
+
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), true);
+
+        assertEquals("info", this.tail.getLogEvent(0).getMessage());
+
+        this.tail.logFile.delete();
+
+        assertNull(this.tail.getLogEvent(0));
+        assertEquals(0, this.tail.size());
+    }
+
+    @Test
+    void iterator() throws IOException
+    {
+        this.tail.initialize(new File(this.tmpDir, "log").toPath(), false);
+
+        this.tail.info("info0");
+        this.tail.info("info1");
+
+        int i = 0;
+        for (LogEvent logEvent : this.tail) {
+            assertEquals("info" + i++, logEvent.getMessage());
+        }
+        assertEquals(2, i);
+    }
+}
@@ -22,11 +22,10 @@
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
@@ -40,8 +39,6 @@
 import org.xwiki.logging.internal.tail.XStreamFileLoggerTail;
 import org.xwiki.logging.tail.LoggerTail;
 import org.xwiki.observation.EventListener;
-import org.xwiki.observation.ObservationManager;
-import org.xwiki.observation.WrappedThreadEventListener;
 
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
@@ -58,10 +55,17 @@
 public class DefaultLoggerManager implements LoggerManager, Initializable
 {
     /**
-     * Used to register/unregister {@link org.xwiki.logging.event.LogEvent} listeners.
+     * The stacks of {@link org.xwiki.logging.event.LogEvent} listeners of each thread.
      */
     @Inject
-    private ObservationManager observation;
+    private ThreadLogListeners listeners;
+
+    /**
+     * Used to make sure the {@link LogbackEventGenerator} appender is registered.
+     */
+    @Inject
+    @Named("LogbackEventGenerator")
+    private Provider<EventListener> eventGeneratorProvider;
 
     @Inject
     private Provider<XStreamFileLoggerTail> loggerTailProvider;
@@ -72,11 +76,6 @@ public class DefaultLoggerManager implements LoggerManager, Initializable
     @Inject
     private Logger logger;
 
-    /**
-     * The stack of listeners for the current thread.
-     */
-    private ThreadLocal<Deque<EventListener>> listeners = new ThreadLocal<>();
-
     /**
      * Logback utilities.
      */
@@ -90,6 +89,9 @@ public class DefaultLoggerManager implements LoggerManager, Initializable
     @Override
     public void initialize() throws InitializationException
     {
+        // Make sure the logs are captured even if the Observation Manager did not initialize its listeners yet
+        this.eventGeneratorProvider.get();
+
         // Register appender
         ch.qos.logback.classic.Logger rootLogger = getRootLogger();
 
@@ -112,47 +114,20 @@ public void initialize() throws InitializationException
     @Override
     public void pushLogListener(EventListener listener)
     {
-        Deque<EventListener> listenerStack = this.listeners.get();
-
-        if (listenerStack == null) {
-            listenerStack = new LinkedList<>();
-            this.listeners.set(listenerStack);
-        }
-
-        if (!listenerStack.isEmpty()) {
-            this.observation.removeListener(listenerStack.peek().getName());
-        }
-
-        if (listener != null) {
-            this.observation.addListener(new WrappedThreadEventListener(listener));
-        }
-        if (listenerStack.isEmpty()) {
+        if (this.listeners.push(listener)) {
             grabLog(Thread.currentThread());
         }
-        listenerStack.push(listener);
     }
 
     @Override
     public EventListener popLogListener()
     {
-        Deque<EventListener> listenerStack = this.listeners.get();
+        boolean wasEmpty = this.listeners.isEmpty();
 
-        EventListener listener;
-        if (listenerStack != null && !listenerStack.isEmpty()) {
-            listener = listenerStack.pop();
-            if (listener != null) {
-                this.observation.removeListener(listener.getName());
-            }
-            if (listenerStack.isEmpty()) {
-                ungrabLog(Thread.currentThread());
-            } else {
-                EventListener topListener = listenerStack.peek();
-                if (topListener != null) {
-                    this.observation.addListener(new WrappedThreadEventListener(topListener));
-                }
-            }
-        } else {
-            listener = null;
+        EventListener listener = this.listeners.pop();
+
+        if (!wasEmpty && this.listeners.isEmpty()) {
+            ungrabLog(Thread.currentThread());
         }
 
         return listener;
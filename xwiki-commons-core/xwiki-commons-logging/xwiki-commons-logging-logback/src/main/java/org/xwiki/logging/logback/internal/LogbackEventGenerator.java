@@ -79,11 +79,22 @@ public class LogbackEventGenerator extends UnsynchronizedAppenderBase<ILoggingEv
     @Inject
     private ComponentManager componentManager;
 
+    /**
+     * The listeners capturing the logs of each thread.
+     */
+    @Inject
+    private ThreadLogListeners threadListeners;
+
     /**
      * Logback utilities.
      */
     private LogbackUtils utils = new LogbackUtils();
 
+    /**
+     * Cached {@link ObservationManager} to not lookup it for each log.
+     */
+    private volatile ObservationManager observation;
+
     @Override
     public String getName()
     {
@@ -127,7 +138,11 @@ public void onEvent(Event event, Object source, Object data)
      */
     private ObservationManager getObservationManager() throws ComponentLookupException
     {
-        return this.componentManager.getInstance(ObservationManager.class);
+        if (this.observation == null) {
+            this.observation = this.componentManager.getInstance(ObservationManager.class);
+        }
+
+        return this.observation;
     }
 
     @Override
@@ -145,7 +160,14 @@ protected void append(ILoggingEvent event)
             LogEvent logevent = LogUtils.newLogEvent(event.getMarker(), logLevel, event.getMessage(),
                 event.getArgumentArray(), throwable, event.getTimeStamp());
 
-            getObservationManager().notify(logevent, event.getLoggerName(), null);
+            // Send the log to the listener capturing the current thread logs (if any)
+            notifyThreadListener(logevent, event.getLoggerName());
+
+            // Send the log to the global listeners (if any)
+            ObservationManager observationManager = getObservationManager();
+            if (observationManager.hasListener(logevent)) {
+                observationManager.notify(logevent, event.getLoggerName(), null);
+            }
         } catch (IllegalArgumentException e) {
             this.logger.debug("Unsupported log level [{}]", event.getLevel());
         } catch (ComponentLookupException e) {
@@ -153,6 +175,16 @@ protected void append(ILoggingEvent event)
         }
     }
 
+    private void notifyThreadListener(LogEvent logEvent, String loggerName)
+    {
+        try {
+            this.threadListeners.notify(logEvent, loggerName);
+        } catch (Exception e) {
+            // Protect from bad listeners
+            this.logger.error("Failed to send log event [{}] to the current thread listener", logEvent, e);
+        }
+    }
+
     /**
      * @return the Logback root logger or null if Logback is not available
      */
@@ -0,0 +1,127 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.logback.internal;
+
+import java.util.Deque;
+import java.util.LinkedList;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.event.Event;
+
+/**
+ * The stacks of log listeners pushed by each thread.
+ * <p>
+ * The listeners are called directly by {@link LogbackEventGenerator} instead of being registered in the
+ * {@link org.xwiki.observation.ObservationManager} so that the cost of a log does not depend on the number of threads
+ * currently capturing their logs.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Component(roles = ThreadLogListeners.class)
+@Singleton
+public class ThreadLogListeners
+{
+    /**
+     * The stack of listeners for the current thread.
+     */
+    private final ThreadLocal<Deque<EventListener>> listeners = new ThreadLocal<>();
+
+    /**
+     * @param listener the listener to push on top of the current thread stack, can be null to only isolate the current
+     *            thread logs
+     * @return true if the stack was empty before this call
+     */
+    public boolean push(EventListener listener)
+    {
+        Deque<EventListener> listenerStack = this.listeners.get();
+
+        if (listenerStack == null) {
+            listenerStack = new LinkedList<>();
+            this.listeners.set(listenerStack);
+        }
+
+        boolean empty = listenerStack.isEmpty();
+
+        listenerStack.push(listener);
+
+        return empty;
+    }
+
+    /**
+     * @return the listener removed from the top of the current thread stack
+     */
+    public EventListener pop()
+    {
+        Deque<EventListener> listenerStack = this.listeners.get();
+
+        if (listenerStack != null && !listenerStack.isEmpty()) {
+            EventListener listener = listenerStack.pop();
+
+            if (listenerStack.isEmpty()) {
+                this.listeners.remove();
+            }
+
+            return listener;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true if the current thread stack is empty
+     */
+    public boolean isEmpty()
+    {
+        Deque<EventListener> listenerStack = this.listeners.get();
+
+        return listenerStack == null || listenerStack.isEmpty();
+    }
+
+    /**
+     * Send the passed log event to the listener on top of the current thread stack if it matches one of its events.
+     *
+     * @param logEvent the log event
+     * @param source the source of the event
+     */
+    public void notify(LogEvent logEvent, Object source)
+    {
+        Deque<EventListener> listenerStack = this.listeners.get();
+
+        if (listenerStack != null) {
+            EventListener listener = listenerStack.peek();
+
+            if (listener != null) {
+                for (Event event : listener.getEvents()) {
+                    if (event.matches(logEvent)) {
+                        listener.onEvent(logEvent, source, null);
+
+                        // Only send the first matching event since the listener should only be called once per event
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@
 import org.xwiki.logging.LogQueue;
 import org.xwiki.logging.event.LogQueueListener;
 import org.xwiki.logging.internal.tail.XStreamFileLoggerTail;
+import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.internal.DefaultObservationManager;
 import org.xwiki.test.XWikiTempDirUtil;
 import org.xwiki.test.annotation.ComponentList;
@@ -60,7 +61,7 @@
  * @since 3.2M3
  */
 @ComponentList({ DefaultLoggerManager.class, DefaultObservationManager.class, LogbackEventGenerator.class,
-    XStreamFileLoggerTail.class })
+    XStreamFileLoggerTail.class, ThreadLogListeners.class })
 public class DefaultLoggerManagerTest
 {
     @Rule
@@ -191,6 +192,24 @@ public void testStackedListeners()
         this.loggerManager.popLogListener();
     }
 
+    @Test
+    public void pushLogListenerDoesNotRegisterGlobalListener() throws Exception
+    {
+        ObservationManager observation = this.mocker.getInstance(ObservationManager.class);
+
+        LogQueue queue = new LogQueue();
+
+        this.loggerManager.pushLogListener(new LogQueueListener("loglistenerid", queue));
+
+        assertNull(observation.getListener("loglistenerid"));
+
+        this.logger.error("[test] thread log");
+
+        assertEquals("[test] thread log", queue.poll().getMessage());
+
+        this.loggerManager.popLogListener();
+    }
+
     @Test
     public void testNullListeners()
     {
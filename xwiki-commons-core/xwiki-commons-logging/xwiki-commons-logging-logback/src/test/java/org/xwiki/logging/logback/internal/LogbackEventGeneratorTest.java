@@ -61,7 +61,7 @@
  * @since 3.2M3
  */
 @ComponentTest
-@ComponentList({DefaultObservationManager.class, LogbackEventGenerator.class})
+@ComponentList({DefaultObservationManager.class, LogbackEventGenerator.class, ThreadLogListeners.class})
 public class LogbackEventGeneratorTest
 {
     @InjectComponentManager
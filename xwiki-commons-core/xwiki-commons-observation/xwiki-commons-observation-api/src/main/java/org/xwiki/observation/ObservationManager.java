@@ -21,6 +21,7 @@
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.observation.event.Event;
+import org.xwiki.stability.Unstable;
 
 /**
  * The main orchestrator for event notification. To receive events create a component implementing the
@@ -88,4 +89,19 @@
      * @see #notify(org.xwiki.observation.event.Event, Object, Object)
      */
     void notify(Event event, Object source);
+
+    /**
+     * Indicate if at least one registered listener would receive the passed event. Can be used by senders to skip
+     * building and sending events nobody is interested in.
+     *
+     * @param event the event
+     * @return true if at least one registered listener matches the passed event (implementations which cannot tell
+     *         return true)
+     * @since 12.7
+     */
+    @Unstable
+    default boolean hasListener(Event event)
+    {
+        return true;
+    }
 }
@@ -19,15 +19,15 @@
  */
 package org.xwiki.observation.internal;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -48,6 +48,11 @@
  * This component use synchronized for concurrent protection instead of having
  * {@link java.util.concurrent.ConcurrentHashMap} everywhere because it's more efficient since most of methods access to
  * several maps and generally do enumerations.
+ * <p>
+ * Since 12.7 {@link #notify(Event, Object, Object)} does not touch those maps anymore: every modification of the
+ * registered listeners rebuilds an immutable {@link DispatchTable} which associates each event class with a flat array
+ * of the listeners (and their events) to call, so that notifying an event is a single lookup followed by an iteration
+ * over arrays.
  *
  * @version $Id$
  */
@@ -77,48 +82,111 @@ public class DefaultObservationManager implements ObservationManager
     @Inject
     private Logger logger;
 
+    /**
+     * The immutable snapshot used by {@link #notify(Event, Object, Object)}. Rebuilt every time the registered
+     * listeners or their events are modified.
+     */
+    private volatile DispatchTable dispatchTable = DispatchTable.EMPTY;
+
     /**
      * Helper class to store the list of events of a given type associated with a given listener. We need this for
      * performance reasons and also in order to be able to add events after a listener has been registered.
+     * <p>
+     * Instances are immutable: adding or removing an event produces a new {@link RegisteredListener} so that the
+     * instances referenced by the current {@link DispatchTable} can be safely iterated from any thread.
      */
-    private static class RegisteredListener
+    private static final class RegisteredListener
     {
         /**
          * Events of a given type associated with a given listener.
          */
-        private List<Event> events = new ArrayList<>();
+        private final Event[] events;
 
         /**
          * Listener associated with the events.
          */
-        private EventListener listener;
+        private final EventListener listener;
 
         /**
          * @param listener the listener associated with the events.
-         * @param event the first event to associate with the passed listener. More events are added by calling
-         *            {@link #addEvent(Event)}
+         * @param events the events to associate with the passed listener
          */
-        RegisteredListener(EventListener listener, Event event)
+        RegisteredListener(EventListener listener, Event... events)
         {
-            addEvent(event);
-
             this.listener = listener;
+            this.events = events;
         }
 
         /**
          * @param event the event to add
+         * @return a new {@link RegisteredListener} containing the current events and the passed one
          */
-        void addEvent(Event event)
+        RegisteredListener addEvent(Event event)
         {
-            this.events.add(event);
+            return new RegisteredListener(this.listener, ArrayUtils.add(this.events, event));
         }
 
         /**
          * @param event the event to remove
+         * @return a new {@link RegisteredListener} containing the current events except the passed one
          */
-        void removeEvent(Event event)
+        RegisteredListener removeEvent(Event event)
         {
-            this.events.remove(event);
+            return new RegisteredListener(this.listener, ArrayUtils.removeElement(this.events, event));
+        }
+    }
+
+    /**
+     * Immutable association between event classes and the listeners to notify for them.
+     */
+    private static final class DispatchTable
+    {
+        private static final RegisteredListener[] NO_LISTENER = new RegisteredListener[0];
+
+        static final DispatchTable EMPTY = new DispatchTable(Collections.emptyMap(), NO_LISTENER);
+
+        /**
+         * The listeners to notify for each event class, listeners registered for {@link AllEvent} included.
+         */
+        private final Map<Class<? extends Event>, RegisteredListener[]> listenersByEvent;
+
+        /**
+         * The listeners registered for {@link AllEvent}, used for event classes nobody explicitly listens to.
+         */
+        private final RegisteredListener[] allEventListeners;
+
+        DispatchTable(Map<Class<? extends Event>, RegisteredListener[]> listenersByEvent,
+            RegisteredListener[] allEventListeners)
+        {
+            this.listenersByEvent = listenersByEvent;
+            this.allEventListeners = allEventListeners;
+        }
+
+        static DispatchTable build(Map<Class<? extends Event>, Map<String, RegisteredListener>> listenersByEvent)
+        {
+            RegisteredListener[] allEventListeners = toArray(listenersByEvent.get(AllEvent.class));
+
+            Map<Class<? extends Event>, RegisteredListener[]> table = new HashMap<>(listenersByEvent.size() * 2);
+            for (Map.Entry<Class<? extends Event>, Map<String, RegisteredListener>> entry : listenersByEvent
+                .entrySet()) {
+                if (entry.getKey() != AllEvent.class) {
+                    table.put(entry.getKey(), ArrayUtils.addAll(toArray(entry.getValue()), allEventListeners));
+                }
+            }
+
+            return new DispatchTable(table, allEventListeners);
+        }
+
+        private static RegisteredListener[] toArray(Map<String, RegisteredListener> listeners)
+        {
+            return listeners != null ? listeners.values().toArray(NO_LISTENER) : NO_LISTENER;
+        }
+
+        RegisteredListener[] getListeners(Class<? extends Event> eventClass)
+        {
+            RegisteredListener[] listeners = this.listenersByEvent.get(eventClass);
+
+            return listeners != null ? listeners : this.allEventListeners;
         }
     }
 
@@ -148,6 +216,27 @@ private Map<String, EventListener> getListenersByName()
         return this.listenersByName;
     }
 
+    /**
+     * @return the current snapshot of the listeners to notify for each event class
+     */
+    private DispatchTable getDispatchTable()
+    {
+        if (this.listenersByName == null) {
+            initializeListeners();
+        }
+
+        return this.dispatchTable;
+    }
+
+    /**
+     * Rebuild the {@link DispatchTable} after a modification of {@link #listenersByEvent}. Must be called while
+     * holding the lock on {@link #listenersByEvent}.
+     */
+    private void updateDispatchTable()
+    {
+        this.dispatchTable = DispatchTable.build(this.listenersByEvent);
+    }
+
     /**
      * Lazily initialized to allow @Inject {@link ObservationManager} in a listener.
      *
@@ -210,24 +299,26 @@ private void addListenerInernal(EventListener eventListener)
         synchronized (this.listenersByEvent) {
             // For each event defined for this listener, add it to the Event Map.
             for (Event event : eventListener.getEvents()) {
-                // Check if this is a new Event type not already registered
-                Map<String, RegisteredListener> eventListeners = this.listenersByEvent.get(event.getClass());
-                if (eventListeners == null) {
-                    // No listener registered for this event yet. Create a map to store listeners for this event.
-                    eventListeners = new ConcurrentHashMap<>();
-                    this.listenersByEvent.put(event.getClass(), eventListeners);
-                    // There is no RegisteredListener yet, create one
-                    eventListeners.put(eventListener.getName(), new RegisteredListener(eventListener, event));
-                } else {
-                    // Add an event to existing RegisteredListener object
-                    RegisteredListener registeredListener = eventListeners.get(eventListener.getName());
-                    if (registeredListener == null) {
-                        eventListeners.put(eventListener.getName(), new RegisteredListener(eventListener, event));
-                    } else {
-                        registeredListener.addEvent(event);
-                    }
-                }
+                addEventInternal(eventListener.getName(), eventListener, event);
             }
+
+            updateDispatchTable();
+        }
+    }
+
+    private void addEventInternal(String listenerName, EventListener eventListener, Event event)
+    {
+        // Check if this is a new Event type not already registered
+        Map<String, RegisteredListener> eventListeners =
+            this.listenersByEvent.computeIfAbsent(event.getClass(), k -> new ConcurrentHashMap<>());
+
+        RegisteredListener registeredListener = eventListeners.get(listenerName);
+        if (registeredListener == null) {
+            // There is no RegisteredListener yet, create one
+            eventListeners.put(listenerName, new RegisteredListener(eventListener, event));
+        } else {
+            // Add an event to existing RegisteredListener object
+            eventListeners.put(listenerName, registeredListener.addEvent(event));
         }
     }
 
@@ -235,38 +326,47 @@ private void addListenerInernal(EventListener eventListener)
     public void removeListener(String listenerName)
     {
         getListenersByName().remove(listenerName);
-        for (Map.Entry<Class<? extends Event>, Map<String, RegisteredListener>> entry : this.listenersByEvent
-            .entrySet()) {
-            entry.getValue().remove(listenerName);
-            if (entry.getValue().isEmpty()) {
-                this.listenersByEvent.remove(entry.getKey());
+
+        synchronized (this.listenersByEvent) {
+            for (Map.Entry<Class<? extends Event>, Map<String, RegisteredListener>> entry : this.listenersByEvent
+                .entrySet()) {
+                entry.getValue().remove(listenerName);
+                if (entry.getValue().isEmpty()) {
+                    this.listenersByEvent.remove(entry.getKey());
+                }
             }
+
+            updateDispatchTable();
         }
     }
 
     @Override
     public void addEvent(String listenerName, Event event)
     {
-        Map<String, RegisteredListener> listeners = getListenersByEvent().get(event.getClass());
-        if (listeners == null) {
-            listeners = new ConcurrentHashMap<>();
-            this.listenersByEvent.put(event.getClass(), listeners);
-        }
-        RegisteredListener listener = listeners.get(listenerName);
-        if (listener != null) {
-            listener.addEvent(event);
-        } else {
-            listeners.put(listenerName, new RegisteredListener(this.getListener(listenerName), event));
+        Map<Class<? extends Event>, Map<String, RegisteredListener>> listeners = getListenersByEvent();
+
+        synchronized (listeners) {
+            addEventInternal(listenerName, getListener(listenerName), event);
+
+            updateDispatchTable();
         }
     }
 
     @Override
     public void removeEvent(String listenerName, Event event)
     {
-        Map<String, RegisteredListener> listeners = getListenersByEvent().get(event.getClass());
-        RegisteredListener listener = listeners.get(listenerName);
-        if (listener != null) {
-            listener.removeEvent(event);
+        Map<Class<? extends Event>, Map<String, RegisteredListener>> eventListeners = getListenersByEvent();
+
+        synchronized (eventListeners) {
+            Map<String, RegisteredListener> listeners = eventListeners.get(event.getClass());
+            if (listeners != null) {
+                RegisteredListener listener = listeners.get(listenerName);
+                if (listener != null) {
+                    listeners.put(listenerName, listener.removeEvent(event));
+
+                    updateDispatchTable();
+                }
+            }
         }
     }
 
@@ -279,17 +379,8 @@ public EventListener getListener(String listenerName)
     @Override
     public void notify(Event event, Object source, Object data)
     {
-        // Find all listeners for this event
-        Map<String, RegisteredListener> regListeners = getListenersByEvent().get(event.getClass());
-        if (regListeners != null) {
-            notify(regListeners.values(), event, source, data);
-        }
-
-        // Find listener listening all events
-        Map<String, RegisteredListener> allEventRegListeners = this.listenersByEvent.get(AllEvent.class);
-        if (allEventRegListeners != null) {
-            notify(allEventRegListeners.values(), event, source, data);
-        }
+        // Find all listeners for this event (including the ones listening to all events)
+        notify(getDispatchTable().getListeners(event.getClass()), event, source, data);
 
         // We want this Observation Manager to be able to handle new Event Listener components being added or removed
         // at runtime. Thus ideally we should make this Manager an Event Listener itself. However in order to avoid
@@ -310,7 +401,7 @@ public void notify(Event event, Object source, Object data)
      * @param source the source of the event (or <code>null</code>)
      * @param data the additional data related to the event (or <code>null</code>)
      */
-    private void notify(Collection<RegisteredListener> listeners, Event event, Object source, Object data)
+    private void notify(RegisteredListener[] listeners, Event event, Object source, Object data)
     {
         for (RegisteredListener listener : listeners) {
             // Verify that one of the events matches and send the first matching event
@@ -337,6 +428,20 @@ public void notify(Event event, Object source)
         notify(event, source, null);
     }
 
+    @Override
+    public boolean hasListener(Event event)
+    {
+        for (RegisteredListener listener : getDispatchTable().getListeners(event.getClass())) {
+            for (Event listenerEvent : listener.events) {
+                if (listenerEvent.matches(event)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     /**
      * A Component has been modified (added or removed) and we update our cache of Event Listeners if that Component is
      * an Event Listener.
@@ -38,12 +38,14 @@
 import org.xwiki.test.mockito.MockitoComponentManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -77,6 +79,27 @@ void notifyWhenMatching()
         verify(listener).onEvent(event, "some source", "some data");
     }
 
+    @Test
+    void hasListener()
+    {
+        EventListener listener = mock(EventListener.class);
+        Event event = mock(Event.class);
+        Event otherEvent = mock(Event.class);
+
+        when(listener.getName()).thenReturn("mylistener");
+        when(listener.getEvents()).thenReturn(Arrays.asList(event));
+        when(event.matches(event)).thenReturn(true);
+
+        assertFalse(this.manager.hasListener(event));
+
+        this.manager.addListener(listener);
+        assertTrue(this.manager.hasListener(event));
+        assertFalse(this.manager.hasListener(otherEvent));
+
+        this.manager.removeListener("mylistener");
+        assertFalse(this.manager.hasListener(event));
+    }
+
     @Test
     void removeListener()
     {
@@ -157,6 +180,46 @@ void removeEvent()
         verify(listener, never()).onEvent(afterEvent, null, null);
     }
 
+    @Test
+    void removeEventWhenNoListenerForEventType()
+    {
+        Event event = mock(Event.class);
+
+        this.manager.removeEvent("mylistener", event);
+        this.manager.notify(event, null);
+
+        verify(event, never()).matches(any());
+    }
+
+    @Test
+    void notifyAfterListenersModifications()
+    {
+        EventListener listener1 = mock(EventListener.class, "listener1");
+        EventListener listener2 = mock(EventListener.class, "listener2");
+        Event notifyEvent = new ActionExecutionEvent("action");
+
+        when(listener1.getName()).thenReturn("listener 1");
+        when(listener2.getName()).thenReturn("listener 2");
+        when(listener1.getEvents()).thenReturn(Arrays.asList(new ActionExecutionEvent("action")));
+        when(listener2.getEvents()).thenReturn(Arrays.asList(AllEvent.ALLEVENT));
+
+        this.manager.notify(notifyEvent, null);
+
+        this.manager.addListener(listener1);
+        this.manager.notify(notifyEvent, null);
+        verify(listener1).onEvent(notifyEvent, null, null);
+
+        this.manager.addListener(listener2);
+        this.manager.notify(notifyEvent, null);
+        verify(listener1, times(2)).onEvent(notifyEvent, null, null);
+        verify(listener2).onEvent(notifyEvent, null, null);
+
+        this.manager.removeListener("listener 1");
+        this.manager.notify(notifyEvent, null);
+        verify(listener1, times(2)).onEvent(notifyEvent, null, null);
+        verify(listener2, times(2)).onEvent(notifyEvent, null, null);
+    }
+
     /**
      * Verify that we can register two listeners on the same event and they'll both receive the event.
      */
@@ -51,6 +51,7 @@
 import org.xwiki.properties.annotation.PropertyId;
 import org.xwiki.properties.annotation.PropertyMandatory;
 import org.xwiki.properties.annotation.PropertyName;
+import org.xwiki.stability.Unstable;
 
 /**
  * Default implementation for BeanDescriptor.
@@ -79,6 +80,11 @@ public class DefaultBeanDescriptor implements BeanDescriptor
      */
     private Map<String, PropertyDescriptor> parameterDescriptorMap = new LinkedHashMap<>();
 
+    /**
+     * The properties of the bean indexed by lower case identifier.
+     */
+    private Map<String, PropertyDescriptor> lowerCaseParameterDescriptorMap = new HashMap<>();
+
     private Map<PropertyGroup, PropertyGroupDescriptor> groups = new HashMap<>();
 
     /**
@@ -184,10 +190,14 @@ protected void extractPropertyDescriptor(java.beans.PropertyDescriptor propertyD
 
                 setCommonProperties(desc, annotations);
 
+                desc.setWriteMethod(writeMethod);
+
+                desc.setReadMethod(readMethod);
+
                 if (defaultInstance != null && readMethod != null) {
                     // get default value
                     try {
-                        desc.setDefaultValue(readMethod.invoke(defaultInstance));
+                        desc.setDefaultValue(desc.get(defaultInstance));
                     } catch (Exception e) {
                         LOGGER.warn("Failed to get default property value from getter [{}] in class [{}]. Ignoring it. "
                             + "Root cause [{}]", readMethod.getName(), this.beanClass,
@@ -195,11 +205,7 @@ protected void extractPropertyDescriptor(java.beans.PropertyDescriptor propertyD
                     }
                 }
 
-                desc.setWriteMethod(writeMethod);
-
-                desc.setReadMethod(readMethod);
-
-                this.parameterDescriptorMap.put(desc.getId(), desc);
+                addPropertyDescriptor(desc);
             }
         }
     }
@@ -242,22 +248,28 @@ protected void extractPropertyDescriptor(Field field, Object defaultInstance)
 
             setCommonProperties(desc, annotations);
 
+            desc.setField(field);
+
             if (defaultInstance != null) {
                 // get default value
                 try {
-                    desc.setDefaultValue(field.get(defaultInstance));
+                    desc.setDefaultValue(desc.get(defaultInstance));
                 } catch (Exception e) {
                     LOGGER.warn("Failed to get default property value from field [{}] in class [{}]. Ignoring it. "
                         + "Root cause: [{}]", field.getName(), this.beanClass, ExceptionUtils.getRootCauseMessage(e));
                 }
             }
 
-            desc.setField(field);
-
-            this.parameterDescriptorMap.put(desc.getId(), desc);
+            addPropertyDescriptor(desc);
         }
     }
 
+    private void addPropertyDescriptor(PropertyDescriptor descriptor)
+    {
+        this.parameterDescriptorMap.put(descriptor.getId(), descriptor);
+        this.lowerCaseParameterDescriptorMap.put(descriptor.getId().toLowerCase(), descriptor);
+    }
+
     private void setCommonProperties(DefaultPropertyDescriptor desc, Map<Class, Annotation> annotations)
     {
         desc.setMandatory(annotations.get(PropertyMandatory.class) != null);
@@ -348,4 +360,22 @@ public PropertyDescriptor getProperty(String propertyName)
     {
         return this.parameterDescriptorMap.get(propertyName);
     }
+
+    /**
+     * @param propertyId the identifier of the property, whatever its case
+     * @return the descriptor of the property with the exact passed identifier or, if none can be found, of the
+     *         property which identifier is equal to the passed one ignoring case
+     * @since 12.7
+     */
+    @Unstable
+    public PropertyDescriptor getPropertyIgnoreCase(String propertyId)
+    {
+        PropertyDescriptor descriptor = this.parameterDescriptorMap.get(propertyId);
+
+        if (descriptor == null) {
+            descriptor = this.lowerCaseParameterDescriptorMap.get(propertyId.toLowerCase());
+        }
+
+        return descriptor;
+    }
 }
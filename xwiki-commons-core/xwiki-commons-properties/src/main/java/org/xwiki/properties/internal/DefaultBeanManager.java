@@ -19,10 +19,8 @@
  */
 package org.xwiki.properties.internal;
 
-import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,7 +33,6 @@
 import javax.validation.ValidatorFactory;
 
 import org.slf4j.Logger;
-import org.xwiki.collection.SoftCache;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.properties.BeanDescriptor;
 import org.xwiki.properties.BeanManager;
@@ -62,10 +59,17 @@
 public class DefaultBeanManager implements BeanManager
 {
     /**
-     * Cache the already parsed classes. We store weak reference since the classes might come from extensions later
-     * uninstalled/upgraded or from scripts.
+     * Cache the already parsed classes. The descriptors are associated to the class itself since the classes might come
+     * from extensions later uninstalled/upgraded or from scripts.
      */
-    private SoftCache<Class<?>, BeanDescriptor> beanDescriptorCache = new SoftCache<>();
+    private final ClassValue<DefaultBeanDescriptor> beanDescriptors = new ClassValue<DefaultBeanDescriptor>()
+    {
+        @Override
+        protected DefaultBeanDescriptor computeValue(Class<?> type)
+        {
+            return new DefaultBeanDescriptor(type);
+        }
+    };
 
     /**
      * The logger to use for logging.
@@ -131,71 +135,46 @@ public void populate(Object bean, Map<String, ?> values) throws PropertyExceptio
      */
     private void populateBean(Object bean, Map<String, Object> values) throws PropertyException
     {
-        BeanDescriptor beanDescriptor = getBeanDescriptor(bean.getClass());
+        DefaultBeanDescriptor beanDescriptor = getDefaultBeanDescriptor(bean.getClass());
 
-        // Lower case provided properties to easily ignore properties name case
-        Map<String, String> lowerKeyMap = new HashMap<>(values.size());
+        // Associate provided properties to bean properties, ignoring properties name case (but an exact match wins)
+        Map<PropertyDescriptor, String> keys = new IdentityHashMap<>(values.size());
         for (Map.Entry<String, ?> entry : values.entrySet()) {
-            lowerKeyMap.put(entry.getKey().toLowerCase(), entry.getKey());
+            if (entry.getValue() != null) {
+                String key = entry.getKey();
+                PropertyDescriptor propertyDescriptor = beanDescriptor.getPropertyIgnoreCase(key);
+
+                if (propertyDescriptor != null
+                    && (!keys.containsKey(propertyDescriptor) || key.equals(propertyDescriptor.getId()))) {
+                    keys.put(propertyDescriptor, key);
+                }
+            }
         }
 
         for (PropertyDescriptor propertyDescriptor : beanDescriptor.getProperties()) {
-            String propertyId = propertyDescriptor.getId();
-            Object value = values.get(propertyId);
-
-            if (value == null) {
-                propertyId = propertyId.toLowerCase();
-                value = values.get(lowerKeyMap.get(propertyId));
-            }
+            String key = keys.get(propertyDescriptor);
 
-            if (value != null) {
+            if (key != null) {
                 try {
                     // Convert
-                    Object convertedValue = this.converterManager.convert(propertyDescriptor.getPropertyType(), value);
-
-                    if (propertyDescriptor.getWriteMethod() != null) {
-                        Method writerMethod = propertyDescriptor.getWriteMethod();
-
-                        setAccessibleSafely(writerMethod);
+                    Object convertedValue =
+                        this.converterManager.convert(propertyDescriptor.getPropertyType(), values.get(key));
 
-                        // Invoke the method
-                        writerMethod.invoke(bean, convertedValue);
-                    } else if (propertyDescriptor.getField() != null) {
-                        Field field = propertyDescriptor.getField();
-
-                        setAccessibleSafely(field);
-
-                        // Set the field
-                        field.set(bean, convertedValue);
-                    }
+                    // Set the value using the write method or the field
+                    ((DefaultPropertyDescriptor) propertyDescriptor).set(bean, convertedValue);
                 } catch (Exception e) {
-                    throw new PropertyException("Failed to populate property [" + propertyId + "]", e);
+                    throw new PropertyException("Failed to populate property [" + propertyDescriptor.getId() + "]",
+                        e);
                 }
 
                 // "Tick" already populated properties
-                values.remove(propertyId);
+                values.remove(key);
             } else if (propertyDescriptor.isMandatory()) {
-                throw new PropertyMandatoryException(propertyId);
+                throw new PropertyMandatoryException(propertyDescriptor.getId());
             }
         }
     }
 
-    /**
-     * Support nested private classes with public setters. Workaround for
-     * <a href="http://bugs.java.com/bugdatabase/view_bug.do?bug_id=4533479">java reflections bug JDK-4533479</a>.
-     * 
-     * @param classMember the class member to make accessible.
-     */
-    private void setAccessibleSafely(AccessibleObject classMember)
-    {
-        try {
-            // We do this in a try/catch to avoid false positives caused by existing SecurityManagers.
-            classMember.setAccessible(true);
-        } catch (SecurityException se) {
-            logger.debug("Failed to call setAccessible for [{}]", classMember.toString(), se);
-        }
-    }
-
     /**
      * Validate populated values based on JSR 303.
      *
@@ -217,19 +196,11 @@ private void validateBean(Object bean) throws PropertyException
     @Override
     public BeanDescriptor getBeanDescriptor(Class<?> beanClass)
     {
-        BeanDescriptor beanDescriptor = null;
-
-        if (beanClass != null) {
-            // Get the bean descriptor from the cache
-            beanDescriptor = this.beanDescriptorCache.get(beanClass);
-
-            // Create a new one if none could be found
-            if (beanDescriptor == null) {
-                beanDescriptor = new DefaultBeanDescriptor(beanClass);
-                this.beanDescriptorCache.put(beanClass, beanDescriptor);
-            }
-        }
+        return beanClass != null ? getDefaultBeanDescriptor(beanClass) : null;
+    }
 
-        return beanDescriptor;
+    private DefaultBeanDescriptor getDefaultBeanDescriptor(Class<?> beanClass)
+    {
+        return this.beanDescriptors.get(beanClass);
     }
 }
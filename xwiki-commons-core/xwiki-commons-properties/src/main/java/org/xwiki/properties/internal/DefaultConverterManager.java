@@ -22,6 +22,9 @@
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -30,6 +33,8 @@
 
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.component.util.DefaultParameterizedType;
@@ -47,6 +52,11 @@
  * <li>then it use the default {@link Converter} (which is based on {@link org.apache.commons.beanutils.ConvertUtils} by
  * default)</li>
  * </ul>
+ * <p>
+ * The {@link Converter}s resolved from the root component manager are cached (as long as they are singletons) until a
+ * {@link Converter} component is registered or unregistered (see {@link #invalidateCache()}). The target types for
+ * which a {@link Converter} was registered in another component manager (a namespace) are always resolved from the
+ * context component manager.
  *
  * @version $Id$
  * @since 2.0M2
@@ -62,6 +72,12 @@ public class DefaultConverterManager implements ConverterManager
     @Named("context")
     private Provider<ComponentManager> componentManagerProvider;
 
+    /**
+     * Used to resolve the {@link Converter}s which can be cached.
+     */
+    @Inject
+    private ComponentManager rootComponentManager;
+
     /**
      * Used when no direct {@link Converter} can be found for provided target type and the target type is an
      * {@link Enum}.
@@ -81,6 +97,17 @@ public class DefaultConverterManager implements ConverterManager
     @Inject
     private Logger logger;
 
+    /**
+     * The converters resolved from the root component manager indexed by target type.
+     */
+    private final Map<Type, Converter<?>> converters = new ConcurrentHashMap<>();
+
+    /**
+     * The (generic) names of the target types of the {@link Converter}s registered in a component manager other than
+     * the root one. They are never forgotten since the same namespace is likely to register them again.
+     */
+    private final Set<String> namespaceTargetTypes = ConcurrentHashMap.newKeySet();
+
     @Override
     public <T> T convert(Type targetType, Object value)
     {
@@ -118,6 +145,40 @@ public <T> T convert(Type targetType, Object value)
         }
     }
 
+    /**
+     * Forget all the resolved {@link Converter}s.
+     *
+     * @since 12.7
+     */
+    public void invalidateCache()
+    {
+        this.converters.clear();
+    }
+
+    /**
+     * Forget all the resolved {@link Converter}s and remember the target type of the {@link Converter} when it's not
+     * registered in the root component manager.
+     *
+     * @param componentManager the component manager in which the {@link Converter} was registered or unregistered
+     * @param roleType the role type of the {@link Converter} component
+     * @param roleHint the role hint of the {@link Converter} component
+     * @since 12.7
+     */
+    public void invalidateCache(ComponentManager componentManager, Type roleType, String roleHint)
+    {
+        if (componentManager != this.rootComponentManager) {
+            if (roleType instanceof ParameterizedType) {
+                this.namespaceTargetTypes
+                    .add(getTypeGenericName(((ParameterizedType) roleType).getActualTypeArguments()[0]));
+            } else {
+                // Old way of registering converters
+                this.namespaceTargetTypes.add(roleHint);
+            }
+        }
+
+        invalidateCache();
+    }
+
     /**
      * Find the right {@link Converter} for the provided {@link Class}.
      *
@@ -127,52 +188,107 @@ public <T> T convert(Type targetType, Object value)
      */
     private <T> Converter<T> lookupConverter(Type targetType)
     {
+        if (isNamespaceTargetType(targetType)) {
+            // The converter might depend on the current namespace
+            return lookupConverter(this.componentManagerProvider.get(), targetType, false);
+        }
+
+        Converter<T> converter = (Converter<T>) this.converters.get(targetType);
+
+        if (converter == null) {
+            converter = lookupConverter(this.rootComponentManager, targetType, true);
+        }
+
+        return converter;
+    }
+
+    private <T> Converter<T> lookupConverter(ComponentManager componentManager, Type targetType, boolean cache)
+    {
+        Converter<T> converter;
+
         // Try with complete type
-        Converter<T> converter = getConverter(targetType);
+        ComponentDescriptor<Converter<T>> descriptor = getConverterDescriptor(componentManager, targetType);
 
         // Try with simple class
-        if (converter == null && targetType instanceof ParameterizedType) {
+        if (descriptor == null && targetType instanceof ParameterizedType) {
             Class<?> targetClass = ReflectionUtils.getTypeClass(targetType);
-            converter = getConverter(targetClass);
+            descriptor = getConverterDescriptor(componentManager, targetClass);
         }
 
-        if (converter == null) {
-            if (targetType instanceof Class && Enum.class.isAssignableFrom((Class<?>) targetType)) {
-                // It's an Enum
-                converter = (Converter<T>) this.enumConverter;
-            } else {
-                // Fallback on default converter
+        if (descriptor != null) {
+            converter = getConverter(componentManager, descriptor, targetType);
 
-                this.logger.debug("Using the default Converter for type [{}]", targetType);
+            if (cache && descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.SINGLETON) {
+                this.converters.put(targetType, converter);
+            }
+        } else {
+            converter = getDefaultConverter(targetType);
 
-                converter = this.defaultConverter;
+            if (cache) {
+                this.converters.put(targetType, converter);
             }
         }
 
         return converter;
     }
 
+    private boolean isNamespaceTargetType(Type targetType)
+    {
+        if (this.namespaceTargetTypes.isEmpty()) {
+            return false;
+        }
+
+        return this.namespaceTargetTypes.contains(getTypeGenericName(targetType))
+            || (targetType instanceof ParameterizedType
+                && this.namespaceTargetTypes.contains(getTypeGenericName(ReflectionUtils.getTypeClass(targetType))));
+    }
+
+    private <T> Converter<T> getDefaultConverter(Type targetType)
+    {
+        if (targetType instanceof Class && Enum.class.isAssignableFrom((Class<?>) targetType)) {
+            // It's an Enum
+            return (Converter<T>) this.enumConverter;
+        }
+
+        // Fallback on default converter
+
+        this.logger.debug("Using the default Converter for type [{}]", targetType);
+
+        return this.defaultConverter;
+    }
+
     @Override
     public <T> Converter<T> getConverter(Type targetType)
     {
-        try {
-            ComponentManager componentManager = this.componentManagerProvider.get();
+        ComponentManager componentManager = this.componentManagerProvider.get();
 
-            ParameterizedType converterType = new DefaultParameterizedType(null, Converter.class, targetType);
-            if (componentManager.hasComponent(converterType)) {
-                return componentManager.getInstance(converterType);
-            }
+        ComponentDescriptor<Converter<T>> descriptor = getConverterDescriptor(componentManager, targetType);
 
-            // Old way of registering converters
-            String typeGenericName = getTypeGenericName(targetType);
-            if (componentManager.hasComponent(Converter.class, typeGenericName)) {
-                return componentManager.getInstance(Converter.class, typeGenericName);
-            }
+        return descriptor != null ? getConverter(componentManager, descriptor, targetType) : null;
+    }
+
+    private <T> Converter<T> getConverter(ComponentManager componentManager,
+        ComponentDescriptor<Converter<T>> descriptor, Type targetType)
+    {
+        try {
+            return componentManager.getInstance(descriptor.getRoleType(), descriptor.getRoleHint());
         } catch (ComponentLookupException e) {
             throw new ConversionException("Failed to initialize converter for target type [" + targetType + "]", e);
         }
+    }
+
+    private <T> ComponentDescriptor<Converter<T>> getConverterDescriptor(ComponentManager componentManager,
+        Type targetType)
+    {
+        ParameterizedType converterType = new DefaultParameterizedType(null, Converter.class, targetType);
+        ComponentDescriptor<Converter<T>> descriptor = componentManager.getComponentDescriptor(converterType, null);
+
+        if (descriptor == null) {
+            // Old way of registering converters
+            descriptor = componentManager.getComponentDescriptor(Converter.class, getTypeGenericName(targetType));
+        }
 
-        return null;
+        return descriptor;
     }
 
     /**
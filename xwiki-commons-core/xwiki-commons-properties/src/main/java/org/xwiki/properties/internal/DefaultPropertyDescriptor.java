@@ -19,11 +19,18 @@
  */
 package org.xwiki.properties.internal;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xwiki.properties.PropertyDescriptor;
 import org.xwiki.properties.PropertyGroupDescriptor;
 import org.xwiki.stability.Unstable;
@@ -36,6 +43,14 @@
  */
 public class DefaultPropertyDescriptor implements PropertyDescriptor
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultPropertyDescriptor.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
     /**
      * @see #getId()
      * @since 2.1M1
@@ -108,6 +123,16 @@ public class DefaultPropertyDescriptor implements PropertyDescriptor
      */
     private boolean displayHidden;
 
+    /**
+     * The method handle used to set the property value, created on first use.
+     */
+    private volatile MethodHandle setter;
+
+    /**
+     * The method handle used to get the property value, created on first use.
+     */
+    private volatile MethodHandle getter;
+
     @Override
     public String getId()
     {
@@ -223,6 +248,8 @@ public void setMandatory(boolean mandatory)
     public void setField(Field field)
     {
         this.field = field;
+        this.setter = null;
+        this.getter = null;
     }
 
     @Override
@@ -245,6 +272,7 @@ public Field getField()
     public void setReadMethod(Method readMethod)
     {
         this.readMethod = readMethod;
+        this.getter = null;
     }
 
     @Override
@@ -260,6 +288,7 @@ public Method getReadMethod()
     public void setWriteMethod(Method writeMethod)
     {
         this.writeMethod = writeMethod;
+        this.setter = null;
     }
 
     @Override
@@ -347,4 +376,134 @@ public void setDisplayHidden(boolean isDisplayHidden)
     {
         this.displayHidden = isDisplayHidden;
     }
+
+    /**
+     * Set the value of the property in the passed bean using the write method or the field. Do nothing if the
+     * property has neither.
+     *
+     * @param bean the bean in which to set the property value
+     * @param value the value to set
+     * @throws ReflectiveOperationException when failing to set the property value
+     * @since 12.7
+     */
+    @Unstable
+    public void set(Object bean, Object value) throws ReflectiveOperationException
+    {
+        MethodHandle handle = this.setter;
+
+        if (handle == null) {
+            if (this.writeMethod != null) {
+                handle = unreflect(this.writeMethod).asType(SETTER_TYPE);
+            } else if (this.field != null) {
+                handle = unreflectSetter(this.field);
+            } else {
+                return;
+            }
+
+            this.setter = handle;
+        }
+
+        try {
+            handle.invokeExact(bean, value);
+        } catch (Throwable e) {
+            throw toReflectiveOperationException(e);
+        }
+    }
+
+    /**
+     * Get the value of the property in the passed bean using the read method or the field.
+     *
+     * @param bean the bean from which to get the property value
+     * @return the value of the property or null if it cannot be read
+     * @throws ReflectiveOperationException when failing to get the property value
+     * @since 12.7
+     */
+    @Unstable
+    public Object get(Object bean) throws ReflectiveOperationException
+    {
+        MethodHandle handle = this.getter;
+
+        if (handle == null) {
+            if (this.readMethod != null) {
+                handle = unreflect(this.readMethod).asType(GETTER_TYPE);
+            } else if (this.field != null) {
+                handle = unreflectGetter(this.field);
+            } else {
+                return null;
+            }
+
+            this.getter = handle;
+        }
+
+        try {
+            return (Object) handle.invokeExact(bean);
+        } catch (Throwable e) {
+            throw toReflectiveOperationException(e);
+        }
+    }
+
+    private static ReflectiveOperationException toReflectiveOperationException(Throwable e)
+    {
+        if (e instanceof ReflectiveOperationException) {
+            return (ReflectiveOperationException) e;
+        }
+
+        // Same behavior as reflection
+        return new InvocationTargetException(e);
+    }
+
+    private static MethodHandle unreflect(Method method) throws NoSuchMethodException, IllegalAccessException
+    {
+        setAccessibleSafely(method);
+
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            // Fallback on reflection
+            return LOOKUP
+                .findVirtual(Method.class, "invoke",
+                    MethodType.methodType(Object.class, Object.class, Object[].class))
+                .bindTo(method).asCollector(Object[].class, method.getParameterCount());
+        }
+    }
+
+    private static MethodHandle unreflectSetter(Field field) throws NoSuchMethodException, IllegalAccessException
+    {
+        setAccessibleSafely(field);
+
+        try {
+            return LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // Fallback on reflection (final fields for example)
+            return LOOKUP.findVirtual(Field.class, "set", SETTER_TYPE).bindTo(field);
+        }
+    }
+
+    private static MethodHandle unreflectGetter(Field field) throws NoSuchMethodException, IllegalAccessException
+    {
+        setAccessibleSafely(field);
+
+        try {
+            return LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // Fallback on reflection
+            return LOOKUP.findVirtual(Field.class, "get", GETTER_TYPE).bindTo(field);
+        }
+    }
+
+    /**
+     * Support nested private classes with public setters. Workaround for
+     * <a href="http://bugs.java.com/bugdatabase/view_bug.do?bug_id=4533479">java reflections bug JDK-4533479</a>.
+     * 
+     * @param classMember the class member to make accessible.
+     */
+    private static void setAccessibleSafely(AccessibleObject classMember)
+    {
+        try {
+            // We do this in a try/catch to avoid false positives caused by existing SecurityManagers.
+            classMember.setAccessible(true);
+        } catch (SecurityException se) {
+            LOGGER.debug("Failed to call setAccessible for [{}]", classMember.toString(), se);
+        }
+    }
 }
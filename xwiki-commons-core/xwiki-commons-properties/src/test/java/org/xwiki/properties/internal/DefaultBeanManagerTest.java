@@ -20,6 +20,7 @@
 package org.xwiki.properties.internal;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -72,6 +73,21 @@ public void set(String propertyName, Object value)
         }
     }
 
+    private static class PrivateRawPropertiesTest extends RawPropertiesTest
+    {
+        private String name;
+
+        public String getName()
+        {
+            return this.name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+    }
+
     @InjectComponentManager
     private ComponentManager componentManager;
 
@@ -131,4 +147,29 @@ void populateRawProperties() throws PropertyException
 
         assertEquals(values, bean);
     }
+
+    @Test
+    void populateIgnoringCase() throws PropertyException
+    {
+        Map<String, Object> values = new HashMap<>();
+        values.put("NAME", "upper");
+        values.put("other", "value");
+
+        PrivateRawPropertiesTest bean = new PrivateRawPropertiesTest();
+
+        this.defaultBeanManager.populate(bean, values);
+
+        assertEquals("upper", bean.getName());
+        assertEquals(Collections.singletonMap("other", "value"), bean);
+
+        // The exact property name wins
+        values.put("name", "exact");
+
+        bean = new PrivateRawPropertiesTest();
+
+        this.defaultBeanManager.populate(bean, values);
+
+        assertEquals("exact", bean.getName());
+        assertEquals("upper", bean.get("NAME"));
+    }
 }
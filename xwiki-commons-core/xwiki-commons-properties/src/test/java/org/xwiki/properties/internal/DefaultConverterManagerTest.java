@@ -20,16 +20,28 @@
 package org.xwiki.properties.internal;
 
 import java.awt.Color;
+import java.lang.reflect.Type;
 
 import org.junit.jupiter.api.Test;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.observation.EventListener;
+import org.xwiki.properties.ConverterManager;
 import org.xwiki.properties.converter.ConversionException;
+import org.xwiki.properties.converter.Converter;
 import org.xwiki.test.annotation.AllComponents;
 import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.mockito.MockitoComponentManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Validate {@link DefaultConverterManager}.
@@ -43,6 +55,9 @@
     @InjectMockComponents
     private DefaultConverterManager converterManager;
 
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
     public enum TestEnum
     {
         ENUMVALUE
@@ -80,4 +95,58 @@ void convertSame()
     {
         assertSame(Color.WHITE, this.converterManager.convert(Color.class, Color.WHITE));
     }
+
+    @Test
+    void convertWithRegisteredConverter() throws Exception
+    {
+        assertThrows(ConversionException.class,
+            () -> this.converterManager.convert(DefaultConverterManagerTest.class, "value"));
+
+        Converter<DefaultConverterManagerTest> converter = mock(Converter.class);
+        when(converter.convert(any(), any())).thenReturn(this);
+        this.componentManager.registerComponent(
+            new DefaultParameterizedType(null, Converter.class, DefaultConverterManagerTest.class), converter);
+
+        // The default converter is still cached
+        assertThrows(ConversionException.class,
+            () -> this.converterManager.convert(DefaultConverterManagerTest.class, "value"));
+
+        this.converterManager.invalidateCache();
+
+        assertSame(this, this.converterManager.convert(DefaultConverterManagerTest.class, "value"));
+        assertSame(converter, this.converterManager.getConverter(DefaultConverterManagerTest.class));
+    }
+
+    @Test
+    void convertWithConverterRegisteredInNamespace() throws Exception
+    {
+        Type converterType = new DefaultParameterizedType(null, Converter.class, DefaultConverterManagerTest.class);
+        Converter<DefaultConverterManagerTest> converter = mock(Converter.class);
+        when(converter.convert(any(), any())).thenReturn(this);
+
+        MockitoComponentManager namespaceComponentManager = new MockitoComponentManager();
+        namespaceComponentManager.setParent(this.componentManager);
+        namespaceComponentManager.registerComponent(converterType, converter);
+        MockitoComponentManager otherNamespaceComponentManager = new MockitoComponentManager();
+        otherNamespaceComponentManager.setParent(this.componentManager);
+
+        // Resolve (and cache) the default converter from the root component manager
+        assertThrows(ConversionException.class,
+            () -> this.converterManager.convert(DefaultConverterManagerTest.class, "value"));
+
+        this.componentManager.registerComponent(ConverterManager.class, this.converterManager);
+        EventListener listener = this.componentManager.getInstance(EventListener.class, ConverterComponentListener.NAME);
+        listener.onEvent(new ComponentDescriptorAddedEvent(converterType, "default"), namespaceComponentManager, null);
+
+        this.componentManager.registerComponent(ComponentManager.class, "context", namespaceComponentManager);
+        assertSame(this, this.converterManager.convert(DefaultConverterManagerTest.class, "value"));
+
+        // Replacing the context component manager disposes the previous one so the other namespace comes last
+        this.componentManager.registerComponent(ComponentManager.class, "context", otherNamespaceComponentManager);
+        assertThrows(ConversionException.class,
+            () -> this.converterManager.convert(DefaultConverterManagerTest.class, "value"));
+
+        // Other types are still resolved from the root component manager
+        assertEquals(Integer.valueOf(42), this.converterManager.convert(Integer.class, "42"));
+    }
 }
@@ -22,6 +22,7 @@
 import java.util.Properties;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration properties for the Velocity module.
@@ -47,4 +48,15 @@
      *         in the Velocity Context and the value is the tool's class name)
      */
     Properties getTools();
+
+    /**
+     * @return the maximum number of parsed scripts each Velocity engine keeps in memory to avoid parsing the same
+     *         script several times, 0 to disable the cache
+     * @since 12.7
+     */
+    @Unstable
+    default int getTemplateCacheSize()
+    {
+        return 0;
+    }
 }
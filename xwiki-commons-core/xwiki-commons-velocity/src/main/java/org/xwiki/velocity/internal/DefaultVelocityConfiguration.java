@@ -192,4 +192,12 @@ public Properties getTools()
 
         return props;
     }
+
+    @Override
+    public int getTemplateCacheSize()
+    {
+        Integer size = this.configuration.getProperty(PREFIX + "templateCache.size", Integer.class);
+
+        return size != null ? size : 0;
+    }
 }
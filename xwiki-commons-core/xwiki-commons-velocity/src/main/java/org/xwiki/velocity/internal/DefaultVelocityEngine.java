@@ -47,6 +47,7 @@
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.velocity.VelocityConfiguration;
@@ -67,11 +68,11 @@
  */
 @Component
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
-public class DefaultVelocityEngine implements VelocityEngine
+public class DefaultVelocityEngine implements VelocityEngine, Disposable
 {
     private static final String ECONTEXT_TEMPLATES = "velocity.templates";
 
-    private static class SingletonResourceReader extends StringResourceLoader
+    static class SingletonResourceReader extends StringResourceLoader
     {
         private final Reader reader;
 
@@ -179,6 +180,11 @@ int decrementCounter()
 
     private TemplateEntry globalEntry;
 
+    /**
+     * The parsed scripts, null if the cache is disabled.
+     */
+    private VelocityTemplateCache templateCache;
+
     @Override
     public void initialize(Properties overridingProperties) throws XWikiVelocityException
     {
@@ -202,6 +208,37 @@ public void initialize(Properties overridingProperties) throws XWikiVelocityExce
         this.runtimeInstance = runtime;
 
         this.globalEntry = new TemplateEntry("");
+
+        // The parsed scripts of the previous runtime can't be reused
+        disposeTemplateCache();
+
+        int templateCacheSize = this.velocityConfiguration.getTemplateCacheSize();
+        if (templateCacheSize > 0) {
+            this.templateCache = new VelocityTemplateCache(this.componentManager, templateCacheSize, runtime);
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        disposeTemplateCache();
+    }
+
+    private void disposeTemplateCache()
+    {
+        if (this.templateCache != null) {
+            this.templateCache.dispose();
+            this.templateCache = null;
+        }
+    }
+
+    /**
+     * @return the cache of parsed scripts, null if the cache is disabled
+     * @since 12.7
+     */
+    public VelocityTemplateCache getTemplateCache()
+    {
+        return this.templateCache;
     }
 
     /**
@@ -274,11 +311,8 @@ public boolean evaluate(Context context, Writer out, String namespace, Reader so
                 templateEntry = this.globalEntry;
             }
 
-            // Set source
-            templateEntry.getTemplate().setResourceLoader(new SingletonResourceReader(source));
-
             // Compile the template
-            templateEntry.getTemplate().process();
+            process(templateEntry.getTemplate(), namespace, source);
 
             // Execute the velocity script
             templateEntry.getTemplate().merge(context != null ? context : this.velocityContextFactory.createContext(),
@@ -305,6 +339,19 @@ public boolean evaluate(Context context, Writer out, String namespace, Reader so
         }
     }
 
+    private void process(Template template, String namespace, Reader source) throws XWikiVelocityException
+    {
+        if (this.templateCache != null) {
+            // Reuse the already parsed script if any
+            this.templateCache.process(template, StringUtils.defaultString(namespace), source);
+        } else {
+            // Set source
+            template.setResourceLoader(new SingletonResourceReader(source));
+
+            template.process();
+        }
+    }
+
     private void cleanIntrospectionCache(Context context)
     {
         try {
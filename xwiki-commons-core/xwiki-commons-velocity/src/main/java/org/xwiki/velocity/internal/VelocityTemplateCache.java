@@ -0,0 +1,263 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.velocity.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.velocity.Template;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.cache.event.AbstractCacheEntryListener;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.velocity.XWikiVelocityException;
+
+/**
+ * Bounded cache of parsed Velocity scripts, indexed by namespace and source content.
+ * <p>
+ * The cached {@link Template}s are only used to hold the parsed tree and the macros defined by the script: they are
+ * never merged directly.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class VelocityTemplateCache
+{
+    /**
+     * A parsed script.
+     *
+     * @version $Id$
+     */
+    public static final class CachedTemplate
+    {
+        private final String source;
+
+        private final Template template;
+
+        /**
+         * @param source the source of the script
+         * @param template the template holding the parsed tree and the macros defined by the script
+         */
+        public CachedTemplate(String source, Template template)
+        {
+            this.source = source;
+            this.template = template;
+        }
+
+        /**
+         * @return the template holding the parsed tree and the macros defined by the script
+         */
+        public Template getTemplate()
+        {
+            return this.template;
+        }
+    }
+
+    private static final String CACHE_ID = "velocity.templates.";
+
+    /**
+     * Used to give each cache its own identifier since parsed scripts can't be shared between Velocity runtimes.
+     */
+    private static final AtomicLong CACHE_COUNTER = new AtomicLong();
+
+    private final Cache<CachedTemplate> cache;
+
+    private final RuntimeServices runtimeServices;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param componentManager the component manager used to lookup the {@link CacheManager}
+     * @param size the maximum number of parsed scripts to keep
+     * @param runtimeServices the Velocity runtime used to parse the scripts
+     * @throws XWikiVelocityException when failing to create the cache
+     */
+    public VelocityTemplateCache(ComponentManager componentManager, int size, RuntimeServices runtimeServices)
+        throws XWikiVelocityException
+    {
+        try {
+            CacheManager cacheManager = componentManager.getInstance(CacheManager.class);
+            this.cache = cacheManager.createNewCache(
+                new LRUCacheConfiguration(CACHE_ID + CACHE_COUNTER.incrementAndGet(), size));
+        } catch (ComponentLookupException | CacheException e) {
+            throw new XWikiVelocityException("Failed to create the Velocity templates cache", e);
+        }
+        this.runtimeServices = runtimeServices;
+
+        this.cache.addCacheEntryListener(new AbstractCacheEntryListener<CachedTemplate>()
+        {
+            @Override
+            public void cacheEntryRemoved(CacheEntryEvent<CachedTemplate> event)
+            {
+                evictions.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Prepare the passed namespace template for the merge of the passed script, reusing the parsed tree from the cache
+     * when the same script was already parsed in the same namespace.
+     *
+     * @param template the template of the namespace
+     * @param namespace the namespace of the script
+     * @param source the source of the script
+     * @throws XWikiVelocityException when failing to read the script
+     */
+    public void process(Template template, String namespace, Reader source) throws XWikiVelocityException
+    {
+        String content;
+        try {
+            content = IOUtils.toString(source);
+        } catch (IOException e) {
+            throw new XWikiVelocityException("Failed to read the script", e);
+        }
+
+        CachedTemplate cachedTemplate = get(namespace, content);
+        if (cachedTemplate == null) {
+            cachedTemplate = new CachedTemplate(content, parse(template, namespace, content));
+            set(namespace, cachedTemplate);
+        }
+
+        if (template.getData() == null) {
+            // Make sure the template is initialized (scope control, etc.) since it's never processed otherwise
+            template.setResourceLoader(new DefaultVelocityEngine.SingletonResourceReader(new StringReader("")));
+            template.process();
+        }
+
+        // Register the macros defined by the script in the current namespace
+        template.getMacros().putAll(cachedTemplate.getTemplate().getMacros());
+
+        template.setData(cachedTemplate.getTemplate().getData());
+    }
+
+    /**
+     * Parse the script in a dedicated {@link Template} so that the parsed tree can be shared between namespaces and
+     * threads.
+     */
+    private Template parse(Template namespaceTemplate, String namespace, String content)
+    {
+        Template template = new Template();
+        template.setName(namespace);
+        template.setRuntimeServices(this.runtimeServices);
+        template.setResourceLoader(new DefaultVelocityEngine.SingletonResourceReader(new StringReader(content)));
+
+        // Make the macros already known by the namespace visible to the parser
+        Map<String, Object> knownMacros = new HashMap<>(namespaceTemplate.getMacros());
+        template.getMacros().putAll(knownMacros);
+
+        template.process();
+
+        // Only keep the macros defined by the script to not leak the macros of the current namespace in the cache
+        template.getMacros().entrySet().removeIf(entry -> knownMacros.get(entry.getKey()) == entry.getValue());
+
+        return template;
+    }
+
+    private String getKey(String namespace, String source)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(namespace.length());
+        builder.append(':');
+        builder.append(namespace);
+        builder.append(':');
+        builder.append(source.length());
+        builder.append(':');
+        builder.append(source.hashCode());
+
+        return builder.toString();
+    }
+
+    /**
+     * @param namespace the namespace of the script
+     * @param source the source of the script
+     * @return the parsed script or null if it's not in the cache
+     */
+    public CachedTemplate get(String namespace, String source)
+    {
+        CachedTemplate cachedTemplate = this.cache.get(getKey(namespace, source));
+
+        // Protect against hash collisions
+        if (cachedTemplate != null && cachedTemplate.source.equals(source)) {
+            this.hits.incrementAndGet();
+
+            return cachedTemplate;
+        }
+
+        this.misses.incrementAndGet();
+
+        return null;
+    }
+
+    /**
+     * @param namespace the namespace of the script
+     * @param cachedTemplate the parsed script
+     */
+    public void set(String namespace, CachedTemplate cachedTemplate)
+    {
+        this.cache.set(getKey(namespace, cachedTemplate.source), cachedTemplate);
+    }
+
+    /**
+     * @return the number of times a parsed script was found in the cache
+     */
+    public long getHitCount()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of times a script had to be parsed
+     */
+    public long getMissCount()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of parsed scripts removed from the cache
+     */
+    public long getEvictionCount()
+    {
+        return this.evictions.get();
+    }
+
+    /**
+     * Release the cache.
+     */
+    public void dispose()
+    {
+        this.cache.dispose();
+    }
+}
@@ -22,7 +22,12 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.reflect.TypeUtils;
@@ -58,11 +63,101 @@
 // TODO: Implement TypeConversionHandler instead
 public class MethodArgumentsUberspector extends AbstractChainableUberspector implements RuntimeServicesAware
 {
+    /**
+     * The maximum number of conversion plans cached for each class.
+     */
+    private static final int MAX_CONVERSION_PLANS = 100;
+
     /**
      * The component used to convert method arguments to formal parameter types.
      */
     private ConverterManager converterManager;
 
+    /**
+     * The conversions to try for each combination of method name and argument classes (an empty array when no method
+     * can be found), for each class of object. The cache is attached to the class so that it does not prevent it (and
+     * its class loader) from being garbage collected and it's limited in size to not keep forever the classes of the
+     * arguments (which might come from an uninstalled extension).
+     */
+    private final ClassValue<Map<ConversionKey, Type[][]>> conversionPlans =
+        new ClassValue<Map<ConversionKey, Type[][]>>()
+        {
+            @Override
+            protected Map<ConversionKey, Type[][]> computeValue(Class<?> type)
+            {
+                return Collections.synchronizedMap(new ConversionPlanCache());
+            }
+        };
+
+    /**
+     * The key of the conversions cache of a class: the name of the method and the classes of the arguments.
+     *
+     * @version $Id$
+     */
+    private static final class ConversionKey
+    {
+        private final String methodName;
+
+        private final Class<?>[] classes;
+
+        private final int hashCode;
+
+        ConversionKey(String methodName, Object[] args)
+        {
+            this.methodName = methodName;
+
+            this.classes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; ++i) {
+                this.classes[i] = args[i] != null ? args[i].getClass() : null;
+            }
+
+            this.hashCode = 31 * methodName.hashCode() + Arrays.hashCode(this.classes);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj instanceof ConversionKey) {
+                ConversionKey otherKey = (ConversionKey) obj;
+
+                return this.methodName.equals(otherKey.methodName) && Arrays.equals(this.classes, otherKey.classes);
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * The conversion plans of a class, the least recently used ones being removed when the cache is full.
+     *
+     * @version $Id$
+     */
+    private static final class ConversionPlanCache extends LinkedHashMap<ConversionKey, Type[][]>
+    {
+        private static final long serialVersionUID = 1L;
+
+        ConversionPlanCache()
+        {
+            super(16, 0.75F, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ConversionKey, Type[][]> eldest)
+        {
+            return size() > MAX_CONVERSION_PLANS;
+        }
+    }
+
     @Override
     public void setRuntimeServices(RuntimeServices runtimeServices)
     {
@@ -138,33 +233,89 @@ public VelMethod getMethod(Object obj, String methodName, Object[] args, Info i)
      */
     private Object[] convertArguments(Object obj, String methodName, Object[] args)
     {
-        for (Method method : obj.getClass().getMethods()) {
+        for (Type[] targetTypes : getConversionPlans(obj.getClass(), methodName, args)) {
+            try {
+                return convertArguments(args, targetTypes);
+            } catch (Exception e) {
+                // Ignore and try the next method.
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Tries to convert the given arguments to the specified types.
+     * <p>
+     * Throws a runtime exception if the conversion fails.
+     *
+     * @param arguments the method actual arguments
+     * @param targetTypes the types to convert the arguments to ({@code null} when the argument should not be
+     *            converted)
+     * @return a new array of arguments where some values have been converted to match the formal method parameter types
+     */
+    private Object[] convertArguments(Object[] arguments, Type[] targetTypes)
+    {
+        Object[] convertedArguments = Arrays.copyOf(arguments, arguments.length);
+        for (int i = 0; i < arguments.length; i++) {
+            if (targetTypes[i] != null) {
+                convertedArguments[i] = this.converterManager.convert(targetTypes[i], arguments[i]);
+            }
+        }
+
+        return convertedArguments;
+    }
+
+    /**
+     * @param type the type of the object the method is invoked on
+     * @param methodName the method we're looking for
+     * @param args the method arguments
+     * @return the conversions to try, in order, for each candidate method
+     */
+    private Type[][] getConversionPlans(Class<?> type, String methodName, Object[] args)
+    {
+        Map<ConversionKey, Type[][]> plansCache = this.conversionPlans.get(type);
+        ConversionKey key = new ConversionKey(methodName, args);
+
+        Type[][] plans = plansCache.get(key);
+        if (plans == null) {
+            plans = createConversionPlans(type, methodName, args);
+
+            plansCache.put(key, plans);
+        }
+
+        return plans;
+    }
+
+    private Type[][] createConversionPlans(Class<?> type, String methodName, Object[] args)
+    {
+        List<Type[]> plans = new ArrayList<>();
+
+        for (Method method : type.getMethods()) {
             if (method.getName().equalsIgnoreCase(methodName)
                 && (method.getGenericParameterTypes().length == args.length || method.isVarArgs())) {
                 try {
-                    return convertArguments(args, method.getGenericParameterTypes(), method.isVarArgs());
+                    plans.add(getTargetTypes(args, method.getGenericParameterTypes(), method.isVarArgs()));
                 } catch (Exception e) {
                     // Ignore and try the next method.
                 }
             }
         }
 
-        return null;
+        return plans.toArray(new Type[0][]);
     }
 
     /**
-     * Tries to convert the given arguments to match the specified formal parameters types.
-     * <p>
-     * Throws a runtime exception if the conversion fails.
+     * Find which of the given arguments need to be converted to match the specified formal parameters types.
      *
      * @param arguments the method actual arguments
      * @param parameterTypes the method formal parameter types
      * @param isVarArgs true if the method contains a varargs (ie the last parameter is a varargs)
-     * @return a new array of arguments where some values have been converted to match the formal method parameter types
+     * @return the type to convert each argument to, {@code null} for arguments which don't need to be converted
      */
-    private Object[] convertArguments(Object[] arguments, Type[] parameterTypes, boolean isVarArgs)
+    private Type[] getTargetTypes(Object[] arguments, Type[] parameterTypes, boolean isVarArgs)
     {
-        Object[] convertedArguments = Arrays.copyOf(arguments, arguments.length);
+        Type[] targetTypes = new Type[arguments.length];
         for (int i = 0; i < arguments.length; i++) {
             // Try to convert the argument if it's not null and if it doesn't match the parameter type.
             // If the method is a varargs then extract the type from the vararg array
@@ -176,11 +327,11 @@ private Object[] convertArguments(Object[] arguments, Type[] parameterTypes, boo
             }
 
             if (arguments[i] != null && !TypeUtils.isInstance(arguments[i], expectedType)) {
-                convertedArguments[i] = this.converterManager.convert(expectedType, arguments[i]);
+                targetTypes[i] = expectedType;
             }
         }
 
-        return convertedArguments;
+        return targetTypes;
     }
 
     /**
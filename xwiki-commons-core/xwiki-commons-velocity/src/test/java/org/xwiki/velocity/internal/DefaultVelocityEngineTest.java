@@ -23,7 +23,9 @@
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.velocity.context.Context;
@@ -31,6 +33,10 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.internal.MapCache;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.context.Execution;
@@ -40,13 +46,21 @@
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.LogCaptureExtension;
 import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+import org.xwiki.velocity.VelocityEngine;
 import org.xwiki.velocity.XWikiVelocityContext;
 import org.xwiki.velocity.XWikiVelocityException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -109,6 +123,9 @@ public String evaluate(String input, String namespace) throws XWikiVelocityExcep
     @InjectMockComponents
     private DefaultVelocityEngine engine;
 
+    @InjectComponentManager
+    private MockitoComponentManager mocker;
+
     @MockComponent
     private Execution execution;
 
@@ -390,6 +407,115 @@ void evaluateMacroNamespaceCleanup() throws Exception
         assertEvaluate("#mymacro", "#mymacro", "namespace");
     }
 
+    @Test
+    void evaluateWithTemplateCache() throws Exception
+    {
+        when(this.configurationSource.getProperty("velocity.templateCache.size", Integer.class)).thenReturn(10);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(this.componentManager.getInstance(CacheManager.class)).thenReturn(cacheManager);
+        when(cacheManager.createNewCache(any())).thenAnswer(invocation -> new MapCache<>());
+
+        this.engine.initialize(new Properties());
+
+        assertEvaluate("{}", "$template");
+
+        this.engine.startedUsingMacroNamespace("namespace");
+
+        assertEvaluate("#mymacro", "#mymacro", "namespace");
+
+        this.engine.evaluate(new XWikiVelocityContext(), new StringWriter(), "namespace", "#macro(mymacro)test#end");
+
+        // Reuse the tree parsed before the macro was defined
+        assertEvaluate("test", "#mymacro", "namespace");
+
+        this.engine.stoppedUsingMacroNamespace("namespace");
+
+        // Make sure the macros defined in another namespace are not visible
+        this.engine.startedUsingMacroNamespace("namespace");
+        assertEvaluate("#mymacro", "#mymacro", "namespace");
+        this.engine.stoppedUsingMacroNamespace("namespace");
+
+        // Make sure the macros defined by a cached script are registered again
+        this.engine.startedUsingMacroNamespace("namespace");
+        this.engine.evaluate(new XWikiVelocityContext(), new StringWriter(), "namespace", "#macro(mymacro)test#end");
+        assertEvaluate("test", "#mymacro", "namespace");
+        this.engine.stoppedUsingMacroNamespace("namespace");
+
+        VelocityTemplateCache templateCache = this.engine.getTemplateCache();
+        assertEquals(4, templateCache.getHitCount());
+        assertEquals(3, templateCache.getMissCount());
+        assertEquals(0, templateCache.getEvictionCount());
+    }
+
+    @Test
+    void evaluateWithTemplateCacheInSeveralEngines() throws Exception
+    {
+        when(this.configurationSource.getProperty("velocity.templateCache.size", Integer.class)).thenReturn(10);
+        // Return the same cache for the same identifier, like a real cache manager
+        Map<String, Cache<?>> caches = new LinkedHashMap<>();
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(this.componentManager.getInstance(CacheManager.class)).thenReturn(cacheManager);
+        when(cacheManager.createNewCache(any())).thenAnswer(invocation -> {
+            CacheConfiguration configuration = invocation.getArgument(0);
+
+            return caches.computeIfAbsent(configuration.getConfigurationId(), k -> spy(new MapCache<>()));
+        });
+
+        Properties properties = new Properties();
+        properties.setProperty(RuntimeConstants.SPACE_GOBBLING, "none");
+        this.engine.initialize(properties);
+
+        DefaultVelocityEngine otherEngine =
+            (DefaultVelocityEngine) this.mocker.getInstance(VelocityEngine.class);
+        Properties otherProperties = new Properties();
+        otherProperties.setProperty(RuntimeConstants.SPACE_GOBBLING, "lines");
+        otherEngine.initialize(otherProperties);
+
+        assertEquals(2, caches.size());
+
+        // Each engine defines its own macro (in its own execution context since that's where the macro namespaces
+        // are stored)
+        ExecutionContext context = new ExecutionContext();
+        ExecutionContext otherContext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(context);
+        this.engine.startedUsingMacroNamespace("namespace");
+        this.engine.evaluate(new XWikiVelocityContext(), new StringWriter(), "namespace", "#macro(mymacro)one#end");
+        when(this.execution.getContext()).thenReturn(otherContext);
+        otherEngine.startedUsingMacroNamespace("namespace");
+        otherEngine.evaluate(new XWikiVelocityContext(), new StringWriter(), "namespace", "#macro(mymacro)two#end");
+
+        // The same script is parsed and executed according to the configuration of each engine
+        String script = "#if(true)\n#mymacro\n#end\n";
+        StringWriter writer = new StringWriter();
+        when(this.execution.getContext()).thenReturn(context);
+        this.engine.evaluate(new XWikiVelocityContext(), writer, "namespace", script);
+        assertEquals("\none\n\n", writer.toString());
+        writer = new StringWriter();
+        when(this.execution.getContext()).thenReturn(otherContext);
+        otherEngine.evaluate(new XWikiVelocityContext(), writer, "namespace", script);
+        assertEquals("two", writer.toString());
+
+        otherEngine.stoppedUsingMacroNamespace("namespace");
+        when(this.execution.getContext()).thenReturn(context);
+        this.engine.stoppedUsingMacroNamespace("namespace");
+
+        // The cache of an engine is released with it or when it's initialized again
+        otherEngine.dispose();
+        assertNull(otherEngine.getTemplateCache());
+        this.engine.initialize(properties);
+
+        assertEquals(3, caches.size());
+        caches.values().stream().limit(2).forEach(cache -> verify(cache).dispose());
+    }
+
+    @Test
+    void initializeWithoutTemplateCache() throws Exception
+    {
+        this.engine.initialize(new Properties());
+
+        assertNull(this.engine.getTemplateCache());
+    }
+
     @Test
     void evaluateWithStopCommand() throws Exception
     {
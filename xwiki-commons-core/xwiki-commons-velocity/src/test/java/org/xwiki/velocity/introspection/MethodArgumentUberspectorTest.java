@@ -212,6 +212,17 @@ void getMethodWhenVarargsWithConversionAndVarargParamPassedNeedingConversion() t
         assertEquals("success 10.0 10.0", writer.toString());
     }
 
+    @Test
+    void getMethodWhenConversionIsRepeated() throws Exception
+    {
+        when(this.converterManager.convert(Integer.class, "10")).thenReturn(10);
+        when(this.converterManager.convert(Double.class, "1.0")).thenReturn(1.0);
+        when(this.converterManager.convert(Double.class, "2.0")).thenReturn(2.0);
+        this.engine.evaluate(this.context, this.writer, "template",
+            new StringReader("#foreach ($value in ['1.0', '2.0', 3.0])$var.methodWithVararg('10', $value) #end"));
+        assertEquals("success 1.0 success 2.0 success 3.0 ", writer.toString());
+    }
+
     /**
      * This used to fail, see <a href="https://jira.xwiki.org/browse/XCOMMONS-710">XCOMMONS-710</a>.
      */
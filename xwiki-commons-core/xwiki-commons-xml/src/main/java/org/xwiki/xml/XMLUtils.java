@@ -51,6 +51,7 @@
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xwiki.stability.Unstable;
 
 /**
  * XML Utility methods.
@@ -99,6 +100,12 @@
     /** Regular expression recognizing XML-escaped "greater than" characters. */
     private static final Pattern GT_PATTERN = Pattern.compile("&(?:gt|#0*+62|#x0*+3[eE]);");
 
+    /** The replacement of the characters to escape in attribute values, indexed by character. */
+    private static final String[] ATTRIBUTE_VALUE_ESCAPES = new String['{' + 1];
+
+    /** The replacement of the characters to escape in element content, indexed by character. */
+    private static final String[] ELEMENT_CONTENT_ESCAPES = new String['>' + 1];
+
     /** Helper object for manipulating DOM Level 3 Load and Save APIs. */
     private static final DOMImplementationLS LS_IMPL;
 
@@ -106,6 +113,15 @@
     private static final String DISABLE_DTD_PARAM = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
 
     static {
+        ELEMENT_CONTENT_ESCAPES['&'] = AMP;
+        ELEMENT_CONTENT_ESCAPES['<'] = LT;
+        ELEMENT_CONTENT_ESCAPES['>'] = GT;
+
+        System.arraycopy(ELEMENT_CONTENT_ESCAPES, 0, ATTRIBUTE_VALUE_ESCAPES, 0, ELEMENT_CONTENT_ESCAPES.length);
+        ATTRIBUTE_VALUE_ESCAPES['\''] = APOS;
+        ATTRIBUTE_VALUE_ESCAPES['"'] = QUOT;
+        ATTRIBUTE_VALUE_ESCAPES['{'] = LCURL;
+
         DOMImplementationLS implementation = null;
         try {
             implementation =
@@ -166,26 +182,58 @@ public static String extractXML(Node node, int start, int length)
      */
     public static String escapeXMLComment(String content)
     {
-        StringBuffer str = new StringBuffer(content.length());
+        if (!needsXMLCommentEscaping(content)) {
+            return content;
+        }
 
-        char[] buff = content.toCharArray();
+        StringBuilder str = new StringBuilder(content.length() + 4);
+
+        try {
+            escapeXMLComment(content, str);
+        } catch (IOException e) {
+            // Cannot happen with a StringBuilder
+        }
+
+        return str.toString();
+    }
+
+    /**
+     * Same as {@link #escapeXMLComment(String)} but append the escaped content to the passed output instead of
+     * creating a new {@link String}.
+     *
+     * @param content the XML comment content to escape
+     * @param out where to append the escaped content
+     * @throws IOException when failing to append to the output
+     * @see #escapeXMLComment(String)
+     * @since 12.7
+     */
+    @Unstable
+    public static void escapeXMLComment(CharSequence content, Appendable out) throws IOException
+    {
+        int length = content.length();
+        int start = 0;
         char lastChar = 0;
-        for (char c : buff) {
-            if (c == '\\') {
-                str.append('\\');
-            } else if (c == '-' && lastChar == '-') {
-                str.append('\\');
+        for (int i = 0; i < length; ++i) {
+            char c = content.charAt(i);
+            if (c == '\\' || (c == '-' && lastChar == '-')) {
+                out.append(content, start, i);
+                out.append('\\');
+                start = i;
             }
 
-            str.append(c);
             lastChar = c;
         }
 
+        out.append(content, start, length);
+
         if (lastChar == '-') {
-            str.append('\\');
+            out.append('\\');
         }
+    }
 
-        return str.toString();
+    private static boolean needsXMLCommentEscaping(String content)
+    {
+        return content.indexOf('\\') >= 0 || content.contains("--") || content.endsWith("-");
     }
 
     /**
@@ -239,39 +287,23 @@ public static String escape(Object content)
      */
     public static String escapeAttributeValue(Object content)
     {
-        if (content == null) {
-            return null;
-        }
-        String str = String.valueOf(content);
-        StringBuilder result = new StringBuilder((int) (str.length() * 1.1));
-        int length = str.length();
-        char c;
-        for (int i = 0; i < length; ++i) {
-            c = str.charAt(i);
-            switch (c) {
-                case '&':
-                    result.append(AMP);
-                    break;
-                case '\'':
-                    result.append(APOS);
-                    break;
-                case '"':
-                    result.append(QUOT);
-                    break;
-                case '<':
-                    result.append(LT);
-                    break;
-                case '>':
-                    result.append(GT);
-                    break;
-                case '{':
-                    result.append(LCURL);
-                    break;
-                default:
-                    result.append(c);
-            }
-        }
-        return result.toString();
+        return escape(content, ATTRIBUTE_VALUE_ESCAPES);
+    }
+
+    /**
+     * Same as {@link #escapeAttributeValue(Object)} but append the escaped content to the passed output instead of
+     * creating a new {@link String}.
+     *
+     * @param content the text to escape
+     * @param out where to append the escaped content
+     * @throws IOException when failing to append to the output
+     * @see #escapeAttributeValue(Object)
+     * @since 12.7
+     */
+    @Unstable
+    public static void escapeAttributeValue(CharSequence content, Appendable out) throws IOException
+    {
+        escape(content, 0, ATTRIBUTE_VALUE_ESCAPES, out);
     }
 
     /**
@@ -282,33 +314,78 @@ public static String escapeAttributeValue(Object content)
      * @return a new escaped {@code String}, {@code null} if {@code null} input
      */
     public static String escapeElementContent(Object content)
+    {
+        return escape(content, ELEMENT_CONTENT_ESCAPES);
+    }
+
+    /**
+     * Same as {@link #escapeElementContent(Object)} but append the escaped content to the passed output instead of
+     * creating a new {@link String}.
+     *
+     * @param content the text to escape
+     * @param out where to append the escaped content
+     * @throws IOException when failing to append to the output
+     * @see #escapeElementContent(Object)
+     * @since 12.7
+     */
+    @Unstable
+    public static void escapeElementContent(CharSequence content, Appendable out) throws IOException
+    {
+        escape(content, 0, ELEMENT_CONTENT_ESCAPES, out);
+    }
+
+    private static String escape(Object content, String[] escapes)
     {
         if (content == null) {
             return null;
         }
+
         String str = String.valueOf(content);
-        StringBuilder result = new StringBuilder((int) (str.length() * 1.1));
-        int length = str.length();
-        char c;
-        for (int i = 0; i < length; ++i) {
-            c = str.charAt(i);
-            switch (c) {
-                case '&':
-                    result.append(AMP);
-                    break;
-                case '<':
-                    result.append(LT);
-                    break;
-                case '>':
-                    result.append(GT);
-                    break;
-                default:
-                    result.append(c);
-            }
+
+        // Don't allocate anything when there is nothing to escape
+        int index = indexOfEscape(str, 0, escapes);
+        if (index < 0) {
+            return str;
         }
+
+        StringBuilder result = new StringBuilder(str.length() + 16);
+        result.append(str, 0, index);
+
+        try {
+            escape(str, index, escapes, result);
+        } catch (IOException e) {
+            // Cannot happen with a StringBuilder
+        }
+
         return result.toString();
     }
 
+    private static void escape(CharSequence content, int from, String[] escapes, Appendable out) throws IOException
+    {
+        int length = content.length();
+        int start = from;
+        for (int i = indexOfEscape(content, from, escapes); i >= 0; i = indexOfEscape(content, start, escapes)) {
+            out.append(content, start, i);
+            out.append(escapes[content.charAt(i)]);
+            start = i + 1;
+        }
+
+        out.append(content, start, length);
+    }
+
+    private static int indexOfEscape(CharSequence content, int from, String[] escapes)
+    {
+        int length = content.length();
+        for (int i = from; i < length; ++i) {
+            char c = content.charAt(i);
+            if (c < escapes.length && escapes[c] != null) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Unescape encoded special XML characters. Only &gt;, &lt; &amp;, ", ' and { are unescaped, since they are the only
      * ones that affect the resulting markup.
@@ -323,6 +400,11 @@ public static String unescape(Object content)
         }
         String str = String.valueOf(content);
 
+        // All the supported escapes start with an ampersand
+        if (str.indexOf('&') < 0) {
+            return str;
+        }
+
         str = APOS_PATTERN.matcher(str).replaceAll("'");
         str = QUOT_PATTERN.matcher(str).replaceAll("\"");
         str = LT_PATTERN.matcher(str).replaceAll("<");
@@ -22,6 +22,7 @@
 import java.util.List;
 import java.util.Map;
 
+import org.xwiki.stability.Unstable;
 import org.xwiki.xml.html.filter.HTMLFilter;
 
 /**
@@ -54,6 +55,16 @@
      */
     String TRANSLATE_SPECIAL_ENTITIES = "translateSpecialEntities";
 
+    /**
+     * Cleaning property that enables the measurement of the time spent in each filter. When set to {@code true}, the
+     * time (in nanoseconds) spent in each filter is added to the parameters of the configuration after the cleaning,
+     * with the key {@code filterTimings.<filter class name>}.
+     *
+     * @since 12.7
+     */
+    @Unstable
+    String FILTER_TIMINGS = "filterTimings";
+
     /**
      * @return the ordered list of filters to use for cleaning the HTML content
      */
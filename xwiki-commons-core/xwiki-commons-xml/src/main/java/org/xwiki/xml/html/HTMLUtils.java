@@ -20,9 +20,8 @@
 package org.xwiki.xml.html;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Arrays;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,6 +33,8 @@
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xwiki.stability.Unstable;
+import org.xwiki.xml.internal.html.XHTMLDocumentSerializer;
 
 /**
  * HTML Utility methods.
@@ -44,14 +45,6 @@
 // TODO: Create a separate class for each HTML version (XHTML 1.0, HTML5, etc...)
 public final class HTMLUtils
 {
-    /**
-     * In HTML5, some elements must be expanded (for example {@code <span></span>} instead of {@code <span />}), and
-     * some others must not (for example {@code <br />} instead of {@code <br></br>}. Thus for the list of elements
-     * below we need special handling (not expanding).
-     */
-    private static final List<String> OMIT_ELEMENT_EXPANDING_SET = Arrays.asList(
-        "area", "base", "br", "col", "hr", "img", "input", "link", "meta", "param");
-
     /**
      * JDOM's XMLOutputter class converts reserved XML character ({@code &}) into its entity
      * format {@code &amp;}. However since we're using HTML Cleaner
@@ -64,7 +57,8 @@
      * <pre>{@code
      * <br>
      * </br>}</pre>
-     * is not. See {@code OMIT_ELEMENT_EXPANDING_SET} for the list of elements to not expand.
+     * is not. The elements which are not expanded are the void elements: {@code area}, {@code base}, {@code br},
+     * {@code col}, {@code hr}, {@code img}, {@code input}, {@code link}, {@code meta} and {@code param}.
      */
     // TODO: Remove the complex escaping code when SF HTML Cleaner will do proper escaping
     public static class XWikiXMLOutputter extends XMLOutputter
@@ -161,13 +155,9 @@ protected void printElement(Writer out, Element element, int level, NamespaceSta
             // We override the code from the super class to not expand some empty elements.
             boolean currentFormatPolicy = currentFormat.getExpandEmptyElements();
             try {
-                String elementName = element.getName();
-                for (String name : OMIT_ELEMENT_EXPANDING_SET) {
-                    if (name.equals(elementName)) {
-                        // We do not expand this empty element
-                        currentFormat.setExpandEmptyElements(false);
-                        break;
-                    }
+                if (XHTMLDocumentSerializer.OMIT_ELEMENT_EXPANDING_SET.contains(element.getName())) {
+                    // We do not expand this empty element
+                    currentFormat.setExpandEmptyElements(false);
                 }
 
                 // Call the method from the super class
@@ -204,12 +194,32 @@ public static String toString(Document document)
      * @return the XML as a String
      */
     public static String toString(Document document, boolean omitDeclaration, boolean omitDoctype)
+    {
+        StringWriter writer = new StringWriter();
+
+        try {
+            toString(document, writer, omitDeclaration, omitDoctype);
+        } catch (IOException e) {
+            // Cannot happen with a StringWriter
+        }
+
+        return writer.toString();
+    }
+
+    /**
+     * @param document the W3C Document to serialize
+     * @param writer the writer where to serialize the document
+     * @param omitDeclaration whether the XML declaration should be printed or not
+     * @param omitDoctype whether the document type should be printed or not
+     * @throws IOException when failing to write the document
+     * @since 12.7
+     */
+    @Unstable
+    public static void toString(Document document, Writer writer, boolean omitDeclaration, boolean omitDoctype)
+        throws IOException
     {
         // Note: We don't use javax.xml.transform.Transformer since it prints our valid XHTML as HTML which is not
         // XHTML compliant. For example it transforms our "<hr/>" into "<hr>.
-        DOMBuilder builder = new DOMBuilder();
-        org.jdom.Document jdomDoc = builder.build(document);
-
         Format format = Format.getRawFormat();
         // Force newlines to use \n since otherwise the default is \n\r.
         // See http://www.jdom.org/docs/apidocs/org/jdom/output/Format.html#setLineSeparator(java.lang.String)
@@ -223,7 +233,15 @@ public static String toString(Document document, boolean omitDeclaration, boolea
 
         XMLOutputter outputter = new XWikiXMLOutputter(format, omitDoctype);
 
-        return outputter.outputString(jdomDoc);
+        if (XHTMLDocumentSerializer.isSupported(document)) {
+            // Serialize the DOM directly instead of duplicating it as a JDOM document
+            new XHTMLDocumentSerializer(outputter, writer).serialize(document, omitDeclaration);
+        } else {
+            DOMBuilder builder = new DOMBuilder();
+            org.jdom.Document jdomDoc = builder.build(document);
+
+            outputter.output(jdomDoc, writer);
+        }
     }
 
     /**
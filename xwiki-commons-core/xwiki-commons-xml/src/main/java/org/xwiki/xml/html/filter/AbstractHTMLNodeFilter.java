@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.html.filter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Text;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Base class for {@link HTMLNodeFilter} implementations: not interested in any node by default and able to filter a
+ * document on its own.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Unstable
+public abstract class AbstractHTMLNodeFilter extends AbstractHTMLFilter implements HTMLNodeFilter
+{
+    @Override
+    public void filter(Document document, Map<String, String> cleaningParameters)
+    {
+        new FusedHTMLFilter(Collections.singletonList(this)).filter(document, cleaningParameters);
+    }
+
+    @Override
+    public Set<String> getElementNames()
+    {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<String> getAttributeNames()
+    {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public boolean isFilteringText()
+    {
+        return false;
+    }
+
+    @Override
+    public void filterElement(Element element, Map<String, String> cleaningParameters)
+    {
+        // Not interested by elements by default
+    }
+
+    @Override
+    public void filterAttribute(Attr attribute, Map<String, String> cleaningParameters)
+    {
+        // Not interested by attributes by default
+    }
+
+    @Override
+    public void filterText(Text text, Map<String, String> cleaningParameters)
+    {
+        // Not interested by text by default
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.html.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Apply several {@link HTMLNodeFilter}s with a single traversal of the document.
+ * <p>
+ * The nodes each filter is interested in are collected during the traversal and then passed to the filters, one filter
+ * after the other, in the order of the filter list. This way each filter still see the modifications made by the
+ * previous ones (as long as they don't need to be notified about nodes created by the previous filters).
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Unstable
+public class FusedHTMLFilter implements HTMLFilter
+{
+    private static final int[] NO_FILTER = new int[0];
+
+    private final List<HTMLNodeFilter> filters;
+
+    private final Map<String, int[]> elementFilters = new HashMap<>();
+
+    private final Map<String, int[]> attributeFilters = new HashMap<>();
+
+    private final int[] textFilters;
+
+    /**
+     * @param filters the filters to apply, in that order
+     */
+    public FusedHTMLFilter(List<? extends HTMLNodeFilter> filters)
+    {
+        this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+
+        List<Integer> texts = new ArrayList<>();
+        for (int i = 0; i < this.filters.size(); ++i) {
+            HTMLNodeFilter filter = this.filters.get(i);
+            for (String elementName : filter.getElementNames()) {
+                register(this.elementFilters, elementName, i);
+            }
+            for (String attributeName : filter.getAttributeNames()) {
+                register(this.attributeFilters, attributeName, i);
+            }
+            if (filter.isFilteringText()) {
+                texts.add(i);
+            }
+        }
+        this.textFilters = texts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void register(Map<String, int[]> index, String name, int filterIndex)
+    {
+        int[] current = index.getOrDefault(name, NO_FILTER);
+        int[] updated = new int[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = filterIndex;
+        index.put(name, updated);
+    }
+
+    /**
+     * @return the filters applied by this fused filter, in that order
+     */
+    public List<HTMLNodeFilter> getFilters()
+    {
+        return this.filters;
+    }
+
+    @Override
+    public void filter(Document document, Map<String, String> cleaningParameters)
+    {
+        filter(document, cleaningParameters, null);
+    }
+
+    /**
+     * @param document the {@link Document} with html code
+     * @param cleaningParameters additional cleaning parameters for the filters
+     * @param timings if not null, the time (in nanoseconds) spent in each filter is added to this map, the time spent
+     *            traversing the document being associated to this fused filter
+     */
+    public void filter(Document document, Map<String, String> cleaningParameters, Map<HTMLFilter, Long> timings)
+    {
+        long start = System.nanoTime();
+
+        List<List<Node>> nodes = collect(document);
+
+        if (timings != null) {
+            timings.merge(this, System.nanoTime() - start, Long::sum);
+        }
+
+        for (int i = 0; i < this.filters.size(); ++i) {
+            HTMLNodeFilter filter = this.filters.get(i);
+
+            start = System.nanoTime();
+
+            for (Node node : nodes.get(i)) {
+                if (node instanceof Element) {
+                    filter.filterElement((Element) node, cleaningParameters);
+                } else if (node instanceof Attr) {
+                    filter.filterAttribute((Attr) node, cleaningParameters);
+                } else {
+                    filter.filterText((Text) node, cleaningParameters);
+                }
+            }
+
+            if (timings != null) {
+                timings.merge(filter, System.nanoTime() - start, Long::sum);
+            }
+        }
+    }
+
+    private List<List<Node>> collect(Document document)
+    {
+        List<List<Node>> nodes = new ArrayList<>(this.filters.size());
+        for (int i = 0; i < this.filters.size(); ++i) {
+            nodes.add(new ArrayList<>());
+        }
+
+        // Depth first traversal of the document, in document order
+        Node node = document.getFirstChild();
+        while (node != null) {
+            collect(node, nodes);
+
+            Node next = node.getFirstChild();
+            while (next == null && node != null) {
+                next = node.getNextSibling();
+                if (next == null) {
+                    node = node.getParentNode();
+                }
+            }
+            node = next;
+        }
+
+        return nodes;
+    }
+
+    private void collect(Node node, List<List<Node>> nodes)
+    {
+        if (node instanceof Element) {
+            add(node, this.elementFilters.get(node.getNodeName()), nodes);
+
+            if (!this.attributeFilters.isEmpty()) {
+                NamedNodeMap attributes = node.getAttributes();
+                for (int i = 0; i < attributes.getLength(); ++i) {
+                    Node attribute = attributes.item(i);
+                    add(attribute, this.attributeFilters.get(attribute.getNodeName()), nodes);
+                }
+            }
+        } else if (node instanceof Text) {
+            add(node, this.textFilters, nodes);
+        }
+    }
+
+    private void add(Node node, int[] filterIndexes, List<List<Node>> nodes)
+    {
+        if (filterIndexes != null) {
+            for (int filterIndex : filterIndexes) {
+                nodes.get(filterIndex).add(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.html.filter;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Text;
+import org.xwiki.stability.Unstable;
+
+/**
+ * A {@link HTMLFilter} which only needs to be notified about some of the nodes of the document. This allows the
+ * {@link org.xwiki.xml.html.HTMLCleaner} to apply several such filters with a single traversal of the document (see
+ * {@link FusedHTMLFilter}).
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+@Unstable
+public interface HTMLNodeFilter extends HTMLFilter
+{
+    /**
+     * @return the names of the elements to pass to {@link #filterElement(Element, Map)}
+     */
+    Set<String> getElementNames();
+
+    /**
+     * @return the names of the attributes to pass to {@link #filterAttribute(Attr, Map)}
+     */
+    Set<String> getAttributeNames();
+
+    /**
+     * @return true if the text nodes (including CDATA sections) should be passed to {@link #filterText(Text, Map)}
+     */
+    boolean isFilteringText();
+
+    /**
+     * @param element an element with one of the names returned by {@link #getElementNames()}
+     * @param cleaningParameters additional cleaning parameters for the filter
+     */
+    void filterElement(Element element, Map<String, String> cleaningParameters);
+
+    /**
+     * @param attribute an attribute with one of the names returned by {@link #getAttributeNames()}
+     * @param cleaningParameters additional cleaning parameters for the filter
+     */
+    void filterAttribute(Attr attribute, Map<String, String> cleaningParameters);
+
+    /**
+     * @param text a text node of the document
+     * @param cleaningParameters additional cleaning parameters for the filter
+     */
+    void filterText(Text text, Map<String, String> cleaningParameters);
+}
@@ -169,9 +169,7 @@ public Document clean(Reader originalHtmlContent, HTMLCleanerConfiguration confi
         }
 
         // Finally apply filters.
-        for (HTMLFilter filter : configuration.getFilters()) {
-            filter.filter(result, configuration.getParameters());
-        }
+        new HTMLFilterPipeline(configuration).filter(result);
 
         return result;
     }
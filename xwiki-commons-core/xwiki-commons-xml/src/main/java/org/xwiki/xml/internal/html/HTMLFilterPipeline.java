@@ -0,0 +1,105 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.internal.html;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.w3c.dom.Document;
+import org.xwiki.xml.html.HTMLCleanerConfiguration;
+import org.xwiki.xml.html.filter.FusedHTMLFilter;
+import org.xwiki.xml.html.filter.HTMLFilter;
+import org.xwiki.xml.html.filter.HTMLNodeFilter;
+
+/**
+ * Apply the filters of a {@link HTMLCleanerConfiguration} to a document, fusing consecutive {@link HTMLNodeFilter}s so
+ * that they share the same traversal of the document.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public class HTMLFilterPipeline
+{
+    private final HTMLCleanerConfiguration configuration;
+
+    private final Map<String, String> parameters;
+
+    private final Map<HTMLFilter, Long> timings;
+
+    private final List<HTMLNodeFilter> nodeFilters = new ArrayList<>();
+
+    /**
+     * @param configuration the configuration containing the filters to apply and their parameters
+     */
+    public HTMLFilterPipeline(HTMLCleanerConfiguration configuration)
+    {
+        this.configuration = configuration;
+        this.parameters = configuration.getParameters();
+        this.timings = Boolean.parseBoolean(this.parameters.get(HTMLCleanerConfiguration.FILTER_TIMINGS))
+            ? new LinkedHashMap<>() : null;
+    }
+
+    /**
+     * @param document the document to filter
+     */
+    public void filter(Document document)
+    {
+        for (HTMLFilter filter : this.configuration.getFilters()) {
+            if (filter instanceof HTMLNodeFilter) {
+                this.nodeFilters.add((HTMLNodeFilter) filter);
+            } else {
+                flushNodeFilters(document);
+
+                long start = System.nanoTime();
+                filter.filter(document, this.parameters);
+                if (this.timings != null) {
+                    this.timings.merge(filter, System.nanoTime() - start, Long::sum);
+                }
+            }
+        }
+        flushNodeFilters(document);
+
+        if (this.timings != null) {
+            reportTimings();
+        }
+    }
+
+    private void flushNodeFilters(Document document)
+    {
+        if (!this.nodeFilters.isEmpty()) {
+            new FusedHTMLFilter(this.nodeFilters).filter(document, this.parameters, this.timings);
+            this.nodeFilters.clear();
+        }
+    }
+
+    private void reportTimings()
+    {
+        Map<String, String> parametersWithTimings = new LinkedHashMap<>(this.parameters);
+        for (Map.Entry<HTMLFilter, Long> entry : this.timings.entrySet()) {
+            String key = HTMLCleanerConfiguration.FILTER_TIMINGS + '.' + entry.getKey().getClass().getName();
+            long previous = NumberUtils.toLong(parametersWithTimings.get(key));
+            parametersWithTimings.put(key, String.valueOf(previous + entry.getValue()));
+        }
+        this.configuration.setParameters(parametersWithTimings);
+    }
+}
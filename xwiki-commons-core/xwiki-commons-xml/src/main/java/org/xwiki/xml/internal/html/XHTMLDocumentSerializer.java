@@ -0,0 +1,444 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.internal.html;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jdom.DocType;
+import org.jdom.Verifier;
+import org.jdom.output.XMLOutputter;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Serialize a W3C {@link Document} to XHTML by walking the DOM directly, without building an intermediate JDOM
+ * document.
+ * <p>
+ * The produced output is exactly the one of {@link org.xwiki.xml.html.HTMLUtils.XWikiXMLOutputter} applied to the
+ * JDOM document built by {@link org.jdom.input.DOMBuilder}. Only the documents produced by the HTML cleaner are
+ * supported (no prefixed names, no namespaced attributes, no processing instructions or entity references and only
+ * valid XML content), the other ones should still go through JDOM, see {@link #isSupported(Document)}.
+ *
+ * @version $Id$
+ * @since 12.7
+ */
+public final class XHTMLDocumentSerializer
+{
+    /**
+     * The elements which should not be expanded when empty (for example {@code <br />} and not {@code <br></br>}).
+     */
+    public static final Set<String> OMIT_ELEMENT_EXPANDING_SET = Collections.unmodifiableSet(new HashSet<>(
+        Arrays.asList("area", "base", "br", "col", "hr", "img", "input", "link", "meta", "param")));
+
+    private static final String XMLNS = "xmlns";
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    private static final String CARRIAGE_RETURN_REFERENCE = "&#xD;";
+
+    private final XMLOutputter outputter;
+
+    private final Writer writer;
+
+    /**
+     * @param outputter the outputter used to print the document type
+     * @param writer the writer where to serialize the document
+     */
+    public XHTMLDocumentSerializer(XMLOutputter outputter, Writer writer)
+    {
+        this.outputter = outputter;
+        this.writer = writer;
+    }
+
+    /**
+     * @param document the W3C document to check
+     * @return true if the passed document can be serialized directly from the DOM
+     */
+    public static boolean isSupported(Document document)
+    {
+        NodeList children = document.getChildNodes();
+        for (int i = 0; i < children.getLength(); ++i) {
+            Node child = children.item(i);
+            if (child.getNodeType() != Node.DOCUMENT_TYPE_NODE && !isSupportedContent(child)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSupportedContent(Node node)
+    {
+        boolean supported;
+
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                supported = isSupportedElement((Element) node);
+                break;
+            case Node.TEXT_NODE:
+                supported = Verifier.checkCharacterData(node.getNodeValue()) == null;
+                break;
+            case Node.CDATA_SECTION_NODE:
+                supported = Verifier.checkCDATASection(node.getNodeValue()) == null;
+                break;
+            case Node.COMMENT_NODE:
+                supported = Verifier.checkCommentData(node.getNodeValue()) == null;
+                break;
+            default:
+                // Processing instructions may change the escaping and entity references are printed as is
+                supported = false;
+                break;
+        }
+
+        return supported;
+    }
+
+    private static boolean isSupportedElement(Element element)
+    {
+        String name = element.getNodeName();
+        if (name.indexOf(':') >= 0 || Verifier.checkElementName(name) != null
+            || !isSupportedNamespace(element.getNamespaceURI())) {
+            return false;
+        }
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); ++i) {
+            if (!isSupportedAttribute((Attr) attributes.item(i))) {
+                return false;
+            }
+        }
+
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); ++i) {
+            if (!isSupportedContent(children.item(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSupportedAttribute(Attr attribute)
+    {
+        String name = attribute.getName();
+
+        if (name.startsWith(XMLNS)) {
+            // Only default namespace declarations are supported
+            return name.equals(XMLNS) && isSupportedNamespace(attribute.getValue());
+        }
+
+        String namespace = attribute.getNamespaceURI();
+        if (namespace != null && !namespace.isEmpty()) {
+            return false;
+        }
+
+        return name.indexOf(':') < 0 && Verifier.checkAttributeName(name) == null
+            && Verifier.checkCharacterData(attribute.getValue()) == null;
+    }
+
+    private static boolean isSupportedNamespace(String namespace)
+    {
+        return namespace == null || namespace.isEmpty() || Verifier.checkNamespaceURI(namespace) == null;
+    }
+
+    /**
+     * @param document the W3C document to serialize, it must be supported (see {@link #isSupported(Document)})
+     * @param omitDeclaration whether the XML declaration should be printed or not
+     * @throws IOException when failing to write the document
+     */
+    public void serialize(Document document, boolean omitDeclaration) throws IOException
+    {
+        // Validate the document type before writing anything
+        DocumentType documentType = document.getDoctype();
+        DocType docType = null;
+        if (documentType != null) {
+            docType = new DocType(documentType.getName(), documentType.getPublicId(), documentType.getSystemId());
+            docType.setInternalSubset(documentType.getInternalSubset());
+        }
+
+        if (!omitDeclaration) {
+            this.writer.write(DECLARATION);
+            this.writer.write(LINE_SEPARATOR);
+        }
+
+        NodeList children = document.getChildNodes();
+        for (int i = 0; i < children.getLength(); ++i) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.DOCUMENT_TYPE_NODE) {
+                // Take care of the document type omission
+                this.outputter.output(docType, this.writer);
+                this.writer.write(LINE_SEPARATOR);
+            } else if (child.getNodeType() == Node.ELEMENT_NODE) {
+                writeElement((Element) child, "", null);
+            } else {
+                writeContent(child, "", null);
+            }
+        }
+
+        this.writer.write(LINE_SEPARATOR);
+
+        this.writer.flush();
+    }
+
+    private void writeContent(Node node, String namespace, String declaredNamespace) throws IOException
+    {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                writeElement((Element) node, namespace, declaredNamespace);
+                break;
+            case Node.TEXT_NODE:
+                writeEscaped(node.getNodeValue(), false);
+                break;
+            case Node.CDATA_SECTION_NODE:
+                this.writer.write("<![CDATA[");
+                this.writer.write(node.getNodeValue());
+                this.writer.write("]]>");
+                break;
+            case Node.COMMENT_NODE:
+                this.writer.write("<!--");
+                this.writer.write(node.getNodeValue());
+                this.writer.write("-->");
+                break;
+            default:
+                // Not supported
+                break;
+        }
+    }
+
+    /**
+     * @param element the element to write
+     * @param parentNamespace the namespace of the parent element
+     * @param parentDeclaredNamespace the namespace declared in the output for the parent element or null if none
+     */
+    private void writeElement(Element element, String parentNamespace, String parentDeclaredNamespace)
+        throws IOException
+    {
+        String name = element.getNodeName();
+        String namespace = getNamespace(element, parentNamespace);
+
+        this.writer.write('<');
+        this.writer.write(name);
+
+        String declaredNamespace = parentDeclaredNamespace;
+        if (!(namespace.isEmpty() && declaredNamespace == null) && !namespace.equals(declaredNamespace)) {
+            this.writer.write(" xmlns=\"");
+            writeEscaped(namespace, true);
+            this.writer.write('"');
+            declaredNamespace = namespace;
+        }
+
+        writeAttributes(element);
+
+        NodeList children = element.getChildNodes();
+        if (children.getLength() == 0) {
+            if (OMIT_ELEMENT_EXPANDING_SET.contains(name)) {
+                this.writer.write(" />");
+            } else {
+                this.writer.write("></");
+                this.writer.write(name);
+                this.writer.write('>');
+            }
+        } else {
+            this.writer.write('>');
+            for (int i = 0; i < children.getLength(); ++i) {
+                writeContent(children.item(i), namespace, declaredNamespace);
+            }
+            this.writer.write("</");
+            this.writer.write(name);
+            this.writer.write('>');
+        }
+    }
+
+    /**
+     * Resolve the element namespace the same way {@link org.jdom.input.DOMBuilder} does.
+     */
+    private static String getNamespace(Element element, String parentNamespace)
+    {
+        String namespace = element.getNamespaceURI();
+        if (namespace == null) {
+            namespace = parentNamespace;
+        }
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); ++i) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (attribute.getName().equals(XMLNS)) {
+                namespace = attribute.getValue();
+            }
+        }
+
+        return namespace;
+    }
+
+    private void writeAttributes(Element element) throws IOException
+    {
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); ++i) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (!attribute.getName().equals(XMLNS)) {
+                this.writer.write(' ');
+                this.writer.write(attribute.getName());
+                this.writer.write("=\"");
+                writeEscaped(attribute.getValue(), true);
+                this.writer.write('"');
+            }
+        }
+    }
+
+    private void writeEscaped(String text, boolean attribute) throws IOException
+    {
+        int length = text.length();
+        int start = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+
+            String replacement;
+            int end = i + 1;
+            if (c == '&') {
+                int referenceEnd = getCharacterReferenceEnd(text, i);
+                if (referenceEnd < 0) {
+                    replacement = "&amp;";
+                } else if (!attribute && text.startsWith(CARRIAGE_RETURN_REFERENCE, i)) {
+                    // Carriage return references are resolved in element content
+                    replacement = "\r";
+                    end = referenceEnd;
+                } else {
+                    // Character references are kept as is
+                    replacement = null;
+                }
+            } else if (Character.isHighSurrogate(c)) {
+                replacement = "&#x" + Integer.toHexString(text.codePointAt(i)) + ';';
+                end = i + 2;
+            } else {
+                replacement = attribute ? getAttributeReplacement(c) : getTextReplacement(c);
+            }
+
+            if (replacement != null) {
+                this.writer.write(text, start, i - start);
+                this.writer.write(replacement);
+                start = end;
+            }
+
+            i = end;
+        }
+
+        this.writer.write(text, start, length - start);
+    }
+
+    private static String getTextReplacement(char c)
+    {
+        String replacement;
+
+        switch (c) {
+            case '<':
+                replacement = "&lt;";
+                break;
+            case '>':
+                replacement = "&gt;";
+                break;
+            default:
+                // Carriage return and line feed are kept as is
+                replacement = null;
+                break;
+        }
+
+        return replacement;
+    }
+
+    private static String getAttributeReplacement(char c)
+    {
+        String replacement;
+
+        switch (c) {
+            case '"':
+                replacement = "&quot;";
+                break;
+            case '\r':
+                replacement = CARRIAGE_RETURN_REFERENCE;
+                break;
+            case '\t':
+                replacement = "&#x9;";
+                break;
+            case '\n':
+                replacement = "&#xA;";
+                break;
+            default:
+                replacement = getTextReplacement(c);
+                break;
+        }
+
+        return replacement;
+    }
+
+    /**
+     * @param text the text
+     * @param index the index of the ampersand
+     * @return the index following the character reference starting at the passed index or -1 if there is none
+     */
+    private static int getCharacterReferenceEnd(String text, int index)
+    {
+        int i = index + 1;
+        if (i >= text.length() || text.charAt(i) != '#') {
+            return -1;
+        }
+
+        ++i;
+        boolean hexadecimal = i < text.length() && text.charAt(i) == 'x';
+        if (hexadecimal) {
+            ++i;
+        }
+
+        int digitsStart = i;
+        while (i < text.length() && isDigit(text.charAt(i), hexadecimal)) {
+            ++i;
+        }
+
+        if (i == digitsStart || i == text.length()) {
+            return -1;
+        }
+
+        return text.charAt(i) == ';' ? i + 1 : -1;
+    }
+
+    private static boolean isDigit(char c, boolean hexadecimal)
+    {
+        boolean digit = c >= '0' && c <= '9';
+
+        if (!digit && hexadecimal) {
+            char lowerCase = Character.toLowerCase(c);
+            digit = lowerCase >= 'a' && lowerCase <= 'f';
+        }
+
+        return digit;
+    }
+}
@@ -19,25 +19,19 @@
  */
 package org.xwiki.xml.internal.html.filter;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
-import org.slf4j.Logger;
 import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.xml.html.HTMLConstants;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * Filters attributes that are used by many different elements. Writing transformations for these attributes is tedious
@@ -56,7 +50,7 @@
 @Component
 @Named("attribute")
 @Singleton
-public class AttributeFilter extends AbstractHTMLFilter
+public class AttributeFilter extends AbstractHTMLNodeFilter
 {
     /**
      * The map between HTML attribute names and the corresponding CSS property name.
@@ -68,12 +62,6 @@ public class AttributeFilter extends AbstractHTMLFilter
      */
     private static final String VERTICAL_ALIGN = "vertical-align";
 
-    /**
-     * The logger.
-     */
-    @Inject
-    private Logger logger;
-
     {
         ATTRIBUTE_TO_CSS_PROPERTY.put("align", "text-align");
         ATTRIBUTE_TO_CSS_PROPERTY.put("valign", VERTICAL_ALIGN);
@@ -81,32 +69,13 @@ public class AttributeFilter extends AbstractHTMLFilter
     }
 
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public Set<String> getAttributeNames()
     {
-        StringBuilder xpathExpression = new StringBuilder();
-        for (String attributeName : ATTRIBUTE_TO_CSS_PROPERTY.keySet()) {
-            if (xpathExpression.length() > 0) {
-                xpathExpression.append('|');
-            }
-            xpathExpression.append("//@").append(attributeName);
-        }
-
-        NodeList attributes = null;
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        try {
-            attributes = (NodeList) xpath.evaluate(xpathExpression.toString(), document, XPathConstants.NODESET);
-        } catch (XPathExpressionException e) {
-            // Shouldn't happen.
-            this.logger.error("Failed to apply the HTML attribute cleaning filter.", e);
-            return;
-        }
-
-        for (int i = 0; i < attributes.getLength(); i++) {
-            filterAttribute((Attr) attributes.item(i));
-        }
+        return Collections.unmodifiableSet(ATTRIBUTE_TO_CSS_PROPERTY.keySet());
     }
 
-    private void filterAttribute(Attr attribute)
+    @Override
+    public void filterAttribute(Attr attribute, Map<String, String> cleaningParameters)
     {
         Element element = attribute.getOwnerElement();
         String property = ATTRIBUTE_TO_CSS_PROPERTY.get(attribute.getName());
@@ -20,8 +20,10 @@
 package org.xwiki.xml.internal.html.filter;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -32,7 +34,7 @@
 import org.w3c.dom.Text;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.xml.html.HTMLConstants;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * Wraps direct children of the Body tag with paragraphs. For example {@code a <table>...</table> b <p>c</p> d} is
@@ -44,7 +46,7 @@
 @Component
 @Named("body")
 @Singleton
-public class BodyFilter extends AbstractHTMLFilter
+public class BodyFilter extends AbstractHTMLNodeFilter
 {
     /**
      * List of valid children elements of the BODY element in HTML4 (https://www.w3.org/TR/html4/sgml/dtd.html):
@@ -63,10 +65,18 @@ public class BodyFilter extends AbstractHTMLFilter
         HTMLConstants.TAG_H1, HTMLConstants.TAG_H2, HTMLConstants.TAG_H3, HTMLConstants.TAG_H4, HTMLConstants.TAG_H5,
         HTMLConstants.TAG_H6, HTMLConstants.TAG_DL, HTMLConstants.TAG_OL, HTMLConstants.TAG_UL);
 
+    private static final Set<String> ELEMENT_NAMES = Collections.singleton(HTMLConstants.TAG_BODY);
+
+    @Override
+    public Set<String> getElementNames()
+    {
+        return ELEMENT_NAMES;
+    }
+
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public void filterElement(Element body, Map<String, String> cleaningParameters)
     {
-        Node body = document.getElementsByTagName(HTMLConstants.TAG_BODY).item(0);
+        Document document = body.getOwnerDocument();
         Node currentNode = body.getFirstChild();
         Node markerNode = null;
         boolean containsOnlySpacesSoFar = false;
@@ -24,12 +24,9 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * Get rid of control characters missed by HTMLCleaner.
@@ -43,15 +40,16 @@
 @Component
 @Named("controlcharacters")
 @Singleton
-public class ControlCharactersFilter extends AbstractHTMLFilter
+public class ControlCharactersFilter extends AbstractHTMLNodeFilter
 {
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public boolean isFilteringText()
     {
-        filterTextNodes(document);
+        return true;
     }
 
-    private void filterTestNode(Text textNode)
+    @Override
+    public void filterText(Text textNode, Map<String, String> cleaningParameters)
     {
         String text = textNode.getTextContent();
         StringBuilder cleanedText = null;
@@ -88,18 +86,4 @@ private void filterTestNode(Text textNode)
             textNode.setData(cleanedText.toString());
         }
     }
-
-    private void filterTextNodes(Node parentNode)
-    {
-        NodeList children = parentNode.getChildNodes();
-        for (int i = 0; i < children.getLength(); ++i) {
-            Node child = children.item(i);
-
-            if (child instanceof Text) {
-                filterTestNode((Text) child);
-            } else {
-                filterTextNodes(child);
-            }
-        }
-    }
 }
@@ -19,9 +19,10 @@
  */
 package org.xwiki.xml.internal.html.filter;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -29,7 +30,7 @@
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * Replaces invalid &lt;font&gt; tags with equivalent &lt;span&gt; tags using inline css rules.
@@ -40,13 +41,15 @@
 @Component
 @Named("font")
 @Singleton
-public class FontFilter extends AbstractHTMLFilter
+public class FontFilter extends AbstractHTMLNodeFilter
 {
     /**
      * A map holding the translation from 'size' attribute of html font tag to 'font-size' css property.
      */
     private static final Map<String, String> FONT_SIZE_MAP;
 
+    private static final Set<String> ELEMENT_NAMES = Collections.singleton(TAG_FONT);
+
     static {
         FONT_SIZE_MAP = new HashMap<>();
         FONT_SIZE_MAP.put("1", "0.6em");
@@ -64,39 +67,43 @@ public class FontFilter extends AbstractHTMLFilter
         FONT_SIZE_MAP.put("+3", FONT_SIZE_MAP.get("6"));
     }
 
+    @Override
+    public Set<String> getElementNames()
+    {
+        return ELEMENT_NAMES;
+    }
+
     /**
      * {@inheritDoc}
      *
      * <p>The {@link FontFilter} does not use any cleaningParameters passed in.</p>
      */
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public void filterElement(Element fontTag, Map<String, String> cleaningParameters)
     {
-        List<Element> fontTags = filterDescendants(document.getDocumentElement(), new String[] { TAG_FONT });
-        for (Element fontTag : fontTags) {
-            Element span = document.createElement(TAG_SPAN);
-            moveChildren(fontTag, span);
-            StringBuilder builder = new StringBuilder();
-            if (fontTag.hasAttribute(ATTRIBUTE_FONTCOLOR)) {
-                builder.append(String.format("color:%s;", fontTag.getAttribute(ATTRIBUTE_FONTCOLOR)));
-            }
-            if (fontTag.hasAttribute(ATTRIBUTE_FONTFACE)) {
-                builder.append(String.format("font-family:%s;", fontTag.getAttribute(ATTRIBUTE_FONTFACE)));
-            }
-            if (fontTag.hasAttribute(ATTRIBUTE_FONTSIZE)) {
-                String fontSize = fontTag.getAttribute(ATTRIBUTE_FONTSIZE);
-                String fontSizeCss = FONT_SIZE_MAP.get(fontSize);
-                fontSizeCss = (fontSizeCss != null) ? fontSizeCss : fontSize;
-                builder.append(String.format("font-size:%s;", fontSizeCss));
-            }
-            if (fontTag.hasAttribute(ATTRIBUTE_STYLE) && fontTag.getAttribute(ATTRIBUTE_STYLE).trim().length() == 0) {
-                builder.append(fontTag.getAttribute(ATTRIBUTE_STYLE));
-            }
-            if (builder.length() > 0) {
-                span.setAttribute(ATTRIBUTE_STYLE, builder.toString());
-            }
-            fontTag.getParentNode().insertBefore(span, fontTag);
-            fontTag.getParentNode().removeChild(fontTag);
+        Document document = fontTag.getOwnerDocument();
+        Element span = document.createElement(TAG_SPAN);
+        moveChildren(fontTag, span);
+        StringBuilder builder = new StringBuilder();
+        if (fontTag.hasAttribute(ATTRIBUTE_FONTCOLOR)) {
+            builder.append(String.format("color:%s;", fontTag.getAttribute(ATTRIBUTE_FONTCOLOR)));
+        }
+        if (fontTag.hasAttribute(ATTRIBUTE_FONTFACE)) {
+            builder.append(String.format("font-family:%s;", fontTag.getAttribute(ATTRIBUTE_FONTFACE)));
+        }
+        if (fontTag.hasAttribute(ATTRIBUTE_FONTSIZE)) {
+            String fontSize = fontTag.getAttribute(ATTRIBUTE_FONTSIZE);
+            String fontSizeCss = FONT_SIZE_MAP.get(fontSize);
+            fontSizeCss = (fontSizeCss != null) ? fontSizeCss : fontSize;
+            builder.append(String.format("font-size:%s;", fontSizeCss));
+        }
+        if (fontTag.hasAttribute(ATTRIBUTE_STYLE) && fontTag.getAttribute(ATTRIBUTE_STYLE).trim().length() == 0) {
+            builder.append(fontTag.getAttribute(ATTRIBUTE_STYLE));
+        }
+        if (builder.length() > 0) {
+            span.setAttribute(ATTRIBUTE_STYLE, builder.toString());
         }
+        fontTag.getParentNode().insertBefore(span, fontTag);
+        fontTag.getParentNode().removeChild(fontTag);
     }
 }
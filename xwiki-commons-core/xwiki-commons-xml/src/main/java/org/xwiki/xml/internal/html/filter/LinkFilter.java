@@ -23,17 +23,18 @@
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang3.StringUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * When a link is open in an other window or in an other frame, the loaded page has some restricted access to the
@@ -54,22 +55,22 @@
 @Component
 @Named("link")
 @Singleton
-public class LinkFilter extends AbstractHTMLFilter
+public class LinkFilter extends AbstractHTMLNodeFilter
 {
     private static final String NOOPENER = "noopener";
 
     private static final String NOREFERRER = "noreferrer";
 
+    private static final Set<String> ELEMENT_NAMES = Collections.singleton(TAG_A);
+
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public Set<String> getElementNames()
     {
-        // Iterate all links and fix them.
-        for (Element link : filterDescendants(document.getDocumentElement(), new String[] { TAG_A })) {
-            filter(link);
-        }
+        return ELEMENT_NAMES;
     }
 
-    private void filter(Element link)
+    @Override
+    public void filterElement(Element link, Map<String, String> cleaningParameters)
     {
         // Do not handle internal link
         if (!isExternalLink(link.getAttribute(ATTRIBUTE_HREF))) {
@@ -19,16 +19,19 @@
  */
 package org.xwiki.xml.internal.html.filter;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * Transform non XHTML list into XHTML valid lists. Specifically, move &lt;ul&gt; and &lt;ol&gt; elements (and any other
@@ -57,30 +60,29 @@
 @Component
 @Named("list")
 @Singleton
-public class ListFilter extends AbstractHTMLFilter
+public class ListFilter extends AbstractHTMLNodeFilter
 {
-    /**
-     * {@inheritDoc}
-     * <p>
-     * The {@link ListFilter} does not use any cleaningParameters passed in.
-     * </p>
-     */
+    private static final Set<String> ELEMENT_NAMES =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList(TAG_UL, TAG_OL)));
+
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public Set<String> getElementNames()
     {
-        // Iterate all lists and fix them.
-        for (Element list : filterDescendants(document.getDocumentElement(), new String[] { TAG_UL, TAG_OL })) {
-            filter(list);
-        }
+        return ELEMENT_NAMES;
     }
 
     /**
      * Transforms the given list in a valid XHTML list by moving the nodes that are not allowed inside &lt;ul&gt; and
      * &lt;ol&gt; in &lt;li&gt; elements.
+     * <p>
+     * The {@link ListFilter} does not use any cleaningParameters passed in.
+     * </p>
      *
      * @param list the list to be filtered
+     * @param cleaningParameters the cleaning parameters
      */
-    private void filter(Element list)
+    @Override
+    public void filterElement(Element list, Map<String, String> cleaningParameters)
     {
         // Iterate all the child nodes of the given list to see who's allowed and who's not allowed inside it.
         Node child = list.getFirstChild();
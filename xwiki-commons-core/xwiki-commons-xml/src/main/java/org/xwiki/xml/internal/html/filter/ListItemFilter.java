@@ -19,16 +19,17 @@
  */
 package org.xwiki.xml.internal.html.filter;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.xml.html.filter.AbstractHTMLFilter;
+import org.xwiki.xml.html.filter.AbstractHTMLNodeFilter;
 
 /**
  * If &lt;li&gt; elements have no &lt;ul&gt; or &lt;ol&gt; parent then add a &lt;ul&gt; parent to make it valid.
@@ -39,29 +40,34 @@
 @Component
 @Named("listitem")
 @Singleton
-public class ListItemFilter extends AbstractHTMLFilter
+public class ListItemFilter extends AbstractHTMLNodeFilter
 {
+    private static final Set<String> ELEMENT_NAMES = Collections.singleton(TAG_LI);
+
+    @Override
+    public Set<String> getElementNames()
+    {
+        return ELEMENT_NAMES;
+    }
+
     @Override
-    public void filter(Document document, Map<String, String> cleaningParameters)
+    public void filterElement(Element listItem, Map<String, String> cleaningParameters)
     {
-        // Iterate all lists and fix them.
-        for (Element listItem : filterDescendants(document.getDocumentElement(), new String[] { TAG_LI })) {
-            Node parent = listItem.getParentNode();
-            if (parent != null && (!parent.getNodeName().equalsIgnoreCase(TAG_UL)
-                && !parent.getNodeName().equalsIgnoreCase(TAG_OL)))
-            {
-                // Add a UL parent
-                Element newUL = listItem.getOwnerDocument().createElement(TAG_UL);
-                parent.replaceChild(newUL, listItem);
-                newUL.appendChild(listItem);
+        Node parent = listItem.getParentNode();
+        if (parent != null && (!parent.getNodeName().equalsIgnoreCase(TAG_UL)
+            && !parent.getNodeName().equalsIgnoreCase(TAG_OL)))
+        {
+            // Add a UL parent
+            Element newUL = listItem.getOwnerDocument().createElement(TAG_UL);
+            parent.replaceChild(newUL, listItem);
+            newUL.appendChild(listItem);
 
-                // If the parent is a <p> then remove it. HTMLCleaner will clean "<li></li>" by wrapping it in a
-                // paragraph: "<p><li></li></p>". Since this isn't valid XHTML we need to remove the <p>.
-                if (parent.getNodeName().equalsIgnoreCase(TAG_P)) {
-                    Node parentOfParent = parent.getParentNode();
-                    if (parentOfParent != null) {
-                        parentOfParent.replaceChild(newUL, parent);
-                    }
+            // If the parent is a <p> then remove it. HTMLCleaner will clean "<li></li>" by wrapping it in a
+            // paragraph: "<p><li></li></p>". Since this isn't valid XHTML we need to remove the <p>.
+            if (parent.getNodeName().equalsIgnoreCase(TAG_P)) {
+                Node parentOfParent = parent.getParentNode();
+                if (parentOfParent != null) {
+                    parentOfParent.replaceChild(newUL, parent);
                 }
             }
         }
@@ -19,6 +19,8 @@
  */
 package org.xwiki.xml;
 
+import java.io.IOException;
+
 import org.apache.html.dom.HTMLDocumentImpl;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Element;
@@ -138,6 +140,34 @@ void escapeElementContent()
         assertFalse(escapedText.contains("&&"), "Failed to escape &");
     }
 
+    @Test
+    void escapeWhenNothingToEscape()
+    {
+        String content = "nothing to escape \u0123";
+
+        assertSame(content, XMLUtils.escapeAttributeValue(content));
+        assertSame(content, XMLUtils.escapeElementContent(content));
+        assertSame(content, XMLUtils.escapeXMLComment(content));
+        assertSame(content, XMLUtils.unescape(content));
+    }
+
+    @Test
+    void escapeToAppendable() throws IOException
+    {
+        StringBuilder builder = new StringBuilder("prefix ");
+
+        XMLUtils.escapeAttributeValue("a<'b'>&\"{c}", builder);
+        assertEquals("prefix a&#60;&#39;b&#39;&#62;&#38;&#34;&#123;c}", builder.toString());
+
+        builder.setLength(0);
+        XMLUtils.escapeElementContent("<a href='b'>{c}</a>&", builder);
+        assertEquals("&#60;a href='b'&#62;{c}&#60;/a&#62;&#38;", builder.toString());
+
+        builder.setLength(0);
+        XMLUtils.escapeXMLComment("a--b\\c-", builder);
+        assertEquals("a-\\-b\\\\c-\\", builder.toString());
+    }
+
     @Test
     void escapeElementContentEmptyString()
     {
@@ -20,17 +20,25 @@
 package org.xwiki.xml.html;
 
 import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Result;
 
 import org.apache.xerces.dom.DocumentImpl;
+import org.jdom.input.DOMBuilder;
+import org.jdom.output.Format;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.context.internal.DefaultExecution;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.xml.internal.html.DefaultHTMLCleaner;
 import org.xwiki.xml.internal.html.DefaultHTMLCleanerTest;
+import org.xwiki.xml.internal.html.XHTMLDocumentSerializer;
 import org.xwiki.xml.internal.html.filter.AttributeFilter;
 import org.xwiki.xml.internal.html.filter.BodyFilter;
 import org.xwiki.xml.internal.html.filter.ControlCharactersFilter;
@@ -40,6 +48,8 @@
 import org.xwiki.xml.internal.html.filter.ListItemFilter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit tests for {@link org.xwiki.xml.html.HTMLUtils}.
@@ -96,4 +106,67 @@ void testCornerCases()
         assertEquals(DefaultHTMLCleanerTest.HEADER + "<html><head></head><body foo=\"\"></body></html>\n",
             HTMLUtils.toString(document));
     }
+
+    @Test
+    void toStringWithCleanedDocument() throws Exception
+    {
+        Document document = this.cleaner.clean(new StringReader("<html><head><title>a &amp; b</title></head>"
+            + "<body><p class=\"x\ty\" title='&quot;&lt;&#65;&#x42;'>a&#13;b\r\nc &lt;&gt; &#233; &#x1F600;"
+            + "<br/><img src=\"a.png\"><span></span><!--comment--></p><table><tr><td>1</td></tr></table>"
+            + "<svg xmlns=\"http://www.w3.org/2000/svg\"><rect width=\"1\"/></svg></body></html>"));
+
+        assertTrue(XHTMLDocumentSerializer.isSupported(document));
+        assertSameAsJDOM(document);
+    }
+
+    @Test
+    void toStringWithBuiltDocument() throws Exception
+    {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element html = document.createElementNS("http://www.w3.org/1999/xhtml", "html");
+        html.setAttribute("xmlns", "http://www.w3.org/1999/xhtml");
+        html.setAttribute("title", "<>\"&\r\n\t&#65;&#xD;&amp;#66;\uD83D\uDE00");
+        document.appendChild(html);
+        Element p = document.createElement("p");
+        p.appendChild(document.createTextNode("<>\"&\r\n\t&#65;&#xD;&#xd;&#x;&#;&amp;#66;\uD83D\uDE00\u00E9"));
+        p.appendChild(document.createCDATASection("<&>"));
+        p.appendChild(document.createComment("comment"));
+        html.appendChild(p);
+        Element span = document.createElement("span");
+        span.setAttribute("xmlns", "");
+        span.appendChild(document.createTextNode(""));
+        html.appendChild(span);
+        html.appendChild(document.createElement("br"));
+        html.appendChild(document.createElement("div"));
+
+        assertTrue(XHTMLDocumentSerializer.isSupported(document));
+        assertSameAsJDOM(document);
+
+        html.appendChild(document.createProcessingInstruction(Result.PI_DISABLE_OUTPUT_ESCAPING, ""));
+        html.appendChild(document.createElement("o:p"));
+        html.appendChild(document.createTextNode("<&>"));
+
+        assertFalse(XHTMLDocumentSerializer.isSupported(document));
+        assertSameAsJDOM(document);
+    }
+
+    private void assertSameAsJDOM(Document document) throws Exception
+    {
+        for (boolean omitDeclaration : new boolean[] { false, true }) {
+            for (boolean omitDoctype : new boolean[] { false, true }) {
+                Format format = Format.getRawFormat();
+                format.setLineSeparator("\n");
+                format.setExpandEmptyElements(true);
+                format.setOmitDeclaration(omitDeclaration);
+                String expected = new HTMLUtils.XWikiXMLOutputter(format, omitDoctype)
+                    .outputString(new DOMBuilder().build(document));
+
+                assertEquals(expected, HTMLUtils.toString(document, omitDeclaration, omitDoctype));
+
+                StringWriter writer = new StringWriter();
+                HTMLUtils.toString(document, writer, omitDeclaration, omitDoctype);
+                assertEquals(expected, writer.toString());
+            }
+        }
+    }
 }
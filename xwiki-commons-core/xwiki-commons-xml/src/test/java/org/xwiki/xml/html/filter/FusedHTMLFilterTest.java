@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.html.filter;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Text;
+import org.xml.sax.InputSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link FusedHTMLFilter}.
+ *
+ * @version $Id$
+ */
+class FusedHTMLFilterTest
+{
+    private final List<String> events = new ArrayList<>();
+
+    private class RecordingFilter extends AbstractHTMLNodeFilter
+    {
+        private final String id;
+
+        private final Set<String> elementNames;
+
+        private final Set<String> attributeNames;
+
+        private final boolean text;
+
+        RecordingFilter(String id, Set<String> elementNames, Set<String> attributeNames, boolean text)
+        {
+            this.id = id;
+            this.elementNames = elementNames;
+            this.attributeNames = attributeNames;
+            this.text = text;
+        }
+
+        @Override
+        public Set<String> getElementNames()
+        {
+            return this.elementNames;
+        }
+
+        @Override
+        public Set<String> getAttributeNames()
+        {
+            return this.attributeNames;
+        }
+
+        @Override
+        public boolean isFilteringText()
+        {
+            return this.text;
+        }
+
+        @Override
+        public void filterElement(Element element, Map<String, String> cleaningParameters)
+        {
+            events.add(this.id + ":<" + element.getNodeName() + '>');
+        }
+
+        @Override
+        public void filterAttribute(Attr attribute, Map<String, String> cleaningParameters)
+        {
+            events.add(this.id + ":@" + attribute.getName());
+        }
+
+        @Override
+        public void filterText(Text text, Map<String, String> cleaningParameters)
+        {
+            events.add(this.id + ':' + text.getData());
+        }
+    }
+
+    private Document parse(String xml) throws Exception
+    {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+
+    @Test
+    void filter() throws Exception
+    {
+        Document document = parse("<html><body><p align=\"left\">a<b>b</b></p><ul><li>c</li></ul></body></html>");
+
+        HTMLNodeFilter first = new RecordingFilter("1", new HashSet<>(Arrays.asList("p", "li")),
+            Collections.singleton("align"), false);
+        HTMLNodeFilter second = new RecordingFilter("2", Collections.singleton("b"), Collections.emptySet(), true);
+        FusedHTMLFilter fused = new FusedHTMLFilter(Arrays.asList(first, second));
+
+        Map<HTMLFilter, Long> timings = new HashMap<>();
+        fused.filter(document, Collections.emptyMap(), timings);
+
+        // Filters are called one after the other, each with the nodes in document order
+        assertEquals(Arrays.asList("1:<p>", "1:@align", "1:<li>", "2:a", "2:<b>", "2:b", "2:c"), this.events);
+
+        assertEquals(3, timings.size());
+        assertTrue(timings.containsKey(fused));
+        assertTrue(timings.containsKey(first));
+        assertTrue(timings.containsKey(second));
+    }
+
+    @Test
+    void filterWithSingleFilter() throws Exception
+    {
+        Document document = parse("<html><body>text</body></html>");
+
+        new RecordingFilter("1", Collections.singleton("body"), Collections.emptySet(), true).filter(document,
+            Collections.emptyMap());
+
+        assertEquals(Arrays.asList("1:<body>", "1:text"), this.events);
+    }
+}
@@ -40,6 +40,7 @@
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.xml.html.HTMLCleanerConfiguration;
 import org.xwiki.xml.html.HTMLUtils;
+import org.xwiki.xml.html.filter.FusedHTMLFilter;
 import org.xwiki.xml.html.filter.HTMLFilter;
 import org.xwiki.xml.internal.html.filter.AttributeFilter;
 import org.xwiki.xml.internal.html.filter.BodyFilter;
@@ -51,6 +52,7 @@
 import org.xwiki.xml.internal.html.filter.UniqueIdFilter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit tests for {@link DefaultHTMLCleaner}.
@@ -256,6 +258,23 @@ void explicitFilterList()
         assertEquals(HEADER_FULL + "something" + FOOTER, result);
     }
 
+    @Test
+    void filterTimings()
+    {
+        HTMLCleanerConfiguration configuration = this.cleaner.getDefaultConfiguration();
+        configuration.setParameters(Collections.singletonMap(HTMLCleanerConfiguration.FILTER_TIMINGS, "true"));
+        String result = HTMLUtils.toString(this.cleaner.clean(new StringReader("<font size=\"2\">x</font>"),
+            configuration));
+
+        assertEquals(HEADER_FULL + "<p><span style=\"font-size:0.8em;\">x</span></p>" + FOOTER, result);
+
+        Map<String, String> parameters = configuration.getParameters();
+        for (HTMLFilter filter : configuration.getFilters()) {
+            assertTrue(Long.parseLong(parameters.get("filterTimings." + filter.getClass().getName())) >= 0);
+        }
+        assertTrue(parameters.containsKey("filterTimings." + FusedHTMLFilter.class.getName()));
+    }
+
     /**
      * Verify that the restricted parameter works.
      */